@@ -1,6 +1,14 @@
 package application;
 
-import application.property.Property;
+import java.io.IOException;
+import java.util.Arrays;
+
+import application.engine.DataStore;
+import application.engine.DataStoreView;
+import application.engine.DataStoreWatcher;
+import application.engine.QueryContext;
+import application.property.PropertyLoader;
+import application.report.ReportGenerator;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -35,40 +43,39 @@ public class RentalService extends Application {
 	private static Scene currentScene = null;
 
 	/**
-	 * The data store handling all the properties within the software.
-	 */
-	private static DataStore dataStore;
-
-	/**
-	 * The minimum price selected by the user.
-	 * Default value is -1.
-	 */
-	public static int MINIMUM_PRICE_SELECTED = -1;
-
-	/**
-	 * The maximum price selected by the user.
-	 * Default value is -1.
+	 * Holds the data store handling all the properties within the software, reloading it when the csv file changes.
 	 */
-	public static int MAXIMUM_PRICE_SELECTED = -1;
+	private static DataStoreWatcher dataStoreWatcher;
 
 	/**
-	 * The selected borough by the user from the map screen.
-	 * Default value is null.
+	 * What the user of the application has selected: the price range on the welcome screen, the borough on the map screen
+	 * and the property in a table of properties. Selecting something swaps in a new context, see QueryContext.
 	 */
-	public static String SELECTED_BOROUGH = null;
-
-	/**
-	 * The property selected by the user from a list of properties displayed in a table view.
-	 */
-	public static Property SELECTED_PROPERTY = null;
+	private static volatile QueryContext queryContext = QueryContext.EMPTY;
 
 	/**
 	 * The main method.
+	 * With --report as the first argument, writes a report with the other arguments instead of opening the screens, see ReportGenerator.
 	 * @param args - the arguments.
 	 */
 	public static void main(String[] args) { 
+		if (args.length > 0 && args[0].equals("--report")) {
+			try {
+				ReportGenerator.main(Arrays.copyOfRange(args, 1, args.length));
+			} catch (IOException e) {
+				System.out.println("Could not write the report.");
+				e.printStackTrace();
+			}
+			return;
+		}
 		System.out.println("Launching rental service...");
-		dataStore = new DataStore();
+		dataStoreWatcher = new DataStoreWatcher(PropertyLoader.LONDON_PROPERTIES, null);
+		try {
+			dataStoreWatcher.start();
+		} catch (IOException e) {
+			System.out.println("Could not watch the csv file, changes will be picked up on restart.");
+			e.printStackTrace();
+		}
 		launch(args);
 	}
 
@@ -133,7 +140,7 @@ public class RentalService extends Application {
 			popUpStage.setResizable(false);
 			popUpStage.setX(mainStage.getX() + 250);
 			popUpStage.setY(mainStage.getY() - 50);
-			popUpStage.setTitle(dataStore.getProperties(SELECTED_BOROUGH).get(0).getNeighbourhood());
+			popUpStage.setTitle(getDataStore().getBoroughName(queryContext.getBorough()));
 			popUpStage.setScene(new Scene(FXMLLoader.load(RentalService.class.getResource("BoroughInfo.fxml"))));
 			popUpStage.show();
 			addCSS(popUpStage.getScene());
@@ -233,9 +240,36 @@ public class RentalService extends Application {
 
 	/**
 	 * Get the data store for this rental service.
+	 * The data store is swapped for a new one when the csv file changes, so a screen making several queries that must agree
+	 * should get the data store once and keep it.
 	 * @return - the data store.
 	 */
 	public static DataStore getDataStore() {
-		return dataStore;
+		return dataStoreWatcher.get();
+	}
+
+	/**
+	 * Get what the user has selected.
+	 * @return - the query context.
+	 */
+	public static QueryContext getQueryContext() {
+		return queryContext;
+	}
+
+	/**
+	 * Sets what the user has selected.
+	 * @param context - the query context.
+	 */
+	public static void setQueryContext(QueryContext context) {
+		queryContext = context;
+	}
+
+	/**
+	 * Get the view of the current data store for the price range selected by the user.
+	 * A screen making several queries that must agree should get the view once and keep it, as for the data store.
+	 * @return - the view.
+	 */
+	public static DataStoreView getView() {
+		return getDataStore().view(queryContext);
 	}
 } 
@@ -0,0 +1,84 @@
+package application.benchmark;
+
+import java.util.Collections;
+import java.util.List;
+
+import application.engine.DataStore;
+import application.query.PriceBands;
+import application.query.RangeQuery;
+import application.query.RangeStatistics;
+
+/**
+ * Compares answering range queries one at a time with answering them in one batch, sharing a single pass.
+ * The queries are every price range between two prices of the price selectors, for every borough and for each borough.
+ * Run with the number of rows as the first argument (default 100,000).
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public class BatchQueryBenchmark {
+
+	/**
+	 * The number of timed repetitions of each case, after the same number of warm up repetitions.
+	 */
+	private static final int REPETITIONS = 5;
+
+	/**
+	 * Stops the JIT from removing the benchmarked code, every result is added to it.
+	 */
+	private static long blackhole;
+
+	/**
+	 * Runs the benchmark.
+	 * @param args - the arguments, the first one being the number of rows.
+	 */
+	public static void main(String[] args) {
+		int size = BenchmarkData.size(args, 100_000);
+		DataStore dataStore = new DataStore(BenchmarkData.generate(size, 42));
+		List<RangeQuery> queries = RangeQuery.grid(PriceBands.boundaries(), dataStore.getBoroughNames());
+		System.out.println("Batch query benchmark over " + size + " properties, " + queries.size() + " queries.");
+
+		time("one query at a time", () -> {
+			long count = 0;
+			for (RangeQuery query : queries) {
+				count += dataStore.query(Collections.singletonList(query)).get(0).getCount();
+			}
+			return count;
+		});
+		time("one batch", () -> {
+			long count = 0;
+			for (RangeStatistics statistics : dataStore.query(queries)) {
+				count += statistics.getCount();
+			}
+			return count;
+		});
+		System.out.println("(ignore) " + blackhole);
+	}
+
+	/**
+	 * Times a case and prints the average time per repetition.
+	 * @param name - the name of the case.
+	 * @param task - the case.
+	 */
+	private static void time(String name, Task task) {
+		for (int i = 0; i < REPETITIONS; i++) {
+			blackhole += task.run();
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < REPETITIONS; i++) {
+			blackhole += task.run();
+		}
+		double millis = (System.nanoTime() - start) / 1e6 / REPETITIONS;
+		System.out.println(String.format("%-32s %10.3f ms", name, millis));
+	}
+
+	/**
+	 * A benchmarked case.
+	 */
+	private interface Task {
+
+		/**
+		 * Runs the case once.
+		 * @return - a value derived from the result.
+		 */
+		long run();
+	}
+}
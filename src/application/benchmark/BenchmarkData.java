@@ -0,0 +1,67 @@
+package application.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import application.property.Property;
+
+/**
+ * Generates synthetic properties for the benchmarks.
+ * The benchmarks do not read the csv file so they can be run with any number of rows.
+ * The values follow the ranges of the London data set (prices £5 to £7000, 33 boroughs, three room types).
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public final class BenchmarkData {
+
+	/**
+	 * The boroughs used for the generated properties.
+	 */
+	public static final String[] BOROUGHS = {"Barking and Dagenham", "Barnet", "Bexley", "Brent", "Bromley", "Camden", "City of London",
+			"Croydon", "Ealing", "Enfield", "Greenwich", "Hackney", "Hammersmith and Fulham", "Haringey", "Harrow", "Havering", "Hillingdon",
+			"Hounslow", "Islington", "Kensington and Chelsea", "Kingston upon Thames", "Lambeth", "Lewisham", "Merton", "Newham", "Redbridge",
+			"Richmond upon Thames", "Southwark", "Sutton", "Tower Hamlets", "Waltham Forest", "Wandsworth", "Westminster"};
+
+	/**
+	 * The room types used for the generated properties.
+	 */
+	public static final String[] ROOM_TYPES = {"Private room", "Entire home/apt", "Shared room"};
+
+	/**
+	 * Not instantiable.
+	 */
+	private BenchmarkData() {
+	}
+
+	/**
+	 * Generates a list of properties.
+	 * The same seed always generates the same properties.
+	 * @param size - the number of properties.
+	 * @param seed - the random seed.
+	 * @return - the list of properties.
+	 */
+	public static List<Property> generate(int size, long seed) {
+		Random random = new Random(seed);
+		List<Property> properties = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			int hostId = 1 + random.nextInt(Math.max(1, size / 3));
+			int price = random.nextBoolean() ? 10 + random.nextInt(290) : 5 + random.nextInt(6996);
+			String lastReview = random.nextInt(5) == 0 ? "" : String.format("%02d/%02d/%d", 1 + random.nextInt(28), 1 + random.nextInt(12), 2012 + random.nextInt(6));
+			properties.add(new Property(Integer.toString(1000 + i), "Property " + i, Integer.toString(hostId), "Host" + (hostId % 500),
+					BOROUGHS[random.nextInt(BOROUGHS.length)], 51.3 + random.nextDouble() * 0.4, -0.5 + random.nextDouble() * 0.8,
+					ROOM_TYPES[random.nextInt(ROOM_TYPES.length)], price, 1 + random.nextInt(60), random.nextInt(200), lastReview,
+					random.nextDouble() * 5, 1 + random.nextInt(10), random.nextInt(366)));
+		}
+		return properties;
+	}
+
+	/**
+	 * Reads the number of rows from the first command line argument.
+	 * @param args - the command line arguments.
+	 * @param defaultSize - the size used when no argument is given.
+	 * @return - the number of rows.
+	 */
+	public static int size(String[] args, int defaultSize) {
+		return args.length > 0 ? Integer.parseInt(args[0]) : defaultSize;
+	}
+}
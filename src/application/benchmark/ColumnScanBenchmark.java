@@ -0,0 +1,104 @@
+package application.benchmark;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import application.property.Property;
+import application.property.PropertyColumns;
+import application.query.ColumnScan;
+
+/**
+ * Compares the column scan kernels with the stream and for-each loops they replaced in the data store.
+ * Run with the number of rows as the first argument (default 1,000,000).
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public class ColumnScanBenchmark {
+
+	/**
+	 * The number of timed repetitions of each case, after the same number of warm up repetitions.
+	 */
+	private static final int REPETITIONS = 20;
+
+	/**
+	 * Stops the JIT from removing the benchmarked code, every result is added to it.
+	 */
+	private static long blackhole;
+
+	/**
+	 * Runs the benchmark.
+	 * @param args - the arguments, the first one being the number of rows.
+	 */
+	public static void main(String[] args) {
+		int size = BenchmarkData.size(args, 1_000_000);
+		List<Property> properties = BenchmarkData.generate(size, 42);
+		PropertyColumns columns = new PropertyColumns(properties);
+		int[] selection = new int[size];
+		int selected = ColumnScan.selectRange(columns.getPrices(), 50, 200, selection);
+		List<Property> propertiesWithinRange = properties.stream().filter(property -> property.getPrice() >= 50 && property.getPrice() <= 200)
+				.collect(Collectors.toList());
+		System.out.println("Column scan benchmark over " + size + " properties, " + selected + " within £50-£200.");
+
+		time("price range, stream filter", () -> properties.stream()
+				.filter(property -> property.getPrice() >= 50 && property.getPrice() <= 200).distinct().collect(Collectors.toList()).size());
+		time("price range, column select", () -> ColumnScan.selectRange(columns.getPrices(), 50, 200, selection));
+
+		time("available count, for-each", () -> {
+			int count = 0;
+			for (Property property : propertiesWithinRange) {
+				if (property.getAvailability365() > 0) {
+					count++;
+				}
+			}
+			return count;
+		});
+		time("available count, column scan", () -> ColumnScan.countRange(columns.getAvailability365(), selection, selected, 1, Integer.MAX_VALUE));
+
+		time("reviews sum, for-each", () -> {
+			long sum = 0;
+			for (Property property : propertiesWithinRange) {
+				sum += property.getNumberOfReviews();
+			}
+			return sum;
+		});
+		time("reviews sum, column scan", () -> ColumnScan.sum(columns.getNumberOfReviews(), selection, selected));
+
+		time("longest stay, for-each", () -> {
+			int max = 0;
+			for (Property property : propertiesWithinRange) {
+				max = Math.max(max, property.getMinimumNights());
+			}
+			return max;
+		});
+		time("longest stay, column scan", () -> ColumnScan.max(columns.getMinimumNights(), selection, selected));
+		System.out.println("(ignore) " + blackhole);
+	}
+
+	/**
+	 * Times a case and prints the average time per repetition.
+	 * @param name - the name of the case.
+	 * @param task - the case.
+	 */
+	private static void time(String name, Task task) {
+		for (int i = 0; i < REPETITIONS; i++) {
+			blackhole += task.run();
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < REPETITIONS; i++) {
+			blackhole += task.run();
+		}
+		double millis = (System.nanoTime() - start) / 1e6 / REPETITIONS;
+		System.out.println(String.format("%-32s %8.3f ms", name, millis));
+	}
+
+	/**
+	 * A benchmarked case.
+	 */
+	private interface Task {
+
+		/**
+		 * Runs the case once.
+		 * @return - a value derived from the result.
+		 */
+		long run();
+	}
+}
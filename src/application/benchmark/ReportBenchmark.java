@@ -0,0 +1,67 @@
+package application.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+
+import application.property.Property;
+import application.property.PropertyLoader;
+import application.query.PriceBands;
+import application.report.ReportGenerator;
+
+/**
+ * Writes a csv file of generated properties and times the report over it, printing the peak heap used,
+ * which stays about the same whatever the number of rows. Run with a small heap, e.g. -Xmx64m, to check the bound.
+ * Run with the number of rows as the first argument (default 1,000,000, the report aims at 10,000,000).
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public class ReportBenchmark {
+
+	/**
+	 * The number of properties generated at a time, so the generator does not hold the whole file either.
+	 */
+	private static final int CHUNK_SIZE = 100_000;
+
+	/**
+	 * Runs the benchmark.
+	 * @param args - the arguments, the first one being the number of rows.
+	 * @throws IOException - if a file cannot be written.
+	 */
+	public static void main(String[] args) throws IOException {
+		int size = BenchmarkData.size(args, 1_000_000);
+		File input = File.createTempFile("properties", ".csv");
+		input.deleteOnExit();
+		File output = File.createTempFile("report", ".csv");
+		output.deleteOnExit();
+		try (Writer writer = new BufferedWriter(new FileWriter(input), 1 << 16)) {
+			writer.write("id,name,host_id,host_name,neighbourhood,latitude,longitude,room_type,price,minimum_nights,number_of_reviews,"
+					+ "last_review,reviews_per_month,calculated_host_listings_count,availability_365\n");
+			for (int chunk = 0; chunk * CHUNK_SIZE < size; chunk++) {
+				for (Property property : BenchmarkData.generate(Math.min(CHUNK_SIZE, size - chunk * CHUNK_SIZE), chunk)) {
+					writer.write(String.join(",", PropertyLoader.toLine(property)));
+					writer.write('\n');
+				}
+			}
+		}
+		System.out.println("Report benchmark over " + size + " properties, " + (input.length() >> 20) + " MB.");
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			pool.resetPeakUsage();
+		}
+		System.gc();
+		new ReportGenerator(input.getPath(), output.getPath(), "csv", PriceBands.boundaries(), null).generate();
+		long peak = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				peak += pool.getPeakUsage().getUsed();
+			}
+		}
+		System.out.println("Peak heap used " + (peak >> 20) + " MB of " + (Runtime.getRuntime().maxMemory() >> 20) + " MB.");
+		input.delete();
+		output.delete();
+	}
+}
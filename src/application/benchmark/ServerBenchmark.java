@@ -0,0 +1,162 @@
+package application.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import application.engine.DataStore;
+import application.property.Property;
+import application.server.QueryServer;
+
+/**
+ * Measures the requests a second and the latency of the query server, serving generated properties on this machine.
+ * Each client keeps its connection open and asks in turn for the summary of a price range, the boroughs, a borough and a listing,
+ * first for the whole response every time and then, as a client keeping the responses would, naming the tag of the response it has.
+ * Run with the number of rows, the seconds of each phase and the number of clients (default 100,000, 5 and 16).
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public class ServerBenchmark {
+
+	/**
+	 * The price ranges asked for.
+	 */
+	private static final int[][] PRICE_RANGES = {{0, 50}, {50, 200}, {100, 300}, {200, 7000}};
+
+	/**
+	 * The most latencies each client keeps.
+	 */
+	private static final int MAXIMUM_SAMPLES = 1 << 20;
+
+	/**
+	 * Stops the JIT from removing the benchmarked code, every response length is added to it.
+	 */
+	private static final AtomicLong blackhole = new AtomicLong();
+
+	/**
+	 * Runs the benchmark.
+	 * @param args - the arguments, the number of rows, seconds of each phase and clients.
+	 * @throws IOException - if the server could not be started.
+	 * @throws InterruptedException - if interrupted while waiting for the clients.
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		int size = BenchmarkData.size(args, 100_000);
+		int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		int clients = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+		//Otherwise only 5 connections are kept open and the other clients connect again for each request.
+		System.setProperty("http.maxConnections", String.valueOf(clients));
+		List<Property> properties = BenchmarkData.generate(size, 42);
+		DataStore dataStore = new DataStore(properties);
+		QueryServer server = new QueryServer(() -> dataStore);
+		server.start(0);
+		System.out.println("Server benchmark over " + size + " properties, " + clients + " clients, " + seconds + " s a phase.");
+		run(server, properties, 1, clients, false, "warm up");
+		run(server, properties, seconds, clients, false, "whole responses");
+		run(server, properties, seconds, clients, true, "conditional requests");
+		server.stop();
+		System.out.println("(ignore) " + blackhole.get());
+	}
+
+	/**
+	 * Runs a phase and prints the requests a second and their latencies.
+	 * @param server - the server.
+	 * @param properties - the properties, whose listings are asked for.
+	 * @param seconds - the length of the phase.
+	 * @param clients - the number of clients.
+	 * @param conditional - true for the clients to name the tag of the response they have.
+	 * @param name - the name of the phase.
+	 * @throws InterruptedException - if interrupted while waiting for the clients.
+	 */
+	private static void run(QueryServer server, List<Property> properties, int seconds, int clients, boolean conditional, String name)
+			throws InterruptedException {
+		long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+		long[][] latencies = new long[clients][MAXIMUM_SAMPLES];
+		long[] requests = new long[clients];
+		long[] notModified = new long[clients];
+		Thread[] threads = new Thread[clients];
+		for (int i = 0; i < clients; i++) {
+			int client = i;
+			threads[i] = new Thread(() -> {
+				Random random = new Random(client);
+				String[] tags = new String[4];
+				long length = 0;
+				try {
+					while (System.nanoTime() < deadline) {
+						int kind = (int) (requests[client] % tags.length);
+						int[] range = PRICE_RANGES[random.nextInt(PRICE_RANGES.length)];
+						String path;
+						switch (kind) {
+						case 0:
+							path = "/summary?minimum=" + range[0] + "&maximum=" + range[1];
+							break;
+						case 1:
+							path = "/boroughs?minimum=" + range[0] + "&maximum=" + range[1];
+							break;
+						case 2:
+							path = "/boroughs/" + BenchmarkData.BOROUGHS[random.nextInt(BenchmarkData.BOROUGHS.length)].replace(" ", "%20")
+									+ "?minimum=" + range[0] + "&maximum=" + range[1];
+							break;
+						default:
+							path = "/listings/" + properties.get(random.nextInt(properties.size())).getId();
+						}
+						long start = System.nanoTime();
+						HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + server.getPort() + path).openConnection();
+						if (conditional && tags[kind] != null) {
+							connection.setRequestProperty("If-None-Match", tags[kind]);
+						}
+						int status = connection.getResponseCode();
+						if (status == 304) {
+							notModified[client]++;
+						} else {
+							tags[kind] = connection.getHeaderField("ETag");
+							try (InputStream in = connection.getInputStream()) {
+								length += in.readAllBytes().length;
+							}
+						}
+						latencies[client][(int) (requests[client] % MAXIMUM_SAMPLES)] = System.nanoTime() - start;
+						requests[client]++;
+					}
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+				blackhole.addAndGet(length);
+			});
+		}
+		long start = System.nanoTime();
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		double elapsed = (System.nanoTime() - start) / 1e9;
+		long[] all = new long[0];
+		long totalRequests = 0;
+		long totalNotModified = 0;
+		for (int i = 0; i < clients; i++) {
+			int kept = (int) Math.min(requests[i], MAXIMUM_SAMPLES);
+			all = Arrays.copyOf(all, all.length + kept);
+			System.arraycopy(latencies[i], 0, all, all.length - kept, kept);
+			totalRequests += requests[i];
+			totalNotModified += notModified[i];
+		}
+		Arrays.sort(all);
+		System.out.println(name + ":");
+		System.out.println(String.format("  requests %10.0f /s, latency p50 %8.1f us, p99 %8.1f us, max %8.1f us, %d not modified", totalRequests / elapsed,
+				percentile(all, 0.5) / 1e3, percentile(all, 0.99) / 1e3, all.length == 0 ? 0 : all[all.length - 1] / 1e3, totalNotModified));
+	}
+
+	/**
+	 * Get a percentile of sorted values.
+	 * @param sorted - the values, sorted.
+	 * @param fraction - the fraction of values below the percentile, e.g. 0.99.
+	 * @return - the percentile, 0 if there are no values.
+	 */
+	private static double percentile(long[] sorted, double fraction) {
+		return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, Math.round(fraction * (sorted.length - 1)))];
+	}
+}
@@ -0,0 +1,155 @@
+package application.benchmark;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import application.engine.DataStore;
+import application.engine.DataStoreWriter;
+import application.property.Delta;
+import application.property.Property;
+
+/**
+ * Measures the write throughput of the data store writer and the latency of readers, first with readers alone and then with writers as well.
+ * Each writer updates the price of random listings, keeping up to IN_FLIGHT writes waiting, and each reader repeatedly takes the current
+ * data store and queries the price range, a listing by id and the total nightly price.
+ * Run with the number of rows, the seconds of each phase, the number of readers and the number of writers (default 100,000, 5, 4 and 2).
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public class WriteBenchmark {
+
+	/**
+	 * The most writes each writer keeps waiting.
+	 */
+	private static final int IN_FLIGHT = 2048;
+
+	/**
+	 * The most latencies each reader keeps.
+	 */
+	private static final int MAXIMUM_SAMPLES = 1 << 20;
+
+	/**
+	 * Stops the JIT from removing the benchmarked code, every result is added to it.
+	 */
+	private static final AtomicLong blackhole = new AtomicLong();
+
+	/**
+	 * Runs the benchmark.
+	 * @param args - the arguments, the number of rows, seconds of each phase, readers and writers.
+	 * @throws InterruptedException - if interrupted while waiting for the threads.
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		int size = BenchmarkData.size(args, 100_000);
+		int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		int readers = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+		int writers = args.length > 3 ? Integer.parseInt(args[3]) : 2;
+		List<Property> properties = BenchmarkData.generate(size, 42);
+		DataStore dataStore = new DataStore(properties);
+		DataStoreWriter writer = new DataStoreWriter(dataStore, null);
+		writer.start();
+		System.out.println("Write benchmark over " + size + " properties, " + readers + " readers and " + writers + " writers, " + seconds + " s a phase.");
+		run(writer, properties, seconds, readers, 0, "readers alone");
+		run(writer, properties, seconds, readers, writers, "readers and writers");
+		writer.stop();
+		System.out.println("(ignore) " + blackhole.get());
+	}
+
+	/**
+	 * Runs a phase and prints the write throughput and the read latencies.
+	 * @param writer - the data store writer.
+	 * @param properties - the properties the writers update.
+	 * @param seconds - the length of the phase.
+	 * @param readers - the number of readers.
+	 * @param writers - the number of writers.
+	 * @param name - the name of the phase.
+	 * @throws InterruptedException - if interrupted while waiting for the threads.
+	 */
+	private static void run(DataStoreWriter writer, List<Property> properties, int seconds, int readers, int writers, String name) throws InterruptedException {
+		long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+		long[][] latencies = new long[readers][MAXIMUM_SAMPLES];
+		int[] samples = new int[readers];
+		long[] reads = new long[readers];
+		Thread[] threads = new Thread[readers + writers];
+		for (int i = 0; i < readers; i++) {
+			int reader = i;
+			threads[i] = new Thread(() -> {
+				Random random = new Random(reader);
+				long sum = 0;
+				while (System.nanoTime() < deadline) {
+					long start = System.nanoTime();
+					DataStore dataStore = writer.get();
+					sum += dataStore.getNumberOfProperties(50, 200);
+					Property property = dataStore.getProperty(properties.get(random.nextInt(properties.size())).getId());
+					sum += property == null ? 0 : property.getPrice();
+					sum += dataStore.getTotalNightlyPrice(50, 200);
+					long latency = System.nanoTime() - start;
+					latencies[reader][samples[reader]] = latency;
+					samples[reader] = (samples[reader] + 1) % MAXIMUM_SAMPLES;
+					reads[reader]++;
+				}
+				blackhole.addAndGet(sum);
+			});
+		}
+		long writesBefore = writer.getWrites();
+		long versionsBefore = writer.getVersions();
+		for (int i = 0; i < writers; i++) {
+			int seed = 100 + i;
+			threads[readers + i] = new Thread(() -> {
+				Random random = new Random(seed);
+				Queue<CompletableFuture<DataStore>> waiting = new ArrayDeque<>();
+				while (System.nanoTime() < deadline) {
+					String[] line = new String[Delta.FIELDS.length];
+					line[0] = properties.get(random.nextInt(properties.size())).getId();
+					line[8] = String.valueOf(10 + random.nextInt(290));
+					waiting.add(writer.upsert(line));
+					if (waiting.size() >= IN_FLIGHT) {
+						waiting.remove().join();
+					}
+				}
+				while (!waiting.isEmpty()) {
+					waiting.remove().join();
+				}
+			});
+		}
+		long start = System.nanoTime();
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		double elapsed = (System.nanoTime() - start) / 1e9;
+		long writes = writer.getWrites() - writesBefore;
+		long versions = writer.getVersions() - versionsBefore;
+		long[] all = new long[0];
+		long totalReads = 0;
+		for (int i = 0; i < readers; i++) {
+			int kept = (int) Math.min(reads[i], MAXIMUM_SAMPLES);
+			all = Arrays.copyOf(all, all.length + kept);
+			System.arraycopy(latencies[i], 0, all, all.length - kept, kept);
+			totalReads += reads[i];
+		}
+		Arrays.sort(all);
+		System.out.println(name + ":");
+		System.out.println(String.format("  reads  %10.0f /s, latency p50 %8.1f us, p99 %8.1f us, max %8.1f us", totalReads / elapsed,
+				percentile(all, 0.5) / 1e3, percentile(all, 0.99) / 1e3, all.length == 0 ? 0 : all[all.length - 1] / 1e3));
+		if (writers > 0) {
+			System.out.println(String.format("  writes %10.0f /s, %d versions swapped in, %.0f writes a version", writes / elapsed, versions,
+					versions == 0 ? 0.0 : (double) writes / versions));
+		}
+	}
+
+	/**
+	 * Get a percentile of sorted values.
+	 * @param sorted - the values, sorted.
+	 * @param fraction - the fraction of values below the percentile, e.g. 0.99.
+	 * @return - the percentile, 0 if there are no values.
+	 */
+	private static double percentile(long[] sorted, double fraction) {
+		return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, Math.round(fraction * (sorted.length - 1)))];
+	}
+}
@@ -1,11 +1,14 @@
 package application.componenthandlers;
 
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.Flow;
 
 import application.RentalService;
+import application.engine.DataStoreView;
 import application.property.Property;
+import application.query.PriceSummary;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -22,6 +25,11 @@ import javafx.scene.control.cell.PropertyValueFactory;
  */
 public class BoroughInfoScreenHandler {
 
+	/**
+	 * The number of properties added to the table at a time.
+	 */
+	private static final int BATCH_SIZE = 200;
+
 	/**
 	 * The values stored inside the drop-down combobox selectors.
 	 */
@@ -75,6 +83,12 @@ public class BoroughInfoScreenHandler {
 	@FXML
 	private Label dearestPriceLabel;
 
+	/**
+	 * The label to display the price percentiles and histogram of the borough.
+	 */
+	@FXML
+	private Label priceSummaryLabel;
+
 	/**
 	 * The sort drop down menu.
 	 */
@@ -87,41 +101,97 @@ public class BoroughInfoScreenHandler {
 	@FXML
 	private Button closeButton;
 
+	/**
+	 * The subscription to the properties of the borough, cancelled when the window is closed.
+	 */
+	private Flow.Subscription subscription;
+
+	/**
+	 * The order selected, null until the user sorts the table.
+	 */
+	private Comparator<Property> order;
+
 	/**
 	 * Handles initialising the table view.
 	 */
 	@FXML
 	private void initialize() {
-		ObservableList<Property> properties = getProperties();
 		this.hostNameColumn.setCellValueFactory(new PropertyValueFactory<>("hostName"));
 		this.priceColumn.setCellValueFactory(new PropertyValueFactory<>("price"));
 		this.numberOfReviewsColumn.setCellValueFactory(new PropertyValueFactory<>("numberOfReviews"));
 		this.minimumNightsColumn.setCellValueFactory(new PropertyValueFactory<>("minimumNights"));
-		updateBoroughInfo(properties);
-		String borough = properties.get(0).getNeighbourhood();
-		this.numberOfPropertiesLabel.setText("There are " + boroughInfo.getItems().size() + " properties in " + borough + ".");
-		int cheapestPrice = RentalService.getDataStore().getCheapestPropertyPrice(borough);
-		int dearestPrice = RentalService.getDataStore().getDearestPropertyPrice(borough);
+		updateBoroughInfo(FXCollections.observableArrayList());
+		DataStoreView view = RentalService.getView();
+		String borough = view.getDataStore().getBoroughName(RentalService.getQueryContext().getBorough());
+		this.numberOfPropertiesLabel.setText("There are " + view.getNumberOfProperties(borough) + " properties in " + borough + ".");
+		loadProperties(view, borough);
+		int cheapestPrice = view.getCheapestPropertyPrice(borough);
+		int dearestPrice = view.getDearestPropertyPrice(borough);
 		this.cheapestPriceLabel.setText("Cheapest price : £" + cheapestPrice + ".");
 		this.dearestPriceLabel.setText("Dearest price : £" + dearestPrice + ".");
+		this.priceSummaryLabel.setText(getPriceSummaryText(view.getPriceSummary(borough)));
 		this.sortOption.setItems(sortOptions);
 	}
 
 	/**
-	 * Creates an oberservable list of properties from the selected borough.
-	 * @return - the observable list of properties.
+	 * Describes the price summary of the borough, e.g. "Median £80, 90% under £200, 99% under £650. £10-£300: 120, ...".
+	 * @param summary - the price summary.
+	 * @return - the description.
 	 */
-	private ObservableList<Property> getProperties() {
-		ObservableList<Property> observablePropertyList = FXCollections.observableArrayList();
-		List<Property> properties = RentalService.getDataStore().getProperties(RentalService.SELECTED_BOROUGH);
-		for (Property property : properties) {
-			observablePropertyList.add(property);
+	private String getPriceSummaryText(PriceSummary summary) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("Median £" + Math.round(summary.getMedian()) + ", 90% under £" + Math.round(summary.getPercentile90()));
+		sb.append(", 99% under £" + Math.round(summary.getPercentile99()) + ".");
+		double[] binEdges = summary.getBinEdges();
+		long[] binCounts = summary.getBinCounts();
+		for (int bin = 0; bin < binCounts.length; bin++) {
+			sb.append(bin == 0 ? " " : ", ");
+			sb.append("£" + Math.round(binEdges[bin]) + "-£" + Math.round(binEdges[bin + 1]) + ": " + binCounts[bin]);
 		}
-		return observablePropertyList;
+		return sb.toString();
+	}
+
+	/**
+	 * Fills the table with the properties of the borough a batch at a time, 
+	 * asking for the next batch once the last one is in the table so a large borough never holds up the window.
+	 * @param view - the view of the data store for the price range.
+	 * @param borough - the borough.
+	 */
+	private void loadProperties(DataStoreView view, String borough) {
+		view.publishProperties(borough, BATCH_SIZE).subscribe(new Flow.Subscriber<List<Property>>() {
+			@Override
+			public void onSubscribe(Flow.Subscription subscription) {
+				BoroughInfoScreenHandler.this.subscription = subscription;
+				subscription.request(1);
+			}
+
+			@Override
+			public void onNext(List<Property> properties) {
+				Platform.runLater(() -> {
+					ObservableList<Property> items = boroughInfo.getItems();
+					items.addAll(properties);
+					if (order != null) {
+						items.sort(order);
+					}
+					subscription.request(1);
+				});
+			}
+
+			@Override
+			public void onError(Throwable throwable) {
+				System.out.println("Error trying to load the properties of " + borough + ".");
+				throwable.printStackTrace();
+			}
+
+			@Override
+			public void onComplete() {
+			}
+		});
 	}
 
 	/**
 	 * Sorts the list in order of the option selected.
+	 * Properties still to be loaded are put in the same order as they arrive.
 	 */
 	@FXML
 	private void sort() {
@@ -129,35 +199,34 @@ public class BoroughInfoScreenHandler {
 			ObservableList<Property> sortedList = boroughInfo.getItems();
 			switch (sortOption.getValue().replaceAll(" ", "").toLowerCase()) {
 			case "numberofreviews":
-				sortedList.sort(new Comparator<Property>() {
+				order = new Comparator<Property>() {
 					@Override
 					public int compare(Property one, Property two) {
-						return one.getNumberOfReviews() - two.getNumberOfReviews();
+						return two.getNumberOfReviews() - one.getNumberOfReviews();
 					}
-				});
-				Collections.reverse(sortedList);
-				updateBoroughInfo(sortedList);
+				};
 				break;
 			case "price":
-				sortedList.sort(new Comparator<Property>() {
+				order = new Comparator<Property>() {
 					@Override
 					public int compare(Property one, Property two) {
-						return one.getPrice() - two.getPrice();
+						return two.getPrice() - one.getPrice();
 					}
-				});
-				Collections.reverse(sortedList);
-				updateBoroughInfo(sortedList);
+				};
 				break;
 			case "hostname":
-				sortedList.sort(new Comparator<Property>() {
+				order = new Comparator<Property>() {
 					@Override
 					public int compare(Property one, Property two) {
 						return one.getHostName().compareTo(two.getHostName());
 					}
-				});
-				updateBoroughInfo(sortedList);
+				};
 				break;
 			}
+			if (order != null) {
+				sortedList.sort(order);
+				updateBoroughInfo(sortedList);
+			}
 		}
 	}
 
@@ -166,6 +235,9 @@ public class BoroughInfoScreenHandler {
 	 */
 	@FXML
 	private void close() {
+		if (subscription != null) {
+			subscription.cancel();
+		}
 		boroughInfo.getScene().getWindow().hide();
 	}
 
@@ -186,7 +258,7 @@ public class BoroughInfoScreenHandler {
 	private void onPropertySelected() {
 		Property property = boroughInfo.getSelectionModel().getSelectedItem();
 		if (property != null) {
-			RentalService.SELECTED_PROPERTY = property;
+			RentalService.setQueryContext(RentalService.getQueryContext().withProperty(property));
 			RentalService.viewSinglePropertyInformation();
 		}
 	}
@@ -1,13 +1,11 @@
 package application.componenthandlers;
 
 import java.io.File; 
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 import application.RentalService;
-import application.property.Property;
+import application.engine.DataStoreView;
 import javafx.event.EventHandler;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
@@ -260,22 +258,15 @@ public class MapScreenHandler {
 	@FXML
 	private void initialize() {
 		this.houseIcons = new HashMap<>();
-		RentalService.getDataStore().prepareProperties();
+		DataStoreView view = RentalService.getView();
 		//Register the house icons. See @registerHouseIcon to see what the registration includes.
 		registerHouseIcon(hillingdon, harrow, barnet, enfield, hounslow, ealing, brent, richmondUponThames, hammersmithAndFulham, kensingtonAndChelsea, 
 				westminster, camden, islington, cityOfLondon, hackney, haringey, walthamForest, redbridge, kingstonUponThames, wandsworth, lambeth, 
 				southwark, towerHamlets, newham, barkingAndDagenham, havering, merton, sutton, croydon, bromley, lewisham, greenwich, bexley);
-		List<Property> visibleProperties = RentalService.getDataStore().getPropertiesWithinPriceRange();
-		List<String> visibleBoroughs = new ArrayList<>(); //Store visible boroughs according to price range.
-		visibleProperties.forEach(property -> { //Store the borough names for each visible property.
-			if (!visibleBoroughs.contains(property.getFormattedBoroughName())) {
-				visibleBoroughs.add(property.getFormattedBoroughName());
-			}
-		});
-		for (String boroughs : visibleBoroughs) { //From each borough name that has a property, display the marker.
-			ImageView imageView = houseIcons.get(boroughs);
-			applySizeDistortion(imageView);
-			if (imageView != null) {
+		for (ImageView imageView : houseIcons.values()) { //Display the marker of each borough that has a property within the price range.
+			int numberOfPropertiesWithinBorough = view.getNumberOfProperties(imageView.getId());
+			if (numberOfPropertiesWithinBorough > 0) {
+				applySizeDistortion(imageView, numberOfPropertiesWithinBorough);
 				imageView.setImage(HOUSE_IMAGE_ICON);
 			}
 		}
@@ -286,8 +277,7 @@ public class MapScreenHandler {
 	 */
 	@FXML
 	private void back() {
-		RentalService.MINIMUM_PRICE_SELECTED = -1; //Reset price range.
-		RentalService.MAXIMUM_PRICE_SELECTED = -1;
+		RentalService.setQueryContext(RentalService.getQueryContext().withPriceRange(-1, -1)); //Reset price range.
 		RentalService.viewWelcomeScreen();
 	}
 
@@ -303,7 +293,7 @@ public class MapScreenHandler {
 	 * Views the borough stats.
 	 */
 	private void viewBoroughStatistics() {
-		if (RentalService.SELECTED_BOROUGH != null) {
+		if (RentalService.getQueryContext().getBorough() != null) {
 			RentalService.viewBoroughStatics();
 		}
 	}
@@ -321,7 +311,7 @@ public class MapScreenHandler {
 				Object object = mouseEvent.getSource(); 
 				if (object instanceof ImageView) {
 					ImageView image = (ImageView) object;
-					RentalService.SELECTED_BOROUGH = image.getId(); 
+					RentalService.setQueryContext(RentalService.getQueryContext().withBorough(image.getId()));
 					viewBoroughStatistics();
 				}
 			}
@@ -338,11 +328,10 @@ public class MapScreenHandler {
 	/**
 	 * Applies a size distortion to a given image view.
 	 * @param imageView - the image view to apply the size distortion to.
+	 * @param numberOfPropertiesWithinBorough - the number of properties within the price range in the borough of the image view.
 	 */
-	private void applySizeDistortion(ImageView imageView) {
+	private void applySizeDistortion(ImageView imageView, int numberOfPropertiesWithinBorough) {
 		double percentageIncrease = 1.0;
-		String borough = imageView.getId();
-		int numberOfPropertiesWithinBorough = RentalService.getDataStore().getNumberOfProperties(borough);
 		if (numberOfPropertiesWithinBorough >= 5 && numberOfPropertiesWithinBorough <= 500) {
 			percentageIncrease *= 1.3;
 		} else if (numberOfPropertiesWithinBorough > 500 && numberOfPropertiesWithinBorough <= 1000) {
@@ -286,23 +286,7 @@ public class PropertyFinderComponentHandler {
 				}
 			}
 		}
-		List<Property> propertiesWithinPriceRange = RentalService.getDataStore().getPropertiesWithinPriceRange();
-		List<Property> filteredList = new ArrayList<>();
-		for (Property property : propertiesWithinPriceRange) {
-			if (property.getMinimumNights() >= minimumNightsStaying) { //This has to match before anything else can.
-				if (!finalPhrases.isEmpty()) {
-					for (String phrase : finalPhrases) {
-						if (phrase != null) {
-							if (property.getDescription().toLowerCase().contains(phrase.toLowerCase())) {
-								filteredList.add(property);
-							}
-						}
-					}
-				} else {
-					filteredList.add(property);
-				}
-			}
-		}
+		List<Property> filteredList = RentalService.getView().findProperties(minimumNightsStaying, finalPhrases);
 		//If the filtered list is empty.
 		if (filteredList.isEmpty()) {
 			RentalService.displayError("No properties found", 
@@ -377,7 +361,7 @@ public class PropertyFinderComponentHandler {
 	private void onPropertySelected() {
 		Property property = results.getSelectionModel().getSelectedItem();
 		if (property != null) {
-			RentalService.SELECTED_PROPERTY = property;
+			RentalService.setQueryContext(RentalService.getQueryContext().withProperty(property));
 			RentalService.viewSinglePropertyInformation();
 		}
 	}
@@ -1,8 +1,13 @@
 package application.componenthandlers;
 
+import java.util.List;
+
 import application.RentalService;
+import application.engine.DataStore;
 import application.property.Property;
+import application.query.HostSummary;
 import javafx.fxml.FXML;
+import javafx.scene.Cursor;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextArea;
@@ -42,10 +47,25 @@ public class SinglePropertyScreenHandler {
 	 */
 	@FXML
 	private Button closeButton;
+
+	/**
+	 * The information about the property, shown again when the host listings are closed.
+	 */
+	private String propertyInformation;
+
+	/**
+	 * The summary of the host of the property, null if unknown.
+	 */
+	private HostSummary host;
+
+	/**
+	 * The data store the host summary came from, so the listings of the host come from the same version of the data.
+	 */
+	private DataStore dataStore;
 	
 	@FXML
 	private void initialize() {
-		Property property = RentalService.SELECTED_PROPERTY;
+		Property property = RentalService.getQueryContext().getProperty();
 		StringBuilder sb = new StringBuilder();
 		boolean singleNight = property.getMinimumNights() == 1;
 		boolean unavailable = property.getAvailability365() < 1;
@@ -53,6 +73,14 @@ public class SinglePropertyScreenHandler {
 		String prefixType = property.getRoomType().equalsIgnoreCase("private room") ? "a" : "an";
 		neighbourhoodLabel.setText("Borough : " + property.getNeighbourhood());
 		hostNameLabel.setText("Hosted by " + property.getHostName());
+		this.dataStore = RentalService.getDataStore();
+		this.host = dataStore.getHostSummary(property.getHostId());
+		if (host != null && host.getNumberOfListings() > 1) {
+			//Clicking the host name lists the other properties of the host.
+			hostNameLabel.setText("Hosted by " + property.getHostName() + " (" + host.getNumberOfListings() + " listings)");
+			hostNameLabel.setUnderline(true);
+			hostNameLabel.setCursor(Cursor.HAND);
+		}
 		propertyIdLabel.setText("Property id : " + property.getId() + ".");
 		sb.append("Described as '" + property.getDescription() + "' by the owner. \n");
 		sb.append("The property must be rented for a minimum of " + property.getMinimumNights() + " night" + (singleNight ? "" : "s") +  ". \n");
@@ -61,6 +89,33 @@ public class SinglePropertyScreenHandler {
 		sb.append(unavailable ? " during the year. \n" : " for " + property.getAvailability365() + " days during the year. \n");
 		sb.append(property.isMissingReview() ? "No reviews have been left for this property." : "The last review for this property was on " + property.getLastReview() + ". \n");
 		sb.append(noReviewsMonthly ? "The property has not received any reviews in the past month." : "The property received " + property.getReviewsPerMonth() + " reviews per month.");
+		this.propertyInformation = sb.toString();
+		textArea.setText(propertyInformation);
+	}
+
+	/**
+	 * Handles clicking the host name, switching between the information about the property and the other properties of the host.
+	 */
+	@FXML
+	private void toggleHostListings() {
+		if (host == null || host.getNumberOfListings() < 2) {
+			return;
+		}
+		if (!textArea.getText().equals(propertyInformation)) {
+			textArea.setText(propertyInformation);
+			return;
+		}
+		Property property = RentalService.getQueryContext().getProperty();
+		StringBuilder sb = new StringBuilder();
+		sb.append(host.getHostName() + " has " + host.getNumberOfListings() + " listings in " + host.getNumberOfBoroughs() + " borough" 
+				+ (host.getNumberOfBoroughs() == 1 ? "" : "s") + ", for £" + host.getNightlyRevenue() + " a night altogether");
+		sb.append(host.isCommercial() ? " (commercial host). \n" : ". \n");
+		List<Property> listings = dataStore.getPropertiesOfHost(host.getHostId());
+		for (Property listing : listings) {
+			if (listing != property) {
+				sb.append("Property " + listing.getId() + ", " + listing.getRoomType() + " in " + listing.getNeighbourhood() + " for £" + listing.getPrice() + " a night. \n");
+			}
+		}
 		textArea.setText(sb.toString());
 	}
 
@@ -69,7 +124,7 @@ public class SinglePropertyScreenHandler {
 	 */
 	@FXML
 	private void close() {
-		RentalService.SELECTED_PROPERTY = null;
+		RentalService.setQueryContext(RentalService.getQueryContext().withProperty(null));
 		textArea.getScene().getWindow().hide();
 	}
 }
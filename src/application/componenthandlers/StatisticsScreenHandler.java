@@ -1,9 +1,15 @@
 package application.componenthandlers;
 
 import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Future;
 
 import application.RentalService;
+import application.engine.DataStoreView;
+import application.property.NumericColumn;
 import application.property.Property;
+import application.query.Estimate;
+import javafx.application.Platform;
 import javafx.event.EventHandler;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
@@ -17,6 +23,11 @@ import javafx.scene.input.MouseEvent;
  */
 public class StatisticsScreenHandler {
 
+	/**
+	 * The number of properties shown in the leaderboards.
+	 */
+	private static final int LEADERBOARD_SIZE = 3;
+
 	/**
 	 * The title of the first statistic being displayed in pane one.
 	 */
@@ -133,12 +144,19 @@ public class StatisticsScreenHandler {
 	 */
 	private HashMap<Button, Label[]> buttonToLabel;
 
+	/**
+	 * A map of the statistic labels to the progressive statistic being shown in them.
+	 * A statistic still running when its label is given another one is cancelled.
+	 */
+	private HashMap<Label, Future<?>> runningStatistics;
+
 	/**
 	 * Handles initialising the statistics screen.
 	 */
 	@FXML
 	private void initialize() {
 		this.buttonToLabel = new HashMap<>();
+		this.runningStatistics = new HashMap<>();
 		//Setting unique ids to the buttons.
 		prevStat1.setId("1");
 		nextStat1.setId("2");
@@ -150,20 +168,16 @@ public class StatisticsScreenHandler {
 		nextStat4.setId("8");
 		//Display the default values shown on the screen.
 		statTitle1.setText("Average Reviews");
-		statLabel1.setText(Double.toString(RentalService.getDataStore().averageReviews()) + ".");
+		showAverageReviews(statTitle1, statLabel1);
 		statTitle2.setText("Priciest borough");
-		String borough = RentalService.getDataStore().getPriciestBorough();
-		int price = RentalService.getDataStore().getTotalBoroughPrice(borough);
+		DataStoreView view = RentalService.getView();
+		String borough = view.getPriciestBorough();
+		int price = view.getTotalBoroughPrice(borough);
 		statLabel2.setText(borough + " is the priciest borough with a price of £" + price + ".");
 		statTitle3.setText("Greatest Minimum Stay");
-		Property greatestMinimumNights = RentalService.getDataStore().getLongestStay();
-		String stat = "Property with id " + greatestMinimumNights.getId() + ", hosted by " + greatestMinimumNights.getHostName() +  " in "
-				+ "" + greatestMinimumNights.getNeighbourhood() + ".";
-		statLabel3.setText(stat);
+		statLabel3.setText(getLeaderboard(NumericColumn.MINIMUM_NIGHTS, false));
 		statTitle4.setText("Room Types");
-		int[] roomTypes = RentalService.getDataStore().getNoOfRoomTypes();
-		String roomType = "There are " + roomTypes[0] + " private properties, " + roomTypes[1] + " apartments, " + roomTypes[2] + " shared.";
-		statLabel4.setText(roomType);
+		showRoomTypes(statTitle4, statLabel4);
 		//Register the buttons click event handler, and populating the button into the hashmap.
 		registerButton(prevStat1, nextStat1, prevStat2, nextStat2, prevStat3, nextStat3, prevStat4, nextStat4);
 	}
@@ -245,51 +259,155 @@ public class StatisticsScreenHandler {
 		int buttonId = Integer.parseInt(button.getId());
 		if (buttonId == 1 || buttonId == 2) { //First panel holds average number of reviews and total number of available properties.
 			currentlyViewed = getLabels(button.getId())[0].getText();
-			int availableProperties = RentalService.getDataStore().getAvailableProperties();
-			double averageReviews = RentalService.getDataStore().averageReviews();
 			if (currentlyViewed.startsWith("Average")) {
-				getLabels(button.getId())[0].setText("Available properties");
-				getLabels(button.getId())[1].setText("There are " + availableProperties + " properties available.");
+				Label title = getLabels(button.getId())[0];
+				Label label = getLabels(button.getId())[1];
+				title.setText("Available properties");
+				showProgressively(label, RentalService.getView().getAvailablePropertiesProgressively(estimate -> 
+						setEstimateText(title, "Available properties", label, "There are " + format(estimate) + " properties available.")));
 			} else {
-				getLabels(button.getId())[0].setText("Average Reviews");
-				getLabels(button.getId())[1].setText("" + averageReviews + ".");
+				showAverageReviews(getLabels(button.getId())[0], getLabels(button.getId())[1]);
 			}
 		} else if (buttonId == 3 || buttonId == 4) { //Second panel holds number of Homes/apartments, priciest borough.
 			currentlyViewed = getLabels(button.getId())[0].getText();
-			int homesAndApartments = RentalService.getDataStore().getNumberOfHomes();
-			String priciestBorough = RentalService.getDataStore().getPriciestBorough();
-			int price = RentalService.getDataStore().getTotalBoroughPrice(priciestBorough);
+			DataStoreView view = RentalService.getView();
+			String priciestBorough = view.getPriciestBorough();
+			int price = view.getTotalBoroughPrice(priciestBorough);
 			if (currentlyViewed.startsWith("Priciest")) {
-				getLabels(button.getId())[0].setText("Number of Homes/Apartments");
-				getLabels(button.getId())[1].setText("There are " + homesAndApartments + " homes/apartments.");
+				Label title = getLabels(button.getId())[0];
+				Label label = getLabels(button.getId())[1];
+				title.setText("Number of Homes/Apartments");
+				showProgressively(label, RentalService.getView().getNumberOfHomesProgressively(estimate -> 
+						setEstimateText(title, "Number of Homes/Apartments", label, "There are " + format(estimate) + " homes/apartments.")));
 			} else {
+				showProgressively(getLabels(button.getId())[1], null);
 				getLabels(button.getId())[0].setText("Priciest borough");
 				getLabels(button.getId())[1].setText(priciestBorough + " is the priciest borough with a price of £" + price + ".");
 			}
 		} else if (buttonId == 5 || buttonId == 6) { //Third panel holds the property closest to north pole and greatest minimum nights.
 			currentlyViewed = getLabels(button.getId())[0].getText();
-			Property closestNorthPole = RentalService.getDataStore().getClosestPropertyToNorthPole();
-			Property greatestMinimumNights = RentalService.getDataStore().getLongestStay();
+			showProgressively(getLabels(button.getId())[1], null);
 			if (currentlyViewed.startsWith("Closest")) {
 				getLabels(button.getId())[0].setText("Greatest Minimum Stay");
-				getLabels(button.getId())[1].setText("Property with id " + greatestMinimumNights.getId() + " hosted by " + greatestMinimumNights.getHostName() + 
-						" in " + greatestMinimumNights.getNeighbourhood() + ".");
+				getLabels(button.getId())[1].setText(getLeaderboard(NumericColumn.MINIMUM_NIGHTS, false));
 			} else {
 				getLabels(button.getId())[0].setText("Closest Property To North Pole");
-				getLabels(button.getId())[1].setText("Property with id " + closestNorthPole.getId() + ", hosted by " + closestNorthPole.getHostName() + 
-						" in " + closestNorthPole.getNeighbourhood() + ".");
+				getLabels(button.getId())[1].setText(getLeaderboard(NumericColumn.LATITUDE, false));
 			}
 		} else if (buttonId == 7 || buttonId == 8) { //Fourth panel holds the latest review and number of room types.
 			currentlyViewed = getLabels(button.getId())[0].getText();
-			int[] roomTypes = RentalService.getDataStore().getNoOfRoomTypes();
-			Property latestReviewed = RentalService.getDataStore().getLatestReview();
 			if (currentlyViewed.startsWith("Room")) {
-				getLabels(button.getId())[0].setText("Latest Review");
-				getLabels(button.getId())[1].setText("Latest review was made in " + latestReviewed.getNeighbourhood() + " on " + latestReviewed.getLastReview() + ".");
+				showProgressively(getLabels(button.getId())[1], null);
+				getLabels(button.getId())[0].setText("Latest Reviews");
+				getLabels(button.getId())[1].setText(getLeaderboard(NumericColumn.LAST_REVIEW_DATE, true));
 			} else {
-				getLabels(button.getId())[0].setText("Room Types");
-				getLabels(button.getId())[1].setText("There are " + roomTypes[0] + " private properties, " + roomTypes[1] + " apartments, " + roomTypes[2] + " shared.");
+				showRoomTypes(getLabels(button.getId())[0], getLabels(button.getId())[1]);
+			}
+		}
+	}
+
+	/**
+	 * Builds the leaderboard of the properties within the price range with the greatest values of an attribute.
+	 * @param column - the attribute.
+	 * @param lastWins - true for the property later in the data set to rank first on a tie.
+	 * @return - one line per property, best first.
+	 */
+	private String getLeaderboard(NumericColumn column, boolean lastWins) {
+		List<Property> properties = RentalService.getView().getTopProperties(column, LEADERBOARD_SIZE, lastWins);
+		StringBuilder leaderboard = new StringBuilder();
+		for (int i = 0; i < properties.size(); i++) {
+			Property property = properties.get(i);
+			leaderboard.append(i + 1).append(". Property ").append(property.getId()).append(", hosted by ").append(property.getHostName())
+					.append(" in ").append(property.getNeighbourhood()).append(" (").append(getDetail(column, property)).append(").\n");
+		}
+		return leaderboard.toString().trim();
+	}
+
+	/**
+	 * Get the value of an attribute of a property shown in a leaderboard.
+	 * @param column - the attribute.
+	 * @param property - the property.
+	 * @return - the value.
+	 */
+	private String getDetail(NumericColumn column, Property property) {
+		switch (column) {
+		case MINIMUM_NIGHTS:
+			return property.getMinimumNights() + " nights";
+		case LATITUDE:
+			return "latitude " + property.getLatitude();
+		case LAST_REVIEW_DATE:
+			return property.getLastReview();
+		default:
+			return column.getDescription() + " " + column.valueOf(property);
+		}
+	}
+
+	/**
+	 * Shows the average number of reviews in a panel, refined as the properties are scanned.
+	 * @param title - the title label of the panel.
+	 * @param label - the statistic label of the panel.
+	 */
+	private void showAverageReviews(Label title, Label label) {
+		title.setText("Average Reviews");
+		showProgressively(label, RentalService.getView().averageReviewsProgressively(estimate -> 
+				setEstimateText(title, "Average Reviews", label, estimate.isExact() ? estimate.getValue() + "." : format(estimate) + " reviews.")));
+	}
+
+	/**
+	 * Shows the number of properties of each room type in a panel, refined as the properties are scanned.
+	 * @param title - the title label of the panel.
+	 * @param label - the statistic label of the panel.
+	 */
+	private void showRoomTypes(Label title, Label label) {
+		title.setText("Room Types");
+		showProgressively(label, RentalService.getView().getNoOfRoomTypesProgressively(estimates -> 
+				setEstimateText(title, "Room Types", label, "There are " + format(estimates[0]) + " private properties, " + format(estimates[1]) + " apartments, " 
+						+ format(estimates[2]) + " shared.")));
+	}
+
+	/**
+	 * Records the progressive statistic shown in a label, cancelling the one it replaces.
+	 * @param label - the statistic label.
+	 * @param statistic - the running statistic, or null if the label now shows an exact statistic.
+	 */
+	private void showProgressively(Label label, Future<?> statistic) {
+		Future<?> previous = statistic == null ? runningStatistics.remove(label) : runningStatistics.put(label, statistic);
+		if (previous != null) {
+			previous.cancel(true);
+		}
+	}
+
+	/**
+	 * Shows an estimate in a label, from the background thread computing it.
+	 * The text is only set if the panel still shows the same statistic, which is the case while its title is unchanged.
+	 * @param title - the title label of the panel.
+	 * @param statistic - the title of the statistic the estimate belongs to.
+	 * @param label - the statistic label of the panel.
+	 * @param text - the text to show.
+	 */
+	private void setEstimateText(Label title, String statistic, Label label, String text) {
+		Platform.runLater(new Runnable() {
+			@Override
+			public void run() {
+				if (title.getText().equals(statistic)) {
+					label.setText(text);
+				}
 			}
+		});
+	}
+
+	/**
+	 * Formats an estimate, as the exact whole number once exact, otherwise with its 95% confidence interval.
+	 * @param estimate - the estimate.
+	 * @return - the formatted estimate.
+	 */
+	private String format(Estimate estimate) {
+		if (estimate.isExact()) {
+			return Long.toString(Math.round(estimate.getValue()));
+		}
+		if (estimate.getValue() >= 100) {
+			return "≈" + Math.round(estimate.getValue()) + " (±" + Math.round(estimate.getHalfWidth()) + ")";
 		}
+		return String.format("≈%.1f (±%.1f)", estimate.getValue(), estimate.getHalfWidth());
 	}
 }
\ No newline at end of file
@@ -1,11 +1,13 @@
 package application.componenthandlers;
 
 import application.RentalService;
+import application.engine.QueryContext;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
 import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
 
 /**
  * Handles the components on the welcome screen.
@@ -31,6 +33,12 @@ public class WelcomeScreenHandler {
 	@FXML
 	private ComboBox<String> maximumPriceSelector;
 
+	/**
+	 * The label previewing the number of listings within the selected price range.
+	 */
+	@FXML
+	private Label rangePreviewLabel;
+
 	/** 
 	 * The back button.
 	 */
@@ -60,11 +68,12 @@ public class WelcomeScreenHandler {
 	 */
 	@FXML
 	private void selectMinimumPrice() {
-		RentalService.MINIMUM_PRICE_SELECTED = Integer.parseInt(minimumPriceSelector.getValue().substring(1));
-		if (RentalService.MINIMUM_PRICE_SELECTED != -1 && RentalService.MAXIMUM_PRICE_SELECTED != -1) {
+		RentalService.setQueryContext(RentalService.getQueryContext().withMinimumPrice(Integer.parseInt(minimumPriceSelector.getValue().substring(1))));
+		if (RentalService.getQueryContext().hasPriceRange()) {
 			nextButton.setDisable(false);
 			backButton.setDisable(false);
 		}
+		updateRangePreview();
 	}
 
 	/**
@@ -72,11 +81,30 @@ public class WelcomeScreenHandler {
 	 */
 	@FXML
 	private void selectMaximumPrice() {
-		RentalService.MAXIMUM_PRICE_SELECTED = Integer.parseInt(maximumPriceSelector.getValue().substring(1));
-		if (RentalService.MINIMUM_PRICE_SELECTED != -1 && RentalService.MAXIMUM_PRICE_SELECTED != -1) {
+		RentalService.setQueryContext(RentalService.getQueryContext().withMaximumPrice(Integer.parseInt(maximumPriceSelector.getValue().substring(1))));
+		if (RentalService.getQueryContext().hasPriceRange()) {
 			nextButton.setDisable(false);
 			backButton.setDisable(false);
 		}
+		updateRangePreview();
+	}
+
+	/**
+	 * Updates the preview of the number of listings within the selected price range.
+	 * The count comes from the price histogram so it is instant, the properties themselves are only selected on the map screen.
+	 */
+	private void updateRangePreview() {
+		QueryContext context = RentalService.getQueryContext();
+		int minimum = context.getMinimumPrice();
+		int maximum = context.getMaximumPrice();
+		if (minimum == -1 || maximum == -1) {
+			rangePreviewLabel.setText("");
+		} else if (!isValidPriceRange(minimum, maximum)) {
+			rangePreviewLabel.setText("No listings in range.");
+		} else {
+			int listings = RentalService.getDataStore().getNumberOfProperties(minimum, maximum);
+			rangePreviewLabel.setText(listings + " listing" + (listings == 1 ? "" : "s") + " in range.");
+		}
 	}
 
 	/**
@@ -95,7 +123,8 @@ public class WelcomeScreenHandler {
 	 */
 	@FXML
 	private void next() {
-		if (!isValidPriceRange(RentalService.MINIMUM_PRICE_SELECTED, RentalService.MAXIMUM_PRICE_SELECTED)) {
+		QueryContext context = RentalService.getQueryContext();
+		if (!isValidPriceRange(context.getMinimumPrice(), context.getMaximumPrice())) {
 			RentalService.displayError("Invalid price range", "Price range selected is invalid.",
 					"The 'From' price must be smaller than or equal to the 'To' price.");
 		} else {
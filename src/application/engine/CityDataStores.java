@@ -0,0 +1,280 @@
+package application.engine;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+import application.property.NumericColumn;
+import application.property.Property;
+
+/**
+ * The data stores of several cities, one partition each, found in a data directory as airbnb-[city].csv 
+ * (or .csv.gz, e.g. airbnb-new-york.csv.gz for New York).
+ * A city is loaded the first time it is asked for, on a thread of the loader pool, so several cities load in parallel.
+ * Once the loaded cities take more than the memory budget, the least recently used are dropped, to be loaded again when next asked for.
+ * A query can be run on one city, or fanned out across cities in parallel and the results merged.
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public class CityDataStores {
+
+	/**
+	 * The start of the name of the csv file of a city.
+	 */
+	public static final String FILE_PREFIX = "airbnb-";
+
+	/**
+	 * The files of the cities, by city name.
+	 */
+	private final Map<String, File> files = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+	/**
+	 * The cities loaded or being loaded, least recently used first.
+	 */
+	private final LinkedHashMap<String, CompletableFuture<DataStore>> partitions = new LinkedHashMap<>(16, 0.75f, true);
+
+	/**
+	 * The settings of the cities dropped, given to them when loaded again.
+	 */
+	private final Map<String, DataStore.Settings> droppedSettings = new HashMap<>();
+
+	/**
+	 * The heap the loaded cities may take before the least recently used are dropped.
+	 */
+	private final long memoryBudget;
+
+	/**
+	 * Loads the cities and runs the queries fanned out across them.
+	 */
+	private final ExecutorService executor;
+
+	/**
+	 * Finds the cities of a data directory, loading none of them yet.
+	 * @param directory - the data directory.
+	 * @param memoryBudget - the heap the loaded cities may take, in bytes.
+	 * @param threads - the number of cities loaded or queried at once.
+	 */
+	public CityDataStores(File directory, long memoryBudget, int threads) {
+		this.memoryBudget = memoryBudget;
+		File[] csvFiles = directory.listFiles((dir, name) -> name.startsWith(FILE_PREFIX) && (name.endsWith(".csv") || name.endsWith(".csv.gz")));
+		if (csvFiles != null) {
+			for (File file : csvFiles) {
+				files.putIfAbsent(getCityName(file.getName()), file);
+			}
+		}
+		this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "City loader");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Converts a file name into a city name, e.g. airbnb-new-york.csv.gz into New York.
+	 * @param fileName - the file name.
+	 * @return - the city name.
+	 */
+	static String getCityName(String fileName) {
+		String city = fileName.substring(FILE_PREFIX.length(), fileName.indexOf(".csv"));
+		StringBuilder sb = new StringBuilder();
+		for (String word : city.split("-")) {
+			if (!word.isEmpty()) {
+				sb.append(sb.length() == 0 ? "" : " ").append(Character.toUpperCase(word.charAt(0))).append(word.substring(1));
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Get the cities of the data directory.
+	 * @return - the city names, in alphabetical order.
+	 */
+	public List<String> getCities() {
+		return new ArrayList<>(files.keySet());
+	}
+
+	/**
+	 * Get the data store of a city, waiting for it to be loaded if need be.
+	 * @param city - the city name, in any case.
+	 * @return - the data store.
+	 * @throws IllegalArgumentException - if there is no such city.
+	 */
+	public DataStore get(String city) {
+		try {
+			return load(city).join();
+		} catch (CompletionException e) {
+			throw new IllegalStateException("Could not load " + city, e.getCause());
+		}
+	}
+
+	/**
+	 * Starts loading a city unless it is loaded or being loaded, and marks it as the most recently used.
+	 * @param city - the city name, in any case.
+	 * @return - the data store, when loaded.
+	 * @throws IllegalArgumentException - if there is no such city.
+	 */
+	public synchronized CompletableFuture<DataStore> load(String city) {
+		File file = files.get(city);
+		if (file == null) {
+			throw new IllegalArgumentException("No data for " + city + " in the data directory.");
+		}
+		String name = getCityName(file.getName());
+		CompletableFuture<DataStore> partition = partitions.get(name);
+		if (partition == null) {
+			DataStore.Settings settings = droppedSettings.getOrDefault(name, DataStore.Settings.DEFAULT);
+			CompletableFuture<DataStore> loading = CompletableFuture.supplyAsync(() -> {
+				DataStore dataStore = new DataStore(file.getPath(), settings);
+				evict(name, dataStore.getEstimatedSizeInBytes());
+				return dataStore;
+			}, executor);
+			partitions.put(name, loading);
+			loading.whenComplete((dataStore, error) -> {
+				if (error != null) {
+					remove(name, loading);
+				}
+			});
+			partition = loading;
+		}
+		return partition;
+	}
+
+	/**
+	 * Loads several cities in parallel, waiting until they are all loaded.
+	 * @param cities - the city names.
+	 */
+	public void loadAll(Collection<String> cities) {
+		List<CompletableFuture<DataStore>> loading = new ArrayList<>();
+		for (String city : cities) {
+			loading.add(load(city));
+		}
+		CompletableFuture.allOf(loading.toArray(new CompletableFuture<?>[0])).join();
+	}
+
+	/**
+	 * Checks whether a city is loaded.
+	 * @param city - the city name, in any case.
+	 * @return - true if the city is loaded.
+	 */
+	public synchronized boolean isLoaded(String city) {
+		File file = files.get(city);
+		CompletableFuture<DataStore> partition = file == null ? null : partitions.get(getCityName(file.getName()));
+		return partition != null && partition.isDone() && !partition.isCompletedExceptionally();
+	}
+
+	/**
+	 * Removes a city that failed to load, so it is tried again when next asked for.
+	 * @param city - the city name.
+	 * @param partition - the failed load, only removed if it is still the one held.
+	 */
+	private synchronized void remove(String city, CompletableFuture<DataStore> partition) {
+		partitions.remove(city, partition);
+	}
+
+	/**
+	 * Drops the least recently used cities until the loaded cities fit in the memory budget.
+	 * The city just loaded is never dropped, nor cities still loading.
+	 * A dropped data store is shut down (see DataStore.shutdown), so queries already running on it finish, and its settings kept.
+	 * The text of a city is mapped from its csv file in place, not from a copy as the watcher does (see DataStoreWatcher),
+	 * so a dropped city leaves no file behind, its mapping released once the data store is collected.
+	 * @param loaded - the city just loaded.
+	 * @param loadedSize - the estimated heap taken by the city just loaded.
+	 */
+	private synchronized void evict(String loaded, long loadedSize) {
+		long size = loadedSize;
+		for (CompletableFuture<DataStore> partition : partitions.values()) {
+			size += getEstimatedSize(partition);
+		}
+		Iterator<Map.Entry<String, CompletableFuture<DataStore>>> iterator = partitions.entrySet().iterator();
+		while (size > memoryBudget && iterator.hasNext()) {
+			Map.Entry<String, CompletableFuture<DataStore>> entry = iterator.next();
+			long partitionSize = getEstimatedSize(entry.getValue());
+			if (!entry.getKey().equals(loaded) && partitionSize > 0) {
+				iterator.remove();
+				DataStore dropped = entry.getValue().join();
+				droppedSettings.put(entry.getKey(), dropped.getSettings());
+				dropped.shutdown();
+				size -= partitionSize;
+				System.out.println("Dropped " + entry.getKey() + " to keep the cities within " + (memoryBudget >> 20) + " MB.");
+			}
+		}
+	}
+
+	/**
+	 * Estimates the heap taken by a city.
+	 * @param partition - the city.
+	 * @return - the estimated number of bytes, 0 if it is still loading.
+	 */
+	private static long getEstimatedSize(CompletableFuture<DataStore> partition) {
+		return partition.isDone() && !partition.isCompletedExceptionally() ? partition.join().getEstimatedSizeInBytes() : 0;
+	}
+
+	/**
+	 * Runs a query on several cities in parallel, loading them if need be.
+	 * @param cities - the city names.
+	 * @param query - the query.
+	 * @return - the result of each city, in the order of the cities.
+	 */
+	public <T> Map<String, T> query(Collection<String> cities, Function<DataStore, T> query) {
+		Map<String, CompletableFuture<T>> running = new LinkedHashMap<>();
+		for (String city : cities) {
+			running.put(city, load(city).thenApplyAsync(query, executor));
+		}
+		Map<String, T> results = new LinkedHashMap<>();
+		for (Map.Entry<String, CompletableFuture<T>> entry : running.entrySet()) {
+			results.put(entry.getKey(), entry.getValue().join());
+		}
+		return results;
+	}
+
+	/**
+	 * Runs a query on every city in parallel and merges the results.
+	 * @param query - the query.
+	 * @param merge - merges the results of two cities.
+	 * @return - the merged result, or null if there are no cities.
+	 */
+	public <T> T queryAll(Function<DataStore, T> query, BinaryOperator<T> merge) {
+		return query(getCities(), query).values().stream().reduce(merge).orElse(null);
+	}
+
+	/**
+	 * Counts the properties of every city within a price range.
+	 * @param minimumPrice - the minimum price.
+	 * @param maximumPrice - the maximum price.
+	 * @return - the number of properties within the price range.
+	 */
+	public int getNumberOfProperties(int minimumPrice, int maximumPrice) {
+		Integer count = queryAll(dataStore -> dataStore.getNumberOfProperties(minimumPrice, maximumPrice), Integer::sum);
+		return count == null ? 0 : count;
+	}
+
+	/**
+	 * Finds the properties within a price range with the greatest values of a column across every city.
+	 * Ties keep the order of the cities.
+	 * @param column - the column.
+	 * @param k - the number of properties.
+	 * @param lastWins - whether the last of the properties sharing a value comes first, within a city.
+	 * @param minimumPrice - the minimum price.
+	 * @param maximumPrice - the maximum price.
+	 * @return - the properties, greatest first.
+	 */
+	public List<Property> getTopProperties(NumericColumn column, int k, boolean lastWins, int minimumPrice, int maximumPrice) {
+		List<Property> top = new ArrayList<>();
+		for (List<Property> cityTop : query(getCities(), dataStore -> dataStore.getTopProperties(column, k, lastWins, null, minimumPrice, maximumPrice)).values()) {
+			top.addAll(cityTop);
+		}
+		top.sort(Comparator.comparingDouble((Property property) -> column.valueOf(property)).reversed());
+		return new ArrayList<>(top.subList(0, Math.min(k, top.size())));
+	}
+}
@@ -0,0 +1,65 @@
+package application.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import application.property.NumericColumn;
+import application.property.Property;
+
+class CityDataStoresTest {
+
+	/**
+	 * Writes the csv file of a city.
+	 * @param directory - the data directory.
+	 * @param name - the file name.
+	 * @param size - the number of properties.
+	 * @param firstPrice - the price of the first property, each next one costing 1 more.
+	 * @throws IOException - if the file cannot be written.
+	 */
+	private void writeCity(File directory, String name, int size, int firstPrice) throws IOException {
+		try (PrintWriter writer = new PrintWriter(new File(directory, name))) {
+			writer.println("id,name,host_id,host_name,neighbourhood,latitude,longitude,room_type,price,minimum_nights,number_of_reviews,last_review,reviews_per_month,calculated_host_listings_count,availability_365");
+			for (int i = 0; i < size; i++) {
+				writer.println(name.hashCode() + i + ",Flat," + i + ",Host,Camden,51.5,-0.1,Private room," + (firstPrice + i) + ",1,2,01/01/2017,1.0,1,365");
+			}
+		}
+	}
+
+	/**
+	 * Tests finding, querying and dropping the cities of a data directory.
+	 * @throws IOException - if the files cannot be written.
+	 */
+	@Test
+	public void testCities() throws IOException {
+		File directory = Files.createTempDirectory("cities").toFile();
+		writeCity(directory, "airbnb-london.csv", 100, 10);
+		writeCity(directory, "airbnb-new-york.csv", 200, 1000);
+		writeCity(directory, "listings.csv", 10, 10);
+		for (File file : directory.listFiles()) {
+			file.deleteOnExit();
+		}
+		directory.deleteOnExit();
+		//Room for one city only.
+		CityDataStores cities = new CityDataStores(directory, 150L * DataStore.ESTIMATED_BYTES_PER_PROPERTY, 2);
+		assertEquals(Arrays.asList("London", "New York"), cities.getCities());
+		assertEquals(100, cities.get("london").getAllProperties().size());
+		assertTrue(cities.isLoaded("London"));
+		assertEquals(200, cities.get("New York").getAllProperties().size());
+		assertFalse(cities.isLoaded("London"));
+		assertEquals(100 + 200, cities.getNumberOfProperties(0, 100000));
+		assertEquals(91 + 0, cities.query(cities.getCities(), dataStore -> dataStore.getNumberOfProperties(10, 100)).values().stream().mapToInt(Integer::intValue).sum());
+		List<Property> top = cities.getTopProperties(NumericColumn.PRICE, 3, false, 0, 100000);
+		assertEquals(1199, top.get(0).getPrice());
+		assertEquals(1197, top.get(2).getPrice());
+	}
+}
@@ -0,0 +1,911 @@
+package application.engine;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import application.property.Checkpoint;
+import application.property.Delta;
+import application.property.DeltaFile;
+import application.property.EventLog;
+import application.property.NumericColumn;
+import application.property.Property;
+import application.property.PropertyColumns;
+import application.property.PropertyLoader;
+import application.query.DistinctCounts;
+import application.query.GroupByCube;
+import application.query.HostIndex;
+import application.query.IdIndex;
+import application.query.HostSummary;
+import application.query.HyperLogLog;
+import application.query.ParallelAggregator;
+import application.query.PriceDigests;
+import application.query.PriceHistogram;
+import application.query.PriceSummary;
+import application.query.RangeBatch;
+import application.query.RangeQuery;
+import application.query.RangeStatistics;
+import application.query.ProgressiveAggregator;
+import application.query.TDigest;
+
+/**
+ * Represents the dataStore class.
+ * A class used to store properties loaded from CSV file.
+ * Handles everything to do with properties within the application.
+ * A data store is shared by every user and never changes once built: the properties within the price range a user selected
+ * are a view of it (see view), kept for the users with the same price range.
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public class DataStore {
+
+	/**
+	 * The default relative standard error of the approximate distinct counts (2%).
+	 */
+	public static final double DEFAULT_DISTINCT_COUNT_ERROR = 0.02;
+
+	/**
+	 * The heap taken by a property with its text left in the file, with its share of the columns, indexes and summaries.
+	 * Measured at about 540 bytes on the London data set, rounded up for the selections made afterwards.
+	 */
+	public static final int ESTIMATED_BYTES_PER_PROPERTY = 600;
+
+	/**
+	 * The number of views of price ranges kept, see view.
+	 */
+	public static final int VIEW_CACHE_SIZE = 8;
+
+	/**
+	 * The seed of the random order in which the progressive statistics sample the properties.
+	 */
+	private static final long PROGRESSIVE_SEED = 2018;
+
+	/**
+	 * The number of data stores built so far, see getVersion.
+	 */
+	private static final AtomicLong VERSIONS = new AtomicLong();
+
+	/**
+	 * The version of the data, see getVersion.
+	 */
+	private final long version = VERSIONS.incrementAndGet();
+
+	/**
+	 * The list of properties.
+	 */
+	private List<Property> properties;
+
+	/**
+	 * The numeric attributes of all the properties stored column by column.
+	 * Row i of the columns is the property at index i of the properties list.
+	 */
+	private PropertyColumns columns;
+
+	/**
+	 * The cumulative price histogram of all the properties.
+	 */
+	private PriceHistogram priceHistogram;
+
+	/**
+	 * The cumulative price histograms of the properties in each borough, indexed by borough code.
+	 */
+	private PriceHistogram[] boroughPriceHistograms;
+
+	/**
+	 * The cumulative price histograms of the properties of each room type, indexed by room type code.
+	 */
+	private PriceHistogram[] roomTypePriceHistograms;
+
+	/**
+	 * All the rows sorted by price, so the rows within a price range are a slice of it.
+	 */
+	private int[] rowsByPrice;
+
+	/**
+	 * The price t-digests per borough, room type and price band.
+	 */
+	private PriceDigests priceDigests;
+
+	/**
+	 * The HyperLogLog sketches of the distinct host ids per borough and price band.
+	 */
+	private volatile DistinctCounts distinctHosts;
+
+	/**
+	 * The HyperLogLog sketches of the distinct listing ids per borough and price band.
+	 */
+	private volatile DistinctCounts distinctListings;
+
+	/**
+	 * The row of each listing id.
+	 */
+	private IdIndex listingRows;
+
+	/**
+	 * The listings of each host.
+	 */
+	private HostIndex hostIndex;
+
+	/**
+	 * The counts, sums, minimums and maximums per borough, room type, price band, availability band and minimum nights band.
+	 */
+	private GroupByCube cube;
+
+	/**
+	 * Runs the statistics over the rows within the price range, sequentially or in parallel.
+	 * Replaced by setParallelism while views read it on other threads.
+	 */
+	private volatile ParallelAggregator aggregator;
+
+	/**
+	 * Runs the progressive statistics in the background, sampling the properties by borough.
+	 */
+	private ProgressiveAggregator progressiveAggregator;
+
+	/**
+	 * The parallelism and distinct count error set, handed on to the next version of the data store.
+	 */
+	private volatile Settings settings;
+
+	/**
+	 * The loader that created the properties, handed on to the next version of the data store,
+	 * so the properties written are interned against the same dictionaries as those loaded (see PropertyLoader.toProperty).
+	 */
+	private final PropertyLoader loader;
+
+	/**
+	 * The position in the event log this data store is up to, see recover.
+	 */
+	private long logPosition = EventLog.START;
+
+	/**
+	 * The views of the price ranges asked for most recently, each completed once built, see view.
+	 * The key is the minimum price in the high half and the maximum price in the low half.
+	 */
+	private final ConcurrentHashMap<Long, CompletableFuture<DataStoreView>> views = new ConcurrentHashMap<>();
+
+	/**
+	 * The keys of the views kept, least recently used first, which is only locked to note a use or drop a view.
+	 */
+	private final LinkedHashMap<Long, Boolean> recentViews = new LinkedHashMap<>(16, 0.75f, true);
+
+	/**
+	 * The settings of a data store kept when it is replaced by a new version, e.g. reloaded or written to.
+	 */
+	static final class Settings {
+
+		/**
+		 * The settings of a data store built from scratch: as many threads as processors and DEFAULT_DISTINCT_COUNT_ERROR.
+		 */
+		static final Settings DEFAULT = new Settings(Runtime.getRuntime().availableProcessors(), ParallelAggregator.DEFAULT_SEQUENTIAL_THRESHOLD,
+				DEFAULT_DISTINCT_COUNT_ERROR);
+
+		/**
+		 * The number of threads and the number of properties below which a statistic is not split, see setParallelism.
+		 */
+		private final int parallelism, sequentialThreshold;
+
+		/**
+		 * The relative standard error of the approximate distinct counts, see setDistinctCountError.
+		 */
+		private final double distinctCountError;
+
+		/**
+		 * Constructs the settings of a data store.
+		 * @param parallelism - the number of threads.
+		 * @param sequentialThreshold - the number of properties below which a statistic is not split between threads.
+		 * @param distinctCountError - the relative standard error of the approximate distinct counts.
+		 */
+		private Settings(int parallelism, int sequentialThreshold, double distinctCountError) {
+			this.parallelism = parallelism;
+			this.sequentialThreshold = sequentialThreshold;
+			this.distinctCountError = distinctCountError;
+		}
+	}
+
+	/**
+	 * Constructs the data store of the London properties.
+	 */
+	public DataStore() {
+		this(PropertyLoader.LONDON_PROPERTIES);
+	}
+
+	/**
+	 * Constructs the data store of the properties of a csv file.
+	 * @param url - the path of the csv file.
+	 */
+	public DataStore(String url) {
+		this(url, Settings.DEFAULT);
+	}
+
+	/**
+	 * Constructs the data store of the properties of a csv file, as the next version of a data store.
+	 * @param url - the path of the csv file.
+	 * @param settings - the settings of the data store replaced.
+	 */
+	DataStore(String url, Settings settings) {
+		this(url, settings, new PropertyLoader());
+	}
+
+	/**
+	 * Constructs the data store of the properties of a csv file, loaded by a loader.
+	 * @param url - the path of the csv file.
+	 * @param settings - the settings of the data store replaced.
+	 * @param loader - the loader.
+	 */
+	private DataStore(String url, Settings settings, PropertyLoader loader) {
+		this(loader.load(url, true), settings, loader);
+	}
+
+	/**
+	 * Constructs the data store of a list of properties.
+	 * @param properties - the properties.
+	 */
+	public DataStore(List<Property> properties) {
+		this(properties, Settings.DEFAULT);
+	}
+
+	/**
+	 * Constructs the data store of a list of properties, as the next version of a data store.
+	 * @param properties - the properties.
+	 * @param settings - the settings of the data store replaced.
+	 */
+	DataStore(List<Property> properties, Settings settings) {
+		this(properties, settings, new PropertyLoader());
+	}
+
+	/**
+	 * Constructs the data store of a list of properties created by a loader, as the next version of a data store.
+	 * @param properties - the properties.
+	 * @param settings - the settings of the data store replaced.
+	 * @param loader - the loader that created the properties, which creates those written to the data store.
+	 */
+	private DataStore(List<Property> properties, Settings settings, PropertyLoader loader) {
+		this.settings = settings;
+		this.loader = loader;
+		this.properties = properties;
+		this.columns = new PropertyColumns(properties);
+		this.priceHistogram = PriceHistogram.of(columns.getPrices());
+		this.boroughPriceHistograms = PriceHistogram.byGroup(columns.getPrices(), columns.getBoroughCodes(), columns.getBoroughNames().size());
+		this.roomTypePriceHistograms = PriceHistogram.byGroup(columns.getPrices(), columns.getRoomTypeCodes(), columns.getRoomTypeNames().size());
+		this.rowsByPrice = priceHistogram.sortRows(columns.getPrices());
+		this.priceDigests = new PriceDigests(columns, rowsByPrice, priceHistogram, TDigest.DEFAULT_COMPRESSION);
+		setDistinctCountError(settings.distinctCountError);
+		this.listingRows = indexListings(properties);
+		this.hostIndex = new HostIndex(columns);
+		this.aggregator = new ParallelAggregator(settings.parallelism, settings.sequentialThreshold);
+		this.cube = new GroupByCube(columns, aggregator);
+		this.progressiveAggregator = new ProgressiveAggregator(columns.getBoroughCodes(), columns.getBoroughNames().size(), PROGRESSIVE_SEED);
+	}
+
+	/**
+	 * Get the view of the properties within the price range of a query context.
+	 * @param context - the query context.
+	 * @return - the view.
+	 */
+	public DataStoreView view(QueryContext context) {
+		return view(context.getMinimumPrice(), context.getMaximumPrice());
+	}
+
+	/**
+	 * Get the view of the properties within a price range.
+	 * The views of the last VIEW_CACHE_SIZE price ranges are kept, so the users with the same price range share one
+	 * and the memory taken by the views is bounded whatever the number of users (plus the views being built).
+	 * A view is built on the thread of the first user asking for it, without holding a lock, so users of other price ranges
+	 * are not held up, and the users asking for the same price range meanwhile wait for it rather than build it again.
+	 * @param minimumPrice - the minimum price.
+	 * @param maximumPrice - the maximum price.
+	 * @return - the view.
+	 */
+	public DataStoreView view(int minimumPrice, int maximumPrice) {
+		Long key = (long) minimumPrice << 32 | (maximumPrice & 0xffffffffL);
+		CompletableFuture<DataStoreView> created = new CompletableFuture<>();
+		CompletableFuture<DataStoreView> view = views.putIfAbsent(key, created);
+		if (view == null) {
+			view = created;
+			try {
+				created.complete(new DataStoreView(this, minimumPrice, maximumPrice));
+			} catch (RuntimeException | Error e) {
+				views.remove(key, created);
+				created.completeExceptionally(e);
+				throw e;
+			}
+		}
+		useView(key);
+		try {
+			return view.join();
+		} catch (CompletionException e) {
+			//The view failed to build on the thread of another user.
+			throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+		}
+	}
+
+	/**
+	 * Notes the use of a view, dropping the least recently used one if more than VIEW_CACHE_SIZE are kept.
+	 * @param key - the key of the view.
+	 */
+	private void useView(Long key) {
+		synchronized (recentViews) {
+			recentViews.put(key, Boolean.TRUE);
+			if (recentViews.size() > VIEW_CACHE_SIZE) {
+				Iterator<Long> eldest = recentViews.keySet().iterator();
+				views.remove(eldest.next());
+				eldest.remove();
+			}
+		}
+	}
+
+	/**
+	 * Answers many range queries together, in one pass over the properties whatever the number of queries (see RangeBatch).
+	 * Cheaper than a view per query when the statistics of many price ranges or boroughs are wanted at once, e.g. for a report.
+	 * @param queries - the queries.
+	 * @return - the statistics of each query, in the order of the queries.
+	 */
+	public List<RangeStatistics> query(List<RangeQuery> queries) {
+		return new RangeBatch(columns, rowsByPrice, priceHistogram, aggregator).evaluate(queries);
+	}
+
+	/**
+	 * Sets the number of threads used to compute the statistics.
+	 * With a parallelism of 1 every statistic is computed sequentially on the calling thread.
+	 * Either way the results are the same. The next versions of the data store keep the setting.
+	 * The statistics running on the previous threads finish on them before they are stopped.
+	 * @param parallelism - the number of threads.
+	 * @param sequentialThreshold - the number of properties below which a statistic is not split between threads.
+	 */
+	public synchronized void setParallelism(int parallelism, int sequentialThreshold) {
+		ParallelAggregator previousAggregator = aggregator;
+		this.aggregator = new ParallelAggregator(parallelism, sequentialThreshold);
+		this.settings = new Settings(parallelism, sequentialThreshold, settings.distinctCountError);
+		previousAggregator.shutdown();
+	}
+
+	/**
+	 * Sets the relative standard error of the approximate distinct counts and rebuilds their sketches.
+	 * Each sketch uses about (1.04 / error)^2 bytes, rounded up to a power of two, e.g. 4KB for 2%.
+	 * The next versions of the data store keep the setting. The sketches are built before they replace the previous ones,
+	 * so a reader on another thread gets an estimate from either, never from sketches half built.
+	 * @param relativeError - the relative standard error, e.g. 0.02 for 2%.
+	 */
+	public synchronized void setDistinctCountError(double relativeError) {
+		int precision = HyperLogLog.precisionFor(relativeError);
+		long[] hostHashes = new long[columns.size()];
+		long[] listingHashes = new long[columns.size()];
+		for (int row = 0; row < columns.size(); row++) {
+			hostHashes[row] = HyperLogLog.hash(columns.getProperty(row).getHostId());
+			listingHashes[row] = HyperLogLog.hash(columns.getProperty(row).getId());
+		}
+		this.distinctHosts = new DistinctCounts(columns, hostHashes, rowsByPrice, priceHistogram, precision);
+		this.distinctListings = new DistinctCounts(columns, listingHashes, rowsByPrice, priceHistogram, precision);
+		if (relativeError != settings.distinctCountError) {
+			this.settings = new Settings(settings.parallelism, settings.sequentialThreshold, relativeError);
+		}
+	}
+
+	/**
+	 * Get the settings handed on to the next version of the data store.
+	 * @return - the settings.
+	 */
+	Settings getSettings() {
+		return settings;
+	}
+
+	/**
+	 * Stops the threads of the data store once it has been replaced by a new version.
+	 * The statistics running finish, and a reader still holding the data store gets its answers on the calling thread
+	 * (on a thread of its own for a progressive statistic), so nothing is left running once the readers are done with it.
+	 */
+	public synchronized void shutdown() {
+		aggregator.shutdown();
+		progressiveAggregator.shutdown();
+	}
+
+	/**
+	 * Get the name of a borough as it is in the data set.
+	 * @param borough - the borough, normal or formatted name, in any case.
+	 * @return - the name of the borough, or null if there is no property in that borough.
+	 */
+	public String getBoroughName(String borough) {
+		int boroughCode = columns.getBoroughCode(borough);
+		return boroughCode == -1 ? null : columns.getBoroughNames().get(boroughCode);
+	}
+
+	/**
+	 * Get the names of the boroughs as they are in the data set.
+	 * @return - the names of the boroughs.
+	 */
+	public List<String> getBoroughNames() {
+		return Collections.unmodifiableList(columns.getBoroughNames());
+	}
+
+	/**
+	 * Counts the properties of a borough within a price range, read from the borough price histogram.
+	 * @param borough - the borough, normal or formatted name.
+	 * @param minimumPrice - the minimum price.
+	 * @param maximumPrice - the maximum price.
+	 * @return - the number of properties in that borough within the price range.
+	 */
+	public int getNumberOfProperties(String borough, int minimumPrice, int maximumPrice) {
+		PriceHistogram histogram = getBoroughPriceHistogram(borough);
+		return histogram == null ? 0 : histogram.count(minimumPrice, maximumPrice);
+	}
+
+	/**
+	 * Counts all the properties within a price range, read from the price histogram.
+	 * Does not need a view of the price range, so the welcome screen can show it while the price range is being chosen.
+	 * @param minimumPrice - the minimum price.
+	 * @param maximumPrice - the maximum price.
+	 * @return - the number of properties within the price range.
+	 */
+	public int getNumberOfProperties(int minimumPrice, int maximumPrice) {
+		return priceHistogram.count(minimumPrice, maximumPrice);
+	}
+
+	/**
+	 * Counts the properties of a room type within a price range, read from the room type price histogram.
+	 * @param roomType - the room type.
+	 * @param minimumPrice - the minimum price.
+	 * @param maximumPrice - the maximum price.
+	 * @return - the number of properties of that room type within the price range.
+	 */
+	public int getNumberOfPropertiesOfRoomType(String roomType, int minimumPrice, int maximumPrice) {
+		int roomTypeCode = columns.getRoomTypeCode(roomType);
+		return roomTypeCode == -1 ? 0 : roomTypePriceHistograms[roomTypeCode].count(minimumPrice, maximumPrice);
+	}
+
+	/**
+	 * Sums the price per night of all the properties within a price range, read from the price histogram.
+	 * This is the revenue of one night if every one of those properties was rented.
+	 * @param minimumPrice - the minimum price.
+	 * @param maximumPrice - the maximum price.
+	 * @return - the total price per night.
+	 */
+	public long getTotalNightlyPrice(int minimumPrice, int maximumPrice) {
+		return priceHistogram.sum(minimumPrice, maximumPrice);
+	}
+
+	/**
+	 * Sums the price per night of the properties of a borough within a price range, read from the borough price histogram.
+	 * @param borough - the borough, normal or formatted name.
+	 * @param minimumPrice - the minimum price.
+	 * @param maximumPrice - the maximum price.
+	 * @return - the total price per night.
+	 */
+	public long getTotalNightlyPrice(String borough, int minimumPrice, int maximumPrice) {
+		PriceHistogram histogram = getBoroughPriceHistogram(borough);
+		return histogram == null ? 0 : histogram.sum(minimumPrice, maximumPrice);
+	}
+
+	/**
+	 * Summarises the prices of a group of properties within a price range: median, 90th and 99th percentile
+	 * prices and a small histogram.
+	 * The summary is merged from the price digests rather than computed from the properties.
+	 * @param borough - the borough, normal or formatted name, null for every borough.
+	 * @param roomType - the room type, null for every room type.
+	 * @param minimumPrice - the minimum price.
+	 * @param maximumPrice - the maximum price.
+	 * @return - the price summary.
+	 */
+	public PriceSummary getPriceSummary(String borough, String roomType, int minimumPrice, int maximumPrice) {
+		int boroughCode = borough == null ? -1 : columns.getBoroughCode(borough);
+		int roomTypeCode = roomType == null ? -1 : columns.getRoomTypeCode(roomType);
+		if ((borough != null && boroughCode == -1) || (roomType != null && roomTypeCode == -1)) {
+			return new PriceSummary(new TDigest(), 5); //No property matches.
+		}
+		return new PriceSummary(priceDigests.getDigest(boroughCode, roomTypeCode, minimumPrice, maximumPrice), 5);
+	}
+
+	/**
+	 * Counts the distinct hosts of the properties of a borough within a price range.
+	 * This is the exact count, collecting the host ids into a set.
+	 * @param borough - the borough, normal or formatted name, null for every borough.
+	 * @param minimumPrice - the minimum price.
+	 * @param maximumPrice - the maximum price.
+	 * @return - the number of distinct hosts.
+	 */
+	public int getNumberOfHosts(String borough, int minimumPrice, int maximumPrice) {
+		int boroughCode = borough == null ? -1 : columns.getBoroughCode(borough);
+		if (borough != null && boroughCode == -1) {
+			return 0;
+		}
+		Set<String> hostIds = new HashSet<>();
+		int end = priceHistogram.firstIndex(maximumPrice + 1L);
+		for (int i = priceHistogram.firstIndex(minimumPrice); i < end; i++) {
+			int row = rowsByPrice[i];
+			if (boroughCode == -1 || columns.getBoroughCodes()[row] == boroughCode) {
+				hostIds.add(columns.getProperty(row).getHostId());
+			}
+		}
+		return hostIds.size();
+	}
+
+	/**
+	 * Builds the index of the row of each listing id.
+	 * Should an id appear twice, the first row is kept, as a scan of the properties would find.
+	 * @param properties - the properties.
+	 * @return - the index.
+	 */
+	private static IdIndex indexListings(List<Property> properties) {
+		IdIndex index = new IdIndex(properties.size());
+		for (int row = 0; row < properties.size(); row++) {
+			String id = properties.get(row).getId();
+			if (index.get(id) == -1) {
+				index.put(id, row);
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * Applies a delta file written by ListingsDiff, giving a new data store and leaving this one as it was.
+	 * @param deltaFile - the delta file.
+	 * @return - the new data store.
+	 * @throws IOException - if the delta file cannot be read or is cut short.
+	 */
+	public DataStore applyDelta(File deltaFile) throws IOException {
+		List<Delta> deltas = new ArrayList<>();
+		try (DeltaFile.Reader reader = new DeltaFile.Reader(deltaFile)) {
+			for (Delta delta = reader.read(); delta != null; delta = reader.read()) {
+				deltas.add(delta);
+			}
+		}
+		return applyEvents(deltas);
+	}
+
+	/**
+	 * Applies a batch of listing events or differences in order, giving a new data store and leaving this one as it was.
+	 * The properties that did not change are shared with this data store, only those added or changed are created,
+	 * by the loader of this data store so they share its repeated values, and the columns, indexes and statistics are built once for the whole batch.
+	 * An update to a listing this data store does not have is treated as an addition, and deleting one is ignored.
+	 * @param events - the events, see Delta.upsert and Delta.delete.
+	 * @return - the new data store.
+	 */
+	public DataStore applyEvents(List<Delta> events) {
+		List<Property> updated = new ArrayList<>(properties);
+		if (replay(events, updated, listingRows, new HashMap<>(), loader)) {
+			updated.removeIf(property -> property == null);
+		}
+		DataStore dataStore = new DataStore(updated, settings, loader);
+		dataStore.logPosition = logPosition;
+		return dataStore;
+	}
+
+	/**
+	 * Applies listing events in order to a list of properties, a deleted property being set to null so the rows of the others stay the same.
+	 * @param events - the events.
+	 * @param properties - the properties, changed in place.
+	 * @param listingRows - the row of each listing id of the properties before any event.
+	 * @param addedRows - the row of each listing added by the events so far, added to.
+	 * @param loader - the loader creating the properties.
+	 * @return - true if a property was deleted.
+	 */
+	private static boolean replay(List<Delta> events, List<Property> properties, IdIndex listingRows, Map<String, Integer> addedRows, PropertyLoader loader) {
+		boolean removed = false;
+		for (Delta event : events) {
+			int row = listingRows.get(event.getId());
+			if (row == -1) {
+				row = addedRows.getOrDefault(event.getId(), -1);
+			}
+			Property previous = row == -1 ? null : properties.get(row);
+			Property property = event.applyTo(previous, loader);
+			if (row == -1 && property != null) {
+				addedRows.put(event.getId(), properties.size());
+				properties.add(property);
+			} else if (row != -1) {
+				properties.set(row, property);
+				removed |= property == null;
+			}
+		}
+		return removed;
+	}
+
+	/**
+	 * Brings the listings up to date at startup: from the checkpoint if there is one, or else the csv file,
+	 * and then the events of the log after it.
+	 * The events are read a batch at a time and applied to the list of properties, and the data store is built once at the end,
+	 * so the time taken depends on the size of the checkpoint and the events since, not on the whole log or the number of batches.
+	 * @param url - the path of the csv file, read if there is no checkpoint.
+	 * @param checkpointFile - the checkpoint file, which need not exist.
+	 * @param log - the event log.
+	 * @param batchSize - the number of events read at a time.
+	 * @return - the data store.
+	 * @throws IOException - if the checkpoint or the log cannot be read.
+	 */
+	public static DataStore recover(String url, File checkpointFile, EventLog log, int batchSize) throws IOException {
+		long start = System.nanoTime();
+		long position = EventLog.START;
+		List<Property> properties;
+		boolean fromCheckpoint = checkpointFile.exists();
+		PropertyLoader loader = new PropertyLoader();
+		if (fromCheckpoint) {
+			Checkpoint checkpoint = Checkpoint.read(checkpointFile, loader);
+			position = checkpoint.getPosition();
+			properties = new ArrayList<>(checkpoint.getProperties());
+		} else {
+			properties = loader.load(url, true);
+		}
+		long loaded = System.nanoTime();
+		IdIndex listingRows = indexListings(properties);
+		Map<String, Integer> addedRows = new HashMap<>();
+		boolean removed = false;
+		int replayed = 0;
+		List<Delta> batch = new ArrayList<>(batchSize);
+		for (position = log.read(position, batch, batchSize); !batch.isEmpty(); position = log.read(position, batch, batchSize)) {
+			removed |= replay(batch, properties, listingRows, addedRows, loader);
+			replayed += batch.size();
+			batch.clear();
+		}
+		if (removed) {
+			properties.removeIf(property -> property == null);
+		}
+		long replayedAt = System.nanoTime();
+		DataStore dataStore = new DataStore(properties, Settings.DEFAULT, loader);
+		dataStore.logPosition = position;
+		System.out.println("Loaded " + properties.size() + " properties from the " + (fromCheckpoint ? "checkpoint" : "csv file") 
+				+ " in " + (loaded - start) / 1000000 + " ms, replayed " + replayed + " events in " + (replayedAt - loaded) / 1000000
+				+ " ms and built the data store in " + (System.nanoTime() - replayedAt) / 1000000 + " ms.");
+		return dataStore;
+	}
+
+	/**
+	 * Writes a checkpoint of the properties and the position in the event log they are up to,
+	 * so the events before it need not be replayed at the next startup.
+	 * @param checkpointFile - the checkpoint file.
+	 * @throws IOException - if the checkpoint cannot be written.
+	 */
+	public void writeCheckpoint(File checkpointFile) throws IOException {
+		Checkpoint.write(checkpointFile, properties, logPosition);
+	}
+
+	/**
+	 * Get the position in the event log this data store is up to.
+	 * @return - the position, the start of the log for a data store not recovered from one.
+	 */
+	public long getLogPosition() {
+		return logPosition;
+	}
+
+	/**
+	 * Sets the position in the event log this data store is up to, once the events applied to it are in the log.
+	 * @param logPosition - the position.
+	 */
+	void setLogPosition(long logPosition) {
+		this.logPosition = logPosition;
+	}
+
+	/**
+	 * Get the version of the data held.
+	 * Every data store built, by loading, reloading or applying events, has a greater version than the ones built before it in the same run,
+	 * so answers from data stores with the same version are the same.
+	 * @return - the version.
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Get a property by its id, whatever the price range.
+	 * @param id - the listing id.
+	 * @return - the property, or null if there is no listing with the id.
+	 */
+	public Property getProperty(String id) {
+		int row = id == null ? -1 : listingRows.get(id);
+		return row == -1 ? null : columns.getProperty(row);
+	}
+
+	/**
+	 * Get many properties by their ids at once, whatever the price range.
+	 * @param ids - the listing ids.
+	 * @return - the properties, in the order of the ids, with null for the ids that have no listing.
+	 */
+	public List<Property> getPropertiesById(List<String> ids) {
+		int[] rows = listingRows.getAll(ids);
+		List<Property> properties = new ArrayList<>(rows.length);
+		for (int row : rows) {
+			properties.add(row == -1 ? null : columns.getProperty(row));
+		}
+		return properties;
+	}
+
+	/**
+	 * Get every property of a host, whatever the price range.
+	 * @param hostId - the host id.
+	 * @return - the properties of the host, in the order of the data set, empty if the host is unknown.
+	 */
+	public List<Property> getPropertiesOfHost(String hostId) {
+		return getProperties(hostIndex.getRows(hostId));
+	}
+
+	/**
+	 * Get the summary of a host: listings, boroughs, nightly revenue and whether the host looks commercial.
+	 * @param hostId - the host id.
+	 * @return - the summary, or null if the host is unknown.
+	 */
+	public HostSummary getHostSummary(String hostId) {
+		return hostIndex.getSummary(hostId);
+	}
+
+	/**
+	 * Get the hosts with the most listings.
+	 * @param k - the number of hosts.
+	 * @return - the summaries of the hosts, most listings first.
+	 */
+	public List<HostSummary> getLargestHosts(int k) {
+		return hostIndex.getLargestHosts(k);
+	}
+
+	/**
+	 * Counts the hosts that look commercial, see HostIndex.
+	 * @return - the number of commercial hosts.
+	 */
+	public int getNumberOfCommercialHosts() {
+		return hostIndex.getNumberOfCommercialHosts();
+	}
+
+	/**
+	 * Estimates the distinct hosts of the properties of a borough within a price range.
+	 * The estimate is merged from HyperLogLog sketches, within the error set by setDistinctCountError.
+	 * @param borough - the borough, normal or formatted name, null for every borough.
+	 * @param minimumPrice - the minimum price.
+	 * @param maximumPrice - the maximum price.
+	 * @return - the estimated number of distinct hosts.
+	 */
+	public long getApproximateNumberOfHosts(String borough, int minimumPrice, int maximumPrice) {
+		return estimateDistinct(distinctHosts, borough, minimumPrice, maximumPrice);
+	}
+
+	/**
+	 * Estimates the distinct listings of a borough within a price range.
+	 * Unlike the number of properties, a listing appearing twice in the data set is only counted once.
+	 * @param borough - the borough, normal or formatted name, null for every borough.
+	 * @param minimumPrice - the minimum price.
+	 * @param maximumPrice - the maximum price.
+	 * @return - the estimated number of distinct listings.
+	 */
+	public long getApproximateNumberOfListings(String borough, int minimumPrice, int maximumPrice) {
+		return estimateDistinct(distinctListings, borough, minimumPrice, maximumPrice);
+	}
+
+	/**
+	 * Estimates a distinct count from its sketches.
+	 * @param distinctCounts - the sketches.
+	 * @param borough - the borough, normal or formatted name, null for every borough.
+	 * @param minimumPrice - the minimum price.
+	 * @param maximumPrice - the maximum price.
+	 * @return - the estimated distinct count.
+	 */
+	private long estimateDistinct(DistinctCounts distinctCounts, String borough, int minimumPrice, int maximumPrice) {
+		int boroughCode = borough == null ? -1 : columns.getBoroughCode(borough);
+		if (borough != null && boroughCode == -1) {
+			return 0;
+		}
+		return distinctCounts.getSketch(boroughCode, minimumPrice, maximumPrice).estimate();
+	}
+
+	/**
+	 * Get the price histogram of a borough.
+	 * @param borough - the borough, normal or formatted name.
+	 * @return - the price histogram, null if there is no property in that borough.
+	 */
+	PriceHistogram getBoroughPriceHistogram(String borough) {
+		int boroughCode = columns.getBoroughCode(borough);
+		return boroughCode == -1 ? null : boroughPriceHistograms[boroughCode];
+	}
+
+	/**
+	 * Get the group-by cube of all the properties, for breakdowns beyond the statistics of the statistics screen.
+	 * @return - the cube.
+	 */
+	public GroupByCube getCube() {
+		return cube;
+	}
+
+	/**
+	 * Finds the properties of a borough and a price range with the greatest values of a numeric attribute.
+	 * @param column - the attribute to rank the properties by.
+	 * @param k - the number of properties to find.
+	 * @param lastWins - true for the property later in the data set to rank first on a tie, false for the earlier one.
+	 * @param borough - the borough, normal or formatted name, null for every borough.
+	 * @param minimumPrice - the minimum price.
+	 * @param maximumPrice - the maximum price.
+	 * @return - the properties, best first.
+	 */
+	public List<Property> getTopProperties(NumericColumn column, int k, boolean lastWins, String borough, int minimumPrice, int maximumPrice) {
+		int boroughCode = borough == null ? -1 : columns.getBoroughCode(borough);
+		if (borough != null && boroughCode == -1) {
+			return new ArrayList<>();
+		}
+		int from = priceHistogram.firstIndex(minimumPrice);
+		int to = minimumPrice > maximumPrice ? from : priceHistogram.firstIndex(maximumPrice + 1L);
+		int[] rows = new int[to - from];
+		int size = 0;
+		for (int i = from; i < to; i++) {
+			int row = rowsByPrice[i];
+			if (boroughCode == -1 || columns.getBoroughCodes()[row] == boroughCode) {
+				rows[size++] = row;
+			}
+		}
+		return getProperties(aggregator.topK(rows, size, k, column.of(columns), lastWins));
+	}
+
+	/**
+	 * Get the properties at some rows.
+	 * @param rows - the rows.
+	 * @return - the properties, in the order of the rows.
+	 */
+	List<Property> getProperties(int[] rows) {
+		List<Property> properties = new ArrayList<>(rows.length);
+		for (int row : rows) {
+			properties.add(columns.getProperty(row));
+		}
+		return properties;
+	}
+
+	/**
+	 * Get the numeric attributes of the properties, column by column.
+	 * @return - the columns.
+	 */
+	PropertyColumns getColumns() {
+		return columns;
+	}
+
+	/**
+	 * Get the cumulative price histogram of all the properties.
+	 * @return - the price histogram.
+	 */
+	PriceHistogram getPriceHistogram() {
+		return priceHistogram;
+	}
+
+	/**
+	 * Get all the rows sorted by price.
+	 * @return - the rows, which must not be changed.
+	 */
+	int[] getRowsByPrice() {
+		return rowsByPrice;
+	}
+
+	/**
+	 * Get the aggregator running the statistics.
+	 * @return - the aggregator.
+	 */
+	ParallelAggregator getAggregator() {
+		return aggregator;
+	}
+
+	/**
+	 * Get the aggregator running the progressive statistics.
+	 * @return - the progressive aggregator.
+	 */
+	ProgressiveAggregator getProgressiveAggregator() {
+		return progressiveAggregator;
+	}
+
+	/**
+	 * Estimates the heap taken by the data store, from the number of properties.
+	 * @return - the estimated number of bytes.
+	 */
+	public long getEstimatedSizeInBytes() {
+		return (long) columns.size() * ESTIMATED_BYTES_PER_PROPERTY;
+	}
+
+	/**
+	 * Get all the properties within the software.
+	 * Used in the JUNIT test class.
+	 * @return - a list of all the properties.
+	 */
+	public List<Property> getAllProperties() {
+		return properties;
+	}
+}
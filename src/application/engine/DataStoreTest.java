@@ -0,0 +1,371 @@
+package application.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.jupiter.api.Test;
+
+import application.benchmark.BenchmarkData;
+import application.property.Delta;
+import application.property.EventLog;
+import application.property.Property;
+import application.property.PropertyLoader;
+
+class DataStoreTest {
+
+	/**
+	 * The date store.
+	 */
+	private DataStore dataStore; 
+
+	/**
+	 * The view of the data store for every price.
+	 */
+	private DataStoreView view;
+
+	/**
+	 * The list of all the properties in the software.
+	 */
+	private List<Property> properties;	
+
+	/**
+	 * Default constructor for test class DataStoreTest
+	 */
+	public DataStoreTest()  {
+		this.dataStore = new DataStore();
+		this.view = dataStore.view(0, 100000);
+		this.properties = dataStore.getAllProperties();
+	}
+
+	/**
+	 * Empty.
+	 */
+	@Before
+	public void setUp() {
+
+	}
+
+
+	/**
+	 * Testing the get properties method.
+	 */
+	@Test
+	public void testGetProperties() {
+		assertNotNull(properties.stream().filter(property -> property.getPrice() >= 0 && property.getPrice() <= 10000).distinct().collect(Collectors.toList()));
+		assertEquals(properties.stream().filter(property -> property.getPrice() >= 5 && property.getPrice() <= 5).distinct().collect(Collectors.toList()).size(), 0);
+	}
+
+
+	/**
+	 * Testing the property count for a given borough.
+	 */
+	@Test
+	public void testGetPropertiesByBorough() {
+		assertEquals(view.getProperties("Croydon").size(), 553);
+
+	}
+
+	/**
+	 * Tests if the method returns correct number of boroughs.
+	 */
+	@Test
+	public void testGetBoroughs() {
+		assertEquals(view.getBoroughs().size(),33);
+
+	}
+
+	/**
+	 * Tests if the method returns correct number of properties in a given borough.
+	 */
+	@Test
+	public void testGetNumberOfProperties() { 
+		assertEquals(view.getNumberOfProperties("Bromley"), 391);
+	}
+
+	/**
+	 * Tests if the method returns correct price for the cheapest property.
+	 */
+	@Test
+	public void testGetCheapestPropertyPrice() {
+		assertEquals(view.getCheapestPropertyPrice("Croydon"), 8);		
+	}
+
+	/**
+	 * Tests if the method returns correct price of the dearest property.
+	 */
+	@Test
+	public void testDearestPropertyPrice() {
+		assertEquals(view.getDearestPropertyPrice("Croydon"), 405);
+	}
+
+	/**
+	 * Tests if the method returns correct number of available properties.
+	 */
+	@Test
+	public void testGetAvailableProperties() {
+		assertEquals(view.getAvailableProperties(), 41941);
+	}
+
+	/** 
+	 * Tests if the method returns correct number of homes.
+	 */
+	@Test
+	public void testGetNumberOfHomes() {
+		assertEquals(view.getNumberOfHomes(),27175);
+	}
+
+	/**
+	 * Tests if the method correctly returns the priciest borough.
+	 */
+	@Test
+	public void testGetPriciestBorough() {
+		assertEquals(view.getPriciestBorough(), "Westminster");	
+	}
+
+	/**
+	 * Tests if the method correctly returns the average of total reviews.
+	 */
+	@Test
+	public void testAverageReviews() {
+		assertEquals(view.averageReviews(), 12.0);
+	}
+
+	/**
+	 * Tests if the method correctly returns the property that is closest to the North Pole.
+	 */
+	@Test
+	public void testClosestNorthPole() {
+		Property temp = new Property("14361646","Home from Home Enfield Area","88067875","Richard","Enfield",51.68310107,-0.110834286,"Private room",50,1,0,"",-1.0,1,365);
+		assertEquals(view.getClosestPropertyToNorthPole().getId(),temp.getId());
+	}
+
+	/**
+	 * Tests if the method correctly returns the property with the biggest minimum number of nights.
+	 */
+	@Test
+	public void testLongestStay() {
+		Property temp = new Property("13261420","Large double room in East Sheen","74651323","Inese","Richmond upon Thames",51.46427403,-0.275216508,"Private room",400,5000,3,"31/07/2016",0.33,1,89);
+		assertEquals(view.getLongestStay().getId(), temp.getId());
+	} 
+
+	/**
+	 * Tests if the method correctly returns the array with numbers of rooms of given type.
+	 */
+	@Test
+	public void testGetNoOfRoomTypes() {
+		int[] x = new int[] {26019,27175,710};
+		Assert.assertArrayEquals(x, view.getNoOfRoomTypes());
+	}
+
+	/**
+	 * Tests if the method correctly returns the property that has the latest review.
+	 */
+	@Test
+	public void testGetLatestReview() {
+		Property temp = new Property("17212442","Lovely double Room @ CITY AIRPORT & CANARY WHARF","14983028","Sk","Newham",51.51818901,0.006913357,"Private room",28,1,1,"05/03/2017",1.0,3,24);
+		assertEquals(view.getLatestReview().getId(), temp.getId());	
+	}
+
+	/**
+	 * Tests if the method correctly returns the list with properties within the range.
+	 */
+	@Test
+	public void testGetPropertiesWithInPriceRange() {
+		assertFalse(view.getPropertiesWithinPriceRange().size() == 0);
+	}
+
+	/**
+	 * Tests that users with the same price range share a view, users with different ones each get their own
+	 * and selecting something never changes the context it was selected in.
+	 */
+	@Test
+	public void testViews() {
+		QueryContext cheap = QueryContext.EMPTY.withPriceRange(0, 50);
+		QueryContext dear = cheap.withPriceRange(200, 100000).withBorough("Croydon");
+		assertEquals(null, cheap.getBorough());
+		assertFalse(QueryContext.EMPTY.hasPriceRange());
+		DataStoreView cheapView = dataStore.view(cheap);
+		assertSame(cheapView, dataStore.view(cheap.withBorough("Camden")));
+		assertEquals(dataStore.getNumberOfProperties(0, 50), cheapView.getPropertiesWithinPriceRange().size());
+		assertEquals(dataStore.getNumberOfProperties(200, 100000), dataStore.view(dear).getPropertiesWithinPriceRange().size());
+		for (int price = 1; price <= DataStore.VIEW_CACHE_SIZE; price++) {
+			dataStore.view(price, 100000);
+		}
+		assertNotSame(cheapView, dataStore.view(cheap));
+		assertEquals(cheapView.getPropertiesWithinPriceRange(), dataStore.view(cheap).getPropertiesWithinPriceRange());
+	}
+
+	/**
+	 * Tests that the users asking for the same price range at once share one view, built while other price ranges are asked for.
+	 * @throws Exception - if a view fails.
+	 */
+	@Test
+	public void testConcurrentViews() throws Exception {
+		DataStore generated = new DataStore(BenchmarkData.generate(20000, 3));
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<DataStoreView>> views = new ArrayList<>();
+			for (int i = 0; i < 32; i++) {
+				int minimumPrice = i % 2 == 0 ? 7 : i % 6;
+				views.add(executor.submit(() -> generated.view(minimumPrice, 700)));
+			}
+			for (int i = 0; i < views.size(); i++) {
+				DataStoreView view = views.get(i).get();
+				if (i % 2 == 0) {
+					assertSame(views.get(0).get(), view);
+				}
+				assertEquals(generated.getNumberOfProperties(view.getMinimumPrice(), 700), view.getPropertiesWithinPriceRange().size());
+			}
+		} finally {
+			executor.shutdown();
+		}
+		generated.shutdown();
+	}
+
+	/**
+	 * Tests that a price range without any property has empty statistics rather than failing.
+	 */
+	@Test
+	public void testEmptyPriceRange() {
+		DataStoreView empty = new DataStore(BenchmarkData.generate(1000, 3)).view(100000, 200000);
+		assertEquals(0, empty.getPropertiesWithinPriceRange().size());
+		assertEquals(0.0, empty.averageReviews());
+		assertEquals("", empty.getPriciestBorough());
+		assertEquals(0, empty.getTotalBoroughPrice(empty.getPriciestBorough()));
+		assertEquals(null, empty.getClosestPropertyToNorthPole());
+		assertEquals(null, empty.getLongestStay());
+		assertEquals(null, empty.getLatestReview());
+		assertEquals(0, empty.getAvailableProperties());
+		Assert.assertArrayEquals(new int[3], empty.getNoOfRoomTypes());
+	}
+
+	/**
+	 * Tests that a new version of a data store keeps the settings of the old one, which still answers once shut down.
+	 */
+	@Test
+	public void testSettingsKept() {
+		List<Property> properties = BenchmarkData.generate(5000, 17);
+		DataStore dataStore = new DataStore(properties);
+		dataStore.setParallelism(2, 100);
+		dataStore.setDistinctCountError(0.05);
+		DataStore next = dataStore.applyEvents(Arrays.asList(Delta.delete(properties.get(0).getId())));
+		assertEquals(2, next.getAggregator().getParallelism());
+		assertSame(dataStore.getSettings(), next.getSettings());
+		int available = dataStore.view(3, 997).getAvailableProperties();
+		dataStore.shutdown();
+		assertEquals(available, dataStore.view(3, 997).getAvailableProperties());
+		next.shutdown();
+	}
+
+	/**
+	 * Tests looking up properties by their ids, one at a time and in a batch.
+	 */
+	@Test
+	public void testGetPropertyById() {
+		List<Property> properties = BenchmarkData.generate(5000, 11);
+		DataStore dataStore = new DataStore(properties);
+		Property first = properties.get(0);
+		assertEquals(first, dataStore.getProperty(first.getId()));
+		assertEquals(null, dataStore.getProperty("not an id"));
+		List<String> ids = properties.stream().map(Property::getId).collect(Collectors.toList());
+		ids.add("not an id");
+		List<Property> found = dataStore.getPropertiesById(ids);
+		assertEquals(ids.size(), found.size());
+		for (int i = 0; i < properties.size(); i++) {
+			assertEquals(ids.get(i), found.get(i).getId());
+		}
+		assertEquals(null, found.get(properties.size()));
+	}
+
+	/**
+	 * Testing applying events, an update, a delete, and a new listing updated in the same batch, leaving the data store as it was.
+	 */
+	@Test
+	public void testApplyEvents() {
+		List<Property> properties = BenchmarkData.generate(5000, 13);
+		DataStore dataStore = new DataStore(properties);
+		Property first = properties.get(0);
+		Property second = properties.get(1);
+		String[] priceChange = new String[Delta.FIELDS.length];
+		priceChange[0] = first.getId();
+		priceChange[8] = String.valueOf(first.getPrice() + 1);
+		String[] added = PropertyLoader.toLine(second);
+		added[0] = "new listing";
+		String[] addedPriceChange = new String[Delta.FIELDS.length];
+		addedPriceChange[0] = "new listing";
+		addedPriceChange[8] = "12";
+		DataStore updated = dataStore.applyEvents(Arrays.asList(Delta.upsert(priceChange), Delta.delete(second.getId()), Delta.upsert(added), Delta.upsert(addedPriceChange)));
+		assertEquals(properties.size(), updated.getAllProperties().size());
+		assertEquals(first.getPrice() + 1, updated.getProperty(first.getId()).getPrice());
+		assertEquals(first.getHostName(), updated.getProperty(first.getId()).getHostName());
+		assertEquals(null, updated.getProperty(second.getId()));
+		assertEquals(12, updated.getProperty("new listing").getPrice());
+		assertEquals(second.getDescription(), updated.getProperty("new listing").getDescription());
+		assertEquals(properties.get(2), updated.getProperty(properties.get(2).getId()));
+		assertEquals(first, dataStore.getProperty(first.getId()));
+		assertEquals(second, dataStore.getProperty(second.getId()));
+	}
+
+	/**
+	 * Testing recovering from a checkpoint and the events of the log after it.
+	 * @throws IOException - if the files cannot be written.
+	 */
+	@Test
+	public void testRecover() throws IOException {
+		List<Property> properties = BenchmarkData.generate(5000, 13);
+		DataStore dataStore = new DataStore(properties);
+		File logFile = File.createTempFile("listings", ".log");
+		File checkpointFile = File.createTempFile("listings", ".checkpoint");
+		logFile.delete();
+		logFile.deleteOnExit();
+		checkpointFile.deleteOnExit();
+		Property first = properties.get(0);
+		dataStore.writeCheckpoint(checkpointFile);
+		try (EventLog log = new EventLog(logFile)) {
+			log.append(Delta.delete(first.getId()));
+			DataStore recovered = DataStore.recover(null, checkpointFile, log, 100);
+			assertEquals(properties.size() - 1, recovered.getAllProperties().size());
+			assertEquals(null, recovered.getProperty(first.getId()));
+			assertEquals(log.getEnd(), recovered.getLogPosition());
+			recovered.writeCheckpoint(checkpointFile);
+			log.append(Delta.upsert(PropertyLoader.toLine(first)));
+			log.append(Delta.delete(properties.get(1).getId()));
+			log.append(Delta.upsert(PropertyLoader.toLine(properties.get(1))));
+		}
+		try (EventLog log = new EventLog(logFile)) {
+			//A batch an event, the events still being replayed into one data store.
+			DataStore recovered = DataStore.recover(null, checkpointFile, log, 1);
+			assertEquals(properties.size(), recovered.getAllProperties().size());
+			assertEquals(log.getEnd(), recovered.getLogPosition());
+			assertEquals(properties.get(1).getPrice(), recovered.getProperty(properties.get(1).getId()).getPrice());
+			assertEquals(first.getDescription(), recovered.getProperty(first.getId()).getDescription());
+			assertEquals(first.getPrice(), recovered.getProperty(first.getId()).getPrice());
+			//A listing written afterwards shares the values of those recovered.
+			Property third = recovered.getProperty(properties.get(2).getId());
+			String[] added = PropertyLoader.toLine(third);
+			for (int i = 0; i < added.length; i++) {
+				added[i] = new String(added[i]);
+			}
+			added[0] = "new listing";
+			Property written = recovered.applyEvents(Arrays.asList(Delta.upsert(added))).getProperty("new listing");
+			assertSame(third.getNeighbourhood(), written.getNeighbourhood());
+			assertSame(third.getRoomType(), written.getRoomType());
+			assertSame(third.getHostId(), written.getHostId());
+		}
+	}
+}
@@ -0,0 +1,584 @@
+package application.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import application.property.NumericColumn;
+import application.property.Property;
+import application.property.PropertyColumns;
+import application.query.Aggregation;
+import application.query.ColumnScan;
+import application.query.CubeAggregate;
+import application.query.Estimate;
+import application.query.GroupByCube;
+import application.query.ParallelAggregator;
+import application.query.PriceHistogram;
+import application.query.PriceSummary;
+import application.query.ProgressiveAggregator;
+import application.query.RowPublisher;
+
+/**
+ * The properties of a data store within a price range, and the statistics of the statistics and map screens over them.
+ * A view holds the rows within the price range and the results it has computed, never a copy of the properties,
+ * and never changes once computed, so any number of users with the same price range can share it (see DataStore.view).
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public class DataStoreView {
+
+	/**
+	 * The data store.
+	 */
+	private final DataStore dataStore;
+
+	/**
+	 * The columns of the data store.
+	 */
+	private final PropertyColumns columns;
+
+	/**
+	 * The price range.
+	 */
+	private final int minimumPrice, maximumPrice;
+
+	/**
+	 * The rows of the properties within the price range, in the order of the data set.
+	 * Only the first numberOfRowsWithinPriceRange entries are used.
+	 */
+	private final int[] rowsWithinPriceRange;
+
+	/**
+	 * The number of rows within the price range.
+	 */
+	private final int numberOfRowsWithinPriceRange;
+
+	/**
+	 * The properties within the price range, null until asked for.
+	 */
+	private List<Property> propertiesWithinPriceRange;
+
+	/**
+	 * A map of the neighbourhood prices, null until asked for.
+	 * The key -> String : Neighbourhood name.
+	 * The value -> Integer : Total price of neighbourhood properties.
+	 */
+	private Map<String, Integer> neighbourhoodPrices;
+
+	/**
+	 * Selects the rows of a data store within a price range.
+	 * A narrow range is copied from the rows sorted by price and put back in row order, a wide one is scanned from the price column.
+	 * @param dataStore - the data store.
+	 * @param minimumPrice - the minimum price.
+	 * @param maximumPrice - the maximum price.
+	 */
+	DataStoreView(DataStore dataStore, int minimumPrice, int maximumPrice) {
+		this.dataStore = dataStore;
+		this.columns = dataStore.getColumns();
+		this.minimumPrice = minimumPrice;
+		this.maximumPrice = maximumPrice;
+		PriceHistogram priceHistogram = dataStore.getPriceHistogram();
+		int count = priceHistogram.count(minimumPrice, maximumPrice);
+		//The scan writes one row past the last one it keeps.
+		int[] rows = new int[count + 1];
+		if (count < columns.size() / 8) {
+			System.arraycopy(dataStore.getRowsByPrice(), priceHistogram.firstIndex(minimumPrice), rows, 0, count);
+			Arrays.sort(rows, 0, count);
+			this.numberOfRowsWithinPriceRange = count;
+		} else {
+			this.numberOfRowsWithinPriceRange = ColumnScan.selectRange(columns.getPrices(), minimumPrice, maximumPrice, rows);
+		}
+		this.rowsWithinPriceRange = rows;
+	}
+
+	/**
+	 * Get the data store.
+	 * @return - the data store.
+	 */
+	public DataStore getDataStore() {
+		return dataStore;
+	}
+
+	/**
+	 * Get the minimum price.
+	 * @return - the minimum price.
+	 */
+	public int getMinimumPrice() {
+		return minimumPrice;
+	}
+
+	/**
+	 * Get the maximum price.
+	 * @return - the maximum price.
+	 */
+	public int getMaximumPrice() {
+		return maximumPrice;
+	}
+
+	/**
+	 * Get the properties within the price range.
+	 * @return - the list of properties within the price range, which must not be changed.
+	 */
+	public synchronized List<Property> getPropertiesWithinPriceRange() {
+		if (propertiesWithinPriceRange == null) {
+			List<Property> properties = new ArrayList<>(numberOfRowsWithinPriceRange);
+			for (int i = 0; i < numberOfRowsWithinPriceRange; i++) {
+				properties.add(columns.getProperty(rowsWithinPriceRange[i]));
+			}
+			this.propertiesWithinPriceRange = properties;
+		}
+		return propertiesWithinPriceRange;
+	}
+
+	/**
+	 * Creates a list of all properties within a given neighbourhood/borough.
+	 * Takes into account the formatted borough name as well as the normal borough name.
+	 * @param - the neighbourHood/borough.
+	 * @return - list of properties in given borough.
+	 */
+	public List<Property> getProperties(String neighbourHood) {
+		int boroughCode = columns.getBoroughCode(neighbourHood);
+		int[] boroughCodes = columns.getBoroughCodes();
+		List<Property> properties = new ArrayList<>();
+		for (int i = 0; boroughCode != -1 && i < numberOfRowsWithinPriceRange; i++) {
+			if (boroughCodes[rowsWithinPriceRange[i]] == boroughCode) {
+				properties.add(columns.getProperty(rowsWithinPriceRange[i]));
+			}
+		}
+		return properties;
+	}
+
+	/**
+	 * Publishes the properties of a borough within the price range in batches, as fast as the subscriber requests them.
+	 * Takes into account the formatted borough name as well as the normal borough name.
+	 * @param borough - the borough.
+	 * @param batchSize - the largest number of properties in a batch.
+	 * @return - the publisher of the properties, in the order of the data set.
+	 */
+	public Flow.Publisher<List<Property>> publishProperties(String borough, int batchSize) {
+		int boroughCode = columns.getBoroughCode(borough);
+		int[] boroughCodes = columns.getBoroughCodes();
+		return new RowPublisher(columns, rowsWithinPriceRange, boroughCode == -1 ? 0 : numberOfRowsWithinPriceRange,
+				row -> boroughCodes[row] == boroughCode, batchSize, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Publishes the properties within the price range in batches, as fast as the subscriber requests them.
+	 * @param batchSize - the largest number of properties in a batch.
+	 * @return - the publisher of the properties, in the order of the data set.
+	 */
+	public Flow.Publisher<List<Property>> publishPropertiesWithinPriceRange(int batchSize) {
+		return new RowPublisher(columns, rowsWithinPriceRange, numberOfRowsWithinPriceRange, null, batchSize, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Finds the properties within the price range of the property finder: a minimum stay of at least a number of nights,
+	 * and a description containing one of the phrases, whatever the case, if there are any.
+	 * A property is listed once for each phrase it contains, as the property finder has always listed them.
+	 * @param minimumNights - the least minimum stay.
+	 * @param phrases - the phrases, null ones are skipped, or none for every property with a long enough stay.
+	 * @return - the properties found, in the order of the data set.
+	 */
+	public List<Property> findProperties(int minimumNights, Collection<String> phrases) {
+		List<String> lowerCasePhrases = new ArrayList<>(phrases.size());
+		for (String phrase : phrases) {
+			if (phrase != null) {
+				lowerCasePhrases.add(phrase.toLowerCase());
+			}
+		}
+		List<Property> found = new ArrayList<>();
+		for (Property property : getPropertiesWithinPriceRange()) {
+			if (property.getMinimumNights() >= minimumNights) { //This has to match before anything else can.
+				if (!phrases.isEmpty()) {
+					String description = property.getDescription().toLowerCase();
+					for (String phrase : lowerCasePhrases) {
+						if (description.contains(phrase)) {
+							found.add(property);
+						}
+					}
+				} else {
+					found.add(property);
+				}
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Creates an empty list of boroughs.
+	 * Loops through all properties within the price range and if the borough has not been put in the list, it inserts it.
+	 * @returns a list of all the boroughs.
+	 */
+	public List<String> getBoroughs() {
+		List<String> boroughs = new ArrayList<String>();
+		getPropertiesWithinPriceRange().forEach(property -> {
+			if (!boroughs.contains(property.getNeighbourhood())) {
+				boroughs.add(property.getNeighbourhood());
+			}
+		});
+		return boroughs;
+	}
+
+	/**
+	 * Counts the properties of a borough within the price range, read from the borough price histogram.
+	 * Includes the check that if the formatted borough name matches the borough (used for images).
+	 * @param borough - the borough we want to check.
+	 * @return - the number of properties in that borough.
+	 */
+	public int getNumberOfProperties(String borough) {
+		return dataStore.getNumberOfProperties(borough, minimumPrice, maximumPrice);
+	}
+
+	/**
+	 * Return the cheapest property for properties within the price range.
+	 * @return - the cheapest price within the collection.
+	 */
+	public int getCheapestPropertyPrice(String borough) {
+		PriceHistogram histogram = dataStore.getBoroughPriceHistogram(borough);
+		int cheapestPrice = histogram == null ? Integer.MAX_VALUE : histogram.lowestPrice(minimumPrice, maximumPrice);
+		return Math.min(cheapestPrice, 8000); //Highest cost is 7000, using a larger value when there is no property.
+	}
+
+	/**
+	 * Return the dearest property for properties within the price range.
+	 * @return - the priciest property within the collection.
+	 */
+	public int getDearestPropertyPrice(String borough) {
+		PriceHistogram histogram = dataStore.getBoroughPriceHistogram(borough);
+		int dearestPrice = histogram == null ? Integer.MIN_VALUE : histogram.highestPrice(minimumPrice, maximumPrice);
+		return Math.max(dearestPrice, 0); //Zero when there is no property.
+	}
+
+	/**
+	 * Summarises the prices of the properties of a borough within the price range: median, 90th and 99th percentile
+	 * prices and a small histogram.
+	 * @param borough - the borough, normal or formatted name.
+	 * @return - the price summary.
+	 */
+	public PriceSummary getPriceSummary(String borough) {
+		return dataStore.getPriceSummary(borough, null, minimumPrice, maximumPrice);
+	}
+
+	/**
+	 * Counts the properties within the price range that are available at least once in a year.
+	 * @return - the number of available properties in a year.
+	 */
+	public int getAvailableProperties() {
+		GroupByCube.Slice slice = getCubeSliceWithinPriceRange();
+		if (slice != null) {
+			return (int) slice.whereBetween(GroupByCube.AVAILABILITY_BAND, 1, Integer.MAX_VALUE).aggregate().getCount();
+		}
+		return aggregator().countRange(columns.getAvailability365(), rowsWithinPriceRange, numberOfRowsWithinPriceRange, 1, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * The progressive variant of getAvailableProperties.
+	 * Publishes estimates on a background thread, starting with a sample of each borough, until the exact count.
+	 * @param listener - called with each estimate.
+	 * @return - the running statistic, which can be cancelled.
+	 */
+	public Future<?> getAvailablePropertiesProgressively(Consumer<Estimate> listener) {
+		int[] availability365 = columns.getAvailability365();
+		return progressiveAggregator().totals(rowsWithinPriceRange, numberOfRowsWithinPriceRange, estimates -> listener.accept(estimates[0]),
+				row -> availability365[row] > 0 ? 1 : 0);
+	}
+
+	/**
+	 * Counts the properties within the price range that are either an entire home or an apartment.
+	 * @return - the number of properties that is an entire home or an apartment (not private rooms).
+	 */
+	public int getNumberOfHomes() {
+		GroupByCube.Slice slice = getCubeSliceWithinPriceRange();
+		if (slice != null) {
+			return (int) slice.where(GroupByCube.ROOM_TYPE, columns.getRoomTypeCode("Entire home/apt")).aggregate().getCount();
+		}
+		return aggregator().count(rowsWithinPriceRange, numberOfRowsWithinPriceRange,
+				row -> columns.getProperty(row).getRoomType().equalsIgnoreCase("Entire home/apt"));
+	}
+
+	/**
+	 * The progressive variant of getNumberOfHomes.
+	 * @param listener - called with each estimate, the last one being exact.
+	 * @return - the running statistic, which can be cancelled.
+	 */
+	public Future<?> getNumberOfHomesProgressively(Consumer<Estimate> listener) {
+		int[] roomTypeCodes = columns.getRoomTypeCodes();
+		int homes = columns.getRoomTypeCode("Entire home/apt");
+		return progressiveAggregator().totals(rowsWithinPriceRange, numberOfRowsWithinPriceRange, estimates -> listener.accept(estimates[0]),
+				row -> roomTypeCodes[row] == homes ? 1 : 0);
+	}
+
+	/**
+	 * Maps the boroughs to a value of the total price of renting properties in each borough in accordance to the minimum
+	 * number of nights stayed.
+	 * Calculates the price of staying at each property for the minimum number of nights and
+	 * sums up these prices for each borough taking into account the given price range.
+	 * Each range of properties is summed into its own map and the maps are then merged.
+	 * The map is computed the first time it is needed and kept with the view.
+	 * @Key - the borough
+	 * @Value - the total sum of prices of properties in accordance to minimum number of nights.
+	 * @return - the map.
+	 */
+	private synchronized Map<String, Integer> getNeighbourhoodPrices() {
+		if (neighbourhoodPrices != null) {
+			return neighbourhoodPrices;
+		}
+		GroupByCube.Slice slice = getCubeSliceWithinPriceRange();
+		if (slice != null) {
+			CubeAggregate[] boroughs = slice.rollUp(GroupByCube.BOROUGH);
+			this.neighbourhoodPrices = new HashMap<>();
+			for (int boroughCode = 0; boroughCode < boroughs.length; boroughCode++) {
+				if (boroughs[boroughCode].getCount() > 0) {
+					neighbourhoodPrices.put(columns.getBoroughNames().get(boroughCode), (int) boroughs[boroughCode].getSum(GroupByCube.STAY_PRICE));
+				}
+			}
+			return neighbourhoodPrices;
+		}
+		int[] prices = columns.getPrices();
+		int[] minimumNights = columns.getMinimumNights();
+		this.neighbourhoodPrices = aggregator().aggregate(rowsWithinPriceRange, numberOfRowsWithinPriceRange, new Aggregation<Map<String, Integer>>() {
+			@Override
+			public Map<String, Integer> create() {
+				return new HashMap<>();
+			}
+
+			@Override
+			public void accumulate(Map<String, Integer> totals, int[] rows, int from, int to) {
+				for (int i = from; i < to; i++) {
+					int row = rows[i];
+					totals.merge(columns.getProperty(row).getNeighbourhood(), minimumNights[row] * prices[row], Integer::sum);
+				}
+			}
+
+			@Override
+			public Map<String, Integer> merge(Map<String, Integer> left, Map<String, Integer> right) {
+				right.forEach((neighbourhood, totalPrice) -> left.merge(neighbourhood, totalPrice, Integer::sum));
+				return left;
+			}
+		});
+		return neighbourhoodPrices;
+	}
+
+	/**
+	 * Iterates the map implemented and returns the name of the borough with the greatest price value.
+	 * @return - the borough with the greatest total price.
+	 */
+	public String getPriciestBorough() {
+		String priciestNeighbourhood = "";
+		int price = 0;
+		for (Map.Entry<String, Integer> entry : getNeighbourhoodPrices().entrySet()) {
+			String neighbourhood = entry.getKey();
+			int priceOfNeighbourhood = entry.getValue();
+			if (priceOfNeighbourhood > price) {
+				price = priceOfNeighbourhood;
+				priciestNeighbourhood = neighbourhood;
+			}
+		}
+		return priciestNeighbourhood;
+	}
+
+	/**
+	 * Get the total price of a given borough.
+	 * Price is calculated by the price per night multiplied by the minimum nights it is available for.
+	 * @param borough - the borough.
+	 * @return - the total borough price, 0 if the borough has no property within the price range.
+	 */
+	public int getTotalBoroughPrice(String borough) {
+		return getNeighbourhoodPrices().getOrDefault(borough, 0);
+	}
+
+	/**
+	 * Sums up the number of reviews of all properties within the given price range.
+	 * Then divides it by number of properties within the price range.
+	 * @return - average number of reviews for all properties, 0 if there is no property within the price range.
+	 */
+	public double averageReviews() {
+		if (numberOfRowsWithinPriceRange == 0) {
+			return 0;
+		}
+		GroupByCube.Slice slice = getCubeSliceWithinPriceRange();
+		if (slice != null) {
+			return slice.aggregate().getSum(GroupByCube.NUMBER_OF_REVIEWS) / numberOfRowsWithinPriceRange;
+		}
+		long sum = aggregator().sum(columns.getNumberOfReviews(), rowsWithinPriceRange, numberOfRowsWithinPriceRange);
+		return sum / numberOfRowsWithinPriceRange;
+	}
+
+	/**
+	 * The progressive variant of averageReviews.
+	 * The exact estimate is rounded down to a whole number of reviews, as averageReviews.
+	 * @param listener - called with each estimate, the last one being exact.
+	 * @return - the running statistic, which can be cancelled.
+	 */
+	public Future<?> averageReviewsProgressively(Consumer<Estimate> listener) {
+		int[] numberOfReviews = columns.getNumberOfReviews();
+		return progressiveAggregator().mean(rowsWithinPriceRange, numberOfRowsWithinPriceRange, row -> numberOfReviews[row], estimate -> {
+			if (estimate.isExact()) {
+				estimate = new Estimate(Math.floor(estimate.getValue()), 0, estimate.getProcessed(), estimate.getTotal());
+			}
+			listener.accept(estimate);
+		});
+	}
+
+	/**
+	 * ADDTIONAL STATISTIC 1:
+	 * Returns the property within the price range with the greatest latitude.
+	 * This is the closest to the north Pole as the latitude there is 90, whichever hemisphere the city is in.
+	 * Longitude can be ignored as it is 0 at the north pole.
+	 * @return - the property with greatest latitude, null if there is no property within the price range.
+	 */
+	public Property getClosestPropertyToNorthPole() {
+		return getTopProperty(NumericColumn.LATITUDE, false);
+	}
+
+	/**
+	 * ADDITIONAL STATISTIC 2:
+	 * Iterates the properties within the price range and returns the property with the longest
+	 * minimum number of nights.
+	 * @return - the property within the data set with the longest minimum number of nights, null if there is no property within the price range.
+	 */
+	public Property getLongestStay() {
+		return getTopProperty(NumericColumn.MINIMUM_NIGHTS, false);
+	}
+
+	/**
+	 * ADDITIONAL STATISTIC 3
+	 * Iterates over properties within price range collection and returns and array with number of rooms of the given type.
+	 * @return - number of rooms of the given type
+	 */
+	public int[] getNoOfRoomTypes() {
+		GroupByCube.Slice slice = getCubeSliceWithinPriceRange();
+		if (slice != null) {
+			CubeAggregate[] roomTypes = slice.rollUp(GroupByCube.ROOM_TYPE);
+			int privateRooms = getCount(roomTypes, columns.getRoomTypeCode("Private room"));
+			int sharedRooms = getCount(roomTypes, columns.getRoomTypeCode("Shared room"));
+			return new int[] {privateRooms, numberOfRowsWithinPriceRange - privateRooms - sharedRooms, sharedRooms};
+		}
+		return aggregator().aggregate(rowsWithinPriceRange, numberOfRowsWithinPriceRange, new Aggregation<int[]>() {
+			@Override
+			public int[] create() {
+				return new int[3]; //Private, apartments, shared.
+			}
+
+			@Override
+			public void accumulate(int[] roomTypes, int[] rows, int from, int to) {
+				for (int i = from; i < to; i++) {
+					String roomType = columns.getProperty(rows[i]).getRoomType();
+					if (roomType.equalsIgnoreCase("Private room")) {
+						roomTypes[0]++;
+					} else if (roomType.equalsIgnoreCase("Shared room")) {
+						roomTypes[2]++;
+					} else {
+						roomTypes[1]++;
+					}
+				}
+			}
+
+			@Override
+			public int[] merge(int[] left, int[] right) {
+				for (int i = 0; i < left.length; i++) {
+					left[i] += right[i];
+				}
+				return left;
+			}
+		});
+	}
+
+	/**
+	 * The progressive variant of getNoOfRoomTypes, estimating the three counts in one pass.
+	 * @param listener - called with each set of estimates (private, apartments, shared), the last one being exact.
+	 * @return - the running statistic, which can be cancelled.
+	 */
+	public Future<?> getNoOfRoomTypesProgressively(Consumer<Estimate[]> listener) {
+		int[] roomTypeCodes = columns.getRoomTypeCodes();
+		int privateRooms = columns.getRoomTypeCode("Private room");
+		int sharedRooms = columns.getRoomTypeCode("Shared room");
+		return progressiveAggregator().totals(rowsWithinPriceRange, numberOfRowsWithinPriceRange, listener,
+				row -> roomTypeCodes[row] == privateRooms ? 1 : 0,
+				row -> roomTypeCodes[row] != privateRooms && roomTypeCodes[row] != sharedRooms ? 1 : 0,
+				row -> roomTypeCodes[row] == sharedRooms ? 1 : 0);
+	}
+
+	/**
+	 * Get the number of properties of a group of a roll-up.
+	 * @param groups - the groups, indexed by code.
+	 * @param code - the code of the group, -1 if there is no such group.
+	 * @return - the number of properties of the group.
+	 */
+	private int getCount(CubeAggregate[] groups, int code) {
+		return code == -1 ? 0 : (int) groups[code].getCount();
+	}
+
+	/**
+	 * Get the slice of the cube holding the properties within the price range.
+	 * A price range chosen with the price selectors always lines up with the cells of the cube.
+	 * @return - the slice, or null if the price range cuts through cells of the cube, the statistics then being computed from the rows.
+	 */
+	private GroupByCube.Slice getCubeSliceWithinPriceRange() {
+		GroupByCube.Slice slice = dataStore.getCube().slice().wherePrice(minimumPrice, maximumPrice);
+		return slice.isExact() ? slice : null;
+	}
+
+	/**
+	 * ADDITIONAL STATISTIC 4
+	 * Finds the property within the price range with the latest date of review.
+	 * When several properties share the latest date, the last one in the data set is returned.
+	 * @return - property with latest review, null if there is no property within the price range.
+	 */
+	public Property getLatestReview() {
+		return getTopProperty(NumericColumn.LAST_REVIEW_DATE, true);
+	}
+
+	/**
+	 * Finds the property within the price range with the greatest value of a numeric attribute.
+	 * @param column - the attribute to rank the properties by.
+	 * @param lastWins - true for the property later in the data set to win a tie, false for the earlier one.
+	 * @return - the property, null if there is no property within the price range.
+	 */
+	private Property getTopProperty(NumericColumn column, boolean lastWins) {
+		List<Property> top = getTopProperties(column, 1, lastWins);
+		return top.isEmpty() ? null : top.get(0);
+	}
+
+	/**
+	 * Finds the properties within the price range with the greatest values of a numeric attribute.
+	 * Only k properties are kept while scanning, in bounded heaps (one per thread), so nothing is sorted.
+	 * @param column - the attribute to rank the properties by.
+	 * @param k - the number of properties to find.
+	 * @param lastWins - true for the property later in the data set to rank first on a tie, false for the earlier one.
+	 * @return - the properties, best first, fewer than k if there are fewer properties within the price range.
+	 */
+	public List<Property> getTopProperties(NumericColumn column, int k, boolean lastWins) {
+		return dataStore.getProperties(aggregator().topK(rowsWithinPriceRange, numberOfRowsWithinPriceRange, k, column.of(columns), lastWins));
+	}
+
+	/**
+	 * Get the aggregator of the data store, read each time as the parallelism of the data store can be changed.
+	 * @return - the aggregator.
+	 */
+	private ParallelAggregator aggregator() {
+		return dataStore.getAggregator();
+	}
+
+	/**
+	 * Get the progressive aggregator of the data store.
+	 * @return - the progressive aggregator.
+	 */
+	private ProgressiveAggregator progressiveAggregator() {
+		return dataStore.getProgressiveAggregator();
+	}
+
+	/**
+	 * Estimates the heap taken by the view: its rows and the properties within the price range once listed.
+	 * @return - the estimated number of bytes.
+	 */
+	public long getEstimatedSizeInBytes() {
+		return 4L * rowsWithinPriceRange.length + (propertiesWithinPriceRange == null ? 0 : 4L * numberOfRowsWithinPriceRange);
+	}
+}
@@ -0,0 +1,273 @@
+package application.engine;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the data store up to date with the csv file, reloading it when the file changes, without restarting the application.
+ * The new version is loaded and indexed on a thread of its own while the old one keeps answering, then swapped in
+ * with a single volatile write, so readers never lock and a screen holding the old data store carries on with a consistent view.
+ * The new version keeps the settings of the old one, whose threads are then shut down (see DataStore.shutdown).
+ *
+ * Each version is loaded from a copy of the file, deleted once loaded. The text of the properties is read from a memory mapped file
+ * (see PropertyLoader), which must not change under the old version when the nightly dump is written over the csv file.
+ * The mapping keeps the deleted copy readable where the system allows it. Where a mapped file cannot be deleted, as on Windows,
+ * the copy is deleted once the version is replaced and its mapping released, tried again after each reload and when stopped,
+ * and the copies left by an earlier run are deleted at startup.
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public class DataStoreWatcher {
+
+	/**
+	 * How long the file must stay unchanged before it is reloaded, so a file still being written is not read half way.
+	 */
+	public static final long QUIET_MILLIS = 1000;
+
+	/**
+	 * The csv file.
+	 */
+	private final Path file;
+
+	/**
+	 * The current data store.
+	 */
+	private volatile DataStore dataStore;
+
+	/**
+	 * Told of each new data store once it is swapped in, may be null.
+	 */
+	private final Consumer<DataStore> listener;
+
+	/**
+	 * The thread watching the file, null until started.
+	 */
+	private Thread thread;
+
+	/**
+	 * The watch service, null until started.
+	 */
+	private WatchService watchService;
+
+	/**
+	 * The copies of the csv file which could not be deleted yet, being mapped by a version of the data store.
+	 */
+	private final List<Path> undeletedCopies = new ArrayList<>();
+
+	/**
+	 * Loads the first version of a csv file.
+	 * @param url - the path of the csv file.
+	 * @param listener - told of each new data store once it is swapped in, may be null.
+	 */
+	public DataStoreWatcher(String url, Consumer<DataStore> listener) {
+		this.file = new File(url).getAbsoluteFile().toPath();
+		this.listener = listener;
+		deleteStaleCopies();
+		this.dataStore = loadSnapshot(DataStore.Settings.DEFAULT);
+	}
+
+	/**
+	 * Get the current data store.
+	 * A reader making several queries that must agree should get the data store once and keep it.
+	 * @return - the data store.
+	 */
+	public DataStore get() {
+		return dataStore;
+	}
+
+	/**
+	 * Starts watching the directory of the csv file on a daemon thread.
+	 * The compressed file (with .gz added) is watched as well, as the loader falls back on it.
+	 * @throws IOException - if the directory cannot be watched.
+	 */
+	public synchronized void start() throws IOException {
+		if (thread != null) {
+			return;
+		}
+		this.watchService = FileSystems.getDefault().newWatchService();
+		file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+		this.thread = new Thread(this::watch, "Data store watcher");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Stops watching the csv file.
+	 */
+	public synchronized void stop() {
+		if (watchService != null) {
+			try {
+				watchService.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+		deleteUndeletedCopies();
+	}
+
+	/**
+	 * Waits for changes to the csv file and reloads it once it has stayed unchanged for QUIET_MILLIS.
+	 */
+	private void watch() {
+		String name = file.getFileName().toString();
+		try {
+			while (true) {
+				WatchKey key = watchService.take();
+				boolean changed = false;
+				for (WatchEvent<?> event : key.pollEvents()) {
+					Object context = event.context();
+					changed |= context != null && (context.toString().equals(name) || context.toString().equals(name + ".gz"));
+				}
+				key.reset();
+				if (changed) {
+					//Further events of the same write are taken while waiting for the file to settle.
+					WatchKey more;
+					while ((more = watchService.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+						more.pollEvents();
+						more.reset();
+					}
+					reload();
+				}
+			}
+		} catch (InterruptedException | ClosedWatchServiceException e) {
+			System.out.println("Stopped watching " + file + ".");
+		}
+	}
+
+	/**
+	 * Loads the new version of the csv file and swaps it in.
+	 * The time taken and the heap held by both versions while the new one was built are reported.
+	 */
+	void reload() {
+		System.out.println("Reloading " + file.getFileName() + "...");
+		Runtime runtime = Runtime.getRuntime();
+		long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+		long start = System.nanoTime();
+		DataStore previous = dataStore;
+		DataStore next;
+		try {
+			next = loadSnapshot(previous.getSettings());
+		} catch (RuntimeException e) {
+			System.out.println("Error trying to reload the csv file, keeping the previous version.");
+			e.printStackTrace();
+			return;
+		}
+		long heapWithBoth = runtime.totalMemory() - runtime.freeMemory();
+		long swapStart = System.nanoTime();
+		this.dataStore = next;
+		long swapEnd = System.nanoTime();
+		System.out.println("Reloaded " + next.getAllProperties().size() + " properties in " + TimeUnit.NANOSECONDS.toMillis(swapStart - start) 
+				+ " ms, swapped in " + (swapEnd - swapStart) + " ns. Both versions held about " 
+				+ ((previous.getEstimatedSizeInBytes() + next.getEstimatedSizeInBytes()) >> 20) + " MB while the new one was built (heap used from " 
+				+ (heapBefore >> 20) + " MB to " + (heapWithBoth >> 20) + " MB).");
+		if (listener != null) {
+			listener.accept(next);
+		}
+		previous.shutdown();
+		deleteUndeletedCopies();
+	}
+
+	/**
+	 * Loads a data store from a copy of the csv file.
+	 * Falls back on the file itself if it cannot be copied.
+	 * @param settings - the settings of the data store replaced.
+	 * @return - the data store.
+	 */
+	private DataStore loadSnapshot(DataStore.Settings settings) {
+		Path source = file;
+		if (!Files.exists(source) && Files.exists(file.resolveSibling(file.getFileName() + ".gz"))) {
+			source = file.resolveSibling(file.getFileName() + ".gz");
+		}
+		Path copy = null;
+		try {
+			copy = Files.createTempFile(file.getParent(), ".snapshot-", "-" + source.getFileName());
+			Files.copy(source, copy, StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			System.out.println("Could not copy the csv file, loading it directly: " + e.getMessage());
+			deleteCopy(copy);
+			return new DataStore(file.toString(), settings);
+		}
+		try {
+			return new DataStore(copy.toString(), settings);
+		} finally {
+			deleteCopy(copy);
+		}
+	}
+
+	/**
+	 * Deletes the copy of the csv file, or keeps it to be deleted after the next reload where a mapped file cannot be deleted.
+	 * @param copy - the copy, may be null.
+	 */
+	private void deleteCopy(Path copy) {
+		if (copy == null) {
+			return;
+		}
+		try {
+			Files.deleteIfExists(copy);
+		} catch (IOException e) {
+			synchronized (undeletedCopies) {
+				undeletedCopies.add(copy);
+			}
+			copy.toFile().deleteOnExit();
+		}
+	}
+
+	/**
+	 * Deletes the copies of the csv file which could not be deleted before, those of the versions replaced since
+	 * no longer being mapped once the versions are shut down and collected. The copies still left are reported.
+	 */
+	private void deleteUndeletedCopies() {
+		synchronized (undeletedCopies) {
+			if (undeletedCopies.isEmpty()) {
+				return;
+			}
+			undeletedCopies.removeIf(copy -> {
+				try {
+					Files.deleteIfExists(copy);
+					return true;
+				} catch (IOException e) {
+					return false;
+				}
+			});
+			if (!undeletedCopies.isEmpty()) {
+				System.out.println(undeletedCopies.size() + " copies of " + file.getFileName() + " are still mapped and left until the next reload: " 
+						+ undeletedCopies + ".");
+			}
+		}
+	}
+
+	/**
+	 * Deletes the copies of the csv file left by an earlier run, which could not delete them while it had them mapped.
+	 * The copies that cannot be deleted, say mapped by another run still going, are reported.
+	 */
+	private void deleteStaleCopies() {
+		String name = file.getFileName().toString();
+		File[] copies = file.getParent().toFile().listFiles((dir, copy) -> copy.startsWith(".snapshot-") 
+				&& (copy.endsWith("-" + name) || copy.endsWith("-" + name + ".gz")));
+		if (copies == null || copies.length == 0) {
+			return;
+		}
+		int deleted = 0;
+		for (File copy : copies) {
+			try {
+				Files.deleteIfExists(copy.toPath());
+				deleted++;
+			} catch (IOException e) {
+				System.out.println("Could not delete " + copy + ", left by an earlier run: " + e.getMessage());
+			}
+		}
+		System.out.println("Deleted " + deleted + " of the " + copies.length + " copies of " + name + " left by an earlier run.");
+	}
+}
@@ -0,0 +1,85 @@
+package application.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+
+import org.junit.jupiter.api.Test;
+
+class DataStoreWatcherTest {
+
+	/**
+	 * Writes a csv file over the previous one.
+	 * @param file - the file.
+	 * @param size - the number of properties.
+	 * @param description - the description of every property.
+	 * @throws IOException - if the file cannot be written.
+	 */
+	private void write(File file, int size, String description) throws IOException {
+		try (PrintWriter writer = new PrintWriter(file)) {
+			writer.println("id,name,host_id,host_name,neighbourhood,latitude,longitude,room_type,price,minimum_nights,number_of_reviews,last_review,reviews_per_month,calculated_host_listings_count,availability_365");
+			for (int i = 0; i < size; i++) {
+				writer.println(i + "," + description + "," + i + ",Host,Camden,51.5,-0.1,Private room,50,1,2,01/01/2017,1.0,1,365");
+			}
+		}
+	}
+
+	/**
+	 * Tests that writing over the csv file swaps in a new data store, the old one still reading its own text.
+	 * @throws Exception - if the file cannot be written or the test is interrupted.
+	 */
+	@Test
+	public void testReload() throws Exception {
+		File directory = Files.createTempDirectory("watched").toFile();
+		File file = new File(directory, "airbnb-london.csv");
+		write(file, 10, "Old flat");
+		DataStoreWatcher watcher = new DataStoreWatcher(file.getPath(), null);
+		DataStore old = watcher.get();
+		watcher.start();
+		write(file, 20, "New flat in a longer description");
+		long deadline = System.currentTimeMillis() + 30000;
+		while (watcher.get() == old && System.currentTimeMillis() < deadline) {
+			Thread.sleep(100);
+		}
+		watcher.stop();
+		assertTrue(watcher.get() != old);
+		assertEquals(20, watcher.get().getAllProperties().size());
+		assertEquals("New flat in a longer description", watcher.get().getProperty("3").getDescription());
+		assertEquals(10, old.getAllProperties().size());
+		assertEquals("Old flat", old.getProperty("3").getDescription());
+		assertEquals(1, directory.listFiles().length); //The copies are gone.
+		file.delete();
+		directory.delete();
+	}
+
+	/**
+	 * Tests that the copies of the csv file left by an earlier run are deleted at startup, and the copies of other files kept.
+	 * @throws IOException - if the files cannot be written.
+	 */
+	@Test
+	public void testStaleCopies() throws IOException {
+		File directory = Files.createTempDirectory("watched").toFile();
+		File file = new File(directory, "airbnb-london.csv");
+		write(file, 10, "Flat");
+		File stale = new File(directory, ".snapshot-123-airbnb-london.csv");
+		File staleCompressed = new File(directory, ".snapshot-456-airbnb-london.csv.gz");
+		File other = new File(directory, ".snapshot-789-airbnb-paris.csv");
+		write(stale, 5, "Stale flat");
+		write(staleCompressed, 5, "Stale flat");
+		write(other, 5, "Flat in Paris");
+		DataStoreWatcher watcher = new DataStoreWatcher(file.getPath(), null);
+		assertEquals(10, watcher.get().getAllProperties().size());
+		assertFalse(stale.exists());
+		assertFalse(staleCompressed.exists());
+		assertTrue(other.exists());
+		assertEquals(2, directory.listFiles().length);
+		other.delete();
+		file.delete();
+		directory.delete();
+	}
+}
@@ -0,0 +1,230 @@
+package application.engine;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import application.property.Delta;
+import application.property.EventLog;
+
+/**
+ * Adds, updates and removes listings of a running application while any number of threads read them.
+ * Readers never lock: each gets the current data store, which never changes, and keeps it for a consistent view (see get).
+ * Writes are queued to a single writer thread, which takes every write waiting, up to MAXIMUM_BATCH_SIZE, and applies them together
+ * (see DataStore.applyEvents). The new data store, with its columns, indexes and statistics all built from the same properties and the settings
+ * of the old one, is then appended to the event log, if there is one, and forced to the disk before it is swapped in with a single volatile write,
+ * and the threads of the old one shut down (see DataStore.shutdown). So a write is never seen before it is logged, and a batch that fails,
+ * whether it cannot be applied or logged, is not in the log to be replayed at the next startup (see DataStore.recover).
+ * The more writes arrive at once, the more share each rebuild, so a burst of writes costs little more than a single one.
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public class DataStoreWriter {
+
+	/**
+	 * The most writes applied together.
+	 */
+	public static final int MAXIMUM_BATCH_SIZE = 4096;
+
+	/**
+	 * The writes waiting to be applied.
+	 */
+	private final BlockingQueue<Write> queue = new LinkedBlockingQueue<>();
+
+	/**
+	 * The event log the writes are appended to before they are swapped in, may be null.
+	 */
+	private final EventLog log;
+
+	/**
+	 * The current data store.
+	 */
+	private volatile DataStore dataStore;
+
+	/**
+	 * The number of data stores swapped in, and of writes applied.
+	 */
+	private volatile long versions, writes;
+
+	/**
+	 * The writer thread, null until started.
+	 */
+	private Thread thread;
+
+	/**
+	 * A write and the future completed once it is applied.
+	 */
+	private static class Write {
+
+		/**
+		 * The event.
+		 */
+		private final Delta event;
+
+		/**
+		 * Completed with the first data store the write is in.
+		 */
+		private final CompletableFuture<DataStore> applied = new CompletableFuture<>();
+
+		/**
+		 * Constructs a write.
+		 * @param event - the event.
+		 */
+		private Write(Delta event) {
+			this.event = event;
+		}
+	}
+
+	/**
+	 * Constructs a writer of a data store.
+	 * @param dataStore - the data store to start from.
+	 * @param log - the event log the writes are appended to, may be null.
+	 */
+	public DataStoreWriter(DataStore dataStore, EventLog log) {
+		this.dataStore = dataStore;
+		this.log = log;
+	}
+
+	/**
+	 * Get the current data store.
+	 * A reader making several queries that must agree should get the data store once and keep it.
+	 * @return - the data store.
+	 */
+	public DataStore get() {
+		return dataStore;
+	}
+
+	/**
+	 * Adds a listing, or updates the fields given of the listing with the same id.
+	 * @param line - the fields, indexed as the columns of the csv file (see Delta.FIELDS), null for those left as they are.
+	 * @return - completed with the first data store the listing is in.
+	 * @throws IllegalArgumentException - if the id is missing, there are not as many fields as columns or a number is not a number.
+	 */
+	public CompletableFuture<DataStore> upsert(String[] line) {
+		return submit(Delta.upsert(line));
+	}
+
+	/**
+	 * Removes a listing, if there is one with the id.
+	 * @param id - the id of the listing.
+	 * @return - completed with the first data store the listing is not in.
+	 */
+	public CompletableFuture<DataStore> delete(String id) {
+		return submit(Delta.delete(id));
+	}
+
+	/**
+	 * Queues a write.
+	 * @param event - the event.
+	 * @return - completed with the first data store the write is in.
+	 */
+	private CompletableFuture<DataStore> submit(Delta event) {
+		Write write = new Write(event);
+		queue.add(write);
+		return write.applied;
+	}
+
+	/**
+	 * Starts the writer thread, as a daemon.
+	 */
+	public synchronized void start() {
+		if (thread != null) {
+			return;
+		}
+		this.thread = new Thread(this::write, "Data store writer");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Stops the writer thread once the batch being applied is swapped in. Writes still waiting are cancelled.
+	 */
+	public synchronized void stop() {
+		if (thread != null) {
+			thread.interrupt();
+		}
+	}
+
+	/**
+	 * Applies the writes waiting, a batch at a time, until stopped.
+	 */
+	private void write() {
+		List<Write> batch = new ArrayList<>();
+		List<Delta> events = new ArrayList<>();
+		try {
+			while (true) {
+				batch.add(queue.take());
+				queue.drainTo(batch, MAXIMUM_BATCH_SIZE - 1);
+				for (Write write : batch) {
+					events.add(write.event);
+				}
+				try {
+					DataStore previous = dataStore;
+					DataStore next = previous.applyEvents(events);
+					if (log != null) {
+						next.setLogPosition(logEvents(events, next));
+					}
+					this.dataStore = next;
+					previous.shutdown();
+					this.versions++;
+					this.writes += batch.size();
+					for (Write write : batch) {
+						write.applied.complete(next);
+					}
+				} catch (IOException | RuntimeException e) {
+					System.out.println("Error trying to apply " + batch.size() + " writes, keeping the previous version.");
+					for (Write write : batch) {
+						write.applied.completeExceptionally(e);
+					}
+				}
+				batch.clear();
+				events.clear();
+			}
+		} catch (InterruptedException e) {
+			List<Write> waiting = new ArrayList<>();
+			queue.drainTo(waiting);
+			for (Write write : waiting) {
+				write.applied.completeExceptionally(new CancellationException("The data store writer was stopped."));
+			}
+		}
+	}
+
+	/**
+	 * Appends a batch of events to the log and forces it to the disk, taking the events back if either fails.
+	 * @param events - the events.
+	 * @param next - the data store the events were applied to, shut down if they cannot be logged.
+	 * @return - the position after the events.
+	 * @throws IOException - if the events cannot be appended.
+	 */
+	private long logEvents(List<Delta> events, DataStore next) throws IOException {
+		long start = log.getEnd();
+		try {
+			long logPosition = log.append(events);
+			log.force();
+			return logPosition;
+		} catch (IOException | RuntimeException e) {
+			next.shutdown();
+			log.rollBack(start);
+			throw e;
+		}
+	}
+
+	/**
+	 * Get the number of data stores swapped in since the writer was constructed.
+	 * @return - the number of versions.
+	 */
+	public long getVersions() {
+		return versions;
+	}
+
+	/**
+	 * Get the number of writes applied since the writer was constructed.
+	 * @return - the number of writes.
+	 */
+	public long getWrites() {
+		return writes;
+	}
+}
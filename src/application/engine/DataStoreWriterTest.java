@@ -0,0 +1,151 @@
+package application.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import application.benchmark.BenchmarkData;
+import application.property.Delta;
+import application.property.EventLog;
+import application.property.Property;
+
+class DataStoreWriterTest {
+
+	/**
+	 * Tests writes made while a reader checks that every data store it sees agrees with itself,
+	 * the price range view, the price statistics and the listings all built from the same properties.
+	 * @throws Exception - if the test is interrupted.
+	 */
+	@Test
+	public void testConcurrentWrites() throws Exception {
+		List<Property> properties = BenchmarkData.generate(5000, 7);
+		DataStore dataStore = new DataStore(properties);
+		DataStoreWriter writer = new DataStoreWriter(dataStore, null);
+		writer.start();
+		AtomicReference<String> inconsistency = new AtomicReference<>();
+		Thread reader = new Thread(() -> {
+			while (!Thread.currentThread().isInterrupted()) {
+				DataStore current = writer.get();
+				int withinRange = current.view(50, 200).getPropertiesWithinPriceRange().size();
+				if (withinRange != current.getNumberOfProperties(50, 200)) {
+					inconsistency.set(withinRange + " properties within the price range but " + current.getNumberOfProperties(50, 200) + " counted.");
+				}
+			}
+		});
+		reader.start();
+		List<CompletableFuture<DataStore>> applied = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			String[] line = new String[Delta.FIELDS.length];
+			line[0] = properties.get(i).getId();
+			line[8] = "100";
+			applied.add(writer.upsert(line));
+		}
+		for (int i = 1000; i < 1100; i++) {
+			applied.add(writer.delete(properties.get(i).getId()));
+		}
+		for (CompletableFuture<DataStore> future : applied) {
+			future.join();
+		}
+		reader.interrupt();
+		reader.join();
+		writer.stop();
+		assertEquals(null, inconsistency.get());
+		DataStore last = writer.get();
+		assertEquals(properties.size() - 100, last.getAllProperties().size());
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(100, last.getProperty(properties.get(i).getId()).getPrice());
+		}
+		assertEquals(null, last.getProperty(properties.get(1050).getId()));
+		assertEquals(last.view(50, 200).getPropertiesWithinPriceRange().size(), last.getNumberOfProperties(50, 200));
+		assertTrue(writer.getVersions() <= 1100);
+		assertEquals(1100, writer.getWrites());
+		assertEquals(properties.get(0).getPrice(), dataStore.getProperty(properties.get(0).getId()).getPrice());
+	}
+
+	/**
+	 * Tests that each data store swapped in is up to the end of the event log, which recovers the same listings.
+	 * @throws IOException - if the files cannot be written.
+	 */
+	@Test
+	public void testLoggedWrites() throws IOException {
+		List<Property> properties = BenchmarkData.generate(2000, 7);
+		File logFile = File.createTempFile("listings", ".log");
+		File checkpointFile = File.createTempFile("listings", ".checkpoint");
+		logFile.delete();
+		logFile.deleteOnExit();
+		checkpointFile.deleteOnExit();
+		DataStore dataStore = new DataStore(properties);
+		dataStore.writeCheckpoint(checkpointFile);
+		try (EventLog log = new EventLog(logFile)) {
+			DataStoreWriter writer = new DataStoreWriter(dataStore, log);
+			writer.start();
+			List<CompletableFuture<DataStore>> applied = new ArrayList<>();
+			for (int i = 0; i < 100; i++) {
+				String[] line = new String[Delta.FIELDS.length];
+				line[0] = properties.get(i).getId();
+				line[8] = "75";
+				applied.add(writer.upsert(line));
+			}
+			applied.add(writer.delete(properties.get(100).getId()));
+			for (CompletableFuture<DataStore> future : applied) {
+				DataStore next = future.join();
+				assertTrue(next.getLogPosition() > EventLog.START);
+				assertEquals(75, next.getProperty(properties.get(0).getId()).getPrice());
+			}
+			writer.stop();
+			assertEquals(log.getEnd(), writer.get().getLogPosition());
+			DataStore recovered = DataStore.recover(null, checkpointFile, log, 10);
+			assertEquals(properties.size() - 1, recovered.getAllProperties().size());
+			assertEquals(75, recovered.getProperty(properties.get(99).getId()).getPrice());
+			assertEquals(null, recovered.getProperty(properties.get(100).getId()));
+		}
+	}
+
+	/**
+	 * Tests that a batch which cannot be applied fails its writes and is not logged, so it is not replayed at the next startup.
+	 * @throws IOException - if the log cannot be written.
+	 */
+	@Test
+	public void testFailedWrite() throws IOException {
+		File logFile = File.createTempFile("listings", ".log");
+		logFile.delete();
+		logFile.deleteOnExit();
+		DataStore dataStore = new DataStore(BenchmarkData.generate(10, 7)) {
+			@Override
+			public DataStore applyEvents(List<Delta> events) {
+				throw new IllegalStateException("The data store cannot be built.");
+			}
+		};
+		try (EventLog log = new EventLog(logFile)) {
+			DataStoreWriter writer = new DataStoreWriter(dataStore, log);
+			writer.start();
+			CompletableFuture<DataStore> applied = writer.delete(dataStore.getAllProperties().get(0).getId());
+			assertThrows(CompletionException.class, applied::join);
+			writer.stop();
+			assertEquals(EventLog.START, log.getEnd());
+			assertEquals(dataStore, writer.get());
+		}
+	}
+
+	/**
+	 * Tests that a write with a price which is not a number is refused before it is queued.
+	 */
+	@Test
+	public void testInvalidWrite() {
+		DataStoreWriter writer = new DataStoreWriter(new DataStore(BenchmarkData.generate(10, 7)), null);
+		String[] line = new String[Delta.FIELDS.length];
+		line[0] = "1000";
+		line[8] = "cheap";
+		assertThrows(IllegalArgumentException.class, () -> writer.upsert(line));
+	}
+}
@@ -0,0 +1,142 @@
+package application.engine;
+
+import application.property.Property;
+
+/**
+ * What a user has selected: a price range, a borough and a property.
+ * A query context never changes, selecting something gives a new one, so a context can be handed to another thread
+ * or kept by a screen without it changing under it, and any number of users can each have their own.
+ * The queries over the price range are made on a view of the data store for the context (see DataStore.view).
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public final class QueryContext {
+
+	/**
+	 * The context with nothing selected.
+	 */
+	public static final QueryContext EMPTY = new QueryContext(-1, -1, null, null);
+
+	/**
+	 * The price range selected, -1 for a price not selected yet.
+	 */
+	private final int minimumPrice, maximumPrice;
+
+	/**
+	 * The borough selected, null if none.
+	 */
+	private final String borough;
+
+	/**
+	 * The property selected, null if none.
+	 */
+	private final Property property;
+
+	/**
+	 * Constructs a query context.
+	 * @param minimumPrice - the minimum price, -1 if not selected.
+	 * @param maximumPrice - the maximum price, -1 if not selected.
+	 * @param borough - the borough, null if none.
+	 * @param property - the property, null if none.
+	 */
+	public QueryContext(int minimumPrice, int maximumPrice, String borough, Property property) {
+		this.minimumPrice = minimumPrice;
+		this.maximumPrice = maximumPrice;
+		this.borough = borough;
+		this.property = property;
+	}
+
+	/**
+	 * Get the context with another minimum price.
+	 * @param minimumPrice - the minimum price, -1 if not selected.
+	 * @return - the context.
+	 */
+	public QueryContext withMinimumPrice(int minimumPrice) {
+		return new QueryContext(minimumPrice, maximumPrice, borough, property);
+	}
+
+	/**
+	 * Get the context with another maximum price.
+	 * @param maximumPrice - the maximum price, -1 if not selected.
+	 * @return - the context.
+	 */
+	public QueryContext withMaximumPrice(int maximumPrice) {
+		return new QueryContext(minimumPrice, maximumPrice, borough, property);
+	}
+
+	/**
+	 * Get the context with another price range.
+	 * @param minimumPrice - the minimum price, -1 if not selected.
+	 * @param maximumPrice - the maximum price, -1 if not selected.
+	 * @return - the context.
+	 */
+	public QueryContext withPriceRange(int minimumPrice, int maximumPrice) {
+		return new QueryContext(minimumPrice, maximumPrice, borough, property);
+	}
+
+	/**
+	 * Get the context with another borough.
+	 * @param borough - the borough, null if none.
+	 * @return - the context.
+	 */
+	public QueryContext withBorough(String borough) {
+		return new QueryContext(minimumPrice, maximumPrice, borough, property);
+	}
+
+	/**
+	 * Get the context with another property.
+	 * @param property - the property, null if none.
+	 * @return - the context.
+	 */
+	public QueryContext withProperty(Property property) {
+		return new QueryContext(minimumPrice, maximumPrice, borough, property);
+	}
+
+	/**
+	 * Get the minimum price.
+	 * @return - the minimum price, -1 if not selected.
+	 */
+	public int getMinimumPrice() {
+		return minimumPrice;
+	}
+
+	/**
+	 * Get the maximum price.
+	 * @return - the maximum price, -1 if not selected.
+	 */
+	public int getMaximumPrice() {
+		return maximumPrice;
+	}
+
+	/**
+	 * Checks whether both prices of the range are selected.
+	 * @return - true if both are selected.
+	 */
+	public boolean hasPriceRange() {
+		return minimumPrice != -1 && maximumPrice != -1;
+	}
+
+	/**
+	 * Get the borough.
+	 * @return - the borough, null if none.
+	 */
+	public String getBorough() {
+		return borough;
+	}
+
+	/**
+	 * Get the property.
+	 * @return - the property, null if none.
+	 */
+	public Property getProperty() {
+		return property;
+	}
+
+	/**
+	 * Describes the context, e.g. "£50-£200, Camden, property 13261420".
+	 * @return - the description.
+	 */
+	@Override
+	public String toString() {
+		return "£" + minimumPrice + "-£" + maximumPrice + (borough == null ? "" : ", " + borough) + (property == null ? "" : ", property " + property.getId());
+	}
+}
@@ -0,0 +1,110 @@
+package application.property;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A checkpoint of the listings: every property, and the position in the event log (see EventLog) the properties are up to.
+ * At startup the checkpoint is read and only the events after its position are replayed, however long the log.
+ * The properties are written as the listings added of a delta file (see DeltaFile), after a magic number, the position and the number of properties.
+ * A checkpoint is written to a temporary file and moved over the last one, so there is always a whole checkpoint to start from.
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public class Checkpoint {
+
+	/**
+	 * The number at the start of a checkpoint.
+	 */
+	private static final int MAGIC = 0x52534331;
+
+	/**
+	 * The properties.
+	 */
+	private final List<Property> properties;
+
+	/**
+	 * The position in the event log the properties are up to.
+	 */
+	private final long position;
+
+	/**
+	 * Constructs a checkpoint.
+	 * @param properties - the properties.
+	 * @param position - the position in the event log the properties are up to.
+	 */
+	private Checkpoint(List<Property> properties, long position) {
+		this.properties = properties;
+		this.position = position;
+	}
+
+	/**
+	 * Writes a checkpoint.
+	 * @param file - the file.
+	 * @param properties - the properties.
+	 * @param position - the position in the event log the properties are up to.
+	 * @throws IOException - if the file cannot be written.
+	 */
+	public static void write(File file, List<Property> properties, long position) throws IOException {
+		File temporary = new File(file.getAbsoluteFile().getParentFile(), file.getName() + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary), 1 << 16))) {
+			out.writeInt(MAGIC);
+			out.writeLong(position);
+			out.writeInt(properties.size());
+			for (Property property : properties) {
+				DeltaFile.write(out, Delta.upsert(PropertyLoader.toLine(property)));
+			}
+		}
+		Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Reads a checkpoint.
+	 * @param file - the file.
+	 * @param loader - converts the fields into properties.
+	 * @return - the checkpoint.
+	 * @throws IOException - if the file cannot be read, is not a checkpoint or is cut short.
+	 */
+	public static Checkpoint read(File file, PropertyLoader loader) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+			if (in.readInt() != MAGIC) {
+				throw new IOException("Not a checkpoint: " + file);
+			}
+			long position = in.readLong();
+			int size = in.readInt();
+			List<Property> properties = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				properties.add(DeltaFile.read(in).applyTo(null, loader));
+			}
+			return new Checkpoint(properties, position);
+		} catch (EOFException e) {
+			throw new IOException("The checkpoint is cut short.", e);
+		}
+	}
+
+	/**
+	 * Get the properties.
+	 * @return - the properties.
+	 */
+	public List<Property> getProperties() {
+		return properties;
+	}
+
+	/**
+	 * Get the position in the event log the properties are up to.
+	 * @return - the position.
+	 */
+	public long getPosition() {
+		return position;
+	}
+}
@@ -0,0 +1,114 @@
+package application.property;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Finds the byte offsets of the fields of a csv file, record by record, without decoding them.
+ * Commas, quotes and line breaks are single bytes in UTF-8, so the bytes can be scanned directly.
+ * Quotes and escapes are followed as the loader follows them, the fields being checked against the loader anyway.
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+class CsvFieldScanner {
+
+	/**
+	 * The bytes of the file.
+	 */
+	private final ByteBuffer bytes;
+
+	/**
+	 * The offset of the next record.
+	 */
+	private int next;
+
+	/**
+	 * The start and end offsets of the fields of the current record.
+	 */
+	private int[] starts = new int[16], ends = new int[16];
+
+	/**
+	 * The number of fields in the current record.
+	 */
+	private int numberOfFields;
+
+	/**
+	 * Constructs a scanner at the start of the file.
+	 * @param bytes - the bytes of the file.
+	 */
+	CsvFieldScanner(ByteBuffer bytes) {
+		this.bytes = bytes;
+	}
+
+	/**
+	 * Moves to the next record.
+	 * @return - true if there was a record, false at the end of the file.
+	 */
+	boolean nextRecord() {
+		int limit = bytes.limit();
+		if (next >= limit) {
+			return false;
+		}
+		numberOfFields = 0;
+		int start = next;
+		boolean inQuotes = false;
+		int i = next;
+		while (i < limit) {
+			byte b = bytes.get(i);
+			if (inQuotes) {
+				if (b == '\\' && i + 1 < limit && (bytes.get(i + 1) == '"' || bytes.get(i + 1) == '\\')) {
+					i++;
+				} else if (b == '"') {
+					if (i + 1 < limit && bytes.get(i + 1) == '"') {
+						i++;
+					} else {
+						inQuotes = false;
+					}
+				}
+			} else if (b == '"') {
+				inQuotes = true;
+			} else if (b == ',') {
+				addField(start, i);
+				start = i + 1;
+			} else if (b == '\n') {
+				break;
+			}
+			i++;
+		}
+		next = i + 1;
+		int end = i > start && bytes.get(i - 1) == '\r' ? i - 1 : i;
+		addField(start, end);
+		return true;
+	}
+
+	/**
+	 * Adds a field to the current record.
+	 * @param start - the offset of the first byte.
+	 * @param end - the offset after the last byte.
+	 */
+	private void addField(int start, int end) {
+		if (numberOfFields == starts.length) {
+			starts = Arrays.copyOf(starts, numberOfFields * 2);
+			ends = Arrays.copyOf(ends, numberOfFields * 2);
+		}
+		starts[numberOfFields] = start;
+		ends[numberOfFields] = end;
+		numberOfFields++;
+	}
+
+	/**
+	 * Get the number of fields in the current record.
+	 * @return - the number of fields.
+	 */
+	int getNumberOfFields() {
+		return numberOfFields;
+	}
+
+	/**
+	 * Get the span of a field of the current record.
+	 * @param field - the index of the field.
+	 * @return - the span, see TextSource.
+	 */
+	long getSpan(int field) {
+		return TextSource.span(starts[field], ends[field] - starts[field]);
+	}
+}
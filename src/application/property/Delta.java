@@ -0,0 +1,185 @@
+package application.property;
+
+import java.util.Arrays;
+
+/**
+ * One difference between two versions of the listings: a listing added, removed, or changed in some of its fields.
+ * The fields are the columns of the csv file, in the same order, as the loader reads and writes them.
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public class Delta {
+
+	/**
+	 * The kinds of difference.
+	 */
+	public enum Kind {
+		ADDED, REMOVED, CHANGED
+	}
+
+	/**
+	 * The names of the fields, in the order of the columns of the csv file.
+	 */
+	public static final String[] FIELDS = {"id", "name", "host_id", "host_name", "neighbourhood", "latitude", "longitude", "room_type", "price", 
+			"minimum_nights", "number_of_reviews", "last_review", "reviews_per_month", "calculated_host_listings_count", "availability_365"};
+
+	/**
+	 * The fields holding whole numbers and decimal numbers, one bit per field.
+	 */
+	private static final int INTEGER_FIELDS = 1 << 8 | 1 << 9 | 1 << 10 | 1 << 13 | 1 << 14, DECIMAL_FIELDS = 1 << 5 | 1 << 6 | 1 << 12;
+
+	/**
+	 * The kind of difference.
+	 */
+	private final Kind kind;
+
+	/**
+	 * The id of the listing.
+	 */
+	private final String id;
+
+	/**
+	 * The fields set, one bit per field.
+	 */
+	private final int mask;
+
+	/**
+	 * The new value of each field set, null for the others.
+	 */
+	private final String[] values;
+
+	/**
+	 * Constructs a difference.
+	 * @param kind - the kind of difference.
+	 * @param id - the id of the listing.
+	 * @param mask - the fields set, one bit per field, every field for a listing added and none for one removed.
+	 * @param values - the new value of each field set.
+	 */
+	Delta(Kind kind, String id, int mask, String[] values) {
+		this.kind = kind;
+		this.id = id;
+		this.mask = mask;
+		this.values = values;
+	}
+
+	/**
+	 * Creates the event of a listing added or updated: the fields given replace those of the listing, if there is one.
+	 * @param line - the fields, indexed as the columns of the csv file, null for those left as they are.
+	 * @return - the event.
+	 * @throws IllegalArgumentException - if the id is missing, there are not as many fields as columns or a number is not a number.
+	 */
+	public static Delta upsert(String[] line) {
+		if (line.length != FIELDS.length || line[0] == null) {
+			throw new IllegalArgumentException("An upsert needs the id and " + FIELDS.length + " fields.");
+		}
+		int mask = 0;
+		for (int field = 1; field < FIELDS.length; field++) {
+			mask |= line[field] == null ? 0 : 1 << field;
+			if (line[field] != null && !line[field].trim().isEmpty() && (INTEGER_FIELDS & (1 << field)) != 0) {
+				Integer.parseInt(line[field]);
+			} else if (line[field] != null && !line[field].trim().isEmpty() && (DECIMAL_FIELDS & (1 << field)) != 0) {
+				Double.parseDouble(line[field]);
+			}
+		}
+		return new Delta(mask == DeltaFile.ALL_FIELDS ? Kind.ADDED : Kind.CHANGED, line[0], mask, line.clone());
+	}
+
+	/**
+	 * Creates the event of a listing deleted.
+	 * @param id - the id of the listing.
+	 * @return - the event.
+	 */
+	public static Delta delete(String id) {
+		return new Delta(Kind.REMOVED, id, 0, new String[FIELDS.length]);
+	}
+
+	/**
+	 * Get the kind of difference.
+	 * @return - the kind.
+	 */
+	public Kind getKind() {
+		return kind;
+	}
+
+	/**
+	 * Get the id of the listing.
+	 * @return - the id.
+	 */
+	public String getId() {
+		return id;
+	}
+
+	/**
+	 * Checks whether a field is set, that is added or changed.
+	 * @param field - the index of the field, see FIELDS.
+	 * @return - true if the field is set.
+	 */
+	public boolean isSet(int field) {
+		return (mask & (1 << field)) != 0;
+	}
+
+	/**
+	 * Get the fields set.
+	 * @return - the fields set, one bit per field.
+	 */
+	int getMask() {
+		return mask;
+	}
+
+	/**
+	 * Get the new value of each field set.
+	 * @return - the values, null for the fields not set.
+	 */
+	String[] getValues() {
+		return values;
+	}
+
+	/**
+	 * Get the new value of a field.
+	 * @param field - the index of the field, see FIELDS.
+	 * @return - the value, or null if the field is not set.
+	 */
+	public String getValue(int field) {
+		return values[field];
+	}
+
+	/**
+	 * Applies the difference to the previous version of the listing.
+	 * @param previous - the previous version, null for a listing added.
+	 * @param loader - converts the fields into a property.
+	 * @return - the new version, or null for a listing removed.
+	 */
+	public Property applyTo(Property previous, PropertyLoader loader) {
+		if (kind == Kind.REMOVED) {
+			return null;
+		}
+		String[] line = previous == null ? new String[FIELDS.length] : PropertyLoader.toLine(previous);
+		if (previous == null) {
+			//Fields not given for a new listing are left empty, as in a csv file.
+			Arrays.fill(line, "");
+		}
+		for (int field = 0; field < FIELDS.length; field++) {
+			if (isSet(field)) {
+				line[field] = values[field];
+			}
+		}
+		line[0] = id;
+		return loader.toProperty(line);
+	}
+
+	/**
+	 * Describes the difference, e.g. "CHANGED 13261420: price=45, availability_365=0".
+	 * @return - the description.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(kind + " " + id);
+		String separator = ": ";
+		for (int field = 1; field < FIELDS.length; field++) {
+			if (isSet(field)) {
+				sb.append(separator).append(FIELDS[field]).append('=').append(values[field]);
+				separator = ", ";
+			}
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,231 @@
+package application.property;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * A compact binary file of differences between two versions of the listings.
+ * After a magic number, each difference is a kind byte and the listing id, followed for a listing added or changed
+ * by a bit mask of the fields set and the value of each of them, so a price change takes a few bytes.
+ * The file ends with an end byte, so a file cut short is noticed.
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public class DeltaFile {
+
+	/**
+	 * The number at the start of a delta file.
+	 */
+	private static final int MAGIC = 0x52534431;
+
+	/**
+	 * The kind bytes, and the end byte.
+	 */
+	private static final byte ADDED = 'A', REMOVED = 'R', CHANGED = 'C', END = 'E';
+
+	/**
+	 * The bit mask with every field but the id set.
+	 */
+	static final int ALL_FIELDS = ((1 << Delta.FIELDS.length) - 1) & ~1;
+
+	/**
+	 * Writes a delta file.
+	 */
+	public static class Writer implements Closeable {
+
+		/**
+		 * The file.
+		 */
+		private final DataOutputStream out;
+
+		/**
+		 * The number of listings added, removed and changed written.
+		 */
+		private int added, removed, changed;
+
+		/**
+		 * Creates a delta file.
+		 * @param file - the file.
+		 * @throws IOException - if the file cannot be created.
+		 */
+		public Writer(File file) throws IOException {
+			this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+			out.writeInt(MAGIC);
+		}
+
+		/**
+		 * Writes a listing added.
+		 * @param line - the fields of the listing.
+		 * @throws IOException - if the file cannot be written.
+		 */
+		public void writeAdded(String[] line) throws IOException {
+			write(out, ADDED, line[0], ALL_FIELDS, line);
+			added++;
+		}
+
+		/**
+		 * Writes a listing removed.
+		 * @param id - the id of the listing.
+		 * @throws IOException - if the file cannot be written.
+		 */
+		public void writeRemoved(String id) throws IOException {
+			write(out, REMOVED, id, 0, null);
+			removed++;
+		}
+
+		/**
+		 * Writes a listing changed.
+		 * @param line - the new fields of the listing.
+		 * @param mask - the fields changed, one bit per field.
+		 * @throws IOException - if the file cannot be written.
+		 */
+		public void writeChanged(String[] line, int mask) throws IOException {
+			write(out, CHANGED, line[0], mask, line);
+			changed++;
+		}
+
+		/**
+		 * Get the number of listings added written.
+		 * @return - the number added.
+		 */
+		public int getAdded() {
+			return added;
+		}
+
+		/**
+		 * Get the number of listings removed written.
+		 * @return - the number removed.
+		 */
+		public int getRemoved() {
+			return removed;
+		}
+
+		/**
+		 * Get the number of listings changed written.
+		 * @return - the number changed.
+		 */
+		public int getChanged() {
+			return changed;
+		}
+
+		@Override
+		public void close() throws IOException {
+			out.writeByte(END);
+			out.close();
+		}
+	}
+
+	/**
+	 * Reads a delta file, one difference at a time.
+	 */
+	public static class Reader implements Closeable {
+
+		/**
+		 * The file.
+		 */
+		private final DataInputStream in;
+
+		/**
+		 * Opens a delta file.
+		 * @param file - the file.
+		 * @throws IOException - if the file cannot be opened or is not a delta file.
+		 */
+		public Reader(File file) throws IOException {
+			this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+			if (in.readInt() != MAGIC) {
+				in.close();
+				throw new IOException("Not a delta file: " + file);
+			}
+		}
+
+		/**
+		 * Reads the next difference.
+		 * @return - the difference, or null at the end of the file.
+		 * @throws IOException - if the file cannot be read or is cut short.
+		 */
+		public Delta read() throws IOException {
+			try {
+				return DeltaFile.read(in);
+			} catch (EOFException e) {
+				throw new IOException("The delta file is cut short.", e);
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			in.close();
+		}
+	}
+
+	/**
+	 * Writes a difference.
+	 * @param out - where to write it.
+	 * @param delta - the difference.
+	 * @throws IOException - if it cannot be written.
+	 */
+	static void write(DataOutput out, Delta delta) throws IOException {
+		byte kind = delta.getKind() == Delta.Kind.ADDED ? ADDED : delta.getKind() == Delta.Kind.REMOVED ? REMOVED : CHANGED;
+		write(out, kind, delta.getId(), delta.getMask(), delta.getValues());
+	}
+
+	/**
+	 * Writes a difference.
+	 * @param out - where to write it.
+	 * @param kind - the kind byte.
+	 * @param id - the id of the listing.
+	 * @param mask - the fields set, none for a listing removed.
+	 * @param line - the fields, indexed as the columns of the csv file.
+	 * @throws IOException - if it cannot be written.
+	 */
+	private static void write(DataOutput out, byte kind, String id, int mask, String[] line) throws IOException {
+		out.writeByte(kind);
+		out.writeUTF(id);
+		if (kind == REMOVED) {
+			return;
+		}
+		out.writeShort(mask);
+		for (int field = 1; field < Delta.FIELDS.length; field++) {
+			if ((mask & (1 << field)) != 0) {
+				out.writeUTF(line[field]);
+			}
+		}
+	}
+
+	/**
+	 * Reads a difference.
+	 * @param in - where to read it from.
+	 * @return - the difference, or null at an end byte.
+	 * @throws IOException - if it cannot be read or is not a difference.
+	 */
+	static Delta read(DataInput in) throws IOException {
+		byte kind = in.readByte();
+		if (kind == END) {
+			return null;
+		}
+		String id = in.readUTF();
+		if (kind == REMOVED) {
+			return new Delta(Delta.Kind.REMOVED, id, 0, new String[Delta.FIELDS.length]);
+		}
+		if (kind != ADDED && kind != CHANGED) {
+			throw new IOException("Unknown kind of difference: " + kind);
+		}
+		int mask = in.readUnsignedShort();
+		String[] values = new String[Delta.FIELDS.length];
+		values[0] = id;
+		for (int field = 1; field < Delta.FIELDS.length; field++) {
+			if ((mask & (1 << field)) != 0) {
+				values[field] = in.readUTF();
+			}
+		}
+		return new Delta(kind == ADDED ? Delta.Kind.ADDED : Delta.Kind.CHANGED, id, mask, values);
+	}
+}
@@ -0,0 +1,201 @@
+package application.property;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An append only log of listing events, upserts and deletes, in a memory mapped file.
+ * After a magic number, each event is its length and the event written as in a delta file (see DeltaFile).
+ * The file is grown a region at a time and the space after the last event is zeros, so a length of 0 marks the end of the log.
+ * The length of an event is written after the event itself, so an event only half written when the application stopped is never read.
+ *
+ * A position in the log is the offset of an event in the file. A checkpoint (see Checkpoint) records the position it was taken at,
+ * so only the events after it are replayed at startup.
+ * Events are appended by one thread at a time, singly or in batches, and can be read by any thread while they are.
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public class EventLog implements Closeable {
+
+	/**
+	 * The number at the start of an event log.
+	 */
+	private static final int MAGIC = 0x52534c31;
+
+	/**
+	 * The position of the first event.
+	 */
+	public static final long START = 4;
+
+	/**
+	 * The size by which the file is grown when it is full.
+	 */
+	public static final int REGION_SIZE = 1 << 20;
+
+	/**
+	 * The file.
+	 */
+	private final FileChannel channel;
+
+	/**
+	 * The file mapped into memory, remapped when the file grows.
+	 */
+	private volatile MappedByteBuffer buffer;
+
+	/**
+	 * The position after the last event.
+	 */
+	private volatile long end;
+
+	/**
+	 * Opens an event log, creating it if there is none.
+	 * @param file - the file.
+	 * @throws IOException - if the file cannot be opened or is not an event log.
+	 */
+	public EventLog(File file) throws IOException {
+		this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		long size = channel.size();
+		this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, REGION_SIZE));
+		if (size == 0) {
+			buffer.putInt(0, MAGIC);
+		} else if (buffer.getInt(0) != MAGIC) {
+			channel.close();
+			throw new IOException("Not an event log: " + file);
+		}
+		long position = START;
+		while (position + 4 <= buffer.capacity() && buffer.getInt((int) position) > 0) {
+			position += 4 + buffer.getInt((int) position);
+		}
+		this.end = position;
+	}
+
+	/**
+	 * Appends an event.
+	 * @param event - the event, see Delta.upsert and Delta.delete.
+	 * @return - the position after the event.
+	 * @throws IOException - if the file cannot be grown.
+	 */
+	public long append(Delta event) throws IOException {
+		return append(Collections.singletonList(event));
+	}
+
+	/**
+	 * Appends a batch of events, all or none of which are read back should the application stop while they are appended:
+	 * the length of the first event, which marks the end of the log until written, is written last.
+	 * @param events - the events, see Delta.upsert and Delta.delete.
+	 * @return - the position after the last event.
+	 * @throws IOException - if the file cannot be grown.
+	 */
+	public synchronized long append(List<Delta> events) throws IOException {
+		List<byte[]> records = new ArrayList<>(events.size());
+		int start = (int) end;
+		long next = start;
+		for (Delta event : events) {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+			DeltaFile.write(new DataOutputStream(bytes), event);
+			records.add(bytes.toByteArray());
+			next += 4L + records.get(records.size() - 1).length;
+		}
+		if (next + 4 > buffer.capacity()) {
+			if (next + 4 > Integer.MAX_VALUE) {
+				throw new IOException("The event log is full, take a checkpoint and start a new one.");
+			}
+			long capacity = Math.min(Integer.MAX_VALUE, (next + 4 + REGION_SIZE - 1) / REGION_SIZE * REGION_SIZE);
+			this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+		}
+		MappedByteBuffer buffer = this.buffer;
+		int position = start;
+		for (byte[] record : records) {
+			for (int i = 0; i < record.length; i++) {
+				buffer.put(position + 4 + i, record[i]);
+			}
+			if (position != start) {
+				buffer.putInt(position, record.length);
+			}
+			position += 4 + record.length;
+		}
+		if (!records.isEmpty()) {
+			buffer.putInt(start, records.get(0).length);
+		}
+		this.end = next;
+		return next;
+	}
+
+	/**
+	 * Takes back the events appended from a position, e.g. a batch that could not be forced to the disk.
+	 * The space they took is zeroed, so the log ends at the position whatever is appended afterwards.
+	 * @param position - the position the log ended at before the events were appended.
+	 * @throws IllegalArgumentException - if the position is not in the log.
+	 */
+	public synchronized void rollBack(long position) {
+		if (position < START || position > end) {
+			throw new IllegalArgumentException("Cannot roll back to position " + position + ", the log ends at " + end + ".");
+		}
+		MappedByteBuffer buffer = this.buffer;
+		//The length of the first event first, so the events are gone at once.
+		if (position + 4 <= buffer.capacity()) {
+			buffer.putInt((int) position, 0);
+		}
+		for (long i = position + 4; i < end; i++) {
+			buffer.put((int) i, (byte) 0);
+		}
+		this.end = position;
+	}
+
+	/**
+	 * Reads the events from a position, up to a number of them.
+	 * @param position - the position of the first event.
+	 * @param events - the list the events are added to.
+	 * @param maximumEvents - the most events to read.
+	 * @return - the position after the events read, the same position if there are none.
+	 * @throws IOException - if an event cannot be read.
+	 */
+	public long read(long position, List<Delta> events, int maximumEvents) throws IOException {
+		long end = this.end;
+		MappedByteBuffer buffer = this.buffer;
+		if (position < START || position > end) {
+			throw new IllegalArgumentException("No event at position " + position + ", the log ends at " + end + ".");
+		}
+		for (int read = 0; read < maximumEvents && position < end; read++) {
+			byte[] record = new byte[buffer.getInt((int) position)];
+			for (int i = 0; i < record.length; i++) {
+				record[i] = buffer.get((int) position + 4 + i);
+			}
+			events.add(DeltaFile.read(new DataInputStream(new ByteArrayInputStream(record))));
+			position += 4 + record.length;
+		}
+		return position;
+	}
+
+	/**
+	 * Get the position after the last event.
+	 * @return - the position.
+	 */
+	public long getEnd() {
+		return end;
+	}
+
+	/**
+	 * Writes the events appended so far to the disk, so they are kept if the system stops.
+	 * Events are kept if the application stops without this.
+	 */
+	public void force() {
+		buffer.force();
+	}
+
+	@Override
+	public void close() throws IOException {
+		force();
+		channel.close();
+	}
+}
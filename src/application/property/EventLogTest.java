@@ -0,0 +1,120 @@
+package application.property;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class EventLogTest {
+
+	/**
+	 * Tests appending more events than fit in a region, reopening the log and reading them back in batches.
+	 * @throws IOException - if the log cannot be written.
+	 */
+	@Test
+	public void testAppendAndRead() throws IOException {
+		File file = File.createTempFile("listings", ".log");
+		file.delete();
+		file.deleteOnExit();
+		int size = 40000;
+		try (EventLog log = new EventLog(file)) {
+			assertEquals(EventLog.START, log.getEnd());
+			for (int i = 0; i < size; i++) {
+				String[] line = new String[Delta.FIELDS.length];
+				line[0] = String.valueOf(i);
+				line[8] = String.valueOf(i % 500);
+				line[1] = "Room " + i;
+				log.append(i % 10 == 9 ? Delta.delete(String.valueOf(i - 1)) : Delta.upsert(line));
+			}
+		}
+		assertEquals(true, file.length() > EventLog.REGION_SIZE);
+		try (EventLog log = new EventLog(file)) {
+			List<Delta> events = new ArrayList<>();
+			long position = EventLog.START;
+			for (long next = log.read(position, events, 999); next != position; next = log.read(position, events, 999)) {
+				position = next;
+			}
+			assertEquals(log.getEnd(), position);
+			assertEquals(size, events.size());
+			for (int i = 0; i < size; i++) {
+				Delta event = events.get(i);
+				if (i % 10 == 9) {
+					assertEquals(Delta.Kind.REMOVED, event.getKind());
+					assertEquals(String.valueOf(i - 1), event.getId());
+				} else {
+					assertEquals(Delta.Kind.CHANGED, event.getKind());
+					assertEquals("Room " + i, event.getValue(1));
+					assertEquals(String.valueOf(i % 500), event.getValue(8));
+					assertEquals(null, event.getValue(2));
+				}
+			}
+			long end = log.append(Delta.delete("0"));
+			assertEquals(end, log.getEnd());
+		}
+	}
+
+	/**
+	 * Tests appending a batch of events, read back in the order appended after the events before it.
+	 * @throws IOException - if the log cannot be written.
+	 */
+	@Test
+	public void testAppendBatch() throws IOException {
+		File file = File.createTempFile("listings", ".log");
+		file.delete();
+		file.deleteOnExit();
+		List<Delta> batch = new ArrayList<>();
+		for (int i = 0; i < 5000; i++) {
+			batch.add(Delta.delete(String.valueOf(i)));
+		}
+		try (EventLog log = new EventLog(file)) {
+			log.append(Delta.delete("first"));
+			long end = log.append(batch);
+			assertEquals(end, log.getEnd());
+			assertEquals(end, log.append(new ArrayList<>()));
+		}
+		try (EventLog log = new EventLog(file)) {
+			List<Delta> events = new ArrayList<>();
+			assertEquals(log.getEnd(), log.read(EventLog.START, events, 10000));
+			assertEquals(5001, events.size());
+			assertEquals("first", events.get(0).getId());
+			for (int i = 0; i < batch.size(); i++) {
+				assertEquals(String.valueOf(i), events.get(i + 1).getId());
+			}
+		}
+	}
+
+	/**
+	 * Tests rolling back a batch of events, which are not read back once the log is reopened, even after a shorter event is appended over them.
+	 * @throws IOException - if the log cannot be written.
+	 */
+	@Test
+	public void testRollBack() throws IOException {
+		File file = File.createTempFile("listings", ".log");
+		file.delete();
+		file.deleteOnExit();
+		List<Delta> batch = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			batch.add(Delta.delete("rolled back " + i));
+		}
+		try (EventLog log = new EventLog(file)) {
+			long start = log.append(Delta.delete("first"));
+			log.append(batch);
+			log.rollBack(start);
+			assertEquals(start, log.getEnd());
+			log.append(Delta.delete("b"));
+		}
+		try (EventLog log = new EventLog(file)) {
+			List<Delta> events = new ArrayList<>();
+			assertEquals(log.getEnd(), log.read(EventLog.START, events, 10));
+			assertEquals(2, events.size());
+			assertEquals("first", events.get(0).getId());
+			assertEquals("b", events.get(1).getId());
+			assertThrows(IllegalArgumentException.class, () -> log.rollBack(log.getEnd() + 1));
+		}
+	}
+}
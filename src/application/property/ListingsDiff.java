@@ -0,0 +1,185 @@
+package application.property;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Compares two versions of the listings, writing the listings added, removed and changed (with the fields changed) to a delta file.
+ * The files are hash joined on the listing id: both are split by the hash of the id into partitions written to temporary delta files,
+ * then each partition of the old version is held in a map while the same partition of the new version is streamed past it.
+ * Only one partition of the old version is in memory at a time, whatever the size of the files. A file smaller than
+ * PARTITION_BYTES is not split at all.
+ *
+ * Usage: java application.property.ListingsDiff [old csv] [new csv] [delta file]
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public class ListingsDiff {
+
+	/**
+	 * The size of the old file each partition is aimed at.
+	 */
+	public static final long PARTITION_BYTES = 16L << 20;
+
+	/**
+	 * Compares two csv files and writes the differences.
+	 * @param args - the old csv file, the new csv file and the delta file.
+	 * @throws IOException - if a file cannot be read or written.
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 3) {
+			System.out.println("Usage: java application.property.ListingsDiff [old csv] [new csv] [delta file]");
+			return;
+		}
+		long start = System.nanoTime();
+		DeltaFile.Writer delta = diff(args[0], args[1], new File(args[2]), 0);
+		System.out.println(delta.getAdded() + " added, " + delta.getRemoved() + " removed, " + delta.getChanged() + " changed, written to " 
+				+ args[2] + " in " + (System.nanoTime() - start) / 1000000 + " ms.");
+	}
+
+	/**
+	 * Compares two csv files and writes the differences to a delta file.
+	 * @param oldUrl - the old csv file.
+	 * @param newUrl - the new csv file.
+	 * @param deltaFile - the delta file.
+	 * @param partitions - the number of partitions, 0 to choose from the size of the old file.
+	 * @return - the writer of the delta file, closed, to count the differences.
+	 * @throws IOException - if a file cannot be read or written.
+	 */
+	public static DeltaFile.Writer diff(String oldUrl, String newUrl, File deltaFile, int partitions) throws IOException {
+		if (partitions < 1) {
+			partitions = (int) Math.max(1, new File(oldUrl).length() / PARTITION_BYTES + 1);
+		}
+		try (DeltaFile.Writer delta = new DeltaFile.Writer(deltaFile)) {
+			if (partitions == 1) {
+				try (Stream<Property> oldProperties = new PropertyLoader().stream(oldUrl); Stream<Property> newProperties = new PropertyLoader().stream(newUrl)) {
+					join(oldProperties, newProperties, delta);
+				}
+				return delta;
+			}
+			List<File> oldPartitions = partition(oldUrl, partitions);
+			List<File> newPartitions = partition(newUrl, partitions);
+			try {
+				for (int partition = 0; partition < partitions; partition++) {
+					try (Stream<Property> oldProperties = read(oldPartitions.get(partition)); Stream<Property> newProperties = read(newPartitions.get(partition))) {
+						join(oldProperties, newProperties, delta);
+					}
+				}
+			} finally {
+				for (File file : oldPartitions) {
+					file.delete();
+				}
+				for (File file : newPartitions) {
+					file.delete();
+				}
+			}
+			return delta;
+		}
+	}
+
+	/**
+	 * Compares the same partition of both versions: the old properties go into a map by id,
+	 * the new ones are looked up as they stream past, and the properties left in the map were removed.
+	 * @param oldProperties - the old properties of the partition.
+	 * @param newProperties - the new properties of the partition.
+	 * @param delta - the delta file.
+	 * @throws IOException - if the delta file cannot be written.
+	 */
+	private static void join(Stream<Property> oldProperties, Stream<Property> newProperties, DeltaFile.Writer delta) throws IOException {
+		Map<String, String[]> oldLines = new HashMap<>();
+		oldProperties.forEachOrdered(property -> oldLines.put(property.getId(), PropertyLoader.toLine(property)));
+		try {
+			newProperties.forEachOrdered(property -> {
+				String[] line = PropertyLoader.toLine(property);
+				String[] oldLine = oldLines.remove(line[0]);
+				try {
+					if (oldLine == null) {
+						delta.writeAdded(line);
+					} else {
+						int mask = 0;
+						for (int field = 1; field < line.length; field++) {
+							mask |= line[field].equals(oldLine[field]) ? 0 : 1 << field;
+						}
+						if (mask != 0) {
+							delta.writeChanged(line, mask);
+						}
+					}
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		for (String id : oldLines.keySet()) {
+			delta.writeRemoved(id);
+		}
+	}
+
+	/**
+	 * Splits a csv file by the hash of the listing id into temporary delta files, each property written as added.
+	 * @param url - the csv file.
+	 * @param partitions - the number of partitions.
+	 * @return - the partitions.
+	 * @throws IOException - if a file cannot be read or written.
+	 */
+	private static List<File> partition(String url, int partitions) throws IOException {
+		List<File> files = new ArrayList<>();
+		DeltaFile.Writer[] writers = new DeltaFile.Writer[partitions];
+		try {
+			for (int partition = 0; partition < partitions; partition++) {
+				File file = File.createTempFile("partition-" + partition + "-", ".delta");
+				file.deleteOnExit();
+				files.add(file);
+				writers[partition] = new DeltaFile.Writer(file);
+			}
+			try (Stream<Property> properties = new PropertyLoader().stream(url)) {
+				properties.forEachOrdered(property -> {
+					try {
+						writers[Math.floorMod(property.getId().hashCode(), partitions)].writeAdded(PropertyLoader.toLine(property));
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+		} finally {
+			for (DeltaFile.Writer writer : writers) {
+				if (writer != null) {
+					writer.close();
+				}
+			}
+		}
+		return files;
+	}
+
+	/**
+	 * Streams the properties of a partition.
+	 * @param file - the partition.
+	 * @return - the properties, the stream to be closed.
+	 * @throws IOException - if the partition cannot be opened.
+	 */
+	private static Stream<Property> read(File file) throws IOException {
+		DeltaFile.Reader reader = new DeltaFile.Reader(file);
+		PropertyLoader loader = new PropertyLoader();
+		return Stream.iterate(reader.read(), delta -> delta != null, delta -> {
+			try {
+				return reader.read();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}).map(delta -> delta.applyTo(null, loader)).onClose(() -> {
+			try {
+				reader.close();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+}
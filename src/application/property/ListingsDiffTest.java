@@ -0,0 +1,83 @@
+package application.property;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class ListingsDiffTest {
+
+	/**
+	 * Tests the differences found with and without partitioning, and that applying them to the old properties gives the new ones.
+	 * @throws IOException - if a file cannot be written.
+	 */
+	@Test
+	public void testDiff() throws IOException {
+		File oldFile = write(-1, 1000, 0);
+		File newFile = write(0, 1050, 1);
+		PropertyLoader loader = new PropertyLoader();
+		List<Property> expected = loader.load(newFile.getPath(), false);
+		for (int partitions : new int[] {1, 4}) {
+			File deltaFile = File.createTempFile("listings", ".delta");
+			deltaFile.deleteOnExit();
+			DeltaFile.Writer writer = ListingsDiff.diff(oldFile.getPath(), newFile.getPath(), deltaFile, partitions);
+			assertEquals(50, writer.getAdded());
+			assertEquals(100, writer.getRemoved());
+			assertEquals(100, writer.getChanged());
+			Map<String, Property> properties = new LinkedHashMap<>();
+			for (Property property : loader.load(oldFile.getPath(), false)) {
+				properties.put(property.getId(), property);
+			}
+			try (DeltaFile.Reader reader = new DeltaFile.Reader(deltaFile)) {
+				for (Delta delta = reader.read(); delta != null; delta = reader.read()) {
+					if (delta.getKind() == Delta.Kind.CHANGED) {
+						assertEquals(1 << 8, delta.getMask());
+					}
+					Property property = delta.applyTo(properties.get(delta.getId()), loader);
+					if (property == null) {
+						properties.remove(delta.getId());
+					} else {
+						properties.put(delta.getId(), property);
+					}
+				}
+			}
+			assertEquals(expected.size(), properties.size());
+			for (Property property : expected) {
+				assertTrue(properties.containsKey(property.getId()));
+				assertEquals(Arrays.asList(PropertyLoader.toLine(property)), Arrays.asList(PropertyLoader.toLine(properties.get(property.getId()))));
+			}
+		}
+	}
+
+	/**
+	 * Writes a csv file of listings, leaving out every tenth listing when asked, and changing the price of the listings one after those.
+	 * @param skip - the remainder of the ids to leave out after dividing by 10, or -1 to keep them all.
+	 * @param size - the number of ids.
+	 * @param priceChange - the change to the price of the listings one after those left out.
+	 * @return - the file.
+	 * @throws IOException - if the file cannot be written.
+	 */
+	private File write(int skip, int size, int priceChange) throws IOException {
+		File file = File.createTempFile("listings", ".csv");
+		file.deleteOnExit();
+		try (PrintWriter writer = new PrintWriter(file, "UTF-8")) {
+			writer.println("id,name,host_id,host_name,neighbourhood,latitude,longitude,room_type,price,minimum_nights,number_of_reviews,last_review,reviews_per_month,calculated_host_listings_count,availability_365");
+			for (int i = 0; i < size; i++) {
+				if (i < 1000 && i % 10 == skip) {
+					continue;
+				}
+				int price = 50 + i % 7 + (i < 1000 && i % 10 == skip + 1 ? priceChange : 0);
+				writer.println(i + ",\"Room " + i + ", London\"," + (i / 3) + ",Host,Camden,51.5,-0.1" + (i % 9) + ",Private room," + price + ",1,2,01/01/2017,0.5,1,365");
+			}
+		}
+		return file;
+	}
+}
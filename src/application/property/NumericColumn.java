@@ -0,0 +1,151 @@
+package application.property;
+
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * The numeric attributes of a property that the statistics can rank properties by.
+ * Each one gives the value of a property, or of a row of a PropertyColumns read from its primitive column where there is one.
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public enum NumericColumn {
+
+	PRICE("price per night") {
+		@Override
+		public double valueOf(Property property) {
+			return property.getPrice();
+		}
+
+		@Override
+		public IntToDoubleFunction of(PropertyColumns columns) {
+			int[] prices = columns.getPrices();
+			return row -> prices[row];
+		}
+	},
+
+	MINIMUM_NIGHTS("minimum nights") {
+		@Override
+		public double valueOf(Property property) {
+			return property.getMinimumNights();
+		}
+
+		@Override
+		public IntToDoubleFunction of(PropertyColumns columns) {
+			int[] minimumNights = columns.getMinimumNights();
+			return row -> minimumNights[row];
+		}
+	},
+
+	NUMBER_OF_REVIEWS("number of reviews") {
+		@Override
+		public double valueOf(Property property) {
+			return property.getNumberOfReviews();
+		}
+
+		@Override
+		public IntToDoubleFunction of(PropertyColumns columns) {
+			int[] numberOfReviews = columns.getNumberOfReviews();
+			return row -> numberOfReviews[row];
+		}
+	},
+
+	AVAILABILITY_365("days available") {
+		@Override
+		public double valueOf(Property property) {
+			return property.getAvailability365();
+		}
+
+		@Override
+		public IntToDoubleFunction of(PropertyColumns columns) {
+			int[] availability365 = columns.getAvailability365();
+			return row -> availability365[row];
+		}
+	},
+
+	LATITUDE("latitude") {
+		@Override
+		public double valueOf(Property property) {
+			return property.getLatitude();
+		}
+
+		@Override
+		public IntToDoubleFunction of(PropertyColumns columns) {
+			double[] latitudes = columns.getLatitudes();
+			return row -> latitudes[row];
+		}
+	},
+
+	LONGITUDE("longitude") {
+		@Override
+		public double valueOf(Property property) {
+			return property.getLongitude();
+		}
+
+		@Override
+		public IntToDoubleFunction of(PropertyColumns columns) {
+			double[] longitudes = columns.getLongitudes();
+			return row -> longitudes[row];
+		}
+	},
+
+	REVIEWS_PER_MONTH("reviews per month") {
+		@Override
+		public double valueOf(Property property) {
+			return property.getReviewsPerMonth();
+		}
+	},
+
+	HOST_LISTINGS_COUNT("listings of the host") {
+		@Override
+		public double valueOf(Property property) {
+			return property.getCalculatedHostListingsCount();
+		}
+	},
+
+	/**
+	 * The date of the last review as a number that sorts in date order (yyyymmdd), 0 if there is no review.
+	 */
+	LAST_REVIEW_DATE("date of the last review") {
+		@Override
+		public double valueOf(Property property) {
+			return property.getLastReviewYear() * 10000 + property.getLastReviewMonth() * 100 + property.getLastReviewDay();
+		}
+	};
+
+	/**
+	 * The description of the attribute, as shown to the user.
+	 */
+	private final String description;
+
+	/**
+	 * Constructs a numeric column.
+	 * @param description - the description of the attribute.
+	 */
+	private NumericColumn(String description) {
+		this.description = description;
+	}
+
+	/**
+	 * Get the description of the attribute, as shown to the user.
+	 * @return - the description.
+	 */
+	public String getDescription() {
+		return description;
+	}
+
+	/**
+	 * Get the value of the attribute of a property.
+	 * @param property - the property.
+	 * @return - the value.
+	 */
+	public abstract double valueOf(Property property);
+
+	/**
+	 * Get the values of the attribute in a set of columns.
+	 * Reads the primitive column of the attribute if there is one, the properties otherwise.
+	 * @param columns - the columns.
+	 * @return - the value of each row.
+	 */
+	public IntToDoubleFunction of(PropertyColumns columns) {
+		return row -> valueOf(columns.getProperty(row));
+	}
+}
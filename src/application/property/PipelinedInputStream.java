@@ -0,0 +1,244 @@
+package application.property;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads a stream on a thread of its own, a few chunks ahead of the reader, so producing the bytes
+ * (decompressing them, say) overlaps with consuming them (parsing the csv).
+ * The chunks go back and forth between two queues, so the same few buffers are reused for the whole stream.
+ * The time each side spends working and waiting is kept, to tell which of the two is the bottleneck.
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+class PipelinedInputStream extends InputStream {
+
+	/**
+	 * The size of a chunk.
+	 */
+	static final int CHUNK_SIZE = 1 << 16;
+
+	/**
+	 * The number of chunks read ahead.
+	 */
+	static final int CHUNKS_AHEAD = 8;
+
+	/**
+	 * A chunk of the stream.
+	 */
+	private static class Chunk {
+
+		/**
+		 * The buffer.
+		 */
+		private final byte[] bytes = new byte[CHUNK_SIZE];
+
+		/**
+		 * The number of bytes in the buffer, -1 at the end of the stream.
+		 */
+		private int length;
+	}
+
+	/**
+	 * The stream read on the other thread.
+	 */
+	private final InputStream source;
+
+	/**
+	 * The chunks read and not yet consumed, in order.
+	 */
+	private final BlockingQueue<Chunk> full = new ArrayBlockingQueue<>(CHUNKS_AHEAD + 1);
+
+	/**
+	 * The chunks free to be read into.
+	 */
+	private final BlockingQueue<Chunk> empty = new ArrayBlockingQueue<>(CHUNKS_AHEAD + 1);
+
+	/**
+	 * The chunk being consumed and the position in it, null before the first chunk.
+	 */
+	private Chunk chunk;
+	private int position;
+
+	/**
+	 * The error reading the source, if any.
+	 */
+	private volatile IOException error;
+
+	/**
+	 * Whether the stream is closed.
+	 */
+	private volatile boolean closed;
+
+	/**
+	 * Whether the end of the stream has been reached.
+	 */
+	private boolean finished;
+
+	/**
+	 * The bytes read from the source, the time spent reading them and the time spent waiting for the consumer.
+	 */
+	private volatile long bytesProduced, producingNanos, producerWaitingNanos;
+
+	/**
+	 * The time the consumer spent waiting for the producer, and since its first read.
+	 */
+	private long consumerWaitingNanos, consumerStart, consumerEnd;
+
+	/**
+	 * Starts reading a stream on a thread of its own.
+	 * @param source - the stream, closed with this one.
+	 * @param name - the name of the thread.
+	 */
+	PipelinedInputStream(InputStream source, String name) {
+		this.source = source;
+		for (int i = 0; i <= CHUNKS_AHEAD; i++) {
+			empty.add(new Chunk());
+		}
+		Thread producer = new Thread(this::produce, name);
+		producer.setDaemon(true);
+		producer.start();
+	}
+
+	/**
+	 * Reads the source into chunks until its end, an error or the stream being closed.
+	 */
+	private void produce() {
+		try {
+			while (!closed) {
+				long waiting = System.nanoTime();
+				Chunk next = empty.poll(100, TimeUnit.MILLISECONDS);
+				long reading = System.nanoTime();
+				producerWaitingNanos += reading - waiting;
+				if (next == null) {
+					continue;
+				}
+				int length = 0;
+				int read = 0;
+				while (length < CHUNK_SIZE && (read = source.read(next.bytes, length, CHUNK_SIZE - length)) != -1) {
+					length += read;
+				}
+				next.length = length == 0 && read == -1 ? -1 : length;
+				bytesProduced += Math.max(length, 0);
+				producingNanos += System.nanoTime() - reading;
+				full.put(next);
+				if (read == -1) {
+					if (next.length != -1) {
+						Chunk end = empty.take();
+						end.length = -1;
+						full.put(end);
+					}
+					return;
+				}
+			}
+		} catch (IOException e) {
+			error = e;
+			signalEnd();
+		} catch (InterruptedException e) {
+			error = new IOException("Interrupted while reading ahead", e);
+			signalEnd();
+		}
+	}
+
+	/**
+	 * Puts an end of stream chunk in the queue after an error, so the consumer stops waiting.
+	 */
+	private void signalEnd() {
+		Chunk end = new Chunk();
+		end.length = -1;
+		full.clear();
+		full.offer(end);
+	}
+
+	/**
+	 * Moves to the next chunk with bytes left.
+	 * @return - false at the end of the stream.
+	 * @throws IOException - if the source could not be read.
+	 */
+	private boolean nextChunk() throws IOException {
+		if (consumerStart == 0) {
+			consumerStart = System.nanoTime();
+		}
+		while (chunk == null || position == chunk.length) {
+			if (finished) {
+				return false;
+			}
+			if (chunk != null) {
+				empty.offer(chunk);
+			}
+			long waiting = System.nanoTime();
+			try {
+				chunk = full.take();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted while waiting for the next chunk", e);
+			}
+			consumerWaitingNanos += System.nanoTime() - waiting;
+			position = 0;
+			if (chunk.length == -1) {
+				finished = true;
+				consumerEnd = System.nanoTime();
+				if (error != null) {
+					throw error;
+				}
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int read() throws IOException {
+		return nextChunk() ? chunk.bytes[position++] & 0xFF : -1;
+	}
+
+	@Override
+	public int read(byte[] bytes, int offset, int length) throws IOException {
+		if (length == 0) {
+			return 0;
+		}
+		if (!nextChunk()) {
+			return -1;
+		}
+		int copied = Math.min(length, chunk.length - position);
+		System.arraycopy(chunk.bytes, position, bytes, offset, copied);
+		position += copied;
+		return copied;
+	}
+
+	@Override
+	public void close() throws IOException {
+		closed = true;
+		if (consumerEnd == 0) {
+			consumerEnd = System.nanoTime();
+		}
+		full.clear(); //Unblocks the producer, which then sees the stream closed.
+		source.close();
+	}
+
+	/**
+	 * Describes the throughput of both sides, e.g. "Decompressed 12 MB in 90 ms (133 MB/s, waited 20 ms); parsed at 100 MB/s (waited 2 ms)".
+	 * @param producing - what the producer does, e.g. "Decompressed".
+	 * @return - the description.
+	 */
+	String getReport(String producing) {
+		long megabytes = bytesProduced >> 20;
+		long producingMillis = TimeUnit.NANOSECONDS.toMillis(producingNanos);
+		long consumingMillis = TimeUnit.NANOSECONDS.toMillis(consumerEnd - consumerStart - consumerWaitingNanos);
+		return producing + " " + megabytes + " MB in " + producingMillis + " ms (" + perSecond(megabytes, producingMillis) + " MB/s, waited " 
+				+ TimeUnit.NANOSECONDS.toMillis(producerWaitingNanos) + " ms); parsed in " + consumingMillis + " ms (" + perSecond(megabytes, consumingMillis) 
+				+ " MB/s, waited " + TimeUnit.NANOSECONDS.toMillis(consumerWaitingNanos) + " ms)";
+	}
+
+	/**
+	 * Divides megabytes by milliseconds.
+	 * @param megabytes - the megabytes.
+	 * @param millis - the milliseconds.
+	 * @return - the megabytes per second.
+	 */
+	private static long perSecond(long megabytes, long millis) {
+		return megabytes * 1000 / Math.max(millis, 1);
+	}
+}
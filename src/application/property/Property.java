@@ -1,5 +1,8 @@
 package application.property;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Represents one listing of a property for rental on Airbnb.
  * This is essentially one row in the data table. Each column
@@ -7,6 +10,11 @@ package application.property;
  */
 public class Property {
 
+	/**
+	 * The formatted name of each borough, so the properties of a borough share one.
+	 */
+	private static final Map<String, String> FORMATTED_BOROUGH_NAMES = new ConcurrentHashMap<>();
+
 	/**
 	 * The id of an a single property.
 	 */
@@ -76,6 +84,14 @@ public class Property {
 	 */
 	private String formattedBoroughName;
 
+	/**
+	 * The file the description and host name are read from, null if they are held in memory.
+	 * The spans are the positions of the two fields in the file.
+	 */
+	private TextSource text;
+	private long descriptionSpan;
+	private long hostNameSpan;
+
 	/**
 	 * Constructs a property.
 	 * @param id - the property id.
@@ -114,7 +130,7 @@ public class Property {
 		this.reviewsPerMonth = reviewsPerMonth;
 		this.calculatedHostListingsCount = calculatedHostListingsCount;
 		this.availability365 = availability365;
-		setFormattedBoroughName(formatBoroughName(neighbourhood));
+		setFormattedBoroughName(FORMATTED_BOROUGH_NAMES.computeIfAbsent(neighbourhood, this::formatBoroughName));
 	}
 
 	/**
@@ -130,7 +146,7 @@ public class Property {
 	 * @return - the description.
 	 */
 	public String getDescription() {
-		return description;
+		return description == null && text != null ? text.read(descriptionSpan) : description;
 	}
 
 	/**
@@ -146,7 +162,7 @@ public class Property {
 	 * @return - the host name.
 	 */
 	public String getHostName() {
-		return hostName;
+		return hostName == null && text != null ? text.read(hostNameSpan) : hostName;
 	}
 
 	/**
@@ -280,6 +296,20 @@ public class Property {
 		}
 	}
 
+	/**
+	 * Drops the description and host name from memory, to be read from the file when asked for.
+	 * @param text - the file.
+	 * @param descriptionSpan - the position of the description in the file.
+	 * @param hostNameSpan - the position of the host name in the file.
+	 */
+	void leaveTextInFile(TextSource text, long descriptionSpan, long hostNameSpan) {
+		this.text = text;
+		this.descriptionSpan = descriptionSpan;
+		this.hostNameSpan = hostNameSpan;
+		this.description = null;
+		this.hostName = null;
+	}
+
 	/**
 	 * Get the formatted borough name.
 	 * @return - the formatted borough name.
@@ -321,9 +351,9 @@ public class Property {
 	public String toString() {
 		StringBuilder sb = new StringBuilder();
 		sb.append("Property id = " + id + " \n");
-		sb.append("Description = " + description + "\n");
+		sb.append("Description = " + getDescription() + "\n");
 		sb.append("Host id = " + hostId + "\n");
-		sb.append("Host name = " + hostName + "\n");
+		sb.append("Host name = " + getHostName() + "\n");
 		sb.append("Neighbourhood = " + neighbourhood + "\n");
 		sb.append("Latitude = " + latitude + "\n");
 		sb.append("Longitude = " + longitude + "\n");
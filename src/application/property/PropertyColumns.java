@@ -0,0 +1,245 @@
+package application.property;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A column oriented copy of the numeric attributes of a list of properties.
+ * Each attribute is held in its own primitive array where index i of every array belongs to the same property (row i).
+ * This keeps the values used by the statistics packed together in memory so they can be scanned without touching the property objects.
+ * The boroughs and room types are stored as codes (0, 1, 2...) given in the order they are first seen.
+ * The arrays are shared, not copied, so callers must treat them as read only.
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public class PropertyColumns {
+
+	/**
+	 * The properties, indexed by row.
+	 */
+	private final Property[] rows;
+
+	/**
+	 * The price per night of each row.
+	 */
+	private final int[] prices;
+
+	/**
+	 * The minimum nights of each row.
+	 */
+	private final int[] minimumNights;
+
+	/**
+	 * The number of reviews of each row.
+	 */
+	private final int[] numberOfReviews;
+
+	/**
+	 * The days available during the year of each row.
+	 */
+	private final int[] availability365;
+
+	/**
+	 * The latitude of each row.
+	 */
+	private final double[] latitudes;
+
+	/**
+	 * The longitude of each row.
+	 */
+	private final double[] longitudes;
+
+	/**
+	 * The borough code of each row.
+	 */
+	private final int[] boroughCodes;
+
+	/**
+	 * The borough names, indexed by code.
+	 */
+	private final List<String> boroughNames;
+
+	/**
+	 * A map of the lower case borough names, both normal and formatted, to their code.
+	 */
+	private final Map<String, Integer> boroughCodesByName;
+
+	/**
+	 * The room type code of each row.
+	 */
+	private final int[] roomTypeCodes;
+
+	/**
+	 * The room types, indexed by code.
+	 */
+	private final List<String> roomTypeNames;
+
+	/**
+	 * Constructs the columns from a list of properties.
+	 * The row of a property is its position in the list.
+	 * @param properties - the properties.
+	 */
+	public PropertyColumns(List<Property> properties) {
+		int size = properties.size();
+		this.rows = properties.toArray(new Property[size]);
+		this.prices = new int[size];
+		this.minimumNights = new int[size];
+		this.numberOfReviews = new int[size];
+		this.availability365 = new int[size];
+		this.latitudes = new double[size];
+		this.longitudes = new double[size];
+		this.boroughCodes = new int[size];
+		this.boroughNames = new ArrayList<>();
+		this.boroughCodesByName = new HashMap<>();
+		this.roomTypeCodes = new int[size];
+		this.roomTypeNames = new ArrayList<>();
+		Map<String, Integer> roomTypeCodesByName = new HashMap<>();
+		for (int row = 0; row < size; row++) {
+			Property property = rows[row];
+			prices[row] = property.getPrice();
+			minimumNights[row] = property.getMinimumNights();
+			numberOfReviews[row] = property.getNumberOfReviews();
+			availability365[row] = property.getAvailability365();
+			latitudes[row] = property.getLatitude();
+			longitudes[row] = property.getLongitude();
+			Integer boroughCode = boroughCodesByName.get(property.getNeighbourhood().toLowerCase());
+			if (boroughCode == null) {
+				boroughCode = boroughNames.size();
+				boroughNames.add(property.getNeighbourhood());
+				boroughCodesByName.put(property.getNeighbourhood().toLowerCase(), boroughCode);
+				boroughCodesByName.put(property.getFormattedBoroughName().toLowerCase(), boroughCode);
+			}
+			boroughCodes[row] = boroughCode;
+			Integer roomTypeCode = roomTypeCodesByName.get(property.getRoomType().toLowerCase());
+			if (roomTypeCode == null) {
+				roomTypeCode = roomTypeNames.size();
+				roomTypeNames.add(property.getRoomType());
+				roomTypeCodesByName.put(property.getRoomType().toLowerCase(), roomTypeCode);
+			}
+			roomTypeCodes[row] = roomTypeCode;
+		}
+	}
+
+	/**
+	 * Get the number of rows.
+	 * @return - the number of rows.
+	 */
+	public int size() {
+		return rows.length;
+	}
+
+	/**
+	 * Get the property stored at a given row.
+	 * @param row - the row.
+	 * @return - the property.
+	 */
+	public Property getProperty(int row) {
+		return rows[row];
+	}
+
+	/**
+	 * Get the price column.
+	 * @return - the price per night of each row.
+	 */
+	public int[] getPrices() {
+		return prices;
+	}
+
+	/**
+	 * Get the minimum nights column.
+	 * @return - the minimum nights of each row.
+	 */
+	public int[] getMinimumNights() {
+		return minimumNights;
+	}
+
+	/**
+	 * Get the number of reviews column.
+	 * @return - the number of reviews of each row.
+	 */
+	public int[] getNumberOfReviews() {
+		return numberOfReviews;
+	}
+
+	/**
+	 * Get the availability column.
+	 * @return - the days available during the year of each row.
+	 */
+	public int[] getAvailability365() {
+		return availability365;
+	}
+
+	/**
+	 * Get the latitude column.
+	 * @return - the latitude of each row.
+	 */
+	public double[] getLatitudes() {
+		return latitudes;
+	}
+
+	/**
+	 * Get the borough code column.
+	 * @return - the borough code of each row.
+	 */
+	public int[] getBoroughCodes() {
+		return boroughCodes;
+	}
+
+	/**
+	 * Get the borough names.
+	 * @return - the borough names, indexed by code.
+	 */
+	public List<String> getBoroughNames() {
+		return boroughNames;
+	}
+
+	/**
+	 * Get the code of a borough.
+	 * Takes into account the formatted borough name as well as the normal borough name, ignoring case.
+	 * @param borough - the borough name.
+	 * @return - the borough code, or -1 if there is no property in that borough.
+	 */
+	public int getBoroughCode(String borough) {
+		Integer boroughCode = borough == null ? null : boroughCodesByName.get(borough.toLowerCase());
+		return boroughCode == null ? -1 : boroughCode;
+	}
+
+	/**
+	 * Get the room type code column.
+	 * @return - the room type code of each row.
+	 */
+	public int[] getRoomTypeCodes() {
+		return roomTypeCodes;
+	}
+
+	/**
+	 * Get the room types.
+	 * @return - the room types, indexed by code.
+	 */
+	public List<String> getRoomTypeNames() {
+		return roomTypeNames;
+	}
+
+	/**
+	 * Get the code of a room type, ignoring case.
+	 * @param roomType - the room type.
+	 * @return - the room type code, or -1 if there is no property of that room type.
+	 */
+	public int getRoomTypeCode(String roomType) {
+		for (int code = 0; code < roomTypeNames.size(); code++) {
+			if (roomTypeNames.get(code).equalsIgnoreCase(roomType)) {
+				return code;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Get the longitude column.
+	 * @return - the longitude of each row.
+	 */
+	public double[] getLongitudes() {
+		return longitudes;
+	}
+}
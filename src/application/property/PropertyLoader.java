@@ -1,59 +1,262 @@
 package application.property;
 
+import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileReader;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.GZIPInputStream;
 
 import com.opencsv.CSVReader;
 
 public class PropertyLoader {
 
+	/**
+	 * The csv file of the London properties.
+	 */
+	public static final String LONDON_PROPERTIES = "./data/airbnb-london.csv";
+
+	/**
+	 * The column of the description.
+	 */
+	private static final int DESCRIPTION_COLUMN = 1;
+
+	/**
+	 * The column of the host name.
+	 */
+	private static final int HOST_NAME_COLUMN = 3;
+
+	/**
+	 * The dictionaries of the columns with many repeated values, shared by the properties loaded by this loader.
+	 */
+	private final StringDictionary hostIds = new StringDictionary("host_id");
+	private final StringDictionary hostNames = new StringDictionary("host_name");
+	private final StringDictionary neighbourhoods = new StringDictionary("neighbourhood");
+	private final StringDictionary roomTypes = new StringDictionary("room_type");
+	private final StringDictionary lastReviews = new StringDictionary("last_review");
+
 	/**
 	 * Loads the properties from a csv file.
 	 * @return - an arraylist containing the properties to rent loaded from the csv file.
 	 */
     public ArrayList<Property> load() {
-        System.out.println("Loading London property data...");
+        return load(LONDON_PROPERTIES, false);
+    }
+
+	/**
+	 * Loads the properties from a csv file.
+	 * With lazy text, the description and host name, the bulk of each property, are left in the memory mapped file
+	 * and read when asked for. Each field left in the file is checked against the field parsed, 
+	 * so a row the file cannot be scanned the same way simply keeps its text in memory.
+	 * @param url - the path of the csv file.
+	 * @param lazyText - whether to leave the description and host name in the file.
+	 * @return - an arraylist containing the properties to rent loaded from the csv file.
+	 */
+    public ArrayList<Property> load(String url, boolean lazyText) {
+        System.out.println("Loading " + (url.equals(LONDON_PROPERTIES) ? "London" : new File(url).getName()) + " property data...");
         ArrayList<Property> listings = new ArrayList<Property>();
-        try { 
-            String url = "./data/airbnb-london.csv";
-            CSVReader reader = new CSVReader(new FileReader(new File(url).getAbsolutePath()));
-            String [] line;
-            //skip the first row (column headers)
-            reader.readNext(); 
-            while ((line = reader.readNext()) != null) {
-                String id = line[0];
-                String name = line[1]; 
-                String host_id = line[2];
-                String host_name = line[3]; 
-                String neighbourhood = line[4];
-                double latitude = convertDouble(line[5]);
-                double longitude = convertDouble(line[6]);
-                String room_type = line[7];
-                int price = convertInt(line[8]);
-                int minimumNights = convertInt(line[9]);
-                int numberOfReviews = convertInt(line[10]);
-                String lastReview = line[11];
-                double reviewsPerMonth = convertDouble(line[12]);
-                int calculatedHostListingsCount = convertInt(line[13]);
-                int availability365 = convertInt(line[14]);
-                Property listing = new Property(id, name, host_id,
-                        host_name, neighbourhood, latitude, longitude, room_type,
-                        price, minimumNights, numberOfReviews, lastReview,
-                        reviewsPerMonth, calculatedHostListingsCount, availability365
-                    );
-                listings.add(listing);
+        url = resolve(url);
+        TextSource text = null;
+        if (lazyText && isGzipped(url)) {
+            System.out.println("The csv file is compressed, keeping the text in memory.");
+        } else if (lazyText) {
+            try {
+                text = new TextSource(new File(url).toPath(), TextSource.DEFAULT_CACHE_SIZE);
+            } catch (IOException e) {
+                System.out.println("Could not map the csv file, keeping the text in memory: " + e.getMessage());
             }
-            reader.close();
-        } catch(IOException e){
+        }
+        CsvFieldScanner scanner = text == null ? null : new CsvFieldScanner(text.getBytes());
+        if (scanner != null) {
+            scanner.nextRecord(); //skip the first row (column headers)
+        }
+        int leftInFile = 0;
+        try (Stream<Property> properties = stream(url, true)) {
+            for (Property property : (Iterable<Property>) properties::iterator) {
+                if (scanner != null && leaveTextInFile(property, text, scanner)) {
+                    leftInFile++;
+                }
+                listings.add(property);
+            }
+        } catch(IOException | UncheckedIOException e){
             System.out.println("Error trying to load data from csv file.");
             e.printStackTrace();
         }
-        System.out.println("Loaded " + listings.size() + " rental properties.");
+        System.out.println("Loaded " + listings.size() + " rental properties" + (lazyText ? ", " + leftInFile + " with their text left in the file." : "."));
+        System.out.println("Shared repeated values, " + (getBytesSaved() >> 10) + " KB saved: " + neighbourhoods + "; " + roomTypes + "; " 
+                + hostIds + "; " + hostNames + "; " + lastReviews + ".");
         return listings;
     }
 
+    /**
+     * Leaves the description and host name of a property in the file, if the scanner finds the same text as the loader.
+     * @param property - the property just loaded.
+     * @param text - the file.
+     * @param scanner - the scanner, moved on to the record of the property.
+     * @return - true if the text was left in the file.
+     */
+    private boolean leaveTextInFile(Property property, TextSource text, CsvFieldScanner scanner) {
+        if (!scanner.nextRecord() || scanner.getNumberOfFields() <= HOST_NAME_COLUMN) {
+            return false;
+        }
+        long descriptionSpan = scanner.getSpan(DESCRIPTION_COLUMN);
+        long hostNameSpan = scanner.getSpan(HOST_NAME_COLUMN);
+        if (!text.decode(descriptionSpan).equals(property.getDescription()) || !text.decode(hostNameSpan).equals(property.getHostName())) {
+            return false;
+        }
+        property.leaveTextInFile(text, descriptionSpan, hostNameSpan);
+        return true;
+    }
+
+    /**
+     * Streams the properties of a csv file, parsing each row only as the stream reaches it, 
+     * so a one pass job such as a report never holds the whole file in memory.
+     * Only the neighbourhoods and room types of the streamed properties are shared, so the memory does not grow with the file either.
+     * The stream can be made parallel, in which case the rows are parsed in batches handed to other threads.
+     * The stream must be closed to close the file, and throws an UncheckedIOException if the file cannot be read.
+     * A gzipped file, whatever its name, is decompressed on a thread of its own while the rows are parsed,
+     * and the throughput of both is reported when the stream is closed.
+     * @param url - the path of the csv file, or of the file with .gz added if there is no such file.
+     * @return - the properties, in the order of the file.
+     * @throws IOException - if the file cannot be opened.
+     */
+    public Stream<Property> stream(String url) throws IOException {
+        return stream(url, false);
+    }
+
+    /**
+     * Streams the properties of a csv file, see stream.
+     * @param url - the path of the csv file, or of the file with .gz added if there is no such file.
+     * @param shareAllValues - true to share the hosts and review dates too, as when the properties are all kept.
+     * @return - the properties, in the order of the file.
+     * @throws IOException - if the file cannot be opened.
+     */
+    private Stream<Property> stream(String url, boolean shareAllValues) throws IOException {
+        url = resolve(url);
+        InputStream in = new BufferedInputStream(new FileInputStream(new File(url).getAbsolutePath()), PipelinedInputStream.CHUNK_SIZE);
+        PipelinedInputStream decompressed = null;
+        if (isGzipped(in)) {
+            decompressed = new PipelinedInputStream(new GZIPInputStream(in, PipelinedInputStream.CHUNK_SIZE), "Decompressing " + url);
+            in = decompressed;
+        }
+        CSVReader reader = new CSVReader(new InputStreamReader(in));
+        //skip the first row (column headers)
+        reader.readNext();
+        PropertySpliterator spliterator = new PropertySpliterator(reader, this, shareAllValues);
+        PipelinedInputStream pipeline = decompressed;
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            spliterator.close();
+            if (pipeline != null) {
+                System.out.println(pipeline.getReport("Decompressed"));
+            }
+        });
+    }
+
+    /**
+     * Finds the csv file, which may have been archived gzipped.
+     * @param url - the path of the csv file.
+     * @return - the path, with .gz added if there is no file at the path but there is one with .gz added.
+     */
+    private static String resolve(String url) {
+        if (!new File(url).exists() && new File(url + ".gz").exists()) {
+            return url + ".gz";
+        }
+        return url;
+    }
+
+    /**
+     * Checks whether a file is gzipped, from its first two bytes.
+     * @param url - the path of the file.
+     * @return - true if the file is gzipped.
+     */
+    private static boolean isGzipped(String url) {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(url))) {
+            return isGzipped(in);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Checks whether a stream is gzipped, from its first two bytes, leaving the stream where it was.
+     * @param in - the stream, supporting mark and reset.
+     * @return - true if the stream is gzipped.
+     * @throws IOException - if the stream cannot be read.
+     */
+    private static boolean isGzipped(InputStream in) throws IOException {
+        in.mark(2);
+        int first = in.read();
+        int second = in.read();
+        in.reset();
+        return first == (GZIPInputStream.GZIP_MAGIC & 0xFF) && second == (GZIPInputStream.GZIP_MAGIC >> 8);
+    }
+
+    /**
+     * Converts a row of the csv file into a property.
+     * @param line - the row.
+     * @return - the property.
+     */
+    Property toProperty(String[] line) {
+        return toProperty(line, true);
+    }
+
+    /**
+     * Converts a row of the csv file into a property.
+     * @param line - the row.
+     * @param shareAllValues - false to share only the neighbourhoods and room types, whose dictionaries stay small however many rows
+     * are read, rather than keeping every host and review date seen.
+     * @return - the property.
+     */
+    Property toProperty(String[] line, boolean shareAllValues) {
+        String id = line[0];
+        String name = line[1]; 
+        String host_id = shareAllValues ? hostIds.intern(line[2]) : line[2];
+        String host_name = shareAllValues ? hostNames.intern(line[3]) : line[3]; 
+        String neighbourhood = neighbourhoods.intern(line[4]);
+        double latitude = convertDouble(line[5]);
+        double longitude = convertDouble(line[6]);
+        String room_type = roomTypes.intern(line[7]);
+        int price = convertInt(line[8]);
+        int minimumNights = convertInt(line[9]);
+        int numberOfReviews = convertInt(line[10]);
+        String lastReview = shareAllValues ? lastReviews.intern(line[11]) : line[11];
+        double reviewsPerMonth = convertDouble(line[12]);
+        int calculatedHostListingsCount = convertInt(line[13]);
+        int availability365 = convertInt(line[14]);
+        return new Property(id, name, host_id,
+                host_name, neighbourhood, latitude, longitude, room_type,
+                price, minimumNights, numberOfReviews, lastReview,
+                reviewsPerMonth, calculatedHostListingsCount, availability365
+            );
+    }
+
+    /**
+     * Converts a property back into a row of the csv file, as toProperty reads it.
+     * Numbers are written in full, so converting the row again gives the same property.
+     * @param property - the property.
+     * @return - the row.
+     */
+    public static String[] toLine(Property property) {
+        return new String[] {property.getId(), property.getDescription(), property.getHostId(), property.getHostName(), 
+                property.getNeighbourhood(), String.valueOf(property.getLatitude()), String.valueOf(property.getLongitude()), 
+                property.getRoomType(), String.valueOf(property.getPrice()), String.valueOf(property.getMinimumNights()), 
+                String.valueOf(property.getNumberOfReviews()), property.getLastReview(), String.valueOf(property.getReviewsPerMonth()), 
+                String.valueOf(property.getCalculatedHostListingsCount()), String.valueOf(property.getAvailability365())};
+    }
+
+    /**
+     * Get the estimated bytes saved by sharing the repeated values of the properties loaded so far.
+     * @return - the bytes saved.
+     */
+    public long getBytesSaved() {
+        return hostIds.getBytesSaved() + hostNames.getBytesSaved() + neighbourhoods.getBytesSaved() + roomTypes.getBytesSaved() + lastReviews.getBytesSaved();
+    }
+
     /**
      * Converts a string into a double.
      * @param doubleString the string to be converted to Double type.
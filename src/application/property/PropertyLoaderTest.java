@@ -0,0 +1,131 @@
+package application.property;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+class PropertyLoaderTest {
+
+	/**
+	 * Tests the sequential and parallel streams of a file larger than a few batches against the rows written.
+	 * @throws IOException - if the file cannot be written.
+	 */
+	@Test
+	public void testStream() throws IOException {
+		File file = File.createTempFile("properties", ".csv");
+		file.deleteOnExit();
+		int size = PropertySpliterator.MINIMUM_BATCH_SIZE * 10 + 7;
+		try (PrintWriter writer = new PrintWriter(file)) {
+			writer.println("id,name,host_id,host_name,neighbourhood,latitude,longitude,room_type,price,minimum_nights,number_of_reviews,last_review,reviews_per_month,calculated_host_listings_count,availability_365");
+			for (int i = 0; i < size; i++) {
+				writer.println(i + ",\"Room, with a comma\"," + (i / 3) + ",Host,Camden,51.5,-0.1,Private room," + (i % 500) + ",1,2,01/01/2017,,1,365");
+			}
+		}
+		PropertyLoader loader = new PropertyLoader();
+		try (Stream<Property> properties = loader.stream(file.getPath())) {
+			List<Property> loaded = properties.collect(Collectors.toList());
+			assertEquals(size, loaded.size());
+			for (int i = 0; i < size; i++) {
+				assertEquals(String.valueOf(i), loaded.get(i).getId());
+				assertEquals("Room, with a comma", loaded.get(i).getDescription());
+				assertEquals(-1.0, loaded.get(i).getReviewsPerMonth());
+			}
+		}
+		try (Stream<Property> properties = loader.stream(file.getPath())) {
+			List<String> ids = properties.parallel().filter(property -> property.getPrice() < 100).map(Property::getId).collect(Collectors.toList());
+			assertEquals(size / 500 * 100 + Math.min(size % 500, 100), ids.size());
+			for (int i = 1; i < ids.size(); i++) {
+				assertEquals(true, Integer.parseInt(ids.get(i - 1)) < Integer.parseInt(ids.get(i)));
+			}
+		}
+	}
+
+	/**
+	 * Tests the text left in the file against the text loaded into memory, with quotes, escapes, line breaks and accents.
+	 * @throws IOException - if the file cannot be written.
+	 */
+	@Test
+	public void testLazyText() throws IOException {
+		File file = File.createTempFile("properties", ".csv");
+		file.deleteOnExit();
+		String[] descriptions = {"Plain room", "\"Quoted, with a comma\"", "\"Nice \"\"flat\"\"\"", "\"Two\nlines\"", "Caf\u00e9 \u00e0 Londres", "\"Back\\\\slash\"", "\"\""};
+		try (PrintWriter writer = new PrintWriter(file, "UTF-8")) {
+			writer.print("id,name,host_id,host_name,neighbourhood,latitude,longitude,room_type,price,minimum_nights,number_of_reviews,last_review,reviews_per_month,calculated_host_listings_count,availability_365\r\n");
+			for (int i = 0; i < descriptions.length; i++) {
+				writer.print(i + "," + descriptions[i] + ",7,\"Host " + i + "\",Camden,51.5,-0.1,Private room,50,1,2,01/01/2017,1.0,1,365\r\n");
+			}
+		}
+		PropertyLoader loader = new PropertyLoader();
+		List<Property> eager = loader.load(file.getPath(), false);
+		List<Property> lazy = loader.load(file.getPath(), true);
+		assertEquals(descriptions.length, lazy.size());
+		for (int i = 0; i < descriptions.length; i++) {
+			assertEquals(eager.get(i).getDescription(), lazy.get(i).getDescription());
+			assertEquals(eager.get(i).getHostName(), lazy.get(i).getHostName());
+			assertEquals("Host " + i, lazy.get(i).getHostName());
+		}
+		assertEquals("Nice \"flat\"", lazy.get(2).getDescription());
+	}
+
+	/**
+	 * Tests that the repeated values of a column are shared, from a parallel stream.
+	 */
+	@Test
+	public void testDictionary() {
+		StringDictionary dictionary = new StringDictionary("neighbourhood");
+		List<String> interned = IntStream.range(0, 10000).parallel()
+				.mapToObj(i -> dictionary.intern(new String("Camden" + (i % 3)))).collect(Collectors.toList());
+		assertEquals(3, dictionary.size());
+		assertEquals(9997, dictionary.getDuplicates());
+		for (String value : interned) {
+			assertTrue(value == interned.get(Integer.parseInt(value.substring(6))));
+		}
+		assertEquals(9997 * (24 + 24), dictionary.getBytesSaved());
+	}
+
+	/**
+	 * Tests loading a gzipped file, found by its name with .gz added, against the same file uncompressed.
+	 * @throws IOException - if the files cannot be written.
+	 */
+	@Test
+	public void testGzip() throws IOException {
+		File file = File.createTempFile("properties", ".csv");
+		file.deleteOnExit();
+		File gzipped = new File(file.getPath() + ".gz");
+		gzipped.deleteOnExit();
+		int size = PipelinedInputStream.CHUNK_SIZE / 10; //More than a few chunks.
+		try (PrintWriter writer = new PrintWriter(file); PrintWriter gzipWriter = new PrintWriter(new GZIPOutputStream(new FileOutputStream(gzipped)))) {
+			for (PrintWriter out : new PrintWriter[] {writer, gzipWriter}) {
+				out.println("id,name,host_id,host_name,neighbourhood,latitude,longitude,room_type,price,minimum_nights,number_of_reviews,last_review,reviews_per_month,calculated_host_listings_count,availability_365");
+				for (int i = 0; i < size; i++) {
+					out.println(i + ",\"Flat " + i + "\"," + (i / 3) + ",Host,Camden,51.5,-0.1,Private room," + (i % 500) + ",1,2,01/01/2017,,1,365");
+				}
+			}
+		}
+		PropertyLoader loader = new PropertyLoader();
+		List<Property> expected = loader.load(file.getPath(), false);
+		List<Property> gzippedProperties = loader.load(gzipped.getPath(), true);
+		assertTrue(file.delete());
+		List<Property> resolved = loader.load(file.getPath(), false);
+		assertEquals(size, expected.size());
+		for (List<Property> properties : Arrays.asList(gzippedProperties, resolved)) {
+			assertEquals(expected.size(), properties.size());
+			for (int i = 0; i < size; i++) {
+				assertEquals(expected.get(i).getDescription(), properties.get(i).getDescription());
+				assertEquals(expected.get(i).getPrice(), properties.get(i).getPrice());
+			}
+		}
+	}
+}
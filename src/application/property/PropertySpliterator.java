@@ -0,0 +1,133 @@
+package application.property;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+import com.opencsv.CSVReader;
+
+/**
+ * A spliterator over the properties of a csv file, parsing each row only when the stream asks for it,
+ * so a pipeline can filter and aggregate the properties without the whole file being held in memory.
+ *
+ * A sequential stream holds a single row at a time. Splitting for a parallel stream parses the next batch of rows
+ * into an array handed to another thread, the batches growing from MINIMUM_BATCH_SIZE to MAXIMUM_BATCH_SIZE,
+ * and each batch can be collected as soon as it has been consumed. The rows themselves are read one by one,
+ * as the file has to be read in order.
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+class PropertySpliterator implements Spliterator<Property> {
+
+	/**
+	 * The number of rows in the first batch split off.
+	 */
+	static final int MINIMUM_BATCH_SIZE = 1024;
+
+	/**
+	 * The largest number of rows in a batch split off.
+	 */
+	static final int MAXIMUM_BATCH_SIZE = 1 << 14;
+
+	/**
+	 * The reader of the csv file, positioned after the column headers.
+	 */
+	private final CSVReader reader;
+
+	/**
+	 * Parses the rows of the csv file.
+	 */
+	private final PropertyLoader loader;
+
+	/**
+	 * The number of rows in the next batch split off.
+	 */
+	private int batchSize;
+
+	/**
+	 * Whether the end of the file has been reached.
+	 */
+	private boolean finished;
+
+	/**
+	 * Whether the hosts and review dates are shared too, see PropertyLoader.toProperty.
+	 */
+	private final boolean shareAllValues;
+
+	/**
+	 * Constructs the spliterator.
+	 * @param reader - the reader of the csv file, positioned after the column headers.
+	 * @param loader - parses the rows.
+	 * @param shareAllValues - whether the hosts and review dates are shared too, see PropertyLoader.toProperty.
+	 */
+	PropertySpliterator(CSVReader reader, PropertyLoader loader, boolean shareAllValues) {
+		this.reader = reader;
+		this.loader = loader;
+		this.shareAllValues = shareAllValues;
+		this.batchSize = MINIMUM_BATCH_SIZE;
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super Property> action) {
+		String[] line = readNext();
+		if (line == null) {
+			return false;
+		}
+		action.accept(loader.toProperty(line, shareAllValues));
+		return true;
+	}
+
+	@Override
+	public Spliterator<Property> trySplit() {
+		Property[] batch = new Property[batchSize];
+		int size = 0;
+		String[] line;
+		while (size < batch.length && (line = readNext()) != null) {
+			batch[size++] = loader.toProperty(line, shareAllValues);
+		}
+		if (size == 0) {
+			return null;
+		}
+		batchSize = Math.min(batchSize * 2, MAXIMUM_BATCH_SIZE);
+		return Spliterators.spliterator(batch, 0, size, characteristics());
+	}
+
+	/**
+	 * Reads the next row of the csv file.
+	 * @return - the row, or null at the end of the file.
+	 */
+	private String[] readNext() {
+		if (finished) {
+			return null;
+		}
+		try {
+			String[] line = reader.readNext();
+			finished = line == null;
+			return line;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Closes the csv file.
+	 */
+	void close() {
+		try {
+			reader.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public long estimateSize() {
+		return Long.MAX_VALUE;
+	}
+
+	@Override
+	public int characteristics() {
+		return ORDERED | NONNULL;
+	}
+}
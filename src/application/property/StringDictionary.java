@@ -0,0 +1,109 @@
+package application.property;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps one instance of each value of a column, so the rows repeating a value share it instead of each holding a copy.
+ * The csv parser makes a new string for every field, thirty three boroughs turning into tens of thousands of strings.
+ * The dictionary can be shared by the threads of a parallel stream, and counts the memory the duplicates would have taken.
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public class StringDictionary {
+
+	/**
+	 * The name of the column.
+	 */
+	private final String column;
+
+	/**
+	 * The instance kept of each value.
+	 */
+	private final ConcurrentHashMap<String, String> values = new ConcurrentHashMap<>();
+
+	/**
+	 * The number of duplicates replaced.
+	 */
+	private final LongAdder duplicates = new LongAdder();
+
+	/**
+	 * The bytes the duplicates replaced would have taken.
+	 */
+	private final LongAdder bytesSaved = new LongAdder();
+
+	/**
+	 * Constructs an empty dictionary.
+	 * @param column - the name of the column, for the report.
+	 */
+	public StringDictionary(String column) {
+		this.column = column;
+	}
+
+	/**
+	 * Get the instance kept of a value, keeping this one if the value is new.
+	 * @param value - the value, may be null.
+	 * @return - the instance kept, equal to the value.
+	 */
+	public String intern(String value) {
+		if (value == null) {
+			return null;
+		}
+		String canonical = values.putIfAbsent(value, value);
+		if (canonical == null) {
+			return value;
+		}
+		duplicates.increment();
+		bytesSaved.add(sizeOf(value));
+		return canonical;
+	}
+
+	/**
+	 * Estimates the heap taken by a string: the object and its array, Latin-1 strings taking one byte per character
+	 * and the others two, each rounded up to 8 bytes as on a 64 bit JVM with compressed pointers.
+	 * @param value - the string.
+	 * @return - the estimated number of bytes.
+	 */
+	static long sizeOf(String value) {
+		int bytesPerCharacter = 1;
+		for (int i = 0; i < value.length(); i++) {
+			if (value.charAt(i) > 0xFF) {
+				bytesPerCharacter = 2;
+				break;
+			}
+		}
+		return 24 + ((16 + value.length() * bytesPerCharacter + 7) & ~7);
+	}
+
+	/**
+	 * Get the number of distinct values.
+	 * @return - the number of values.
+	 */
+	public int size() {
+		return values.size();
+	}
+
+	/**
+	 * Get the number of duplicates replaced by the instance kept.
+	 * @return - the number of duplicates.
+	 */
+	public long getDuplicates() {
+		return duplicates.sum();
+	}
+
+	/**
+	 * Get the estimated bytes the duplicates replaced would have taken.
+	 * @return - the bytes saved.
+	 */
+	public long getBytesSaved() {
+		return bytesSaved.sum();
+	}
+
+	/**
+	 * Describes the dictionary, e.g. "neighbourhood: 33 values, 49967 duplicates, 2732 KB saved".
+	 * @return - the description.
+	 */
+	@Override
+	public String toString() {
+		return column + ": " + size() + " values, " + getDuplicates() + " duplicates, " + (getBytesSaved() >> 10) + " KB saved";
+	}
+}
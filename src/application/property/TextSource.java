@@ -0,0 +1,120 @@
+package application.property;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.opencsv.CSVParser;
+
+/**
+ * The text columns of a csv file, left in the file and read when asked for.
+ * The file is memory mapped, so the text costs no heap until it is read, and the operating system keeps in memory
+ * only the pages that are actually used. A field is referred to by a span, its byte offset and length packed into a long.
+ * The text read most recently is kept in a small cache, as a screen tends to ask for the same few properties again and again.
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public class TextSource {
+
+	/**
+	 * The number of fields kept in the cache when not given.
+	 */
+	public static final int DEFAULT_CACHE_SIZE = 4096;
+
+	/**
+	 * The bytes of the file.
+	 */
+	private final MappedByteBuffer bytes;
+
+	/**
+	 * The text read most recently, by span, least recently used first.
+	 */
+	private final Map<Long, String> cache;
+
+	/**
+	 * Parses a field the way the loader does, with quotes and escapes.
+	 */
+	private final CSVParser parser;
+
+	/**
+	 * Maps a file.
+	 * @param path - the path of the file.
+	 * @param cacheSize - the number of fields kept in the cache.
+	 * @throws IOException - if the file cannot be mapped, such as a file of 2GB or more.
+	 */
+	public TextSource(Path path, int cacheSize) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("The file is too large to be mapped: " + path);
+			}
+			this.bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		this.cache = new LinkedHashMap<Long, String>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, String> eldest) {
+				return size() > cacheSize;
+			}
+		};
+		this.parser = new CSVParser();
+	}
+
+	/**
+	 * Get the bytes of the file, for scanning.
+	 * @return - a read only view of the bytes, positioned at the start of the file.
+	 */
+	ByteBuffer getBytes() {
+		return bytes.asReadOnlyBuffer();
+	}
+
+	/**
+	 * Packs the offset and length of a field into a span.
+	 * @param offset - the byte offset of the field.
+	 * @param length - the length of the field in bytes.
+	 * @return - the span.
+	 */
+	static long span(int offset, int length) {
+		return ((long) offset << 32) | length;
+	}
+
+	/**
+	 * Reads the text of a field, from the cache if it was read recently.
+	 * @param span - the span of the field.
+	 * @return - the text, with the quotes and escapes of the csv file removed.
+	 */
+	public synchronized String read(long span) {
+		String text = cache.get(span);
+		if (text == null) {
+			text = decode(span);
+			cache.put(span, text);
+		}
+		return text;
+	}
+
+	/**
+	 * Reads the text of a field without going through the cache.
+	 * @param span - the span of the field.
+	 * @return - the text, with the quotes and escapes of the csv file removed.
+	 */
+	synchronized String decode(long span) {
+		ByteBuffer field = bytes.duplicate();
+		field.position((int) (span >>> 32));
+		field.limit(field.position() + (int) span);
+		String raw = StandardCharsets.UTF_8.decode(field).toString();
+		if (raw.indexOf('"') == -1 && raw.indexOf('\\') == -1) {
+			return raw;
+		}
+		try {
+			String[] fields = parser.parseLine(raw);
+			return fields.length == 1 ? fields[0] : raw;
+		} catch (IOException e) {
+			return raw;
+		}
+	}
+}
@@ -0,0 +1,35 @@
+package application.query;
+
+/**
+ * An aggregation over a selection of rows, run by the ParallelAggregator.
+ * Each range of the selection is accumulated into its own accumulator, and the accumulators are then merged pairwise.
+ * For the parallel result to be identical to the sequential one, merge must be associative and must respect the order
+ * of the ranges: the left accumulator always covers the rows before the right one.
+ * @param <A> - the accumulator type.
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public interface Aggregation<A> {
+
+	/**
+	 * Creates an empty accumulator.
+	 * @return - the accumulator.
+	 */
+	A create();
+
+	/**
+	 * Accumulates a range of the selected rows.
+	 * @param accumulator - the accumulator, only ever used by one thread at a time.
+	 * @param rows - the selected rows.
+	 * @param from - the first index of the range (inclusive).
+	 * @param to - the last index of the range (exclusive).
+	 */
+	void accumulate(A accumulator, int[] rows, int from, int to);
+
+	/**
+	 * Merges two accumulators.
+	 * @param left - the accumulator of the earlier rows.
+	 * @param right - the accumulator of the later rows.
+	 * @return - the merged accumulator, which may be one of the two given.
+	 */
+	A merge(A left, A right);
+}
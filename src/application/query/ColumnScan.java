@@ -0,0 +1,302 @@
+package application.query;
+
+/**
+ * Scan kernels over primitive columns (see PropertyColumns).
+ * Evaluates range predicates and sum/min/max/count aggregates either over a whole column or over a selection of rows.
+ * A selection is an array of row indices where only the first 'size' entries are used.
+ *
+ * The software targets Java 9, which has no jdk.incubator.vector module, so the kernels are plain scalar loops written
+ * so that the JIT can vectorise them itself: counted loops, no early exits and no branches on the data (the predicate result
+ * is added to the count instead of being tested). The loops that have to stay sequential are unrolled by four with separate
+ * accumulators so the iterations do not wait on each other.
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public final class ColumnScan {
+
+	/**
+	 * Not instantiable, the kernels are static.
+	 */
+	private ColumnScan() {
+	}
+
+	/**
+	 * Writes the rows of a column whose value is within a range (inclusive) into a selection.
+	 * @param column - the column.
+	 * @param minimum - the minimum value.
+	 * @param maximum - the maximum value.
+	 * @param selection - the selection to fill, must be at least as long as the column.
+	 * @return - the number of rows written to the selection.
+	 */
+	public static int selectRange(int[] column, int minimum, int maximum, int[] selection) {
+		int size = 0;
+		for (int row = 0; row < column.length; row++) {
+			int value = column[row];
+			selection[size] = row; //Always written, only kept if the predicate holds.
+			size += (value >= minimum & value <= maximum) ? 1 : 0;
+		}
+		return size;
+	}
+
+	/**
+	 * Writes the rows of a column whose value is within a range (inclusive) into a selection.
+	 * @param column - the column.
+	 * @param minimum - the minimum value.
+	 * @param maximum - the maximum value.
+	 * @param selection - the selection to fill, must be at least as long as the column.
+	 * @return - the number of rows written to the selection.
+	 */
+	public static int selectRange(double[] column, double minimum, double maximum, int[] selection) {
+		int size = 0;
+		for (int row = 0; row < column.length; row++) {
+			double value = column[row];
+			selection[size] = row;
+			size += (value >= minimum & value <= maximum) ? 1 : 0;
+		}
+		return size;
+	}
+
+	/**
+	 * Counts the values of a column within a range (inclusive).
+	 * @param column - the column.
+	 * @param minimum - the minimum value.
+	 * @param maximum - the maximum value.
+	 * @return - the number of values within the range.
+	 */
+	public static int countRange(int[] column, int minimum, int maximum) {
+		int count = 0;
+		for (int row = 0; row < column.length; row++) {
+			int value = column[row];
+			count += (value >= minimum & value <= maximum) ? 1 : 0;
+		}
+		return count;
+	}
+
+	/**
+	 * Counts the values of a column within a range (inclusive).
+	 * @param column - the column.
+	 * @param minimum - the minimum value.
+	 * @param maximum - the maximum value.
+	 * @return - the number of values within the range.
+	 */
+	public static int countRange(double[] column, double minimum, double maximum) {
+		int count = 0;
+		for (int row = 0; row < column.length; row++) {
+			double value = column[row];
+			count += (value >= minimum & value <= maximum) ? 1 : 0;
+		}
+		return count;
+	}
+
+	/**
+	 * Counts the selected rows of a column whose value is within a range (inclusive).
+	 * For example 'availability365 > 0' is countRange(availability, rows, size, 1, Integer.MAX_VALUE).
+	 * @param column - the column.
+	 * @param selection - the selected rows.
+	 * @param size - the number of selected rows.
+	 * @param minimum - the minimum value.
+	 * @param maximum - the maximum value.
+	 * @return - the number of selected rows within the range.
+	 */
+	public static int countRange(int[] column, int[] selection, int size, int minimum, int maximum) {
+		return countRange(column, selection, 0, size, minimum, maximum);
+	}
+
+	/**
+	 * Counts the rows of a part of a selection whose value is within a range (inclusive).
+	 * @param column - the column.
+	 * @param selection - the selected rows.
+	 * @param from - the first index of the selection to use (inclusive).
+	 * @param to - the last index of the selection to use (exclusive).
+	 * @param minimum - the minimum value.
+	 * @param maximum - the maximum value.
+	 * @return - the number of rows within the range.
+	 */
+	public static int countRange(int[] column, int[] selection, int from, int to, int minimum, int maximum) {
+		int count0 = 0, count1 = 0, count2 = 0, count3 = 0;
+		int i = from;
+		for (; i + 3 < to; i += 4) {
+			int value0 = column[selection[i]];
+			int value1 = column[selection[i + 1]];
+			int value2 = column[selection[i + 2]];
+			int value3 = column[selection[i + 3]];
+			count0 += (value0 >= minimum & value0 <= maximum) ? 1 : 0;
+			count1 += (value1 >= minimum & value1 <= maximum) ? 1 : 0;
+			count2 += (value2 >= minimum & value2 <= maximum) ? 1 : 0;
+			count3 += (value3 >= minimum & value3 <= maximum) ? 1 : 0;
+		}
+		for (; i < to; i++) {
+			int value = column[selection[i]];
+			count0 += (value >= minimum & value <= maximum) ? 1 : 0;
+		}
+		return count0 + count1 + count2 + count3;
+	}
+
+	/**
+	 * Sums a column.
+	 * @param column - the column.
+	 * @return - the sum of the column.
+	 */
+	public static long sum(int[] column) {
+		long sum = 0;
+		for (int row = 0; row < column.length; row++) {
+			sum += column[row];
+		}
+		return sum;
+	}
+
+	/**
+	 * Sums a column.
+	 * The additions are done in the order of the rows so the result is the same as a plain for-each loop.
+	 * @param column - the column.
+	 * @return - the sum of the column.
+	 */
+	public static double sum(double[] column) {
+		double sum = 0;
+		for (int row = 0; row < column.length; row++) {
+			sum += column[row];
+		}
+		return sum;
+	}
+
+	/**
+	 * Sums the selected rows of a column.
+	 * @param column - the column.
+	 * @param selection - the selected rows.
+	 * @param size - the number of selected rows.
+	 * @return - the sum of the selected rows.
+	 */
+	public static long sum(int[] column, int[] selection, int size) {
+		return sum(column, selection, 0, size);
+	}
+
+	/**
+	 * Sums the rows of a part of a selection.
+	 * @param column - the column.
+	 * @param selection - the selected rows.
+	 * @param from - the first index of the selection to use (inclusive).
+	 * @param to - the last index of the selection to use (exclusive).
+	 * @return - the sum of the rows.
+	 */
+	public static long sum(int[] column, int[] selection, int from, int to) {
+		long sum0 = 0, sum1 = 0, sum2 = 0, sum3 = 0;
+		int i = from;
+		for (; i + 3 < to; i += 4) {
+			sum0 += column[selection[i]];
+			sum1 += column[selection[i + 1]];
+			sum2 += column[selection[i + 2]];
+			sum3 += column[selection[i + 3]];
+		}
+		for (; i < to; i++) {
+			sum0 += column[selection[i]];
+		}
+		return sum0 + sum1 + sum2 + sum3;
+	}
+
+	/**
+	 * Sums the selected rows of a column.
+	 * The additions are done in the order of the selection so the result is the same as a plain for-each loop.
+	 * @param column - the column.
+	 * @param selection - the selected rows.
+	 * @param size - the number of selected rows.
+	 * @return - the sum of the selected rows.
+	 */
+	public static double sum(double[] column, int[] selection, int size) {
+		double sum = 0;
+		for (int i = 0; i < size; i++) {
+			sum += column[selection[i]];
+		}
+		return sum;
+	}
+
+	/**
+	 * Get the smallest value of a column.
+	 * @param column - the column.
+	 * @return - the smallest value, or Integer.MAX_VALUE if the column is empty.
+	 */
+	public static int min(int[] column) {
+		int min = Integer.MAX_VALUE;
+		for (int row = 0; row < column.length; row++) {
+			min = Math.min(min, column[row]);
+		}
+		return min;
+	}
+
+	/**
+	 * Get the greatest value of a column.
+	 * @param column - the column.
+	 * @return - the greatest value, or Integer.MIN_VALUE if the column is empty.
+	 */
+	public static int max(int[] column) {
+		int max = Integer.MIN_VALUE;
+		for (int row = 0; row < column.length; row++) {
+			max = Math.max(max, column[row]);
+		}
+		return max;
+	}
+
+	/**
+	 * Get the smallest value of a column.
+	 * @param column - the column.
+	 * @return - the smallest value, or Double.POSITIVE_INFINITY if the column is empty.
+	 */
+	public static double min(double[] column) {
+		double min = Double.POSITIVE_INFINITY;
+		for (int row = 0; row < column.length; row++) {
+			min = Math.min(min, column[row]);
+		}
+		return min;
+	}
+
+	/**
+	 * Get the greatest value of a column.
+	 * @param column - the column.
+	 * @return - the greatest value, or Double.NEGATIVE_INFINITY if the column is empty.
+	 */
+	public static double max(double[] column) {
+		double max = Double.NEGATIVE_INFINITY;
+		for (int row = 0; row < column.length; row++) {
+			max = Math.max(max, column[row]);
+		}
+		return max;
+	}
+
+	/**
+	 * Get the smallest value of the selected rows of a column.
+	 * @param column - the column.
+	 * @param selection - the selected rows.
+	 * @param size - the number of selected rows.
+	 * @return - the smallest value, or Integer.MAX_VALUE if nothing is selected.
+	 */
+	public static int min(int[] column, int[] selection, int size) {
+		int min0 = Integer.MAX_VALUE, min1 = Integer.MAX_VALUE;
+		int i = 0;
+		for (; i + 1 < size; i += 2) {
+			min0 = Math.min(min0, column[selection[i]]);
+			min1 = Math.min(min1, column[selection[i + 1]]);
+		}
+		for (; i < size; i++) {
+			min0 = Math.min(min0, column[selection[i]]);
+		}
+		return Math.min(min0, min1);
+	}
+
+	/**
+	 * Get the greatest value of the selected rows of a column.
+	 * @param column - the column.
+	 * @param selection - the selected rows.
+	 * @param size - the number of selected rows.
+	 * @return - the greatest value, or Integer.MIN_VALUE if nothing is selected.
+	 */
+	public static int max(int[] column, int[] selection, int size) {
+		int max0 = Integer.MIN_VALUE, max1 = Integer.MIN_VALUE;
+		int i = 0;
+		for (; i + 1 < size; i += 2) {
+			max0 = Math.max(max0, column[selection[i]]);
+			max1 = Math.max(max1, column[selection[i + 1]]);
+		}
+		for (; i < size; i++) {
+			max0 = Math.max(max0, column[selection[i]]);
+		}
+		return Math.max(max0, max1);
+	}
+}
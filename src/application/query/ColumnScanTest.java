@@ -0,0 +1,50 @@
+package application.query;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+class ColumnScanTest {
+
+	/**
+	 * The column used by the tests.
+	 */
+	private int[] column = new int[] {5, 50, 120, 7000, 0, 200, 49, 201, 100};
+
+	/**
+	 * Tests selecting the rows within a range, both bounds included.
+	 */
+	@Test
+	public void testSelectRange() {
+		int[] selection = new int[column.length];
+		int size = ColumnScan.selectRange(column, 50, 200, selection);
+		assertArrayEquals(new int[] {1, 2, 5, 8}, Arrays.copyOf(selection, size));
+		assertEquals(ColumnScan.countRange(column, 50, 200), size);
+	}
+
+	/**
+	 * Tests the aggregates over a selection, including the rows left over after unrolling.
+	 */
+	@Test
+	public void testSelectionAggregates() {
+		int[] selection = new int[] {0, 2, 3, 4, 6};
+		assertEquals(ColumnScan.sum(column, selection, 5), 5 + 120 + 7000 + 0 + 49);
+		assertEquals(ColumnScan.min(column, selection, 5), 0);
+		assertEquals(ColumnScan.max(column, selection, 5), 7000);
+		assertEquals(ColumnScan.countRange(column, selection, 5, 1, Integer.MAX_VALUE), 4);
+	}
+
+	/**
+	 * Tests the aggregates of empty inputs.
+	 */
+	@Test
+	public void testEmpty() {
+		assertEquals(ColumnScan.sum(new int[0]), 0);
+		assertEquals(ColumnScan.min(new int[0]), Integer.MAX_VALUE);
+		assertEquals(ColumnScan.max(column, new int[0], 0), Integer.MIN_VALUE);
+		assertEquals(ColumnScan.countRange(new double[0], 0, 1), 0);
+	}
+}
@@ -0,0 +1,98 @@
+package application.query;
+
+import java.util.Arrays;
+
+/**
+ * The count, and the sum, smallest and greatest value of each measure, of a group of properties of a GroupByCube.
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public class CubeAggregate {
+
+	/**
+	 * The number of properties.
+	 */
+	private long count;
+
+	/**
+	 * The sum of each measure.
+	 */
+	private final long[] sums;
+
+	/**
+	 * The smallest and greatest value of each measure.
+	 */
+	private final int[] mins, maxs;
+
+	/**
+	 * Constructs an empty aggregate.
+	 * @param numberOfMeasures - the number of measures.
+	 */
+	CubeAggregate(int numberOfMeasures) {
+		this.sums = new long[numberOfMeasures];
+		this.mins = new int[numberOfMeasures];
+		this.maxs = new int[numberOfMeasures];
+		Arrays.fill(mins, Integer.MAX_VALUE);
+		Arrays.fill(maxs, Integer.MIN_VALUE);
+	}
+
+	/**
+	 * Adds the values of a cell.
+	 * @param count - the number of properties of the cell.
+	 * @param sums - the sums of the cell, indexed by measure then cell.
+	 * @param mins - the smallest values of the cell, indexed by measure then cell.
+	 * @param maxs - the greatest values of the cell, indexed by measure then cell.
+	 * @param cell - the cell.
+	 */
+	void add(int count, long[][] sums, int[][] mins, int[][] maxs, int cell) {
+		this.count += count;
+		for (int measure = 0; measure < this.sums.length; measure++) {
+			this.sums[measure] += sums[measure][cell];
+			this.mins[measure] = Math.min(this.mins[measure], mins[measure][cell]);
+			this.maxs[measure] = Math.max(this.maxs[measure], maxs[measure][cell]);
+		}
+	}
+
+	/**
+	 * Get the number of properties.
+	 * @return - the number of properties.
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Get the sum of a measure.
+	 * @param measure - the measure, for example GroupByCube.PRICE.
+	 * @return - the sum.
+	 */
+	public long getSum(int measure) {
+		return sums[measure];
+	}
+
+	/**
+	 * Get the smallest value of a measure.
+	 * @param measure - the measure.
+	 * @return - the smallest value, Integer.MAX_VALUE if there is no property.
+	 */
+	public int getMin(int measure) {
+		return mins[measure];
+	}
+
+	/**
+	 * Get the greatest value of a measure.
+	 * @param measure - the measure.
+	 * @return - the greatest value, Integer.MIN_VALUE if there is no property.
+	 */
+	public int getMax(int measure) {
+		return maxs[measure];
+	}
+
+	/**
+	 * Get the average of a measure.
+	 * @param measure - the measure.
+	 * @return - the average, NaN if there is no property.
+	 */
+	public double getAverage(int measure) {
+		return count == 0 ? Double.NaN : (double) sums[measure] / count;
+	}
+}
@@ -0,0 +1,114 @@
+package application.query;
+
+import application.property.PropertyColumns;
+
+/**
+ * HyperLogLog sketches of the distinct values of a column (e.g. host ids), kept per borough and price band.
+ * The sketch of any group of boroughs and prices is built by merging the sketches of the bands inside the price range.
+ * Only where the range cuts through a band are the values read from the rows themselves, as a slice of the rows
+ * sorted by price. The memory used is fixed by the precision and does not depend on the number of properties.
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public class DistinctCounts {
+
+	/**
+	 * The columns the sketches were built from.
+	 */
+	private final PropertyColumns columns;
+
+	/**
+	 * The hash of the counted value of each row.
+	 */
+	private final long[] hashes;
+
+	/**
+	 * All the rows sorted by price.
+	 */
+	private final int[] rowsByPrice;
+
+	/**
+	 * The price histogram of all the rows, locating a price range within the rows sorted by price.
+	 */
+	private final PriceHistogram priceHistogram;
+
+	/**
+	 * The precision of the sketches.
+	 */
+	private final int precision;
+
+	/**
+	 * The sketches, indexed by borough code * number of bands + band.
+	 */
+	private final HyperLogLog[] sketches;
+
+	/**
+	 * Builds the sketches.
+	 * @param columns - the columns.
+	 * @param hashes - the hash of the counted value of each row, see HyperLogLog.hash.
+	 * @param rowsByPrice - all the rows sorted by price.
+	 * @param priceHistogram - the price histogram of all the rows.
+	 * @param precision - the precision of the sketches.
+	 */
+	public DistinctCounts(PropertyColumns columns, long[] hashes, int[] rowsByPrice, PriceHistogram priceHistogram, int precision) {
+		this.columns = columns;
+		this.hashes = hashes;
+		this.rowsByPrice = rowsByPrice;
+		this.priceHistogram = priceHistogram;
+		this.precision = precision;
+		this.sketches = new HyperLogLog[columns.getBoroughNames().size() * PriceBands.count()];
+		int[] prices = columns.getPrices();
+		int[] boroughCodes = columns.getBoroughCodes();
+		for (int row = 0; row < columns.size(); row++) {
+			int index = boroughCodes[row] * PriceBands.count() + PriceBands.bandOf(prices[row]);
+			if (sketches[index] == null) {
+				sketches[index] = new HyperLogLog(precision);
+			}
+			sketches[index].addHash(hashes[row]);
+		}
+	}
+
+	/**
+	 * Builds the sketch of the values of a group of properties.
+	 * @param boroughCode - the borough code, -1 for every borough.
+	 * @param minimumPrice - the minimum price (inclusive).
+	 * @param maximumPrice - the maximum price (inclusive).
+	 * @return - a new sketch of the values.
+	 */
+	public HyperLogLog getSketch(int boroughCode, int minimumPrice, int maximumPrice) {
+		HyperLogLog result = new HyperLogLog(precision);
+		int[] boroughCodes = columns.getBoroughCodes();
+		for (int band = 0; band < PriceBands.count(); band++) {
+			if (PriceBands.isWithin(band, minimumPrice, maximumPrice)) {
+				for (int borough = 0; borough < columns.getBoroughNames().size(); borough++) {
+					HyperLogLog sketch = sketches[borough * PriceBands.count() + band];
+					if (sketch != null && (boroughCode == -1 || borough == boroughCode)) {
+						result.merge(sketch);
+					}
+				}
+			} else if (PriceBands.overlaps(band, minimumPrice, maximumPrice)) {
+				long from = Math.max(minimumPrice, PriceBands.lowestPrice(band));
+				long to = Math.min(maximumPrice, PriceBands.highestPrice(band));
+				int end = priceHistogram.firstIndex(to + 1);
+				for (int i = priceHistogram.firstIndex(from); i < end; i++) {
+					int row = rowsByPrice[i];
+					if (boroughCode == -1 || boroughCodes[row] == boroughCode) {
+						result.addHash(hashes[row]);
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Get the memory used by the sketches.
+	 * @return - the number of bytes.
+	 */
+	public long getSizeInBytes() {
+		long size = 0;
+		for (HyperLogLog sketch : sketches) {
+			size += sketch == null ? 0 : sketch.getSizeInBytes();
+		}
+		return size;
+	}
+}
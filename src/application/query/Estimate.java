@@ -0,0 +1,96 @@
+package application.query;
+
+/**
+ * An estimate of a statistic computed on part of the rows, with its 95% confidence interval.
+ * Once every row has been processed the estimate is exact and the interval is empty.
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public class Estimate {
+
+	/**
+	 * The estimated value.
+	 */
+	private final double value;
+
+	/**
+	 * Half the width of the 95% confidence interval, the value being within value - halfWidth and value + halfWidth.
+	 */
+	private final double halfWidth;
+
+	/**
+	 * The number of rows processed so far.
+	 */
+	private final int processed;
+
+	/**
+	 * The total number of rows.
+	 */
+	private final int total;
+
+	/**
+	 * Constructs an estimate.
+	 * @param value - the estimated value.
+	 * @param halfWidth - half the width of the 95% confidence interval.
+	 * @param processed - the number of rows processed so far.
+	 * @param total - the total number of rows.
+	 */
+	public Estimate(double value, double halfWidth, int processed, int total) {
+		this.value = value;
+		this.halfWidth = halfWidth;
+		this.processed = processed;
+		this.total = total;
+	}
+
+	/**
+	 * Get the estimated value.
+	 * @return - the value.
+	 */
+	public double getValue() {
+		return value;
+	}
+
+	/**
+	 * Get half the width of the 95% confidence interval.
+	 * @return - the half width, 0 once exact.
+	 */
+	public double getHalfWidth() {
+		return halfWidth;
+	}
+
+	/**
+	 * Get the number of rows processed so far.
+	 * @return - the number of rows processed.
+	 */
+	public int getProcessed() {
+		return processed;
+	}
+
+	/**
+	 * Get the total number of rows.
+	 * @return - the total number of rows.
+	 */
+	public int getTotal() {
+		return total;
+	}
+
+	/**
+	 * Get the fraction of the rows processed so far.
+	 * @return - the fraction, between 0 and 1.
+	 */
+	public double getFraction() {
+		return total == 0 ? 1 : (double) processed / total;
+	}
+
+	/**
+	 * Whether every row has been processed, so the value is exact.
+	 * @return - true if the estimate is exact.
+	 */
+	public boolean isExact() {
+		return processed == total;
+	}
+
+	@Override
+	public String toString() {
+		return isExact() ? Double.toString(value) : value + " ± " + halfWidth;
+	}
+}
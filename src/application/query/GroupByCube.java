@@ -0,0 +1,383 @@
+package application.query;
+
+import java.util.Arrays;
+
+import application.property.PropertyColumns;
+
+/**
+ * A cube of precomputed aggregates over five dimensions: borough, room type, price band, availability band and
+ * minimum nights band. Each cell (one code per dimension) holds the number of properties and the sum, smallest and
+ * greatest value of each measure (price, number of reviews, and price of a stay of the minimum number of nights).
+ * Roll-up and slice queries add up the matching cells, so they cost the same whatever the number of properties.
+ *
+ * The price dimension uses the split bands of PriceBands, so any price range chosen with the price selectors is a whole
+ * number of bands. Other price ranges can be answered exactly as long as they do not cut through a cell, which is checked
+ * from the smallest and greatest price of the cells (see Slice.isExact).
+ *
+ * The cube is built in one parallel pass and never changes afterwards: a data store applying listing events builds
+ * its next version, and so a new cube, once for the whole batch. Queries only read the cube, so any number of threads
+ * may query it at once, as the views of a data store do, and the cube keeps nothing per property.
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public class GroupByCube {
+
+	/**
+	 * The dimensions.
+	 */
+	public static final int BOROUGH = 0, ROOM_TYPE = 1, PRICE_BAND = 2, AVAILABILITY_BAND = 3, MINIMUM_NIGHTS_BAND = 4;
+
+	/**
+	 * The number of dimensions.
+	 */
+	private static final int DIMENSIONS = 5;
+
+	/**
+	 * The measures.
+	 */
+	public static final int PRICE = 0, NUMBER_OF_REVIEWS = 1, STAY_PRICE = 2;
+
+	/**
+	 * The number of measures.
+	 */
+	private static final int MEASURES = 3;
+
+	/**
+	 * The highest days available (inclusive) of each availability band but the last, band 0 being never available.
+	 */
+	private static final int[] AVAILABILITY_BOUNDARIES = {0, 90, 180, 270};
+
+	/**
+	 * The highest minimum nights (inclusive) of each minimum nights band but the last.
+	 */
+	private static final int[] MINIMUM_NIGHTS_BOUNDARIES = {1, 3, 7, 30};
+
+	/**
+	 * The number of codes of each dimension.
+	 */
+	private final int[] sizes;
+
+	/**
+	 * The aggregates of the cells.
+	 */
+	private final Cells cells;
+
+	/**
+	 * Builds the cube of a set of properties, in one pass split between the threads of the aggregator.
+	 * @param columns - the properties.
+	 * @param aggregator - runs the pass.
+	 */
+	public GroupByCube(PropertyColumns columns, ParallelAggregator aggregator) {
+		this.sizes = new int[] {columns.getBoroughNames().size(), columns.getRoomTypeNames().size(), PriceBands.splitCount(),
+				AVAILABILITY_BOUNDARIES.length + 1, MINIMUM_NIGHTS_BOUNDARIES.length + 1};
+		int cellCount = 1;
+		for (int size : sizes) {
+			cellCount *= size;
+		}
+		int size = columns.size();
+		int[] rows = new int[size];
+		for (int row = 0; row < size; row++) {
+			rows[row] = row;
+		}
+		int numberOfCells = cellCount;
+		this.cells = aggregator.aggregateCoarsely(rows, size, new Aggregation<Cells>() {
+			@Override
+			public Cells create() {
+				return new Cells(numberOfCells);
+			}
+
+			@Override
+			public void accumulate(Cells accumulator, int[] rows, int from, int to) {
+				int[] prices = columns.getPrices();
+				int[] reviews = columns.getNumberOfReviews();
+				int[] minimumNights = columns.getMinimumNights();
+				int[] availability = columns.getAvailability365();
+				for (int i = from; i < to; i++) {
+					int row = rows[i];
+					int cell = cellOf(columns.getBoroughCodes()[row], columns.getRoomTypeCodes()[row], prices[row], availability[row], minimumNights[row]);
+					accumulator.add(cell, prices[row], reviews[row], minimumNights[row] * prices[row]);
+				}
+			}
+
+			@Override
+			public Cells merge(Cells left, Cells right) {
+				left.merge(right);
+				return left;
+			}
+		});
+	}
+
+	/**
+	 * Get the availability band of a number of days available.
+	 * @param availability365 - the days available during the year.
+	 * @return - the band, 0 for never available.
+	 */
+	public static int availabilityBandOf(int availability365) {
+		return bandOf(AVAILABILITY_BOUNDARIES, availability365);
+	}
+
+	/**
+	 * Get the minimum nights band of a minimum number of nights.
+	 * @param minimumNights - the minimum number of nights.
+	 * @return - the band, 0 for a single night.
+	 */
+	public static int minimumNightsBandOf(int minimumNights) {
+		return bandOf(MINIMUM_NIGHTS_BOUNDARIES, minimumNights);
+	}
+
+	/**
+	 * Get the band of a value.
+	 * @param boundaries - the highest value (inclusive) of each band but the last.
+	 * @param value - the value.
+	 * @return - the band.
+	 */
+	private static int bandOf(int[] boundaries, int value) {
+		for (int band = 0; band < boundaries.length; band++) {
+			if (value <= boundaries[band]) {
+				return band;
+			}
+		}
+		return boundaries.length;
+	}
+
+	/**
+	 * Get the cell of a property.
+	 * @param boroughCode - the borough code.
+	 * @param roomTypeCode - the room type code.
+	 * @param price - the price.
+	 * @param availability365 - the days available during the year.
+	 * @param minimumNights - the minimum number of nights.
+	 * @return - the cell.
+	 */
+	private int cellOf(int boroughCode, int roomTypeCode, int price, int availability365, int minimumNights) {
+		int cell = boroughCode;
+		cell = cell * sizes[ROOM_TYPE] + roomTypeCode;
+		cell = cell * sizes[PRICE_BAND] + PriceBands.splitBandOf(price);
+		cell = cell * sizes[AVAILABILITY_BAND] + availabilityBandOf(availability365);
+		return cell * sizes[MINIMUM_NIGHTS_BAND] + minimumNightsBandOf(minimumNights);
+	}
+
+	/**
+	 * Get the number of codes of a dimension.
+	 * @param dimension - the dimension, for example BOROUGH.
+	 * @return - the number of codes.
+	 */
+	public int getSize(int dimension) {
+		return sizes[dimension];
+	}
+
+	/**
+	 * Starts a query over every property of the cube, to be narrowed down with the where methods.
+	 * @return - the slice of the whole cube.
+	 */
+	public Slice slice() {
+		return new Slice();
+	}
+
+	/**
+	 * A slice of the cube: a set of codes for each dimension, and optionally a price range.
+	 */
+	public class Slice {
+
+		/**
+		 * The codes selected for each dimension, null when every code is selected.
+		 */
+		private final boolean[][] selected = new boolean[DIMENSIONS][];
+
+		/**
+		 * The price range.
+		 */
+		private int minimumPrice = Integer.MIN_VALUE, maximumPrice = Integer.MAX_VALUE;
+
+		/**
+		 * Constructs the slice of the whole cube.
+		 */
+		private Slice() {
+		}
+
+		/**
+		 * Narrows the slice down to one code of a dimension.
+		 * @param dimension - the dimension.
+		 * @param code - the code, -1 (an unknown borough or room type) selecting nothing.
+		 * @return - this slice.
+		 */
+		public Slice where(int dimension, int code) {
+			return whereBetween(dimension, code, code);
+		}
+
+		/**
+		 * Narrows the slice down to a range of codes of a dimension.
+		 * @param dimension - the dimension.
+		 * @param fromCode - the first code (inclusive).
+		 * @param toCode - the last code (inclusive).
+		 * @return - this slice.
+		 */
+		public Slice whereBetween(int dimension, int fromCode, int toCode) {
+			boolean[] codes = new boolean[sizes[dimension]];
+			for (int code = Math.max(0, fromCode); code <= toCode && code < codes.length; code++) {
+				codes[code] = selected[dimension] == null || selected[dimension][code];
+			}
+			selected[dimension] = codes;
+			return this;
+		}
+
+		/**
+		 * Narrows the slice down to a price range.
+		 * @param minimumPrice - the minimum price (inclusive).
+		 * @param maximumPrice - the maximum price (inclusive).
+		 * @return - this slice.
+		 */
+		public Slice wherePrice(int minimumPrice, int maximumPrice) {
+			this.minimumPrice = Math.max(this.minimumPrice, minimumPrice);
+			this.maximumPrice = Math.min(this.maximumPrice, maximumPrice);
+			return whereBetween(PRICE_BAND, PriceBands.splitBandOf(this.minimumPrice), PriceBands.splitBandOf(this.maximumPrice));
+		}
+
+		/**
+		 * Checks that the price range does not cut through a cell of the slice, so that the aggregates are exact.
+		 * Always true for a price range chosen with the price selectors.
+		 * @return - true if the slice can be answered from the cube.
+		 */
+		public boolean isExact() {
+			boolean[] isExact = {true};
+			forEachCell(0, 0, new int[DIMENSIONS], (cell, codes) -> {
+				isExact[0] &= cells.mins[PRICE][cell] >= minimumPrice && cells.maxs[PRICE][cell] <= maximumPrice;
+			});
+			return isExact[0];
+		}
+
+		/**
+		 * Adds up the cells of the slice.
+		 * @return - the aggregate of the slice.
+		 */
+		public CubeAggregate aggregate() {
+			return rollUp(-1)[0];
+		}
+
+		/**
+		 * Adds up the cells of the slice for each code of a dimension, rolling the other dimensions up.
+		 * @param dimension - the dimension to group by, -1 for a single group.
+		 * @return - the aggregates, indexed by code.
+		 */
+		public CubeAggregate[] rollUp(int dimension) {
+			CubeAggregate[] groups = new CubeAggregate[dimension == -1 ? 1 : sizes[dimension]];
+			for (int group = 0; group < groups.length; group++) {
+				groups[group] = new CubeAggregate(MEASURES);
+			}
+			forEachCell(0, 0, new int[DIMENSIONS], (cell, codes) -> {
+				groups[dimension == -1 ? 0 : codes[dimension]].add(cells.counts[cell], cells.sums, cells.mins, cells.maxs, cell);
+			});
+			return groups;
+		}
+
+		/**
+		 * Visits the non empty cells of the slice, going through the selected codes of one dimension after the other
+		 * so the cells outside the slice are skipped whole rows at a time.
+		 * @param dimension - the dimension to go through.
+		 * @param cell - the cell number of the codes of the dimensions before.
+		 * @param codes - the codes of the dimensions before, filled in as they are gone through.
+		 * @param visitor - called with each cell and its codes.
+		 */
+		private void forEachCell(int dimension, int cell, int[] codes, CellVisitor visitor) {
+			if (dimension == DIMENSIONS) {
+				if (cells.counts[cell] > 0) {
+					visitor.visit(cell, codes);
+				}
+				return;
+			}
+			for (int code = 0; code < sizes[dimension]; code++) {
+				if (selected[dimension] == null || selected[dimension][code]) {
+					codes[dimension] = code;
+					forEachCell(dimension + 1, cell * sizes[dimension] + code, codes, visitor);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Called for each cell of a slice.
+	 */
+	private interface CellVisitor {
+
+		/**
+		 * Visits a cell.
+		 * @param cell - the cell.
+		 * @param codes - the code of the cell in each dimension.
+		 */
+		void visit(int cell, int[] codes);
+	}
+
+	/**
+	 * The aggregates of every cell, kept in one array per aggregate and measure.
+	 */
+	private static class Cells {
+
+		/**
+		 * The number of properties of each cell.
+		 */
+		private final int[] counts;
+
+		/**
+		 * The sum, smallest and greatest value of each measure of each cell, indexed by measure then cell.
+		 */
+		private final long[][] sums;
+		private final int[][] mins, maxs;
+
+		/**
+		 * Constructs empty cells.
+		 * @param cellCount - the number of cells.
+		 */
+		private Cells(int cellCount) {
+			this.counts = new int[cellCount];
+			this.sums = new long[MEASURES][cellCount];
+			this.mins = new int[MEASURES][cellCount];
+			this.maxs = new int[MEASURES][cellCount];
+			for (int measure = 0; measure < MEASURES; measure++) {
+				Arrays.fill(mins[measure], Integer.MAX_VALUE);
+				Arrays.fill(maxs[measure], Integer.MIN_VALUE);
+			}
+		}
+
+		/**
+		 * Adds a property to a cell.
+		 * @param cell - the cell.
+		 * @param price - the price.
+		 * @param reviews - the number of reviews.
+		 * @param stayPrice - the price of a stay of the minimum number of nights.
+		 */
+		private void add(int cell, int price, int reviews, int stayPrice) {
+			counts[cell]++;
+			add(PRICE, cell, price);
+			add(NUMBER_OF_REVIEWS, cell, reviews);
+			add(STAY_PRICE, cell, stayPrice);
+		}
+
+		/**
+		 * Adds the value of a measure to a cell.
+		 * @param measure - the measure.
+		 * @param cell - the cell.
+		 * @param value - the value.
+		 */
+		private void add(int measure, int cell, int value) {
+			sums[measure][cell] += value;
+			mins[measure][cell] = Math.min(mins[measure][cell], value);
+			maxs[measure][cell] = Math.max(maxs[measure][cell], value);
+		}
+
+		/**
+		 * Adds the aggregates of other cells to these.
+		 * @param other - the other cells.
+		 */
+		private void merge(Cells other) {
+			for (int cell = 0; cell < counts.length; cell++) {
+				counts[cell] += other.counts[cell];
+			}
+			for (int measure = 0; measure < MEASURES; measure++) {
+				for (int cell = 0; cell < counts.length; cell++) {
+					sums[measure][cell] += other.sums[measure][cell];
+					mins[measure][cell] = Math.min(mins[measure][cell], other.mins[measure][cell]);
+					maxs[measure][cell] = Math.max(maxs[measure][cell], other.maxs[measure][cell]);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,120 @@
+package application.query;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import application.benchmark.BenchmarkData;
+import application.property.Property;
+import application.property.PropertyColumns;
+
+class GroupByCubeTest {
+
+	/**
+	 * The properties used by the tests.
+	 */
+	private List<Property> properties = BenchmarkData.generate(20000, 7);
+
+	/**
+	 * The columns of the properties.
+	 */
+	private PropertyColumns columns = new PropertyColumns(properties);
+
+	/**
+	 * Tests the roll-up of a price range by room type against the properties, sequentially and in parallel.
+	 */
+	@Test
+	public void testRollUp() {
+		for (int parallelism : new int[] {1, 4}) {
+			ParallelAggregator aggregator = new ParallelAggregator(parallelism, 1000);
+			GroupByCube cube = new GroupByCube(columns, aggregator);
+			GroupByCube.Slice slice = cube.slice().wherePrice(50, 200).where(GroupByCube.BOROUGH, columns.getBoroughCode("Camden"));
+			assertTrue(slice.isExact());
+			CubeAggregate[] roomTypes = slice.rollUp(GroupByCube.ROOM_TYPE);
+			for (int roomType = 0; roomType < roomTypes.length; roomType++) {
+				List<Property> expected = new ArrayList<>();
+				for (Property property : properties) {
+					if (property.getPrice() >= 50 && property.getPrice() <= 200 && property.getNeighbourhood().equals("Camden")
+							&& property.getRoomType().equals(columns.getRoomTypeNames().get(roomType))) {
+						expected.add(property);
+					}
+				}
+				assertAggregate(expected, roomTypes[roomType]);
+			}
+			aggregator.shutdown();
+		}
+	}
+
+	/**
+	 * Tests that a price range cutting through cells is reported as not exact.
+	 */
+	@Test
+	public void testUnalignedPriceRange() {
+		GroupByCube cube = new GroupByCube(columns, new ParallelAggregator(1));
+		assertFalse(cube.slice().wherePrice(60, 333).isExact());
+		assertTrue(cube.slice().wherePrice(0, Integer.MAX_VALUE).isExact());
+		assertEquals(properties.size(), cube.slice().wherePrice(0, Integer.MAX_VALUE).aggregate().getCount());
+	}
+
+	/**
+	 * Tests that queries on several threads at once all get the aggregates of the properties, as queries only read the cube.
+	 * @throws Exception - if a query fails.
+	 */
+	@Test
+	public void testConcurrentQueries() throws Exception {
+		GroupByCube cube = new GroupByCube(columns, new ParallelAggregator(1));
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<CubeAggregate[]>> rollUps = new ArrayList<>();
+			for (int i = 0; i < 16; i++) {
+				rollUps.add(executor.submit(() -> cube.slice().wherePrice(50, 200).rollUp(GroupByCube.ROOM_TYPE)));
+			}
+			for (Future<CubeAggregate[]> rollUp : rollUps) {
+				CubeAggregate[] roomTypes = rollUp.get();
+				for (int roomType = 0; roomType < roomTypes.length; roomType++) {
+					List<Property> roomTypeProperties = new ArrayList<>();
+					for (Property property : properties) {
+						if (property.getPrice() >= 50 && property.getPrice() <= 200
+								&& property.getRoomType().equals(columns.getRoomTypeNames().get(roomType))) {
+							roomTypeProperties.add(property);
+						}
+					}
+					assertAggregate(roomTypeProperties, roomTypes[roomType]);
+				}
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Checks an aggregate against the properties it should hold.
+	 * @param expected - the properties.
+	 * @param aggregate - the aggregate.
+	 */
+	private void assertAggregate(List<Property> expected, CubeAggregate aggregate) {
+		long sum = 0;
+		long reviews = 0;
+		int min = Integer.MAX_VALUE;
+		int max = Integer.MIN_VALUE;
+		for (Property property : expected) {
+			sum += property.getPrice();
+			reviews += property.getNumberOfReviews();
+			min = Math.min(min, property.getPrice());
+			max = Math.max(max, property.getPrice());
+		}
+		assertEquals(expected.size(), aggregate.getCount());
+		assertEquals(sum, aggregate.getSum(GroupByCube.PRICE));
+		assertEquals(reviews, aggregate.getSum(GroupByCube.NUMBER_OF_REVIEWS));
+		assertEquals(min, aggregate.getMin(GroupByCube.PRICE));
+		assertEquals(max, aggregate.getMax(GroupByCube.PRICE));
+	}
+}
@@ -0,0 +1,197 @@
+package application.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import application.property.PropertyColumns;
+
+/**
+ * An index of the listings of each host, built once when the properties are loaded.
+ * Hosts are numbered in the order they are first seen, and the rows of host h are rows[offsets[h]] to rows[offsets[h + 1]],
+ * in row order. The host ids are mapped to their number with an IdIndex, so the whole index is a handful of primitive arrays.
+ * The summary of each host (listings, boroughs, nightly revenue, commercial or not) is computed at the same time.
+ *
+ * A host is taken as commercial if it has at least COMMERCIAL_MINIMUM_LISTINGS listings, or at least two entire homes
+ * available for more than COMMERCIAL_MINIMUM_AVAILABILITY days a year, that is let all year round rather than while away.
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public class HostIndex {
+
+	/**
+	 * The number of listings from which a host is taken as commercial.
+	 */
+	public static final int COMMERCIAL_MINIMUM_LISTINGS = 3;
+
+	/**
+	 * The days available a year above which an entire home is taken as let commercially.
+	 */
+	public static final int COMMERCIAL_MINIMUM_AVAILABILITY = 90;
+
+	/**
+	 * The properties.
+	 */
+	private final PropertyColumns columns;
+
+	/**
+	 * The number of each host id.
+	 */
+	private final IdIndex hostNumbers;
+
+	/**
+	 * Where the rows of each host start in rows, the last entry being the number of rows.
+	 */
+	private final int[] offsets;
+
+	/**
+	 * The rows grouped by host.
+	 */
+	private final int[] rows;
+
+	/**
+	 * The number of boroughs of each host.
+	 */
+	private final int[] numberOfBoroughs;
+
+	/**
+	 * The sum of the prices per night of each host.
+	 */
+	private final long[] nightlyRevenues;
+
+	/**
+	 * Whether each host looks commercial.
+	 */
+	private final boolean[] commercial;
+
+	/**
+	 * The number of commercial hosts.
+	 */
+	private final int numberOfCommercialHosts;
+
+	/**
+	 * Builds the index of a set of properties.
+	 * @param columns - the properties.
+	 */
+	public HostIndex(PropertyColumns columns) {
+		this.columns = columns;
+		int size = columns.size();
+		this.hostNumbers = new IdIndex(Math.max(16, size / 2));
+		int[] hostOfRow = new int[size];
+		int[] counts = new int[size + 1];
+		int numberOfHosts = 0;
+		for (int row = 0; row < size; row++) {
+			String hostId = columns.getProperty(row).getHostId();
+			int host = hostNumbers.get(hostId);
+			if (host == -1) {
+				host = numberOfHosts++;
+				hostNumbers.put(hostId, host);
+			}
+			hostOfRow[row] = host;
+			counts[host + 1]++;
+		}
+		this.offsets = new int[numberOfHosts + 1];
+		for (int host = 0; host < numberOfHosts; host++) {
+			offsets[host + 1] = offsets[host] + counts[host + 1];
+		}
+		this.rows = new int[size];
+		int[] next = new int[numberOfHosts];
+		System.arraycopy(offsets, 0, next, 0, numberOfHosts);
+		for (int row = 0; row < size; row++) {
+			rows[next[hostOfRow[row]]++] = row;
+		}
+		this.numberOfBoroughs = new int[numberOfHosts];
+		this.nightlyRevenues = new long[numberOfHosts];
+		this.commercial = new boolean[numberOfHosts];
+		int[] lastHostInBorough = new int[columns.getBoroughNames().size()];
+		Arrays.fill(lastHostInBorough, -1);
+		int entireHomes = columns.getRoomTypeCode("Entire home/apt");
+		int commercialHosts = 0;
+		for (int host = 0; host < numberOfHosts; host++) {
+			int homesLetAllYear = 0;
+			for (int i = offsets[host]; i < offsets[host + 1]; i++) {
+				int row = rows[i];
+				int borough = columns.getBoroughCodes()[row];
+				if (lastHostInBorough[borough] != host) {
+					lastHostInBorough[borough] = host;
+					numberOfBoroughs[host]++;
+				}
+				nightlyRevenues[host] += columns.getPrices()[row];
+				if (columns.getRoomTypeCodes()[row] == entireHomes && columns.getAvailability365()[row] > COMMERCIAL_MINIMUM_AVAILABILITY) {
+					homesLetAllYear++;
+				}
+			}
+			commercial[host] = offsets[host + 1] - offsets[host] >= COMMERCIAL_MINIMUM_LISTINGS || homesLetAllYear >= 2;
+			commercialHosts += commercial[host] ? 1 : 0;
+		}
+		this.numberOfCommercialHosts = commercialHosts;
+	}
+
+	/**
+	 * Get the number of hosts.
+	 * @return - the number of hosts.
+	 */
+	public int getNumberOfHosts() {
+		return offsets.length - 1;
+	}
+
+	/**
+	 * Get the number of hosts that look commercial.
+	 * @return - the number of commercial hosts.
+	 */
+	public int getNumberOfCommercialHosts() {
+		return numberOfCommercialHosts;
+	}
+
+	/**
+	 * Get the rows of the listings of a host.
+	 * @param hostId - the host id.
+	 * @return - the rows, in row order, empty if the host is unknown.
+	 */
+	public int[] getRows(String hostId) {
+		int host = hostNumbers.get(hostId);
+		if (host == -1) {
+			return new int[0];
+		}
+		int[] hostRows = new int[offsets[host + 1] - offsets[host]];
+		System.arraycopy(rows, offsets[host], hostRows, 0, hostRows.length);
+		return hostRows;
+	}
+
+	/**
+	 * Get the summary of a host.
+	 * @param hostId - the host id.
+	 * @return - the summary, or null if the host is unknown.
+	 */
+	public HostSummary getSummary(String hostId) {
+		int host = hostNumbers.get(hostId);
+		return host == -1 ? null : getSummary(host);
+	}
+
+	/**
+	 * Get the summary of a host.
+	 * @param host - the host number.
+	 * @return - the summary.
+	 */
+	private HostSummary getSummary(int host) {
+		String hostName = columns.getProperty(rows[offsets[host]]).getHostName();
+		String hostId = columns.getProperty(rows[offsets[host]]).getHostId();
+		return new HostSummary(hostId, hostName, offsets[host + 1] - offsets[host], numberOfBoroughs[host], nightlyRevenues[host], commercial[host]);
+	}
+
+	/**
+	 * Get the hosts with the most listings.
+	 * @param k - the number of hosts.
+	 * @return - the summaries of the hosts, most listings first.
+	 */
+	public List<HostSummary> getLargestHosts(int k) {
+		TopK largest = new TopK(k, false);
+		for (int host = 0; host < getNumberOfHosts(); host++) {
+			largest.offer(offsets[host + 1] - offsets[host], host);
+		}
+		List<HostSummary> summaries = new ArrayList<>();
+		for (int host : largest.getRows()) {
+			summaries.add(getSummary(host));
+		}
+		return summaries;
+	}
+}
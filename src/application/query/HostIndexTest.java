@@ -0,0 +1,84 @@
+package application.query;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import application.benchmark.BenchmarkData;
+import application.property.Property;
+import application.property.PropertyColumns;
+
+class HostIndexTest {
+
+	/**
+	 * Tests the rows and summary of every host against a map of the properties by host.
+	 */
+	@Test
+	public void testAgainstMap() {
+		List<Property> properties = BenchmarkData.generate(20000, 11);
+		PropertyColumns columns = new PropertyColumns(properties);
+		HostIndex index = new HostIndex(columns);
+		Map<String, List<Integer>> rowsByHost = new HashMap<>();
+		for (int row = 0; row < properties.size(); row++) {
+			rowsByHost.computeIfAbsent(properties.get(row).getHostId(), hostId -> new ArrayList<>()).add(row);
+		}
+		assertEquals(rowsByHost.size(), index.getNumberOfHosts());
+		for (Map.Entry<String, List<Integer>> entry : rowsByHost.entrySet()) {
+			int[] expected = entry.getValue().stream().mapToInt(Integer::intValue).toArray();
+			assertArrayEquals(expected, index.getRows(entry.getKey()));
+			HashSet<String> boroughs = new HashSet<>();
+			long revenue = 0;
+			for (int row : expected) {
+				boroughs.add(properties.get(row).getNeighbourhood());
+				revenue += properties.get(row).getPrice();
+			}
+			HostSummary summary = index.getSummary(entry.getKey());
+			assertEquals(expected.length, summary.getNumberOfListings());
+			assertEquals(boroughs.size(), summary.getNumberOfBoroughs());
+			assertEquals(revenue, summary.getNightlyRevenue());
+		}
+		assertNull(index.getSummary("not a host"));
+		assertEquals(0, index.getRows("not a host").length);
+		List<HostSummary> largest = index.getLargestHosts(5);
+		int most = rowsByHost.values().stream().mapToInt(List::size).max().getAsInt();
+		assertEquals(most, largest.get(0).getNumberOfListings());
+	}
+
+	/**
+	 * Tests the ids that are not plain numbers against the numeric ones, including the key zero.
+	 */
+	@Test
+	public void testIdIndex() {
+		IdIndex index = new IdIndex(4);
+		String[] ids = {"0", "00", "007", "7", "abc", "", "123456789012345678", "1234567890123456789"};
+		for (int i = 0; i < ids.length; i++) {
+			index.put(ids[i], i);
+		}
+		for (int i = 0; i < ids.length; i++) {
+			assertEquals(i, index.get(ids[i]));
+		}
+		assertEquals(ids.length, index.size());
+		assertEquals(-1, index.get("8"));
+		Random random = new Random(3);
+		LongIntHashMap map = new LongIntHashMap(2);
+		Map<Long, Integer> expected = new HashMap<>();
+		for (int i = 0; i < 10000; i++) {
+			long key = random.nextInt(5000);
+			map.put(key, i);
+			expected.put(key, i);
+		}
+		assertEquals(expected.size(), map.size());
+		for (Map.Entry<Long, Integer> entry : expected.entrySet()) {
+			assertEquals((int) entry.getValue(), map.get(entry.getKey(), -1));
+		}
+	}
+}
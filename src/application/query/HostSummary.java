@@ -0,0 +1,100 @@
+package application.query;
+
+/**
+ * What a host offers in the data set: how many listings, in how many boroughs, for how much a night altogether,
+ * and whether the host looks like a commercial operator rather than someone letting their own home.
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public class HostSummary {
+
+	/**
+	 * The id and name of the host.
+	 */
+	private final String hostId, hostName;
+
+	/**
+	 * The number of listings of the host.
+	 */
+	private final int numberOfListings;
+
+	/**
+	 * The number of boroughs the listings are in.
+	 */
+	private final int numberOfBoroughs;
+
+	/**
+	 * The sum of the prices per night of the listings.
+	 */
+	private final long nightlyRevenue;
+
+	/**
+	 * Whether the host looks commercial.
+	 */
+	private final boolean commercial;
+
+	/**
+	 * Constructs a summary.
+	 * @param hostId - the id of the host.
+	 * @param hostName - the name of the host.
+	 * @param numberOfListings - the number of listings.
+	 * @param numberOfBoroughs - the number of boroughs.
+	 * @param nightlyRevenue - the sum of the prices per night.
+	 * @param commercial - whether the host looks commercial.
+	 */
+	public HostSummary(String hostId, String hostName, int numberOfListings, int numberOfBoroughs, long nightlyRevenue, boolean commercial) {
+		this.hostId = hostId;
+		this.hostName = hostName;
+		this.numberOfListings = numberOfListings;
+		this.numberOfBoroughs = numberOfBoroughs;
+		this.nightlyRevenue = nightlyRevenue;
+		this.commercial = commercial;
+	}
+
+	/**
+	 * Get the id of the host.
+	 * @return - the host id.
+	 */
+	public String getHostId() {
+		return hostId;
+	}
+
+	/**
+	 * Get the name of the host.
+	 * @return - the host name.
+	 */
+	public String getHostName() {
+		return hostName;
+	}
+
+	/**
+	 * Get the number of listings of the host in the data set.
+	 * @return - the number of listings.
+	 */
+	public int getNumberOfListings() {
+		return numberOfListings;
+	}
+
+	/**
+	 * Get the number of boroughs the listings of the host are in.
+	 * @return - the number of boroughs.
+	 */
+	public int getNumberOfBoroughs() {
+		return numberOfBoroughs;
+	}
+
+	/**
+	 * Get the revenue of the host for a night with every listing let.
+	 * @return - the sum of the prices per night.
+	 */
+	public long getNightlyRevenue() {
+		return nightlyRevenue;
+	}
+
+	/**
+	 * Whether the host looks commercial (see HostIndex).
+	 * @return - true if the host looks commercial.
+	 */
+	public boolean isCommercial() {
+		return commercial;
+	}
+}
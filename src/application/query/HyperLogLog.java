@@ -0,0 +1,149 @@
+package application.query;
+
+/**
+ * A HyperLogLog sketch, estimating the number of distinct values added to it (e.g. distinct host ids).
+ * Each value is hashed to 64 bits. The first bits pick one of m registers, and the register keeps the longest run of
+ * leading zeros seen in the remaining bits. The estimate is derived from the harmonic mean of the registers, with a
+ * relative standard error of about 1.04 / sqrt(m) whatever the number of values, using m bytes of memory.
+ * Two sketches of the same precision merge into the sketch of the union by keeping the larger of each register.
+ * See Flajolet et al., "HyperLogLog: the analysis of a near-optimal cardinality estimation algorithm".
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public class HyperLogLog {
+
+	/**
+	 * The number of hash bits picking the register, the sketch has 2^precision registers.
+	 */
+	private final int precision;
+
+	/**
+	 * The registers.
+	 */
+	private final byte[] registers;
+
+	/**
+	 * Constructs an empty sketch.
+	 * @param precision - the number of hash bits picking the register, between 4 and 18.
+	 */
+	public HyperLogLog(int precision) {
+		if (precision < 4 || precision > 18) {
+			throw new IllegalArgumentException("Precision must be between 4 and 18: " + precision);
+		}
+		this.precision = precision;
+		this.registers = new byte[1 << precision];
+	}
+
+	/**
+	 * Get the smallest precision whose relative standard error is within a bound.
+	 * @param relativeError - the relative standard error, e.g. 0.02 for 2%.
+	 * @return - the precision.
+	 */
+	public static int precisionFor(double relativeError) {
+		double registers = Math.pow(1.04 / relativeError, 2);
+		int precision = (int) Math.ceil(Math.log(registers) / Math.log(2));
+		return Math.max(4, Math.min(18, precision));
+	}
+
+	/**
+	 * Hashes a string to 64 bits (FNV-1a followed by the MurmurHash3 finaliser to spread the bits).
+	 * @param value - the string.
+	 * @return - the hash.
+	 */
+	public static long hash(String value) {
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < value.length(); i++) {
+			hash ^= value.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+
+	/**
+	 * Adds a string.
+	 * @param value - the string.
+	 */
+	public void add(String value) {
+		addHash(hash(value));
+	}
+
+	/**
+	 * Adds a value already hashed to 64 bits.
+	 * @param hash - the hash.
+	 */
+	public void addHash(long hash) {
+		int register = (int) (hash >>> (64 - precision));
+		//The marker bit stops the run of zeros at the end of the remaining bits.
+		byte rank = (byte) (Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1);
+		if (rank > registers[register]) {
+			registers[register] = rank;
+		}
+	}
+
+	/**
+	 * Adds every value of another sketch to this one.
+	 * The other sketch is not changed.
+	 * @param other - the other sketch, of the same precision.
+	 */
+	public void merge(HyperLogLog other) {
+		if (other.precision != precision) {
+			throw new IllegalArgumentException("Cannot merge sketches of precision " + precision + " and " + other.precision + ".");
+		}
+		for (int register = 0; register < registers.length; register++) {
+			if (other.registers[register] > registers[register]) {
+				registers[register] = other.registers[register];
+			}
+		}
+	}
+
+	/**
+	 * Estimates the number of distinct values added.
+	 * Small counts, where some registers are still empty, use linear counting instead.
+	 * @return - the estimated number of distinct values.
+	 */
+	public long estimate() {
+		int m = registers.length;
+		double sum = 0;
+		int emptyRegisters = 0;
+		for (byte register : registers) {
+			sum += 1.0 / (1L << register);
+			if (register == 0) {
+				emptyRegisters++;
+			}
+		}
+		double alpha = m == 16 ? 0.673 : m == 32 ? 0.697 : m == 64 ? 0.709 : 0.7213 / (1 + 1.079 / m);
+		double estimate = alpha * m * m / sum;
+		if (estimate <= 2.5 * m && emptyRegisters > 0) {
+			estimate = m * Math.log((double) m / emptyRegisters);
+		}
+		return Math.round(estimate);
+	}
+
+	/**
+	 * Get the precision.
+	 * @return - the number of hash bits picking the register.
+	 */
+	public int getPrecision() {
+		return precision;
+	}
+
+	/**
+	 * Get the relative standard error of the estimates.
+	 * @return - the relative standard error.
+	 */
+	public double getRelativeError() {
+		return 1.04 / Math.sqrt(registers.length);
+	}
+
+	/**
+	 * Get the memory used by the registers.
+	 * @return - the number of bytes.
+	 */
+	public int getSizeInBytes() {
+		return registers.length;
+	}
+}
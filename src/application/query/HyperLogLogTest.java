@@ -0,0 +1,51 @@
+package application.query;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class HyperLogLogTest {
+
+	/**
+	 * Tests that small counts are exact and duplicates are ignored.
+	 */
+	@Test
+	public void testSmallCounts() {
+		HyperLogLog sketch = new HyperLogLog(14);
+		assertEquals(0L, sketch.estimate());
+		for (int i = 0; i < 3; i++) {
+			sketch.add("host-1");
+			sketch.add("host-2");
+		}
+		assertEquals(2L, sketch.estimate());
+	}
+
+	/**
+	 * Tests that a large count is estimated within three standard errors.
+	 */
+	@Test
+	public void testLargeCount() {
+		HyperLogLog sketch = new HyperLogLog(HyperLogLog.precisionFor(0.02));
+		for (int i = 0; i < 100000; i++) {
+			sketch.add(Integer.toString(i));
+			sketch.add(Integer.toString(i));
+		}
+		assertTrue(Math.abs(sketch.estimate() - 100000) < 100000 * 3 * sketch.getRelativeError());
+	}
+
+	/**
+	 * Tests that merging two sketches counts the union of their values.
+	 */
+	@Test
+	public void testMerge() {
+		HyperLogLog left = new HyperLogLog(12);
+		HyperLogLog right = new HyperLogLog(12);
+		for (int i = 0; i < 20000; i++) {
+			left.add("listing-" + i);
+			right.add("listing-" + (i + 10000));
+		}
+		left.merge(right);
+		assertTrue(Math.abs(left.estimate() - 30000) < 30000 * 3 * left.getRelativeError());
+	}
+}
@@ -0,0 +1,104 @@
+package application.query;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A map from the string ids of the data set (listing ids, host ids) to ints, such as a row or a host number.
+ * The ids are numbers, so they are kept as long keys of a LongIntHashMap. The rare id that is not a plain number
+ * (or has a leading zero, which parsing would lose) goes to an ordinary HashMap instead.
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public class IdIndex {
+
+	/**
+	 * The values of the numeric ids.
+	 */
+	private final LongIntHashMap numericIds;
+
+	/**
+	 * The values of the other ids.
+	 */
+	private final Map<String, Integer> otherIds;
+
+	/**
+	 * Constructs an empty index.
+	 * @param expectedSize - the number of ids expected.
+	 */
+	public IdIndex(int expectedSize) {
+		this.numericIds = new LongIntHashMap(expectedSize);
+		this.otherIds = new HashMap<>();
+	}
+
+	/**
+	 * Get the value of an id.
+	 * @param id - the id.
+	 * @return - the value, or -1 if the id is not in the index.
+	 */
+	public int get(String id) {
+		long key = parse(id);
+		if (key >= 0) {
+			return numericIds.get(key, -1);
+		}
+		Integer value = otherIds.get(id);
+		return value == null ? -1 : value;
+	}
+
+	/**
+	 * Get the values of many ids at once.
+	 * @param ids - the ids.
+	 * @return - the value of each id, in the order of the ids, -1 for the ids that are not in the index.
+	 */
+	public int[] getAll(List<String> ids) {
+		int[] values = new int[ids.size()];
+		int i = 0;
+		for (String id : ids) {
+			values[i++] = id == null ? -1 : get(id);
+		}
+		return values;
+	}
+
+	/**
+	 * Puts an id and its value in the index, replacing the previous value of the id.
+	 * @param id - the id.
+	 * @param value - the value, not negative.
+	 */
+	public void put(String id, int value) {
+		long key = parse(id);
+		if (key >= 0) {
+			numericIds.put(key, value);
+		} else {
+			otherIds.put(id, value);
+		}
+	}
+
+	/**
+	 * Get the number of ids.
+	 * @return - the number of ids.
+	 */
+	public int size() {
+		return numericIds.size() + otherIds.size();
+	}
+
+	/**
+	 * Converts an id into a long key.
+	 * @param id - the id.
+	 * @return - the key, or -1 if the id is not a plain number of at most 18 digits without leading zeros.
+	 */
+	private static long parse(String id) {
+		int length = id.length();
+		if (length == 0 || length > 18 || (id.charAt(0) == '0' && length > 1)) {
+			return -1;
+		}
+		long key = 0;
+		for (int i = 0; i < length; i++) {
+			char digit = id.charAt(i);
+			if (digit < '0' || digit > '9') {
+				return -1;
+			}
+			key = key * 10 + (digit - '0');
+		}
+		return key;
+	}
+}
@@ -0,0 +1,159 @@
+package application.query;
+
+/**
+ * A hash map from long keys to int values, without boxing.
+ * The keys and values are held in two parallel arrays with open addressing (linear probing), so an entry costs 12 bytes
+ * (about 24 at the maximum load factor of a half) instead of the 60 or so bytes of a HashMap entry with boxed keys and values.
+ * Entries cannot be removed, which is all the indexes built at load time need.
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public class LongIntHashMap {
+
+	/**
+	 * The key marking an empty slot. An entry with this key is held apart.
+	 */
+	private static final long EMPTY = 0;
+
+	/**
+	 * The keys of the slots, EMPTY for a free slot.
+	 */
+	private long[] keys;
+
+	/**
+	 * The values of the slots.
+	 */
+	private int[] values;
+
+	/**
+	 * The number of entries, not counting the entry with the EMPTY key.
+	 */
+	private int size;
+
+	/**
+	 * Whether there is an entry with the EMPTY key, and its value.
+	 */
+	private boolean hasEmptyKey;
+	private int emptyKeyValue;
+
+	/**
+	 * Constructs an empty map.
+	 * @param expectedSize - the number of entries expected, so the map does not have to grow.
+	 */
+	public LongIntHashMap(int expectedSize) {
+		int capacity = Integer.highestOneBit(Math.max(4, expectedSize) * 2 - 1) << 1;
+		this.keys = new long[capacity];
+		this.values = new int[capacity];
+	}
+
+	/**
+	 * Get the value of a key.
+	 * @param key - the key.
+	 * @param defaultValue - the value returned if the key is not in the map.
+	 * @return - the value, or the default value.
+	 */
+	public int get(long key, int defaultValue) {
+		if (key == EMPTY) {
+			return hasEmptyKey ? emptyKeyValue : defaultValue;
+		}
+		int mask = keys.length - 1;
+		for (int slot = slot(key, mask); keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+			if (keys[slot] == key) {
+				return values[slot];
+			}
+		}
+		return defaultValue;
+	}
+
+	/**
+	 * Checks if a key is in the map.
+	 * @param key - the key.
+	 * @return - true if the key is in the map.
+	 */
+	public boolean containsKey(long key) {
+		if (key == EMPTY) {
+			return hasEmptyKey;
+		}
+		int mask = keys.length - 1;
+		for (int slot = slot(key, mask); keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+			if (keys[slot] == key) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Puts a key and its value in the map, replacing the previous value of the key.
+	 * @param key - the key.
+	 * @param value - the value.
+	 */
+	public void put(long key, int value) {
+		if (key == EMPTY) {
+			hasEmptyKey = true;
+			emptyKeyValue = value;
+			return;
+		}
+		int mask = keys.length - 1;
+		int slot = slot(key, mask);
+		for (; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+			if (keys[slot] == key) {
+				values[slot] = value;
+				return;
+			}
+		}
+		keys[slot] = key;
+		values[slot] = value;
+		if (++size * 2 > keys.length) {
+			grow();
+		}
+	}
+
+	/**
+	 * Get the number of entries.
+	 * @return - the number of entries.
+	 */
+	public int size() {
+		return size + (hasEmptyKey ? 1 : 0);
+	}
+
+	/**
+	 * Get the memory used by the arrays of the map.
+	 * @return - the number of bytes.
+	 */
+	public long getSizeInBytes() {
+		return keys.length * (long) (Long.BYTES + Integer.BYTES);
+	}
+
+	/**
+	 * Doubles the number of slots and puts the entries back.
+	 */
+	private void grow() {
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+		this.keys = new long[oldKeys.length * 2];
+		this.values = new int[oldKeys.length * 2];
+		int mask = keys.length - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != EMPTY) {
+				int slot = slot(oldKeys[i], mask);
+				while (keys[slot] != EMPTY) {
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+
+	/**
+	 * Get the first slot to try for a key.
+	 * The key is mixed first so that consecutive ids do not fill consecutive slots.
+	 * @param key - the key.
+	 * @param mask - the number of slots minus one.
+	 * @return - the slot.
+	 */
+	private static int slot(long key, int mask) {
+		long hash = key * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ (hash >>> 32)) & mask;
+	}
+}
@@ -0,0 +1,424 @@
+package application.query;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntPredicate;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Runs aggregations over a selection of rows, either sequentially or in a fork/join pool.
+ * The selection is split in halves until the ranges are no bigger than the sequential threshold, each range is accumulated
+ * into its own accumulator and the accumulators are merged in order on the way back up.
+ * No accumulator is shared between threads so there is no contention, and since the split points only depend on the
+ * size of the selection, the merges always happen in the same order and the results are deterministic.
+ * Selections smaller than the threshold, or a parallelism of 1, run sequentially on the calling thread.
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public class ParallelAggregator {
+
+	/**
+	 * The default number of rows below which an aggregation is not split.
+	 */
+	public static final int DEFAULT_SEQUENTIAL_THRESHOLD = 1 << 14;
+
+	/**
+	 * The pool running the parallel aggregations, null when sequential.
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * The number of threads used.
+	 */
+	private final int parallelism;
+
+	/**
+	 * The number of rows below which an aggregation is not split.
+	 */
+	private final int sequentialThreshold;
+
+	/**
+	 * The number of aggregations running in the pool, and whether the aggregator has been shut down, see shutdown.
+	 */
+	private int running;
+	private boolean shutDown;
+
+	/**
+	 * Constructs an aggregator.
+	 * @param parallelism - the number of threads, 1 for sequential aggregation.
+	 * @param sequentialThreshold - the number of rows below which an aggregation is not split.
+	 */
+	public ParallelAggregator(int parallelism, int sequentialThreshold) {
+		if (parallelism < 1 || sequentialThreshold < 1) {
+			throw new IllegalArgumentException("Parallelism and threshold must be positive: " + parallelism + ", " + sequentialThreshold);
+		}
+		this.parallelism = parallelism;
+		this.sequentialThreshold = sequentialThreshold;
+		this.pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+	}
+
+	/**
+	 * Constructs an aggregator with the default threshold.
+	 * @param parallelism - the number of threads, 1 for sequential aggregation.
+	 */
+	public ParallelAggregator(int parallelism) {
+		this(parallelism, DEFAULT_SEQUENTIAL_THRESHOLD);
+	}
+
+	/**
+	 * Get the number of threads used.
+	 * @return - the parallelism.
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Runs an aggregation over a selection of rows.
+	 * @param rows - the selected rows.
+	 * @param size - the number of selected rows.
+	 * @param aggregation - the aggregation.
+	 * @return - the accumulator holding the result.
+	 */
+	public <A> A aggregate(int[] rows, int size, Aggregation<A> aggregation) {
+		return run(rows, size, aggregation, size >= sequentialThreshold, sequentialThreshold);
+	}
+
+	/**
+	 * Runs an aggregation whose accumulators are large, splitting the selection into about one range per thread only.
+	 * @param rows - the selected rows.
+	 * @param size - the number of selected rows.
+	 * @param aggregation - the aggregation.
+	 * @return - the accumulator holding the result.
+	 */
+	public <A> A aggregateCoarsely(int[] rows, int size, Aggregation<A> aggregation) {
+		int rangeSize = Math.max(sequentialThreshold, (size + parallelism - 1) / parallelism);
+		return run(rows, size, aggregation, size > rangeSize, rangeSize);
+	}
+
+	/**
+	 * Runs an aggregation in the pool, or sequentially on the calling thread if it is not worth splitting,
+	 * the aggregator is sequential or it has been shut down.
+	 * @param rows - the selected rows.
+	 * @param size - the number of selected rows.
+	 * @param aggregation - the aggregation.
+	 * @param split - whether the selection is large enough to split.
+	 * @param rangeSize - the number of rows below which a range is not split further.
+	 * @return - the accumulator holding the result.
+	 */
+	private <A> A run(int[] rows, int size, Aggregation<A> aggregation, boolean split, int rangeSize) {
+		if (pool != null && split && enterPool()) {
+			try {
+				return pool.invoke(new AggregationTask<>(aggregation, rows, 0, size, rangeSize));
+			} finally {
+				exitPool();
+			}
+		}
+		A accumulator = aggregation.create();
+		aggregation.accumulate(accumulator, rows, 0, size);
+		return accumulator;
+	}
+
+	/**
+	 * Counts the selected rows matching a predicate.
+	 * @param rows - the selected rows.
+	 * @param size - the number of selected rows.
+	 * @param predicate - the predicate, given a row.
+	 * @return - the number of matching rows.
+	 */
+	public int count(int[] rows, int size, IntPredicate predicate) {
+		return aggregate(rows, size, new Aggregation<int[]>() {
+			@Override
+			public int[] create() {
+				return new int[1];
+			}
+
+			@Override
+			public void accumulate(int[] count, int[] rows, int from, int to) {
+				for (int i = from; i < to; i++) {
+					if (predicate.test(rows[i])) {
+						count[0]++;
+					}
+				}
+			}
+
+			@Override
+			public int[] merge(int[] left, int[] right) {
+				left[0] += right[0];
+				return left;
+			}
+		})[0];
+	}
+
+	/**
+	 * Sums a value over the selected rows.
+	 * @param rows - the selected rows.
+	 * @param size - the number of selected rows.
+	 * @param value - the value, given a row.
+	 * @return - the sum.
+	 */
+	public long sum(int[] rows, int size, IntToLongFunction value) {
+		return aggregate(rows, size, new Aggregation<long[]>() {
+			@Override
+			public long[] create() {
+				return new long[1];
+			}
+
+			@Override
+			public void accumulate(long[] sum, int[] rows, int from, int to) {
+				for (int i = from; i < to; i++) {
+					sum[0] += value.applyAsLong(rows[i]);
+				}
+			}
+
+			@Override
+			public long[] merge(long[] left, long[] right) {
+				left[0] += right[0];
+				return left;
+			}
+		})[0];
+	}
+
+	/**
+	 * Finds the k selected rows with the greatest values.
+	 * Each range of the selection fills its own bounded heap and the heaps are merged at the end.
+	 * @param rows - the selected rows.
+	 * @param size - the number of selected rows.
+	 * @param k - the number of rows to find.
+	 * @param value - the value, given a row.
+	 * @param lastWins - true for the last row to win a tie, false for the first.
+	 * @return - the rows, best first, fewer than k if fewer rows are selected.
+	 */
+	public int[] topK(int[] rows, int size, int k, IntToDoubleFunction value, boolean lastWins) {
+		return aggregate(rows, size, new Aggregation<TopK>() {
+			@Override
+			public TopK create() {
+				return new TopK(k, lastWins);
+			}
+
+			@Override
+			public void accumulate(TopK heap, int[] rows, int from, int to) {
+				for (int i = from; i < to; i++) {
+					heap.offer(value.applyAsDouble(rows[i]), rows[i]);
+				}
+			}
+
+			@Override
+			public TopK merge(TopK left, TopK right) {
+				left.merge(right);
+				return left;
+			}
+		}).getRows();
+	}
+
+	/**
+	 * Counts the selected rows of a column whose value is within a range (inclusive), using the column scan kernel.
+	 * @param column - the column.
+	 * @param rows - the selected rows.
+	 * @param size - the number of selected rows.
+	 * @param minimum - the minimum value.
+	 * @param maximum - the maximum value.
+	 * @return - the number of selected rows within the range.
+	 */
+	public int countRange(int[] column, int[] rows, int size, int minimum, int maximum) {
+		return aggregate(rows, size, new Aggregation<int[]>() {
+			@Override
+			public int[] create() {
+				return new int[1];
+			}
+
+			@Override
+			public void accumulate(int[] count, int[] rows, int from, int to) {
+				count[0] += ColumnScan.countRange(column, rows, from, to, minimum, maximum);
+			}
+
+			@Override
+			public int[] merge(int[] left, int[] right) {
+				left[0] += right[0];
+				return left;
+			}
+		})[0];
+	}
+
+	/**
+	 * Sums the selected rows of a column, using the column scan kernel.
+	 * @param column - the column.
+	 * @param rows - the selected rows.
+	 * @param size - the number of selected rows.
+	 * @return - the sum.
+	 */
+	public long sum(int[] column, int[] rows, int size) {
+		return aggregate(rows, size, new Aggregation<long[]>() {
+			@Override
+			public long[] create() {
+				return new long[1];
+			}
+
+			@Override
+			public void accumulate(long[] sum, int[] rows, int from, int to) {
+				sum[0] += ColumnScan.sum(column, rows, from, to);
+			}
+
+			@Override
+			public long[] merge(long[] left, long[] right) {
+				left[0] += right[0];
+				return left;
+			}
+		})[0];
+	}
+
+	/**
+	 * Finds the selected row with the greatest value.
+	 * @param rows - the selected rows.
+	 * @param size - the number of selected rows.
+	 * @param value - the value, given a row.
+	 * @param lowerBound - a row is only picked if its value is greater than this (greater or equal if ties go to the last row).
+	 * @param lastWins - true if ties go to the last row, false if they go to the first.
+	 * @return - the row with the greatest value, or -1 if no value passes the lower bound.
+	 */
+	public int argMax(int[] rows, int size, IntToDoubleFunction value, double lowerBound, boolean lastWins) {
+		return aggregate(rows, size, new Aggregation<ArgMax>() {
+			@Override
+			public ArgMax create() {
+				return new ArgMax(lowerBound);
+			}
+
+			@Override
+			public void accumulate(ArgMax best, int[] rows, int from, int to) {
+				for (int i = from; i < to; i++) {
+					double rowValue = value.applyAsDouble(rows[i]);
+					if (rowValue > best.value || (lastWins && rowValue == best.value)) {
+						best.value = rowValue;
+						best.row = rows[i];
+					}
+				}
+			}
+
+			@Override
+			public ArgMax merge(ArgMax left, ArgMax right) {
+				if (right.row == -1) {
+					return left;
+				}
+				return (right.value > left.value || (lastWins && right.value == left.value)) ? right : left;
+			}
+		}).row;
+	}
+
+	/**
+	 * Counts an aggregation in as running in the pool, unless the aggregator has been shut down.
+	 * @return - true if the aggregation may run in the pool.
+	 */
+	private synchronized boolean enterPool() {
+		if (shutDown) {
+			return false;
+		}
+		running++;
+		return true;
+	}
+
+	/**
+	 * Counts an aggregation out of the pool, shutting the pool down if it was the last one running once the aggregator was shut down.
+	 */
+	private synchronized void exitPool() {
+		running--;
+		if (shutDown && running == 0) {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Retires the aggregator, e.g. when a data store is given another parallelism or replaced.
+	 * The aggregations running in the pool finish in it, and the pool is shut down once the last of them has.
+	 * Aggregations started afterwards, e.g. by a reader still holding the aggregator, run sequentially on the calling thread.
+	 */
+	public synchronized void shutdown() {
+		shutDown = true;
+		if (pool != null && running == 0) {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * The accumulator of argMax.
+	 */
+	private static class ArgMax {
+
+		/**
+		 * The best value so far.
+		 */
+		private double value;
+
+		/**
+		 * The row holding the best value so far, -1 if none.
+		 */
+		private int row = -1;
+
+		/**
+		 * Constructs the accumulator.
+		 * @param lowerBound - the starting value.
+		 */
+		private ArgMax(double lowerBound) {
+			this.value = lowerBound;
+		}
+	}
+
+	/**
+	 * A fork/join task aggregating a range of the selected rows.
+	 * @param <A> - the accumulator type.
+	 */
+	private class AggregationTask<A> extends RecursiveTask<A> {
+
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The aggregation.
+		 */
+		private final Aggregation<A> aggregation;
+
+		/**
+		 * The selected rows.
+		 */
+		private final int[] rows;
+
+		/**
+		 * The range of the selection covered by this task.
+		 */
+		private final int from, to;
+
+		/**
+		 * The number of rows below which the range is not split.
+		 */
+		private final int threshold;
+
+		/**
+		 * Constructs a task.
+		 * @param aggregation - the aggregation.
+		 * @param rows - the selected rows.
+		 * @param from - the first index of the range (inclusive).
+		 * @param to - the last index of the range (exclusive).
+		 * @param threshold - the number of rows below which the range is not split.
+		 */
+		private AggregationTask(Aggregation<A> aggregation, int[] rows, int from, int to, int threshold) {
+			this.aggregation = aggregation;
+			this.rows = rows;
+			this.from = from;
+			this.to = to;
+			this.threshold = threshold;
+		}
+
+		@Override
+		protected A compute() {
+			if (to - from <= threshold) {
+				A accumulator = aggregation.create();
+				aggregation.accumulate(accumulator, rows, from, to);
+				return accumulator;
+			}
+			int middle = (from + to) >>> 1;
+			AggregationTask<A> left = new AggregationTask<>(aggregation, rows, from, middle, threshold);
+			AggregationTask<A> right = new AggregationTask<>(aggregation, rows, middle, to, threshold);
+			left.fork();
+			A rightResult = right.compute();
+			return aggregation.merge(left.join(), rightResult);
+		}
+	}
+}
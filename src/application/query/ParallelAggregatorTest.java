@@ -0,0 +1,120 @@
+package application.query;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+
+import org.junit.jupiter.api.Test;
+
+class ParallelAggregatorTest {
+
+	/**
+	 * The sequential aggregator.
+	 */
+	private ParallelAggregator sequential = new ParallelAggregator(1);
+
+	/**
+	 * A parallel aggregator splitting anything bigger than 7 rows.
+	 */
+	private ParallelAggregator parallel = new ParallelAggregator(4, 7);
+
+	/**
+	 * The selected rows, every row of a 1000 row column.
+	 */
+	private int[] rows = new int[1000];
+
+	/**
+	 * The column, a repeating pattern so the maximum is shared by many rows.
+	 */
+	private int[] column = new int[1000];
+
+	/**
+	 * Default constructor for test class ParallelAggregatorTest
+	 */
+	public ParallelAggregatorTest() {
+		for (int i = 0; i < rows.length; i++) {
+			rows[i] = i;
+			column[i] = (i * 37) % 101;
+		}
+	}
+
+	/**
+	 * Tests that the counts and sums are the same in both modes.
+	 */
+	@Test
+	public void testCountAndSum() {
+		assertEquals(sequential.count(rows, rows.length, row -> column[row] > 50), parallel.count(rows, rows.length, row -> column[row] > 50));
+		assertEquals(sequential.countRange(column, rows, rows.length, 1, 100), parallel.countRange(column, rows, rows.length, 1, 100));
+		assertEquals(ColumnScan.sum(column), parallel.sum(column, rows, rows.length));
+	}
+
+	/**
+	 * Tests that ties are broken the same way in both modes.
+	 */
+	@Test
+	public void testArgMaxTies() {
+		int first = sequential.argMax(rows, rows.length, row -> column[row], 0, false);
+		int last = sequential.argMax(rows, rows.length, row -> column[row], 0, true);
+		assertEquals(column[first], 100);
+		assertEquals(first, parallel.argMax(rows, rows.length, row -> column[row], 0, false));
+		assertEquals(last, parallel.argMax(rows, rows.length, row -> column[row], 0, true));
+		assertEquals(-1, parallel.argMax(rows, rows.length, row -> column[row], 100, false));
+	}
+
+	/**
+	 * Tests that an aggregation running when the aggregator is shut down finishes in the pool,
+	 * and that one started afterwards runs on the calling thread.
+	 * @throws Exception - if the aggregation fails.
+	 */
+	@Test
+	public void testShutdown() throws Exception {
+		ParallelAggregator aggregator = new ParallelAggregator(4, 100);
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch released = new CountDownLatch(1);
+		Set<Thread> threads = ConcurrentHashMap.newKeySet();
+		Aggregation<long[]> sum = new Aggregation<long[]>() {
+			@Override
+			public long[] create() {
+				return new long[1];
+			}
+
+			@Override
+			public void accumulate(long[] total, int[] rows, int from, int to) {
+				if (from == 0) {
+					started.countDown();
+					try {
+						released.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+				threads.add(Thread.currentThread());
+				for (int i = from; i < to; i++) {
+					total[0] += column[rows[i]];
+				}
+			}
+
+			@Override
+			public long[] merge(long[] left, long[] right) {
+				left[0] += right[0];
+				return left;
+			}
+		};
+		FutureTask<long[]> running = new FutureTask<>(() -> aggregator.aggregate(rows, rows.length, sum));
+		Thread caller = new Thread(running);
+		caller.start();
+		started.await();
+		aggregator.shutdown();
+		released.countDown();
+		assertEquals(ColumnScan.sum(column), running.get()[0]);
+		assertFalse(threads.contains(caller));
+		threads.clear();
+		assertEquals(ColumnScan.sum(column), aggregator.aggregate(rows, rows.length, sum)[0]);
+		assertEquals(Collections.singleton(Thread.currentThread()), threads);
+	}
+}
@@ -0,0 +1,115 @@
+package application.query;
+
+/**
+ * Splits prices into bands, using the prices offered by the price selectors of the welcome screen as boundaries.
+ * Band i holds the prices above boundary i - 1 up to and including boundary i, the last band holding everything above
+ * the last boundary. Sketches kept per band can then be merged to answer any range between two boundaries.
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public final class PriceBands {
+
+	/**
+	 * The upper boundary (inclusive) of each band but the last.
+	 */
+	private static final int[] BOUNDARIES = {5, 50, 100, 200, 500, 1000, 2000, 3000, 5000, 7000};
+
+	/**
+	 * Not instantiable.
+	 */
+	private PriceBands() {
+	}
+
+	/**
+	 * Get the boundaries of the bands, the prices offered by the price selectors.
+	 * @return - a copy of the boundaries, in increasing order.
+	 */
+	public static int[] boundaries() {
+		return BOUNDARIES.clone();
+	}
+
+	/**
+	 * Get the number of bands.
+	 * @return - the number of bands.
+	 */
+	public static int count() {
+		return BOUNDARIES.length + 1;
+	}
+
+	/**
+	 * Get the band holding a price.
+	 * @param price - the price.
+	 * @return - the band.
+	 */
+	public static int bandOf(int price) {
+		for (int band = 0; band < BOUNDARIES.length; band++) {
+			if (price <= BOUNDARIES[band]) {
+				return band;
+			}
+		}
+		return BOUNDARIES.length;
+	}
+
+	/**
+	 * Get the number of split bands.
+	 * The split bands give each boundary price a band of its own, between the bands of the prices strictly between two
+	 * boundaries, so a price range from one boundary to another, as chosen with the price selectors, is exactly a run of split bands.
+	 * @return - the number of split bands.
+	 */
+	public static int splitCount() {
+		return BOUNDARIES.length * 2 + 1;
+	}
+
+	/**
+	 * Get the split band holding a price.
+	 * @param price - the price.
+	 * @return - the split band, 2i + 1 for boundary i and 2i for the prices just below it.
+	 */
+	public static int splitBandOf(int price) {
+		for (int band = 0; band < BOUNDARIES.length; band++) {
+			if (price <= BOUNDARIES[band]) {
+				return price == BOUNDARIES[band] ? band * 2 + 1 : band * 2;
+			}
+		}
+		return BOUNDARIES.length * 2;
+	}
+
+	/**
+	 * Get the lowest price of a band.
+	 * @param band - the band.
+	 * @return - the lowest price (inclusive).
+	 */
+	public static long lowestPrice(int band) {
+		return band == 0 ? Integer.MIN_VALUE : BOUNDARIES[band - 1] + 1L;
+	}
+
+	/**
+	 * Get the highest price of a band.
+	 * @param band - the band.
+	 * @return - the highest price (inclusive).
+	 */
+	public static long highestPrice(int band) {
+		return band == BOUNDARIES.length ? Integer.MAX_VALUE : BOUNDARIES[band];
+	}
+
+	/**
+	 * Checks if every price of a band is within a price range.
+	 * @param band - the band.
+	 * @param minimumPrice - the minimum price (inclusive).
+	 * @param maximumPrice - the maximum price (inclusive).
+	 * @return true if the band is inside the range, false otherwise.
+	 */
+	public static boolean isWithin(int band, int minimumPrice, int maximumPrice) {
+		return lowestPrice(band) >= minimumPrice && highestPrice(band) <= maximumPrice;
+	}
+
+	/**
+	 * Checks if some prices of a band are within a price range.
+	 * @param band - the band.
+	 * @param minimumPrice - the minimum price (inclusive).
+	 * @param maximumPrice - the maximum price (inclusive).
+	 * @return true if the band and the range overlap, false otherwise.
+	 */
+	public static boolean overlaps(int band, int minimumPrice, int maximumPrice) {
+		return lowestPrice(band) <= maximumPrice && highestPrice(band) >= minimumPrice;
+	}
+}
@@ -0,0 +1,135 @@
+package application.query;
+
+import application.property.PropertyColumns;
+
+/**
+ * Price t-digests kept per borough, room type and price band (see PriceBands).
+ * The digest of any group of boroughs, room types and prices is built by merging the digests of the bands inside
+ * the price range. Only where the range cuts through a band are the prices read from the rows themselves, and those
+ * rows are a slice of the rows sorted by price. Each digest is bounded by the compression, so the memory used does
+ * not depend on the number of properties.
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public class PriceDigests {
+
+	/**
+	 * The columns the digests were built from.
+	 */
+	private final PropertyColumns columns;
+
+	/**
+	 * All the rows sorted by price.
+	 */
+	private final int[] rowsByPrice;
+
+	/**
+	 * The price histogram of all the rows, locating a price range within the rows sorted by price.
+	 */
+	private final PriceHistogram priceHistogram;
+
+	/**
+	 * The compression of the digests.
+	 */
+	private final double compression;
+
+	/**
+	 * The number of room types.
+	 */
+	private final int numberOfRoomTypes;
+
+	/**
+	 * The digests, indexed by (borough code * number of room types + room type code) * number of bands + band.
+	 */
+	private final TDigest[] digests;
+
+	/**
+	 * Builds the digests.
+	 * @param columns - the columns.
+	 * @param rowsByPrice - all the rows sorted by price.
+	 * @param priceHistogram - the price histogram of all the rows.
+	 * @param compression - the compression of the digests.
+	 */
+	public PriceDigests(PropertyColumns columns, int[] rowsByPrice, PriceHistogram priceHistogram, double compression) {
+		this.columns = columns;
+		this.rowsByPrice = rowsByPrice;
+		this.priceHistogram = priceHistogram;
+		this.compression = compression;
+		this.numberOfRoomTypes = columns.getRoomTypeNames().size();
+		this.digests = new TDigest[columns.getBoroughNames().size() * numberOfRoomTypes * PriceBands.count()];
+		int[] prices = columns.getPrices();
+		int[] boroughCodes = columns.getBoroughCodes();
+		int[] roomTypeCodes = columns.getRoomTypeCodes();
+		for (int row = 0; row < columns.size(); row++) {
+			int index = index(boroughCodes[row], roomTypeCodes[row], PriceBands.bandOf(prices[row]));
+			if (digests[index] == null) {
+				digests[index] = new TDigest(compression);
+			}
+			digests[index].add(prices[row]);
+		}
+		for (TDigest digest : digests) {
+			if (digest != null) {
+				digest.centroidCount(); //Compress now so reading the digests later does not change them.
+			}
+		}
+	}
+
+	/**
+	 * Get the index of a digest.
+	 * @param boroughCode - the borough code.
+	 * @param roomTypeCode - the room type code.
+	 * @param band - the price band.
+	 * @return - the index.
+	 */
+	private int index(int boroughCode, int roomTypeCode, int band) {
+		return (boroughCode * numberOfRoomTypes + roomTypeCode) * PriceBands.count() + band;
+	}
+
+	/**
+	 * Builds the digest of the prices of a group of properties.
+	 * @param boroughCode - the borough code, -1 for every borough.
+	 * @param roomTypeCode - the room type code, -1 for every room type.
+	 * @param minimumPrice - the minimum price (inclusive).
+	 * @param maximumPrice - the maximum price (inclusive).
+	 * @return - a new digest of the prices.
+	 */
+	public TDigest getDigest(int boroughCode, int roomTypeCode, int minimumPrice, int maximumPrice) {
+		TDigest result = new TDigest(compression);
+		for (int band = 0; band < PriceBands.count(); band++) {
+			if (PriceBands.isWithin(band, minimumPrice, maximumPrice)) {
+				for (int borough = 0; borough < columns.getBoroughNames().size(); borough++) {
+					for (int roomType = 0; roomType < numberOfRoomTypes; roomType++) {
+						TDigest digest = digests[index(borough, roomType, band)];
+						if (digest != null && (boroughCode == -1 || borough == boroughCode) && (roomTypeCode == -1 || roomType == roomTypeCode)) {
+							result.merge(digest);
+						}
+					}
+				}
+			} else if (PriceBands.overlaps(band, minimumPrice, maximumPrice)) {
+				long from = Math.max(minimumPrice, PriceBands.lowestPrice(band));
+				long to = Math.min(maximumPrice, PriceBands.highestPrice(band));
+				addRows(result, priceHistogram.firstIndex(from), priceHistogram.firstIndex(to + 1), boroughCode, roomTypeCode);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Adds the prices of a slice of the rows sorted by price to a digest.
+	 * @param digest - the digest.
+	 * @param from - the first index of the slice (inclusive).
+	 * @param to - the last index of the slice (exclusive).
+	 * @param boroughCode - the borough code, -1 for every borough.
+	 * @param roomTypeCode - the room type code, -1 for every room type.
+	 */
+	private void addRows(TDigest digest, int from, int to, int boroughCode, int roomTypeCode) {
+		int[] prices = columns.getPrices();
+		int[] boroughCodes = columns.getBoroughCodes();
+		int[] roomTypeCodes = columns.getRoomTypeCodes();
+		for (int i = from; i < to; i++) {
+			int row = rowsByPrice[i];
+			if ((boroughCode == -1 || boroughCodes[row] == boroughCode) && (roomTypeCode == -1 || roomTypeCodes[row] == roomTypeCode)) {
+				digest.add(prices[row]);
+			}
+		}
+	}
+}
@@ -0,0 +1,220 @@
+package application.query;
+
+import java.util.Arrays;
+
+/**
+ * A cumulative histogram of prices.
+ * There is one bucket per distinct price, in increasing order, and the histogram stores the running
+ * totals of the bucket counts and prices rather than the buckets themselves. The number of properties and the sum of
+ * their prices within any price range is then the difference of two running totals, found by binary searching the prices.
+ * Memory is proportional to the number of distinct prices (about 16 bytes each), at most the number of properties,
+ * so an outlier price costs one bucket rather than one per pound up to it.
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public class PriceHistogram {
+
+	/**
+	 * The price of each bucket, the distinct prices in increasing order.
+	 */
+	private final int[] bucketPrices;
+
+	/**
+	 * The running count of properties, cumulativeCounts[i] is the number of prices below bucketPrices[i].
+	 */
+	private final int[] cumulativeCounts;
+
+	/**
+	 * The running sum of prices, cumulativeSums[i] is the sum of the prices below bucketPrices[i].
+	 */
+	private final long[] cumulativeSums;
+
+	/**
+	 * Constructs a histogram from sorted prices.
+	 * @param sortedPrices - the prices, in increasing order.
+	 */
+	private PriceHistogram(int[] sortedPrices) {
+		int buckets = 0;
+		for (int i = 0; i < sortedPrices.length; i++) {
+			buckets += i == 0 || sortedPrices[i] != sortedPrices[i - 1] ? 1 : 0;
+		}
+		this.bucketPrices = new int[buckets];
+		this.cumulativeCounts = new int[buckets + 1];
+		this.cumulativeSums = new long[buckets + 1];
+		int bucket = 0;
+		for (int i = 0; i < sortedPrices.length; i++) {
+			if (i > 0 && sortedPrices[i] != sortedPrices[i - 1]) {
+				bucket++;
+				cumulativeCounts[bucket + 1] = cumulativeCounts[bucket];
+				cumulativeSums[bucket + 1] = cumulativeSums[bucket];
+			}
+			bucketPrices[bucket] = sortedPrices[i];
+			cumulativeCounts[bucket + 1]++;
+			cumulativeSums[bucket + 1] += sortedPrices[i];
+		}
+	}
+
+	/**
+	 * Builds the histogram of a price column.
+	 * @param prices - the price column.
+	 * @return - the histogram.
+	 */
+	public static PriceHistogram of(int[] prices) {
+		return byGroup(prices, new int[prices.length], 1)[0];
+	}
+
+	/**
+	 * Builds one histogram per group, for example one per borough, each with the buckets of the prices of its group only.
+	 * @param prices - the price column.
+	 * @param groups - the group code of each row, between 0 and numberOfGroups - 1.
+	 * @param numberOfGroups - the number of groups.
+	 * @return - the histograms, indexed by group code.
+	 */
+	public static PriceHistogram[] byGroup(int[] prices, int[] groups, int numberOfGroups) {
+		//The prices of each group one after the other, so the groups take as much memory together as the column.
+		int[] starts = new int[numberOfGroups + 1];
+		for (int row = 0; row < prices.length; row++) {
+			starts[groups[row] + 1]++;
+		}
+		for (int group = 0; group < numberOfGroups; group++) {
+			starts[group + 1] += starts[group];
+		}
+		int[] next = Arrays.copyOf(starts, numberOfGroups);
+		int[] groupedPrices = new int[prices.length];
+		for (int row = 0; row < prices.length; row++) {
+			groupedPrices[next[groups[row]]++] = prices[row];
+		}
+		PriceHistogram[] histograms = new PriceHistogram[numberOfGroups];
+		for (int group = 0; group < numberOfGroups; group++) {
+			Arrays.sort(groupedPrices, starts[group], starts[group + 1]);
+			histograms[group] = new PriceHistogram(Arrays.copyOfRange(groupedPrices, starts[group], starts[group + 1]));
+		}
+		return histograms;
+	}
+
+	/**
+	 * Converts a price into an index of the running totals.
+	 * @param price - the price.
+	 * @return - the index of the running totals of the prices below the given price.
+	 */
+	private int index(long price) {
+		int low = 0;
+		int high = bucketPrices.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (bucketPrices[middle] < price) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Get the number of properties within a price range.
+	 * @param minimumPrice - the minimum price (inclusive).
+	 * @param maximumPrice - the maximum price (inclusive).
+	 * @return - the number of properties.
+	 */
+	public int count(int minimumPrice, int maximumPrice) {
+		if (minimumPrice > maximumPrice) {
+			return 0;
+		}
+		return cumulativeCounts[index(maximumPrice + 1L)] - cumulativeCounts[index(minimumPrice)];
+	}
+
+	/**
+	 * Get the sum of the prices per night of the properties within a price range.
+	 * @param minimumPrice - the minimum price (inclusive).
+	 * @param maximumPrice - the maximum price (inclusive).
+	 * @return - the sum of the prices.
+	 */
+	public long sum(int minimumPrice, int maximumPrice) {
+		if (minimumPrice > maximumPrice) {
+			return 0;
+		}
+		return cumulativeSums[index(maximumPrice + 1L)] - cumulativeSums[index(minimumPrice)];
+	}
+
+	/**
+	 * Get the total number of properties.
+	 * @return - the number of properties.
+	 */
+	public int size() {
+		return cumulativeCounts[cumulativeCounts.length - 1];
+	}
+
+	/**
+	 * Get the lowest price within a price range.
+	 * @param minimumPrice - the minimum price (inclusive).
+	 * @param maximumPrice - the maximum price (inclusive).
+	 * @return - the lowest price, or Integer.MAX_VALUE if there is no property in the range.
+	 */
+	public int lowestPrice(int minimumPrice, int maximumPrice) {
+		if (count(minimumPrice, maximumPrice) == 0) {
+			return Integer.MAX_VALUE;
+		}
+		//The first bucket whose running total goes past the total before the range.
+		return bucketPrices[firstIndexAbove(cumulativeCounts[index(minimumPrice)]) - 1];
+	}
+
+	/**
+	 * Get the highest price within a price range.
+	 * @param minimumPrice - the minimum price (inclusive).
+	 * @param maximumPrice - the maximum price (inclusive).
+	 * @return - the highest price, or Integer.MIN_VALUE if there is no property in the range.
+	 */
+	public int highestPrice(int minimumPrice, int maximumPrice) {
+		if (count(minimumPrice, maximumPrice) == 0) {
+			return Integer.MIN_VALUE;
+		}
+		//The first bucket whose running total reaches the total at the end of the range.
+		return bucketPrices[firstIndexAbove(cumulativeCounts[index(maximumPrice + 1L)] - 1) - 1];
+	}
+
+	/**
+	 * Binary searches the running counts.
+	 * @param count - a count.
+	 * @return - the first index whose running count is greater than the given count.
+	 */
+	private int firstIndexAbove(int count) {
+		int low = 0;
+		int high = cumulativeCounts.length - 1;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (cumulativeCounts[middle] > count) {
+				high = middle;
+			} else {
+				low = middle + 1;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Sorts rows by price with a counting sort, using this histogram as the counts.
+	 * Must be called on the histogram of the same price column, each row finding its bucket by binary search.
+	 * Rows with the same price stay in row order.
+	 * The rows within a price range are then the slice between firstIndex(minimum) and firstIndex(maximum + 1).
+	 * @param prices - the price column the histogram was built from.
+	 * @return - the rows sorted by price.
+	 */
+	public int[] sortRows(int[] prices) {
+		int[] next = new int[cumulativeCounts.length];
+		System.arraycopy(cumulativeCounts, 0, next, 0, next.length);
+		int[] sortedRows = new int[prices.length];
+		for (int row = 0; row < prices.length; row++) {
+			sortedRows[next[Arrays.binarySearch(bucketPrices, prices[row])]++] = row;
+		}
+		return sortedRows;
+	}
+
+	/**
+	 * Get the position of a price in the rows sorted by price.
+	 * @param price - the price.
+	 * @return - the number of properties cheaper than the given price.
+	 */
+	public int firstIndex(long price) {
+		return cumulativeCounts[index(price)];
+	}
+}
@@ -0,0 +1,84 @@
+package application.query;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class PriceHistogramTest {
+
+	/**
+	 * The price column used by the tests.
+	 */
+	private int[] prices = new int[] {40, 5, 7000, 50, 50, 120, -1, 200, 50};
+
+	/**
+	 * The histogram of the price column.
+	 */
+	private PriceHistogram histogram = PriceHistogram.of(prices);
+
+	/**
+	 * Tests the counts and sums within price ranges, including ranges outside of the histogram.
+	 */
+	@Test
+	public void testCountAndSum() {
+		assertEquals(histogram.count(50, 200), 5);
+		assertEquals(histogram.sum(50, 200), 50 * 3 + 120 + 200);
+		assertEquals(histogram.count(0, 100000), 8);
+		assertEquals(histogram.count(-100, 100000), prices.length);
+		assertEquals(histogram.count(201, 6999), 0);
+		assertEquals(histogram.count(200, 50), 0);
+		assertEquals(histogram.size(), prices.length);
+	}
+
+	/**
+	 * Tests the lowest and highest prices within price ranges.
+	 */
+	@Test
+	public void testLowestAndHighestPrice() {
+		assertEquals(histogram.lowestPrice(41, 7000), 50);
+		assertEquals(histogram.highestPrice(0, 6999), 200);
+		assertEquals(histogram.highestPrice(0, 100000), 7000);
+		assertEquals(histogram.lowestPrice(201, 6999), Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Tests sorting the rows by price and slicing a price range out of them.
+	 */
+	@Test
+	public void testSortRows() {
+		int[] sortedRows = histogram.sortRows(prices);
+		assertArrayEquals(sortedRows, new int[] {6, 1, 0, 3, 4, 8, 5, 7, 2});
+		assertEquals(histogram.firstIndex(50), 3);
+		assertEquals(histogram.firstIndex(201), 8);
+	}
+
+	/**
+	 * Tests that the histograms of each group add up to the histogram of every row.
+	 */
+	@Test
+	public void testByGroup() {
+		PriceHistogram[] groups = PriceHistogram.byGroup(prices, new int[] {0, 1, 0, 1, 0, 1, 0, 1, 0}, 2);
+		assertEquals(groups[0].count(50, 200) + groups[1].count(50, 200), histogram.count(50, 200));
+		assertEquals(groups[1].highestPrice(0, 7000), 200);
+	}
+
+	/**
+	 * Tests that prices far apart, which would take a bucket per pound between them, are counted and sorted,
+	 * and that a group without rows has an empty histogram.
+	 */
+	@Test
+	public void testOutlierPrice() {
+		int[] outliers = new int[] {Integer.MAX_VALUE, 50, Integer.MIN_VALUE, 50};
+		PriceHistogram[] groups = PriceHistogram.byGroup(outliers, new int[] {0, 0, 0, 0}, 2);
+		assertEquals(groups[0].count(Integer.MIN_VALUE, Integer.MAX_VALUE), 4);
+		assertEquals(groups[0].sum(0, Integer.MAX_VALUE), Integer.MAX_VALUE + 100L);
+		assertEquals(groups[0].highestPrice(51, Integer.MAX_VALUE), Integer.MAX_VALUE);
+		assertEquals(groups[0].lowestPrice(Integer.MIN_VALUE, 49), Integer.MIN_VALUE);
+		assertEquals(groups[0].count(Integer.MIN_VALUE, 49), 1);
+		assertArrayEquals(groups[0].sortRows(outliers), new int[] {2, 1, 3, 0});
+		assertEquals(groups[0].firstIndex(Integer.MAX_VALUE + 1L), 4);
+		assertEquals(groups[1].size(), 0);
+		assertEquals(groups[1].lowestPrice(0, 100), Integer.MAX_VALUE);
+	}
+}
@@ -0,0 +1,104 @@
+package application.query;
+
+/**
+ * A summary of the prices of a group of properties: how many there are, the median, 90th and 99th percentile prices
+ * and a small histogram. Built from a t-digest so the percentiles are estimates, usually within a pound or two.
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public class PriceSummary {
+
+	/**
+	 * The number of properties.
+	 */
+	private final long count;
+
+	/**
+	 * The median, 90th and 99th percentile prices.
+	 */
+	private final double median, percentile90, percentile99;
+
+	/**
+	 * The edges of the histogram bins, bin i going from binEdges[i] to binEdges[i + 1].
+	 */
+	private final double[] binEdges;
+
+	/**
+	 * The estimated number of properties in each histogram bin.
+	 */
+	private final long[] binCounts;
+
+	/**
+	 * Summarises a digest of prices.
+	 * @param digest - the digest.
+	 * @param numberOfBins - the number of histogram bins, of equal width between the lowest and highest price.
+	 */
+	public PriceSummary(TDigest digest, int numberOfBins) {
+		this.count = Math.round(digest.size());
+		this.median = digest.quantile(0.5);
+		this.percentile90 = digest.quantile(0.9);
+		this.percentile99 = digest.quantile(0.99);
+		this.binEdges = new double[numberOfBins + 1];
+		this.binCounts = new long[numberOfBins];
+		if (count > 0) {
+			double width = (digest.getMax() - digest.getMin()) / numberOfBins;
+			for (int bin = 0; bin <= numberOfBins; bin++) {
+				binEdges[bin] = digest.getMin() + width * bin;
+			}
+			binEdges[numberOfBins] = digest.getMax();
+			long countSoFar = 0;
+			for (int bin = 0; bin < numberOfBins; bin++) {
+				long countToEdge = bin == numberOfBins - 1 ? count : Math.round(digest.cdf(binEdges[bin + 1]) * count);
+				binCounts[bin] = countToEdge - countSoFar;
+				countSoFar = countToEdge;
+			}
+		}
+	}
+
+	/**
+	 * Get the number of properties.
+	 * @return - the number of properties.
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Get the median price.
+	 * @return - the median price, NaN if there is no property.
+	 */
+	public double getMedian() {
+		return median;
+	}
+
+	/**
+	 * Get the 90th percentile price.
+	 * @return - the price 90% of the properties are cheaper than, NaN if there is no property.
+	 */
+	public double getPercentile90() {
+		return percentile90;
+	}
+
+	/**
+	 * Get the 99th percentile price.
+	 * @return - the price 99% of the properties are cheaper than, NaN if there is no property.
+	 */
+	public double getPercentile99() {
+		return percentile99;
+	}
+
+	/**
+	 * Get the edges of the histogram bins.
+	 * @return - the edges, bin i going from edge i to edge i + 1.
+	 */
+	public double[] getBinEdges() {
+		return binEdges.clone();
+	}
+
+	/**
+	 * Get the estimated number of properties in each histogram bin.
+	 * @return - the bin counts.
+	 */
+	public long[] getBinCounts() {
+		return binCounts.clone();
+	}
+}
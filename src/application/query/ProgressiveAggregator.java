@@ -0,0 +1,295 @@
+package application.query;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Consumer;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Runs aggregations progressively on a background thread, publishing an estimate after each batch of rows.
+ * The rows are split into strata (for example one per borough) and each batch takes the same fraction of every stratum,
+ * drawn at random, so the rows processed so far are always a stratified random sample of the selection.
+ * The first batch holds about INITIAL_SAMPLE_SIZE rows and each batch doubles the fraction processed, so a first
+ * estimate comes within milliseconds whatever the size of the selection and the last batch gives the exact value.
+ *
+ * The estimates are the usual stratified ones: the mean of each stratum is weighted by its share of the rows, and the
+ * variance uses the variance within each stratum with the finite population correction, which drops to 0 once a stratum
+ * has been processed completely. The 95% confidence interval is 1.96 standard errors either side.
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public class ProgressiveAggregator {
+
+	/**
+	 * The number of rows of the first batch.
+	 */
+	public static final int INITIAL_SAMPLE_SIZE = 1024;
+
+	/**
+	 * The number of standard errors either side of an estimate for a 95% confidence interval.
+	 */
+	private static final double Z_95 = 1.96;
+
+	/**
+	 * The stratum of each row.
+	 */
+	private final int[] strata;
+
+	/**
+	 * The number of strata.
+	 */
+	private final int numberOfStrata;
+
+	/**
+	 * The seed of the random order of the rows, so the estimates can be reproduced.
+	 */
+	private final long seed;
+
+	/**
+	 * Runs the aggregations, on daemon threads so a running aggregation does not keep the application open.
+	 */
+	private final ExecutorService executor;
+
+	/**
+	 * Constructs a progressive aggregator.
+	 * @param strata - the stratum of each row, between 0 and numberOfStrata - 1.
+	 * @param numberOfStrata - the number of strata.
+	 * @param seed - the seed of the random order of the rows.
+	 */
+	public ProgressiveAggregator(int[] strata, int numberOfStrata, long seed) {
+		this.strata = strata;
+		this.numberOfStrata = numberOfStrata;
+		this.seed = seed;
+		this.executor = Executors.newCachedThreadPool(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "progressive-aggregation");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * Estimates the mean of a value over the selected rows.
+	 * The selection is copied before returning, so it may change while the aggregation runs.
+	 * @param rows - the selected rows.
+	 * @param size - the number of selected rows.
+	 * @param value - the value, given a row.
+	 * @param listener - called on the background thread with each estimate, the last one being exact.
+	 * @return - the running aggregation, which can be cancelled.
+	 */
+	public Future<?> mean(int[] rows, int size, IntToDoubleFunction value, Consumer<Estimate> listener) {
+		return aggregate(rows, size, true, estimates -> listener.accept(estimates[0]), value);
+	}
+
+	/**
+	 * Estimates the totals of one or more values over the selected rows, in a single pass.
+	 * A count is the total of a value that is 1 for the rows to count and 0 otherwise.
+	 * The selection is copied before returning, so it may change while the aggregation runs.
+	 * @param rows - the selected rows.
+	 * @param size - the number of selected rows.
+	 * @param listener - called on the background thread with each set of estimates, in the order of the values.
+	 * @param values - the values, given a row.
+	 * @return - the running aggregation, which can be cancelled.
+	 */
+	public Future<?> totals(int[] rows, int size, Consumer<Estimate[]> listener, IntToDoubleFunction... values) {
+		return aggregate(rows, size, false, listener, values);
+	}
+
+	/**
+	 * Groups the selected rows by stratum and starts the aggregation.
+	 * @param rows - the selected rows.
+	 * @param size - the number of selected rows.
+	 * @param mean - true to estimate the means of the values, false for their totals.
+	 * @param listener - called with each set of estimates.
+	 * @param values - the values.
+	 * @return - the running aggregation.
+	 */
+	private Future<?> aggregate(int[] rows, int size, boolean mean, Consumer<Estimate[]> listener, IntToDoubleFunction... values) {
+		//Counting sort of the rows by stratum, stratum s then being rowsByStratum[starts[s]] to rowsByStratum[starts[s + 1]].
+		int[] starts = new int[numberOfStrata + 1];
+		for (int i = 0; i < size; i++) {
+			starts[strata[rows[i]] + 1]++;
+		}
+		for (int stratum = 0; stratum < numberOfStrata; stratum++) {
+			starts[stratum + 1] += starts[stratum];
+		}
+		int[] next = starts.clone();
+		int[] rowsByStratum = new int[size];
+		for (int i = 0; i < size; i++) {
+			rowsByStratum[next[strata[rows[i]]]++] = rows[i];
+		}
+		Runnable run = new Runnable() {
+			@Override
+			public void run() {
+				new Run(rowsByStratum, starts, mean, values).run(listener);
+			}
+		};
+		try {
+			return executor.submit(run);
+		} catch (RejectedExecutionException e) {
+			//Shut down, the aggregation gets a thread of its own, see shutdown.
+			FutureTask<?> task = new FutureTask<>(run, null);
+			Thread thread = new Thread(task, "progressive-aggregation");
+			thread.setDaemon(true);
+			thread.start();
+			return task;
+		}
+	}
+
+	/**
+	 * Stops the background threads once the aggregations running have finished.
+	 * An aggregation started afterwards, e.g. by a reader still holding a data store that has been replaced, runs on a thread of its own.
+	 */
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	/**
+	 * One run of an aggregation, holding the statistics of each value in each stratum.
+	 */
+	private class Run {
+
+		/**
+		 * The rows grouped by stratum, shuffled as they are processed.
+		 */
+		private final int[] rowsByStratum;
+
+		/**
+		 * Where each stratum starts in rowsByStratum, the last entry being the number of rows.
+		 */
+		private final int[] starts;
+
+		/**
+		 * Whether the means or the totals of the values are estimated.
+		 */
+		private final boolean mean;
+
+		/**
+		 * The values.
+		 */
+		private final IntToDoubleFunction[] values;
+
+		/**
+		 * The number of rows processed in each stratum.
+		 */
+		private final int[] processed;
+
+		/**
+		 * The sum, running mean and sum of squared differences from the mean (Welford) of each value in each stratum.
+		 */
+		private final double[][] sums, means, squares;
+
+		/**
+		 * Constructs a run.
+		 * @param rowsByStratum - the rows grouped by stratum.
+		 * @param starts - where each stratum starts.
+		 * @param mean - whether the means or the totals are estimated.
+		 * @param values - the values.
+		 */
+		private Run(int[] rowsByStratum, int[] starts, boolean mean, IntToDoubleFunction[] values) {
+			this.rowsByStratum = rowsByStratum;
+			this.starts = starts;
+			this.mean = mean;
+			this.values = values;
+			this.processed = new int[numberOfStrata];
+			this.sums = new double[values.length][numberOfStrata];
+			this.means = new double[values.length][numberOfStrata];
+			this.squares = new double[values.length][numberOfStrata];
+		}
+
+		/**
+		 * Processes the batches, publishing the estimates after each one, until every row is processed or the run is cancelled.
+		 * @param listener - called with each set of estimates.
+		 */
+		private void run(Consumer<Estimate[]> listener) {
+			Random random = new Random(seed);
+			int size = rowsByStratum.length;
+			double fraction = Math.min(1, (double) INITIAL_SAMPLE_SIZE / Math.max(1, size));
+			while (true) {
+				for (int stratum = 0; stratum < numberOfStrata; stratum++) {
+					if (Thread.currentThread().isInterrupted()) {
+						return;
+					}
+					int stratumSize = starts[stratum + 1] - starts[stratum];
+					//At least two rows per stratum so its variance can be estimated.
+					int target = fraction == 1 ? stratumSize : Math.min(stratumSize, Math.max(2, (int) Math.ceil(fraction * stratumSize)));
+					process(stratum, target, random);
+				}
+				listener.accept(estimates());
+				if (fraction == 1) {
+					return;
+				}
+				fraction = Math.min(1, fraction * 2);
+			}
+		}
+
+		/**
+		 * Processes the rows of a stratum up to a target, drawing them at random (a partial Fisher-Yates shuffle).
+		 * @param stratum - the stratum.
+		 * @param target - the number of rows of the stratum to have processed.
+		 * @param random - the random order.
+		 */
+		private void process(int stratum, int target, Random random) {
+			int start = starts[stratum];
+			int stratumSize = starts[stratum + 1] - start;
+			for (int i = processed[stratum]; i < target; i++) {
+				int swap = start + i + random.nextInt(stratumSize - i);
+				int row = rowsByStratum[swap];
+				rowsByStratum[swap] = rowsByStratum[start + i];
+				rowsByStratum[start + i] = row;
+				int count = i + 1;
+				for (int v = 0; v < values.length; v++) {
+					double value = values[v].applyAsDouble(row);
+					double delta = value - means[v][stratum];
+					means[v][stratum] += delta / count;
+					squares[v][stratum] += delta * (value - means[v][stratum]);
+					sums[v][stratum] += value;
+				}
+			}
+			processed[stratum] = Math.max(processed[stratum], target);
+		}
+
+		/**
+		 * Computes the stratified estimates of the values from the rows processed so far.
+		 * @return - the estimates, in the order of the values.
+		 */
+		private Estimate[] estimates() {
+			int size = rowsByStratum.length;
+			int processedSoFar = 0;
+			for (int stratum = 0; stratum < numberOfStrata; stratum++) {
+				processedSoFar += processed[stratum];
+			}
+			Estimate[] estimates = new Estimate[values.length];
+			for (int v = 0; v < values.length; v++) {
+				double total = 0;
+				double variance = 0;
+				for (int stratum = 0; stratum < numberOfStrata; stratum++) {
+					int stratumSize = starts[stratum + 1] - starts[stratum];
+					int count = processed[stratum];
+					if (count == 0) {
+						continue;
+					}
+					//The estimated total of the stratum, exact once every row of the stratum is processed.
+					total += count == stratumSize ? sums[v][stratum] : sums[v][stratum] / count * stratumSize;
+					if (count > 1 && count < stratumSize) {
+						double sampleVariance = squares[v][stratum] / (count - 1);
+						variance += (double) stratumSize * stratumSize * (1 - (double) count / stratumSize) * sampleVariance / count;
+					}
+				}
+				double halfWidth = Z_95 * Math.sqrt(variance);
+				if (mean) {
+					estimates[v] = new Estimate(size == 0 ? 0 : total / size, size == 0 ? 0 : halfWidth / size, processedSoFar, size);
+				} else {
+					estimates[v] = new Estimate(total, halfWidth, processedSoFar, size);
+				}
+			}
+			return estimates;
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package application.query;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class ProgressiveAggregatorTest {
+
+	/**
+	 * Tests that the estimates start on a sample, stay close to the exact mean and end on it.
+	 */
+	@Test
+	public void testMean() throws Exception {
+		Random random = new Random(3);
+		int size = 200000;
+		int[] strata = new int[size];
+		int[] values = new int[size];
+		int[] rows = new int[size];
+		long sum = 0;
+		for (int row = 0; row < size; row++) {
+			strata[row] = random.nextInt(10);
+			values[row] = strata[row] * 10 + random.nextInt(50);
+			rows[row] = row;
+			sum += values[row];
+		}
+		double exact = (double) sum / size;
+		List<Estimate> estimates = new ArrayList<>();
+		ProgressiveAggregator aggregator = new ProgressiveAggregator(strata, 10, 1);
+		aggregator.mean(rows, size, row -> values[row], estimates::add).get();
+		assertTrue(estimates.size() > 2);
+		Estimate first = estimates.get(0);
+		assertFalse(first.isExact());
+		assertTrue(first.getProcessed() < size / 50);
+		assertTrue(Math.abs(first.getValue() - exact) < 2 * first.getHalfWidth());
+		Estimate last = estimates.get(estimates.size() - 1);
+		assertTrue(last.isExact());
+		assertEquals(exact, last.getValue(), 1e-9);
+		assertEquals(0, last.getHalfWidth(), 0);
+		aggregator.shutdown();
+	}
+
+	/**
+	 * Tests that several totals are estimated in one pass and end on the exact counts.
+	 */
+	@Test
+	public void testTotals() throws Exception {
+		int size = 5000;
+		int[] strata = new int[size];
+		int[] rows = new int[size / 2];
+		for (int row = 0; row < size; row++) {
+			strata[row] = row % 3;
+		}
+		for (int i = 0; i < rows.length; i++) {
+			rows[i] = i * 2;
+		}
+		List<Estimate[]> estimates = new ArrayList<>();
+		ProgressiveAggregator aggregator = new ProgressiveAggregator(strata, 3, 1);
+		aggregator.totals(rows, rows.length, estimates::add, row -> row % 4 == 0 ? 1 : 0, row -> 1).get();
+		Estimate[] last = estimates.get(estimates.size() - 1);
+		assertEquals(1250, last[0].getValue(), 0);
+		assertEquals(2500, last[1].getValue(), 0);
+		assertTrue(last[0].isExact());
+		aggregator.shutdown();
+	}
+}
@@ -0,0 +1,173 @@
+package application.query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import application.property.Property;
+
+/**
+ * Answers range queries over a stream of properties, as RangeBatch does over a data store, in one pass holding no property.
+ * Its memory depends on the number of boroughs and price intervals only, so a file of any size can be summarised,
+ * and the accumulators of the parts of a parallel stream are combined, e.g.
+ * properties.parallel().collect(() -> new RangeAccumulator(queries), RangeAccumulator::accept, RangeAccumulator::combine),
+ * though a tie on a leaderboard is then only decided as in the data set when each property is added with its place in the file (see add).
+ *
+ * The price ranges of the queries given at construction cut the prices into intervals, and the boroughs are found as the properties go by.
+ * Any query whose minimum and maximum price are those of one of them, for any borough, can then be answered.
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public class RangeAccumulator implements Consumer<Property> {
+
+	/**
+	 * The statistics of each borough and price interval.
+	 */
+	private final RangeCells cells;
+
+	/**
+	 * The borough names, indexed by code, in the order they were found.
+	 */
+	private final List<String> boroughNames = new ArrayList<>();
+
+	/**
+	 * The formatted borough names, indexed by code.
+	 */
+	private final List<String> formattedBoroughNames = new ArrayList<>();
+
+	/**
+	 * A map of the lower case borough names, both normal and formatted, to their code.
+	 */
+	private final Map<String, Integer> boroughCodesByName = new HashMap<>();
+
+	/**
+	 * The number of properties accumulated.
+	 */
+	private long size;
+
+	/**
+	 * Constructs an empty accumulator.
+	 * @param queries - the queries, whose price ranges cut the prices into intervals.
+	 */
+	public RangeAccumulator(List<RangeQuery> queries) {
+		this.cells = new RangeCells(RangeCells.cuts(queries), 0);
+	}
+
+	/**
+	 * Converts a room type, in any case as DataStoreView matches them, into the room types counted.
+	 * @param roomType - the room type.
+	 * @return - RangeCells.HOME, PRIVATE_ROOM, SHARED_ROOM or OTHER_ROOM_TYPE.
+	 */
+	static int roomTypeOf(String roomType) {
+		switch (roomType.toLowerCase()) {
+		case "entire home/apt":
+			return RangeCells.HOME;
+		case "private room":
+			return RangeCells.PRIVATE_ROOM;
+		case "shared room":
+			return RangeCells.SHARED_ROOM;
+		default:
+			return RangeCells.OTHER_ROOM_TYPE;
+		}
+	}
+
+	/**
+	 * Adds a property, the next one of the data set.
+	 * @param property - the property.
+	 */
+	@Override
+	public void accept(Property property) {
+		add(property, size);
+	}
+
+	/**
+	 * Adds a property at a given place in the data set, for the accumulators of the parts of a file read on several threads.
+	 * The places decide ties on the leaderboards, as the order of the rows does in DataStoreView, so they should differ across the parts.
+	 * @param property - the property.
+	 * @param order - the place of the property in the data set.
+	 */
+	public void add(Property property, long order) {
+		size++;
+		//Found even if outside every price range, so every borough is reported.
+		int borough = boroughCode(property.getNeighbourhood(), property.getFormattedBoroughName());
+		int interval = cells.intervalOf(property.getPrice());
+		if (interval == -1) {
+			return;
+		}
+		cells.add(borough, interval, property.getPrice(), property.getAvailability365() > 0, roomTypeOf(property.getRoomType()),
+				property.getMinimumNights(), property.getNumberOfReviews(), property, order);
+	}
+
+	/**
+	 * Get the code of a borough, adding the borough if it is new.
+	 * @param borough - the borough name.
+	 * @param formattedBorough - the formatted borough name.
+	 * @return - the borough code.
+	 */
+	private int boroughCode(String borough, String formattedBorough) {
+		Integer boroughCode = boroughCodesByName.get(borough.toLowerCase());
+		if (boroughCode == null) {
+			boroughCode = boroughNames.size();
+			boroughNames.add(borough);
+			formattedBoroughNames.add(formattedBorough);
+			boroughCodesByName.put(borough.toLowerCase(), boroughCode);
+			boroughCodesByName.put(formattedBorough.toLowerCase(), boroughCode);
+			cells.ensureBoroughs(boroughNames.size());
+		}
+		return boroughCode;
+	}
+
+	/**
+	 * Adds the properties of another accumulator, made with the same queries.
+	 * @param other - the other accumulator.
+	 */
+	public void combine(RangeAccumulator other) {
+		size += other.size;
+		for (int otherBorough = 0; otherBorough < other.boroughNames.size(); otherBorough++) {
+			int borough = boroughCode(other.boroughNames.get(otherBorough), other.formattedBoroughNames.get(otherBorough));
+			cells.add(borough, other.cells, otherBorough);
+		}
+	}
+
+	/**
+	 * Get the number of properties accumulated, whatever their price.
+	 * @return - the number of properties.
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * Get the boroughs found.
+	 * @return - the borough names, sorted.
+	 */
+	public List<String> getBoroughNames() {
+		List<String> sorted = new ArrayList<>(boroughNames);
+		Collections.sort(sorted);
+		return sorted;
+	}
+
+	/**
+	 * Answers queries.
+	 * A query whose price range was not one of those given at construction gets the statistics of no property.
+	 * The digests of the prices are compressed first, so this is not to be called while properties are added on another thread.
+	 * @param queries - the queries.
+	 * @return - the statistics of each query, in the order of the queries.
+	 */
+	public List<RangeStatistics> statistics(List<RangeQuery> queries) {
+		cells.compressPrices();
+		RangeCells everyBorough = cells.everyBorough();
+		List<RangeStatistics> statistics = new ArrayList<>(queries.size());
+		for (RangeQuery query : queries) {
+			if (query.getBorough() == null) {
+				statistics.add(everyBorough.statistics(query, 0));
+			} else {
+				Integer boroughCode = boroughCodesByName.get(query.getBorough().toLowerCase());
+				statistics.add(cells.statistics(query, boroughCode == null ? -1 : boroughCode));
+			}
+		}
+		return statistics;
+	}
+}
@@ -0,0 +1,150 @@
+package application.query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import application.property.PropertyColumns;
+
+/**
+ * Answers many range queries in one pass over the properties, rather than one pass (or one view) per query.
+ * The price ranges of the queries cut the prices into intervals, no query range cutting through one. The pass adds each property
+ * to the cell of its borough and interval, then each query adds up the cells of its borough (or of every borough) over the
+ * intervals of its price range. The pass costs the same whatever the number of queries, and each query then costs only the number
+ * of intervals it spans, so many queries are answered in about the time of one.
+ *
+ * The pass goes through the rows sorted by price, so each range of rows goes through the intervals in order
+ * and the rows dearer than every query are never read. RangeAccumulator does the same over properties streamed from a file.
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public class RangeBatch {
+
+	/**
+	 * The columns.
+	 */
+	private final PropertyColumns columns;
+
+	/**
+	 * The rows sorted by price.
+	 */
+	private final int[] rowsByPrice;
+
+	/**
+	 * The price histogram, used to skip the rows dearer than every query.
+	 */
+	private final PriceHistogram priceHistogram;
+
+	/**
+	 * Runs the pass.
+	 */
+	private final ParallelAggregator aggregator;
+
+	/**
+	 * Constructs a batch evaluator over the properties of a data store.
+	 * @param columns - the columns.
+	 * @param rowsByPrice - all the rows sorted by price.
+	 * @param priceHistogram - the price histogram of all the rows.
+	 * @param aggregator - runs the pass.
+	 */
+	public RangeBatch(PropertyColumns columns, int[] rowsByPrice, PriceHistogram priceHistogram, ParallelAggregator aggregator) {
+		this.columns = columns;
+		this.rowsByPrice = rowsByPrice;
+		this.priceHistogram = priceHistogram;
+		this.aggregator = aggregator;
+	}
+
+	/**
+	 * Answers queries together.
+	 * @param queries - the queries.
+	 * @return - the statistics of each query, in the order of the queries.
+	 */
+	public List<RangeStatistics> evaluate(List<RangeQuery> queries) {
+		long[] cuts = RangeCells.cuts(queries);
+		int boroughs = columns.getBoroughNames().size();
+		RangeCells cells = new RangeCells(cuts, boroughs);
+		if (cells.getIntervals() > 0) {
+			cells = aggregator.aggregateCoarsely(rowsByPrice, priceHistogram.firstIndex(cuts[cuts.length - 1]), new Pass(cuts, boroughs));
+		}
+		cells.compressPrices();
+		RangeCells everyBorough = cells.everyBorough();
+		List<RangeStatistics> statistics = new ArrayList<>(queries.size());
+		for (RangeQuery query : queries) {
+			statistics.add(query.getBorough() == null ? everyBorough.statistics(query, 0) : cells.statistics(query, columns.getBoroughCode(query.getBorough())));
+		}
+		return statistics;
+	}
+
+	/**
+	 * The pass over the rows, adding each row to the cell of its borough and price interval.
+	 */
+	private class Pass implements Aggregation<RangeCells> {
+
+		/**
+		 * The prices cutting the intervals.
+		 */
+		private final long[] cuts;
+
+		/**
+		 * The number of boroughs.
+		 */
+		private final int boroughs;
+
+		/**
+		 * The room type counted for each room type code, see RangeCells.
+		 */
+		private final int[] roomTypes;
+
+		/**
+		 * Constructs the pass.
+		 * @param cuts - the prices cutting the intervals.
+		 * @param boroughs - the number of boroughs.
+		 */
+		Pass(long[] cuts, int boroughs) {
+			this.cuts = cuts;
+			this.boroughs = boroughs;
+			this.roomTypes = new int[columns.getRoomTypeNames().size()];
+			for (int code = 0; code < roomTypes.length; code++) {
+				roomTypes[code] = RangeAccumulator.roomTypeOf(columns.getRoomTypeNames().get(code));
+			}
+		}
+
+		@Override
+		public RangeCells create() {
+			return new RangeCells(cuts, boroughs);
+		}
+
+		@Override
+		public void accumulate(RangeCells cells, int[] rows, int from, int to) {
+			int[] prices = columns.getPrices();
+			int[] boroughCodes = columns.getBoroughCodes();
+			int[] roomTypeCodes = columns.getRoomTypeCodes();
+			int[] availability365 = columns.getAvailability365();
+			int[] minimumNights = columns.getMinimumNights();
+			int[] numberOfReviews = columns.getNumberOfReviews();
+			int intervals = cuts.length - 1;
+			int interval = -1; //Below the first cut.
+			for (int i = from; i < to; i++) {
+				int row = rows[i];
+				int price = prices[row];
+				while (interval < intervals && price >= cuts[interval + 1]) {
+					interval++;
+				}
+				if (interval == -1) {
+					continue;
+				}
+				if (interval == intervals) {
+					break; //The rows are sorted by price, so every other row is dearer than every query.
+				}
+				cells.add(boroughCodes[row], interval, price, availability365[row] > 0, roomTypes[roomTypeCodes[row]], minimumNights[row],
+						numberOfReviews[row], columns.getProperty(row), row);
+			}
+		}
+
+		@Override
+		public RangeCells merge(RangeCells left, RangeCells right) {
+			for (int borough = 0; borough < boroughs; borough++) {
+				left.add(borough, right, borough);
+			}
+			return left;
+		}
+	}
+}
@@ -0,0 +1,159 @@
+package application.query;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import application.benchmark.BenchmarkData;
+import application.property.NumericColumn;
+import application.property.Property;
+import application.property.PropertyColumns;
+
+class RangeBatchTest {
+
+	/**
+	 * The properties used by the tests.
+	 */
+	private List<Property> properties = BenchmarkData.generate(20000, 11);
+
+	/**
+	 * The columns of the properties.
+	 */
+	private PropertyColumns columns = new PropertyColumns(properties);
+
+	/**
+	 * The price histogram of the properties.
+	 */
+	private PriceHistogram priceHistogram = PriceHistogram.of(columns.getPrices());
+
+	/**
+	 * Tests a grid of overlapping queries against the properties, sequentially and in parallel.
+	 */
+	@Test
+	public void testGrid() {
+		List<RangeQuery> queries = RangeQuery.grid(new int[] {0, 50, 100, 200, 500, 7000}, Arrays.asList("Camden", "Hackney", "Westminster"));
+		for (int parallelism : new int[] {1, 4}) {
+			ParallelAggregator aggregator = new ParallelAggregator(parallelism, 1000);
+			RangeBatch batch = new RangeBatch(columns, priceHistogram.sortRows(columns.getPrices()), priceHistogram, aggregator);
+			List<RangeStatistics> statistics = batch.evaluate(queries);
+			assertEquals(queries.size(), statistics.size());
+			for (int i = 0; i < queries.size(); i++) {
+				assertSame(queries.get(i), statistics.get(i).getQuery());
+				assertStatistics(queries.get(i), statistics.get(i));
+			}
+			aggregator.shutdown();
+		}
+	}
+
+	/**
+	 * Tests that empty ranges, reversed ranges and unknown boroughs give empty statistics.
+	 */
+	@Test
+	public void testEmptyQueries() {
+		RangeBatch batch = new RangeBatch(columns, priceHistogram.sortRows(columns.getPrices()), priceHistogram, new ParallelAggregator(1));
+		List<RangeQuery> queries = Arrays.asList(new RangeQuery(null, 200, 100), new RangeQuery("Nowhere", 0, 7000),
+				new RangeQuery(null, 100000, 200000), new RangeQuery("Camden", 50, 200));
+		List<RangeStatistics> statistics = batch.evaluate(queries);
+		for (int i = 0; i < 3; i++) {
+			assertEquals(0, statistics.get(i).getCount());
+			assertEquals(-1, statistics.get(i).getCheapestPrice());
+			assertEquals(-1, statistics.get(i).getDearestPrice());
+			assertEquals(0, statistics.get(i).getAverageReviews());
+		}
+		assertStatistics(queries.get(3), statistics.get(3));
+		assertEquals(0, batch.evaluate(new ArrayList<>()).size());
+	}
+
+	/**
+	 * Checks the statistics of a query against those worked out from the properties one by one.
+	 * @param query - the query.
+	 * @param statistics - the statistics given for it.
+	 */
+	private void assertStatistics(RangeQuery query, RangeStatistics statistics) {
+		int count = 0;
+		int available = 0;
+		int homes = 0;
+		int privateRooms = 0;
+		int sharedRooms = 0;
+		long totalPrice = 0;
+		long totalStayPrice = 0;
+		long totalReviews = 0;
+		int cheapest = Integer.MAX_VALUE;
+		int dearest = Integer.MIN_VALUE;
+		List<Integer> prices = new ArrayList<>();
+		Property closestToNorthPole = null;
+		Property longestStay = null;
+		Property latestReview = null;
+		for (Property property : properties) {
+			int price = property.getPrice();
+			if (price >= query.getMinimumPrice() && price <= query.getMaximumPrice()
+					&& (query.getBorough() == null || property.getNeighbourhood().equals(query.getBorough()))) {
+				count++;
+				available += property.getAvailability365() > 0 ? 1 : 0;
+				homes += property.getRoomType().equals("Entire home/apt") ? 1 : 0;
+				privateRooms += property.getRoomType().equals("Private room") ? 1 : 0;
+				sharedRooms += property.getRoomType().equals("Shared room") ? 1 : 0;
+				totalPrice += price;
+				totalStayPrice += (long) price * property.getMinimumNights();
+				totalReviews += property.getNumberOfReviews();
+				cheapest = Math.min(cheapest, price);
+				dearest = Math.max(dearest, price);
+				prices.add(price);
+				if (closestToNorthPole == null || property.getLatitude() > closestToNorthPole.getLatitude()) {
+					closestToNorthPole = property;
+				}
+				if (longestStay == null || property.getMinimumNights() > longestStay.getMinimumNights()) {
+					longestStay = property;
+				}
+				if (latestReview == null || NumericColumn.LAST_REVIEW_DATE.valueOf(property) >= NumericColumn.LAST_REVIEW_DATE.valueOf(latestReview)) {
+					latestReview = property;
+				}
+			}
+		}
+		String message = query.toString();
+		assertEquals(count, statistics.getCount(), message);
+		assertEquals(available, statistics.getAvailableProperties(), message);
+		assertEquals(homes, statistics.getNumberOfHomes(), message);
+		assertArrayEquals(new int[] {privateRooms, count - privateRooms - sharedRooms, sharedRooms}, statistics.getNoOfRoomTypes(), message);
+		assertEquals(totalPrice, statistics.getTotalPrice(), message);
+		assertEquals(totalStayPrice, statistics.getTotalStayPrice(), message);
+		assertEquals(count == 0 ? 0 : totalReviews / count, statistics.getAverageReviews(), message);
+		assertEquals(count == 0 ? -1 : cheapest, statistics.getCheapestPrice(), message);
+		assertEquals(count == 0 ? -1 : dearest, statistics.getDearestPrice(), message);
+		assertSame(closestToNorthPole, statistics.getClosestPropertyToNorthPole(), message);
+		assertSame(longestStay, statistics.getLongestStay(), message);
+		assertSame(latestReview, statistics.getLatestReview(), message);
+		if (count == 0) {
+			assertTrue(Double.isNaN(statistics.getMedianPrice()), message);
+		} else {
+			Collections.sort(prices);
+			//The digests of the cells are merged, so the estimates are close in rank to the exact percentiles rather than equal.
+			assertRank(prices, 0.5, statistics.getMedianPrice(), message);
+			assertRank(prices, 0.9, statistics.getPercentile90Price(), message);
+			assertTrue(statistics.getPercentile99Price() >= statistics.getPercentile90Price() && statistics.getPercentile99Price() <= dearest, message);
+		}
+	}
+
+	/**
+	 * Asserts that a price estimated for a percentile is ranked within 3% of it among the prices.
+	 * @param prices - the prices, sorted.
+	 * @param quantile - the percentile, from 0 to 1.
+	 * @param estimate - the price estimated.
+	 * @param message - the message if not.
+	 */
+	private static void assertRank(List<Integer> prices, double quantile, double estimate, String message) {
+		long below = prices.stream().filter(price -> price < estimate).count();
+		long atOrBelow = prices.stream().filter(price -> price <= estimate).count();
+		double tolerance = 0.03 + 1.0 / prices.size();
+		assertTrue((double) below / prices.size() <= quantile + tolerance && (double) atOrBelow / prices.size() >= quantile - tolerance,
+				message + " " + quantile + " estimated at " + estimate);
+	}
+}
@@ -0,0 +1,324 @@
+package application.query;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+import application.property.NumericColumn;
+import application.property.Property;
+
+/**
+ * The statistics of the properties of each borough and price interval, added up to answer range queries (see RangeBatch).
+ * The price ranges of the queries cut the prices into intervals, interval i going from cuts[i] (inclusive) to cuts[i + 1] (exclusive),
+ * and a query is answered by adding up the cells of the intervals between its cuts.
+ * The cells are indexed by borough code times the number of intervals plus the interval, and more boroughs can be added as they are found.
+ * Besides the counts and sums, each cell keeps a digest of its prices, for the median and percentiles, and the property leading
+ * each leaderboard of the statistics screen, so every statistic of a view has its counterpart in the answer to a query.
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+class RangeCells {
+
+	/**
+	 * The room types counted, given to add.
+	 */
+	static final int HOME = 0, PRIVATE_ROOM = 1, SHARED_ROOM = 2, OTHER_ROOM_TYPE = 3;
+
+	/**
+	 * The borough code standing for every borough.
+	 */
+	static final int EVERY_BOROUGH = -2;
+
+	/**
+	 * The leaderboards of the statistics screen kept for each cell: the property closest to the north pole,
+	 * the one with the longest minimum stay and the one with the latest review.
+	 */
+	static final NumericColumn[] LEADERBOARDS = {NumericColumn.LATITUDE, NumericColumn.MINIMUM_NIGHTS, NumericColumn.LAST_REVIEW_DATE};
+
+	/**
+	 * Whether the property later in the data set leads each leaderboard on a tie, as in DataStoreView.
+	 */
+	private static final boolean[] LAST_WINS = {false, false, true};
+
+	/**
+	 * The prices cutting the intervals.
+	 */
+	private final long[] cuts;
+
+	/**
+	 * The number of intervals.
+	 */
+	private final int intervals;
+
+	/**
+	 * The number of boroughs.
+	 */
+	private int boroughs;
+
+	/**
+	 * The counts of each cell.
+	 */
+	private int[] counts, availableProperties, homes, privateRooms, sharedRooms;
+
+	/**
+	 * The sums of each cell.
+	 */
+	private long[] totalPrices, totalStayPrices, totalReviews;
+
+	/**
+	 * The cheapest and dearest prices of each cell.
+	 */
+	private int[] cheapestPrices, dearestPrices;
+
+	/**
+	 * The prices of each cell, null while the cell is empty.
+	 */
+	private TDigest[] prices;
+
+	/**
+	 * The value, the place in the data set and the property leading each leaderboard of each cell,
+	 * indexed by cell times the number of leaderboards plus the leaderboard.
+	 */
+	private double[] leaderValues;
+	private long[] leaderOrders;
+	private Property[] leaders;
+
+	/**
+	 * Constructs empty cells.
+	 * @param cuts - the prices cutting the intervals, see cuts.
+	 * @param boroughs - the number of boroughs.
+	 */
+	RangeCells(long[] cuts, int boroughs) {
+		this.cuts = cuts;
+		this.intervals = Math.max(0, cuts.length - 1);
+		this.counts = new int[0];
+		this.availableProperties = new int[0];
+		this.homes = new int[0];
+		this.privateRooms = new int[0];
+		this.sharedRooms = new int[0];
+		this.totalPrices = new long[0];
+		this.totalStayPrices = new long[0];
+		this.totalReviews = new long[0];
+		this.cheapestPrices = new int[0];
+		this.dearestPrices = new int[0];
+		this.prices = new TDigest[0];
+		this.leaderValues = new double[0];
+		this.leaderOrders = new long[0];
+		this.leaders = new Property[0];
+		ensureBoroughs(boroughs);
+	}
+
+	/**
+	 * Works out the prices cutting the intervals of queries: the minimum price and the price after the maximum of each query.
+	 * @param queries - the queries.
+	 * @return - the cuts, in increasing order.
+	 */
+	static long[] cuts(List<RangeQuery> queries) {
+		TreeSet<Long> cutSet = new TreeSet<>();
+		for (RangeQuery query : queries) {
+			if (query.getMinimumPrice() <= query.getMaximumPrice()) {
+				cutSet.add((long) query.getMinimumPrice());
+				cutSet.add(query.getMaximumPrice() + 1L);
+			}
+		}
+		long[] cuts = new long[cutSet.size()];
+		int i = 0;
+		for (long cut : cutSet) {
+			cuts[i++] = cut;
+		}
+		return cuts;
+	}
+
+	/**
+	 * Get the number of intervals.
+	 * @return - the number of intervals.
+	 */
+	int getIntervals() {
+		return intervals;
+	}
+
+	/**
+	 * Get the interval of a price.
+	 * @param price - the price.
+	 * @return - the interval, -1 if the price is below the first cut or from the last cut.
+	 */
+	int intervalOf(int price) {
+		int index = Arrays.binarySearch(cuts, price);
+		int interval = index >= 0 ? index : -index - 2;
+		return interval < intervals ? interval : -1;
+	}
+
+	/**
+	 * Makes room for more boroughs, the new ones being empty.
+	 * @param boroughs - the number of boroughs wanted.
+	 */
+	void ensureBoroughs(int boroughs) {
+		if (boroughs <= this.boroughs) {
+			return;
+		}
+		int size = boroughs * intervals;
+		int oldSize = counts.length;
+		counts = Arrays.copyOf(counts, size);
+		availableProperties = Arrays.copyOf(availableProperties, size);
+		homes = Arrays.copyOf(homes, size);
+		privateRooms = Arrays.copyOf(privateRooms, size);
+		sharedRooms = Arrays.copyOf(sharedRooms, size);
+		totalPrices = Arrays.copyOf(totalPrices, size);
+		totalStayPrices = Arrays.copyOf(totalStayPrices, size);
+		totalReviews = Arrays.copyOf(totalReviews, size);
+		cheapestPrices = Arrays.copyOf(cheapestPrices, size);
+		dearestPrices = Arrays.copyOf(dearestPrices, size);
+		Arrays.fill(cheapestPrices, oldSize, size, Integer.MAX_VALUE);
+		Arrays.fill(dearestPrices, oldSize, size, Integer.MIN_VALUE);
+		prices = Arrays.copyOf(prices, size);
+		leaderValues = Arrays.copyOf(leaderValues, size * LEADERBOARDS.length);
+		leaderOrders = Arrays.copyOf(leaderOrders, size * LEADERBOARDS.length);
+		leaders = Arrays.copyOf(leaders, size * LEADERBOARDS.length);
+		this.boroughs = boroughs;
+	}
+
+	/**
+	 * Adds a property to the cell of its borough and price interval.
+	 * @param borough - the borough code.
+	 * @param interval - the interval of the price.
+	 * @param price - the price per night.
+	 * @param available - whether the property is available at least once in a year.
+	 * @param roomType - the room type, HOME, PRIVATE_ROOM, SHARED_ROOM or OTHER_ROOM_TYPE.
+	 * @param minimumNights - the minimum number of nights.
+	 * @param reviews - the number of reviews.
+	 * @param property - the property, ranked on the leaderboards.
+	 * @param order - the place of the property in the data set, deciding ties on the leaderboards.
+	 */
+	void add(int borough, int interval, int price, boolean available, int roomType, int minimumNights, int reviews, Property property, long order) {
+		int cell = borough * intervals + interval;
+		if (prices[cell] == null) {
+			prices[cell] = new TDigest(TDigest.DEFAULT_COMPRESSION);
+		}
+		prices[cell].add(price);
+		for (int leaderboard = 0; leaderboard < LEADERBOARDS.length; leaderboard++) {
+			lead(cell * LEADERBOARDS.length + leaderboard, LEADERBOARDS[leaderboard].valueOf(property), order, property);
+		}
+		counts[cell]++;
+		availableProperties[cell] += available ? 1 : 0;
+		homes[cell] += roomType == HOME ? 1 : 0;
+		privateRooms[cell] += roomType == PRIVATE_ROOM ? 1 : 0;
+		sharedRooms[cell] += roomType == SHARED_ROOM ? 1 : 0;
+		totalPrices[cell] += price;
+		totalStayPrices[cell] += (long) price * minimumNights;
+		totalReviews[cell] += reviews;
+		cheapestPrices[cell] = Math.min(cheapestPrices[cell], price);
+		dearestPrices[cell] = Math.max(dearestPrices[cell], price);
+	}
+
+	/**
+	 * Adds the cells of a borough of other cells with the same cuts to the cells of a borough of these.
+	 * @param borough - the borough code in these cells.
+	 * @param other - the other cells.
+	 * @param otherBorough - the borough code in the other cells.
+	 */
+	void add(int borough, RangeCells other, int otherBorough) {
+		for (int interval = 0; interval < intervals; interval++) {
+			addCell(borough * intervals + interval, other, otherBorough * intervals + interval);
+		}
+	}
+
+	/**
+	 * Adds the statistics of one cell to another.
+	 * @param cell - the cell added to.
+	 * @param other - the cells of the cell added.
+	 * @param otherCell - the cell added.
+	 */
+	private void addCell(int cell, RangeCells other, int otherCell) {
+		counts[cell] += other.counts[otherCell];
+		availableProperties[cell] += other.availableProperties[otherCell];
+		homes[cell] += other.homes[otherCell];
+		privateRooms[cell] += other.privateRooms[otherCell];
+		sharedRooms[cell] += other.sharedRooms[otherCell];
+		totalPrices[cell] += other.totalPrices[otherCell];
+		totalStayPrices[cell] += other.totalStayPrices[otherCell];
+		totalReviews[cell] += other.totalReviews[otherCell];
+		cheapestPrices[cell] = Math.min(cheapestPrices[cell], other.cheapestPrices[otherCell]);
+		dearestPrices[cell] = Math.max(dearestPrices[cell], other.dearestPrices[otherCell]);
+		if (other.prices[otherCell] != null) {
+			if (prices[cell] == null) {
+				prices[cell] = new TDigest(TDigest.DEFAULT_COMPRESSION);
+			}
+			prices[cell].merge(other.prices[otherCell]);
+		}
+		for (int leaderboard = 0; leaderboard < LEADERBOARDS.length; leaderboard++) {
+			int otherEntry = otherCell * LEADERBOARDS.length + leaderboard;
+			if (other.leaders[otherEntry] != null) {
+				lead(cell * LEADERBOARDS.length + leaderboard, other.leaderValues[otherEntry], other.leaderOrders[otherEntry], other.leaders[otherEntry]);
+			}
+		}
+	}
+
+	/**
+	 * Puts a property at the top of a leaderboard of a cell if it beats the property there.
+	 * @param entry - the cell times the number of leaderboards plus the leaderboard.
+	 * @param value - the value of the property.
+	 * @param order - the place of the property in the data set.
+	 * @param property - the property.
+	 */
+	private void lead(int entry, double value, long order, Property property) {
+		Property leader = leaders[entry];
+		boolean lastWins = LAST_WINS[entry % LEADERBOARDS.length];
+		if (leader == null || value > leaderValues[entry]
+				|| (value == leaderValues[entry] && (lastWins ? order > leaderOrders[entry] : order < leaderOrders[entry]))) {
+			leaders[entry] = property;
+			leaderValues[entry] = value;
+			leaderOrders[entry] = order;
+		}
+	}
+
+	/**
+	 * Compresses the digest of each cell, so the cells added up for each query merge their centroids
+	 * rather than every price buffered. Called once the cells are filled, before answering queries.
+	 */
+	void compressPrices() {
+		for (TDigest cellPrices : prices) {
+			if (cellPrices != null) {
+				cellPrices.compress();
+			}
+		}
+	}
+
+	/**
+	 * Adds up the cells of every borough into the cells of one, so queries of every borough can be answered from them
+	 * without merging the digests of every borough for each query.
+	 * @return - the cells of a single borough, standing for every borough.
+	 */
+	RangeCells everyBorough() {
+		RangeCells everyBorough = new RangeCells(cuts, 1);
+		for (int borough = 0; borough < boroughs; borough++) {
+			everyBorough.add(0, this, borough);
+		}
+		everyBorough.compressPrices();
+		return everyBorough;
+	}
+
+	/**
+	 * Answers a query by adding up the cells of a borough, or of every borough, over the intervals of its price range.
+	 * A query whose range is not between two cuts, or whose borough is unknown, gets the statistics of no property.
+	 * @param query - the query.
+	 * @param borough - the borough code, EVERY_BOROUGH for every borough or -1 for an unknown borough.
+	 * @return - the statistics.
+	 */
+	RangeStatistics statistics(RangeQuery query, int borough) {
+		int from = Arrays.binarySearch(cuts, query.getMinimumPrice());
+		int to = Arrays.binarySearch(cuts, query.getMaximumPrice() + 1L);
+		RangeCells sum = new RangeCells(new long[] {0, 1}, 1);
+		if (borough != -1 && from >= 0 && to >= 0) {
+			int first = borough == EVERY_BOROUGH ? 0 : borough;
+			int last = borough == EVERY_BOROUGH ? boroughs - 1 : borough;
+			for (int b = first; b <= last; b++) {
+				for (int interval = from; interval < to; interval++) {
+					sum.addCell(0, this, b * intervals + interval);
+				}
+			}
+		}
+		boolean empty = sum.counts[0] == 0;
+		return new RangeStatistics(query, sum.counts[0], sum.availableProperties[0], sum.homes[0], sum.privateRooms[0], sum.sharedRooms[0],
+				sum.totalPrices[0], sum.totalStayPrices[0], sum.totalReviews[0], empty ? -1 : sum.cheapestPrices[0], empty ? -1 : sum.dearestPrices[0],
+				sum.prices[0] == null ? new TDigest() : sum.prices[0], Arrays.copyOf(sum.leaders, LEADERBOARDS.length));
+	}
+}
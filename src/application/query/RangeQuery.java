@@ -0,0 +1,89 @@
+package application.query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A query for the statistics of the properties within a price range, in one borough or in all of them (see RangeBatch).
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public final class RangeQuery {
+
+	/**
+	 * The borough, null for every borough.
+	 */
+	private final String borough;
+
+	/**
+	 * The price range.
+	 */
+	private final int minimumPrice, maximumPrice;
+
+	/**
+	 * Constructs a query.
+	 * @param borough - the borough, normal or formatted name, null for every borough.
+	 * @param minimumPrice - the minimum price.
+	 * @param maximumPrice - the maximum price.
+	 */
+	public RangeQuery(String borough, int minimumPrice, int maximumPrice) {
+		this.borough = borough;
+		this.minimumPrice = minimumPrice;
+		this.maximumPrice = maximumPrice;
+	}
+
+	/**
+	 * Makes the queries for every price range between two prices of a list, for every borough and for each borough.
+	 * @param prices - the prices, e.g. those of the price selectors.
+	 * @param boroughs - the boroughs.
+	 * @return - the queries, borough by borough (every borough first) and by minimum then maximum price.
+	 */
+	public static List<RangeQuery> grid(int[] prices, List<String> boroughs) {
+		List<String> allBoroughs = new ArrayList<>(boroughs.size() + 1);
+		allBoroughs.add(null);
+		allBoroughs.addAll(boroughs);
+		List<RangeQuery> queries = new ArrayList<>();
+		for (String borough : allBoroughs) {
+			for (int minimumPrice : prices) {
+				for (int maximumPrice : prices) {
+					if (minimumPrice <= maximumPrice) {
+						queries.add(new RangeQuery(borough, minimumPrice, maximumPrice));
+					}
+				}
+			}
+		}
+		return queries;
+	}
+
+	/**
+	 * Get the borough.
+	 * @return - the borough, null for every borough.
+	 */
+	public String getBorough() {
+		return borough;
+	}
+
+	/**
+	 * Get the minimum price.
+	 * @return - the minimum price.
+	 */
+	public int getMinimumPrice() {
+		return minimumPrice;
+	}
+
+	/**
+	 * Get the maximum price.
+	 * @return - the maximum price.
+	 */
+	public int getMaximumPrice() {
+		return maximumPrice;
+	}
+
+	/**
+	 * Describes the query, e.g. "Camden £50-£200".
+	 * @return - the description.
+	 */
+	@Override
+	public String toString() {
+		return (borough == null ? "All boroughs" : borough) + " £" + minimumPrice + "-£" + maximumPrice;
+	}
+}
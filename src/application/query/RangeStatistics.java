@@ -0,0 +1,215 @@
+package application.query;
+
+import application.property.Property;
+
+/**
+ * The statistics of the properties within a price range, in one borough or in all of them: the answer to a RangeQuery.
+ * They are those of the statistics, map and borough information screens, so each matches what a view of the data store
+ * for the price range gives.
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public class RangeStatistics {
+
+	/**
+	 * The query.
+	 */
+	private final RangeQuery query;
+
+	/**
+	 * The number of properties, of those available at least once in a year, and of each room type.
+	 */
+	private final int count, availableProperties, homes, privateRooms, sharedRooms;
+
+	/**
+	 * The sum of the nightly prices, of the prices of a stay of the minimum number of nights and of the numbers of reviews.
+	 */
+	private final long totalPrice, totalStayPrice, totalReviews;
+
+	/**
+	 * The cheapest and dearest price, -1 if there is no property.
+	 */
+	private final int cheapestPrice, dearestPrice;
+
+	/**
+	 * The median, 90th and 99th percentile prices, estimated as DataStore.getPriceSummary, NaN if there is no property.
+	 */
+	private final double medianPrice, percentile90Price, percentile99Price;
+
+	/**
+	 * The property closest to the north pole, with the longest minimum stay and with the latest review, null if there is no property.
+	 */
+	private final Property closestToNorthPole, longestStay, latestReview;
+
+	/**
+	 * Constructs the statistics of a query.
+	 * @param query - the query.
+	 * @param count - the number of properties.
+	 * @param availableProperties - the number of properties available at least once in a year.
+	 * @param homes - the number of entire homes or apartments.
+	 * @param privateRooms - the number of private rooms.
+	 * @param sharedRooms - the number of shared rooms.
+	 * @param totalPrice - the sum of the nightly prices.
+	 * @param totalStayPrice - the sum of the prices of a stay of the minimum number of nights.
+	 * @param totalReviews - the sum of the numbers of reviews.
+	 * @param cheapestPrice - the cheapest price, -1 if there is no property.
+	 * @param dearestPrice - the dearest price, -1 if there is no property.
+	 * @param prices - the digest of the prices.
+	 * @param leaders - the leaders of RangeCells.LEADERBOARDS, null if there is no property.
+	 */
+	RangeStatistics(RangeQuery query, int count, int availableProperties, int homes, int privateRooms, int sharedRooms, long totalPrice,
+			long totalStayPrice, long totalReviews, int cheapestPrice, int dearestPrice, TDigest prices, Property[] leaders) {
+		this.query = query;
+		this.count = count;
+		this.availableProperties = availableProperties;
+		this.homes = homes;
+		this.privateRooms = privateRooms;
+		this.sharedRooms = sharedRooms;
+		this.totalPrice = totalPrice;
+		this.totalStayPrice = totalStayPrice;
+		this.totalReviews = totalReviews;
+		this.cheapestPrice = cheapestPrice;
+		this.dearestPrice = dearestPrice;
+		this.medianPrice = prices.quantile(0.5);
+		this.percentile90Price = prices.quantile(0.9);
+		this.percentile99Price = prices.quantile(0.99);
+		this.closestToNorthPole = leaders[0];
+		this.longestStay = leaders[1];
+		this.latestReview = leaders[2];
+	}
+
+	/**
+	 * Get the query.
+	 * @return - the query.
+	 */
+	public RangeQuery getQuery() {
+		return query;
+	}
+
+	/**
+	 * Get the number of properties.
+	 * @return - the number of properties.
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Get the number of properties available at least once in a year.
+	 * @return - the number of available properties.
+	 */
+	public int getAvailableProperties() {
+		return availableProperties;
+	}
+
+	/**
+	 * Get the number of entire homes or apartments.
+	 * @return - the number of homes.
+	 */
+	public int getNumberOfHomes() {
+		return homes;
+	}
+
+	/**
+	 * Get the number of properties of each room type, as DataStoreView.getNoOfRoomTypes.
+	 * @return - the number of private rooms, of other properties (apartments) and of shared rooms.
+	 */
+	public int[] getNoOfRoomTypes() {
+		return new int[] {privateRooms, count - privateRooms - sharedRooms, sharedRooms};
+	}
+
+	/**
+	 * Get the sum of the nightly prices.
+	 * @return - the total nightly price.
+	 */
+	public long getTotalPrice() {
+		return totalPrice;
+	}
+
+	/**
+	 * Get the average nightly price.
+	 * @return - the average price, 0 if there is no property.
+	 */
+	public double getAveragePrice() {
+		return count == 0 ? 0 : (double) totalPrice / count;
+	}
+
+	/**
+	 * Get the sum of the prices of a stay of the minimum number of nights at each property, as DataStoreView.getTotalBoroughPrice.
+	 * @return - the total stay price.
+	 */
+	public long getTotalStayPrice() {
+		return totalStayPrice;
+	}
+
+	/**
+	 * Get the average number of reviews, rounded down as DataStoreView.averageReviews.
+	 * @return - the average number of reviews, 0 if there is no property.
+	 */
+	public double getAverageReviews() {
+		return count == 0 ? 0 : totalReviews / count;
+	}
+
+	/**
+	 * Get the cheapest price.
+	 * @return - the cheapest price, -1 if there is no property.
+	 */
+	public int getCheapestPrice() {
+		return cheapestPrice;
+	}
+
+	/**
+	 * Get the dearest price.
+	 * @return - the dearest price, -1 if there is no property.
+	 */
+	public int getDearestPrice() {
+		return dearestPrice;
+	}
+
+	/**
+	 * Get the median price, as the price summary of the borough information screen.
+	 * @return - the estimated median price, NaN if there is no property.
+	 */
+	public double getMedianPrice() {
+		return medianPrice;
+	}
+
+	/**
+	 * Get the price 90% of the properties are cheaper than.
+	 * @return - the estimated 90th percentile price, NaN if there is no property.
+	 */
+	public double getPercentile90Price() {
+		return percentile90Price;
+	}
+
+	/**
+	 * Get the price 99% of the properties are cheaper than.
+	 * @return - the estimated 99th percentile price, NaN if there is no property.
+	 */
+	public double getPercentile99Price() {
+		return percentile99Price;
+	}
+
+	/**
+	 * Get the property with the greatest latitude, as DataStoreView.getClosestPropertyToNorthPole.
+	 * @return - the property, null if there is no property.
+	 */
+	public Property getClosestPropertyToNorthPole() {
+		return closestToNorthPole;
+	}
+
+	/**
+	 * Get the property with the longest minimum number of nights, as DataStoreView.getLongestStay.
+	 * @return - the property, null if there is no property.
+	 */
+	public Property getLongestStay() {
+		return longestStay;
+	}
+
+	/**
+	 * Get the property with the latest review, as DataStoreView.getLatestReview.
+	 * @return - the property, null if there is no property.
+	 */
+	public Property getLatestReview() {
+		return latestReview;
+	}
+}
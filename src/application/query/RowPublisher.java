@@ -0,0 +1,209 @@
+package application.query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntPredicate;
+
+import application.property.Property;
+import application.property.PropertyColumns;
+
+/**
+ * Publishes the properties at a selection of rows in batches, only as fast as each subscriber asks for them.
+ * A batch is built from the rows when it is requested, so a subscriber that only shows the first page of a result
+ * never causes the rest of the result to be copied. The rows must not change once published, DataStore hands out
+ * a new selection array whenever the price range changes.
+ *
+ * Each subscription is delivered on the executor, one signal at a time, following the rules of java.util.concurrent.Flow:
+ * requesting a negative or zero number of batches cancels the subscription with an IllegalArgumentException,
+ * and the subscription is complete once the rows run out.
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public class RowPublisher implements Flow.Publisher<List<Property>> {
+
+	/**
+	 * The number of properties in a batch when not given.
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 256;
+
+	/**
+	 * The properties.
+	 */
+	private final PropertyColumns columns;
+
+	/**
+	 * The rows to publish.
+	 */
+	private final int[] rows;
+
+	/**
+	 * The number of rows to publish.
+	 */
+	private final int size;
+
+	/**
+	 * The rows to keep, null to keep every row.
+	 */
+	private final IntPredicate filter;
+
+	/**
+	 * The largest number of properties in a batch.
+	 */
+	private final int batchSize;
+
+	/**
+	 * Delivers the batches to the subscribers.
+	 */
+	private final Executor executor;
+
+	/**
+	 * Constructs a publisher.
+	 * @param columns - the properties.
+	 * @param rows - the rows, not changed once published.
+	 * @param size - the number of rows.
+	 * @param filter - the rows to keep, or null to keep every row.
+	 * @param batchSize - the largest number of properties in a batch.
+	 * @param executor - delivers the batches to the subscribers.
+	 */
+	public RowPublisher(PropertyColumns columns, int[] rows, int size, IntPredicate filter, int batchSize, Executor executor) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("The batch size must be positive: " + batchSize);
+		}
+		this.columns = columns;
+		this.rows = rows;
+		this.size = size;
+		this.filter = filter;
+		this.batchSize = batchSize;
+		this.executor = executor;
+	}
+
+	@Override
+	public void subscribe(Flow.Subscriber<? super List<Property>> subscriber) {
+		RowSubscription subscription = new RowSubscription(subscriber);
+		subscriber.onSubscribe(subscription);
+	}
+
+	/**
+	 * A subscription, delivering a batch for each batch requested.
+	 * Requests and cancellations may come from any thread, the batches are built and delivered by a single drain
+	 * on the executor at a time, which the work counter hands over.
+	 */
+	private class RowSubscription implements Flow.Subscription, Runnable {
+
+		/**
+		 * The subscriber.
+		 */
+		private final Flow.Subscriber<? super List<Property>> subscriber;
+
+		/**
+		 * The number of batches requested and not yet delivered.
+		 */
+		private final AtomicLong demand = new AtomicLong();
+
+		/**
+		 * The number of requests and cancellations not yet seen by a drain.
+		 */
+		private final AtomicInteger work = new AtomicInteger();
+
+		/**
+		 * Whether the subscription is cancelled or complete.
+		 */
+		private volatile boolean done;
+
+		/**
+		 * The error to signal, from a request that was not positive.
+		 */
+		private volatile Throwable error;
+
+		/**
+		 * The index of the next row, only used by the drain.
+		 */
+		private int next;
+
+		/**
+		 * Constructs a subscription.
+		 * @param subscriber - the subscriber.
+		 */
+		RowSubscription(Flow.Subscriber<? super List<Property>> subscriber) {
+			this.subscriber = subscriber;
+		}
+
+		@Override
+		public void request(long n) {
+			if (n <= 0) {
+				error = new IllegalArgumentException("The number of batches requested must be positive: " + n);
+			} else {
+				demand.getAndAccumulate(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+			}
+			schedule();
+		}
+
+		@Override
+		public void cancel() {
+			done = true;
+			schedule();
+		}
+
+		/**
+		 * Starts a drain unless one is already running, which will then see the new work.
+		 */
+		private void schedule() {
+			if (work.getAndIncrement() == 0) {
+				executor.execute(this);
+			}
+		}
+
+		@Override
+		public void run() {
+			int missed = 1;
+			while (true) {
+				drain();
+				missed = work.addAndGet(-missed);
+				if (missed == 0) {
+					return;
+				}
+			}
+		}
+
+		/**
+		 * Delivers as many batches as requested, the error or the completion.
+		 */
+		private void drain() {
+			while (!done) {
+				if (error != null) {
+					done = true;
+					subscriber.onError(error);
+					return;
+				}
+				if (next >= size) {
+					done = true;
+					subscriber.onComplete();
+					return;
+				}
+				if (demand.get() == 0) {
+					return;
+				}
+				List<Property> batch = new ArrayList<>(Math.min(batchSize, size - next));
+				while (batch.size() < batchSize && next < size) {
+					int row = rows[next++];
+					if (filter == null || filter.test(row)) {
+						batch.add(columns.getProperty(row));
+					}
+				}
+				if (!batch.isEmpty()) {
+					demand.decrementAndGet();
+					try {
+						subscriber.onNext(batch);
+					} catch (RuntimeException e) {
+						done = true;
+						System.out.println("A subscriber failed on a batch of properties, cancelling its subscription.");
+						e.printStackTrace();
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,130 @@
+package application.query;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import application.benchmark.BenchmarkData;
+import application.property.Property;
+import application.property.PropertyColumns;
+
+class RowPublisherTest {
+
+	/**
+	 * The columns of the properties used by the tests.
+	 */
+	private PropertyColumns columns = new PropertyColumns(BenchmarkData.generate(5000, 3));
+
+	/**
+	 * A subscriber keeping every signal, requesting nothing by itself.
+	 */
+	private static class RecordingSubscriber implements Flow.Subscriber<List<Property>> {
+
+		/**
+		 * The subscription.
+		 */
+		private volatile Flow.Subscription subscription;
+
+		/**
+		 * The batches received.
+		 */
+		private final List<List<Property>> batches = new ArrayList<>();
+
+		/**
+		 * The error received, if any.
+		 */
+		private volatile Throwable error;
+
+		/**
+		 * Whether the subscription completed.
+		 */
+		private volatile boolean complete;
+
+		@Override
+		public void onSubscribe(Flow.Subscription subscription) {
+			this.subscription = subscription;
+		}
+
+		@Override
+		public synchronized void onNext(List<Property> batch) {
+			batches.add(batch);
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+			this.error = throwable;
+		}
+
+		@Override
+		public void onComplete() {
+			this.complete = true;
+		}
+
+		/**
+		 * Get the number of batches received.
+		 * @return - the number of batches.
+		 */
+		synchronized int size() {
+			return batches.size();
+		}
+	}
+
+	/**
+	 * Tests that batches are only delivered when requested, filtered and in the order of the rows.
+	 */
+	@Test
+	public void testBackPressure() {
+		int[] rows = new int[columns.size()];
+		for (int row = 0; row < rows.length; row++) {
+			rows[row] = row;
+		}
+		int camden = columns.getBoroughCode("Camden");
+		RowPublisher publisher = new RowPublisher(columns, rows, rows.length, row -> columns.getBoroughCodes()[row] == camden, 10, Runnable::run);
+		RecordingSubscriber subscriber = new RecordingSubscriber();
+		publisher.subscribe(subscriber);
+		assertEquals(0, subscriber.size());
+		subscriber.subscription.request(2);
+		assertEquals(2, subscriber.size());
+		assertEquals(10, subscriber.batches.get(0).size());
+		subscriber.subscription.request(Long.MAX_VALUE);
+		subscriber.subscription.request(Long.MAX_VALUE);
+		assertTrue(subscriber.complete);
+		List<Property> expected = new ArrayList<>();
+		for (int row = 0; row < columns.size(); row++) {
+			if (columns.getBoroughCodes()[row] == camden) {
+				expected.add(columns.getProperty(row));
+			}
+		}
+		List<Property> received = new ArrayList<>();
+		subscriber.batches.forEach(received::addAll);
+		assertEquals(expected, received);
+	}
+
+	/**
+	 * Tests cancelling a subscription and requesting a number of batches that is not positive, on another thread.
+	 */
+	@Test
+	public void testCancelAndError() {
+		int[] rows = new int[columns.size()];
+		RowPublisher publisher = new RowPublisher(columns, rows, rows.length, null, 100, ForkJoinPool.commonPool());
+		RecordingSubscriber cancelled = new RecordingSubscriber();
+		publisher.subscribe(cancelled);
+		cancelled.subscription.cancel();
+		cancelled.subscription.request(5);
+		RecordingSubscriber failed = new RecordingSubscriber();
+		publisher.subscribe(failed);
+		failed.subscription.request(0);
+		ForkJoinPool.commonPool().awaitQuiescence(10, TimeUnit.SECONDS);
+		assertEquals(0, cancelled.size());
+		assertTrue(!cancelled.complete && cancelled.error == null);
+		assertTrue(failed.error instanceof IllegalArgumentException);
+		assertEquals(0, failed.size());
+	}
+}
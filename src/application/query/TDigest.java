@@ -0,0 +1,328 @@
+package application.query;
+
+import java.util.Arrays;
+
+/**
+ * A t-digest, a mergeable sketch of a distribution used to estimate quantiles (median, 90th percentile...).
+ * Values are summarised by centroids (a mean and a weight). Centroids near the middle of the distribution may absorb
+ * many values while those near the tails stay small, so extreme quantiles remain accurate. The number of centroids is
+ * bounded by the compression, whatever the number of values added, and two digests merge into a digest of the union.
+ * This is the merging variant with the arcsine scale function, see Dunning and Ertl, "Computing extremely accurate
+ * quantiles using t-digests".
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public class TDigest {
+
+	/**
+	 * The default compression, giving at most about 100 centroids.
+	 */
+	public static final double DEFAULT_COMPRESSION = 100;
+
+	/**
+	 * The compression, bounding the number of centroids.
+	 */
+	private final double compression;
+
+	/**
+	 * The most entries (centroids and buffered values) held before compressing.
+	 */
+	private final int capacity;
+
+	/**
+	 * The means and weights of the centroids and of the values added since the last compression.
+	 * The arrays start small and grow up to the capacity, so a digest of a few values stays small.
+	 * The first centroidCount entries are the centroids, sorted by mean, the next bufferCount entries the buffered values.
+	 */
+	private double[] means;
+	private double[] weights;
+	private int centroidCount;
+	private int bufferCount;
+
+	/**
+	 * The total weight of the centroids and buffered values.
+	 */
+	private double totalWeight;
+
+	/**
+	 * The smallest and greatest values added.
+	 */
+	private double min = Double.POSITIVE_INFINITY;
+	private double max = Double.NEGATIVE_INFINITY;
+
+	/**
+	 * Constructs an empty digest.
+	 * @param compression - the compression, bounding the number of centroids.
+	 */
+	public TDigest(double compression) {
+		if (compression < 10) {
+			throw new IllegalArgumentException("Compression must be at least 10: " + compression);
+		}
+		this.compression = compression;
+		this.capacity = (int) Math.ceil(compression) * 6;
+		this.means = new double[16];
+		this.weights = new double[16];
+	}
+
+	/**
+	 * Constructs an empty digest with the default compression.
+	 */
+	public TDigest() {
+		this(DEFAULT_COMPRESSION);
+	}
+
+	/**
+	 * Adds a value.
+	 * @param value - the value.
+	 */
+	public void add(double value) {
+		add(value, 1);
+	}
+
+	/**
+	 * Adds a value a number of times.
+	 * @param value - the value.
+	 * @param weight - the number of times, must be positive.
+	 */
+	public void add(double value, double weight) {
+		if (centroidCount + bufferCount == means.length) {
+			if (means.length < capacity) {
+				means = Arrays.copyOf(means, Math.min(capacity, means.length * 2));
+				weights = Arrays.copyOf(weights, means.length);
+			} else {
+				compress();
+			}
+		}
+		means[centroidCount + bufferCount] = value;
+		weights[centroidCount + bufferCount] = weight;
+		bufferCount++;
+		totalWeight += weight;
+		min = Math.min(min, value);
+		max = Math.max(max, value);
+	}
+
+	/**
+	 * Adds every value of another digest to this one.
+	 * The other digest is not changed.
+	 * @param other - the other digest.
+	 */
+	public void merge(TDigest other) {
+		if (other == this) {
+			throw new IllegalArgumentException("A digest cannot be merged into itself.");
+		}
+		int otherCount = other.centroidCount + other.bufferCount;
+		for (int i = 0; i < otherCount; i++) {
+			add(other.means[i], other.weights[i]);
+		}
+		min = Math.min(min, other.min);
+		max = Math.max(max, other.max);
+	}
+
+	/**
+	 * Merges the buffered values into the centroids.
+	 * Adjacent centroids are combined as long as they span less than one unit of the scale function.
+	 * Worth calling before merging a digest into many others, so they take its centroids rather than every value buffered.
+	 */
+	void compress() {
+		if (bufferCount == 0) {
+			return;
+		}
+		int count = centroidCount + bufferCount;
+		sort(means, weights, 0, count - 1);
+		int merged = 0;
+		double weightSoFar = 0;
+		double currentMean = means[0];
+		double currentWeight = weights[0];
+		double leftScale = scale(0);
+		for (int i = 1; i < count; i++) {
+			double proposedWeight = currentWeight + weights[i];
+			if (scale((weightSoFar + proposedWeight) / totalWeight) - leftScale <= 1) {
+				currentMean += (means[i] - currentMean) * weights[i] / proposedWeight;
+				currentWeight = proposedWeight;
+			} else {
+				means[merged] = currentMean;
+				weights[merged] = currentWeight;
+				merged++;
+				weightSoFar += currentWeight;
+				leftScale = scale(weightSoFar / totalWeight);
+				currentMean = means[i];
+				currentWeight = weights[i];
+			}
+		}
+		means[merged] = currentMean;
+		weights[merged] = currentWeight;
+		centroidCount = merged + 1;
+		bufferCount = 0;
+	}
+
+	/**
+	 * The arcsine scale function, mapping a quantile to a number of centroid widths.
+	 * @param quantile - the quantile.
+	 * @return - the scale.
+	 */
+	private double scale(double quantile) {
+		return compression / (2 * Math.PI) * Math.asin(2 * Math.min(1, quantile) - 1);
+	}
+
+	/**
+	 * Get the number of values added.
+	 * @return - the total weight.
+	 */
+	public double size() {
+		return totalWeight;
+	}
+
+	/**
+	 * Get the number of centroids once compressed, which is bounded by the compression.
+	 * @return - the number of centroids.
+	 */
+	public int centroidCount() {
+		compress();
+		return centroidCount;
+	}
+
+	/**
+	 * Get the smallest value added.
+	 * @return - the smallest value, NaN if empty.
+	 */
+	public double getMin() {
+		return totalWeight == 0 ? Double.NaN : min;
+	}
+
+	/**
+	 * Get the greatest value added.
+	 * @return - the greatest value, NaN if empty.
+	 */
+	public double getMax() {
+		return totalWeight == 0 ? Double.NaN : max;
+	}
+
+	/**
+	 * Estimates a quantile.
+	 * The centroids are treated as points at the middle of their weight, and the quantile is interpolated between them.
+	 * @param quantile - the quantile, between 0 and 1 (0.5 for the median).
+	 * @return - the estimated value at that quantile, NaN if empty.
+	 */
+	public double quantile(double quantile) {
+		if (quantile < 0 || quantile > 1) {
+			throw new IllegalArgumentException("Quantile must be between 0 and 1: " + quantile);
+		}
+		compress();
+		if (centroidCount == 0) {
+			return Double.NaN;
+		}
+		double target = quantile * totalWeight;
+		double weightSoFar = 0;
+		double previousCentre = 0;
+		double previousMean = min;
+		for (int i = 0; i < centroidCount; i++) {
+			double centre = weightSoFar + weights[i] / 2;
+			if (target < centre) {
+				return interpolate(previousMean, means[i], (target - previousCentre) / (centre - previousCentre));
+			}
+			weightSoFar += weights[i];
+			previousCentre = centre;
+			previousMean = means[i];
+		}
+		return interpolate(previousMean, max, (target - previousCentre) / (totalWeight - previousCentre));
+	}
+
+	/**
+	 * Estimates the fraction of values smaller than or equal to a value.
+	 * @param value - the value.
+	 * @return - the estimated fraction, between 0 and 1, NaN if empty.
+	 */
+	public double cdf(double value) {
+		compress();
+		if (centroidCount == 0) {
+			return Double.NaN;
+		}
+		if (value < min) {
+			return 0;
+		}
+		if (value >= max) {
+			return 1;
+		}
+		double weightSoFar = 0;
+		double previousCentre = 0;
+		double previousMean = min;
+		for (int i = 0; i < centroidCount; i++) {
+			double centre = weightSoFar + weights[i] / 2;
+			if (value < means[i]) {
+				return interpolate(previousCentre, centre, (value - previousMean) / (means[i] - previousMean)) / totalWeight;
+			}
+			weightSoFar += weights[i];
+			previousCentre = centre;
+			previousMean = means[i];
+		}
+		return interpolate(previousCentre, totalWeight, (value - previousMean) / (max - previousMean)) / totalWeight;
+	}
+
+	/**
+	 * Linear interpolation between two values.
+	 * @param from - the first value.
+	 * @param to - the second value.
+	 * @param fraction - how far between the two, clamped between 0 and 1.
+	 * @return - the interpolated value.
+	 */
+	private static double interpolate(double from, double to, double fraction) {
+		if (Double.isNaN(fraction)) {
+			return from;
+		}
+		return from + (to - from) * Math.max(0, Math.min(1, fraction));
+	}
+
+	/**
+	 * Sorts two parallel arrays by the first one (quick sort, insertion sort for short ranges).
+	 * @param keys - the keys.
+	 * @param values - the values, moved along with their keys.
+	 * @param low - the first index (inclusive).
+	 * @param high - the last index (inclusive).
+	 */
+	private static void sort(double[] keys, double[] values, int low, int high) {
+		while (high - low > 16) {
+			double pivot = keys[(low + high) >>> 1];
+			int i = low;
+			int j = high;
+			while (i <= j) {
+				while (keys[i] < pivot) {
+					i++;
+				}
+				while (keys[j] > pivot) {
+					j--;
+				}
+				if (i <= j) {
+					swap(keys, values, i++, j--);
+				}
+			}
+			//Recurse into the smaller half so the stack stays shallow.
+			if (j - low < high - i) {
+				sort(keys, values, low, j);
+				low = i;
+			} else {
+				sort(keys, values, i, high);
+				high = j;
+			}
+		}
+		for (int i = low + 1; i <= high; i++) {
+			for (int j = i; j > low && keys[j - 1] > keys[j]; j--) {
+				swap(keys, values, j - 1, j);
+			}
+		}
+	}
+
+	/**
+	 * Swaps two entries of two parallel arrays.
+	 * @param keys - the keys.
+	 * @param values - the values.
+	 * @param i - the first index.
+	 * @param j - the second index.
+	 */
+	private static void swap(double[] keys, double[] values, int i, int j) {
+		double key = keys[i];
+		keys[i] = keys[j];
+		keys[j] = key;
+		double value = values[i];
+		values[i] = values[j];
+		values[j] = value;
+	}
+}
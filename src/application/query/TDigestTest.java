@@ -0,0 +1,62 @@
+package application.query;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class TDigestTest {
+
+	/**
+	 * Tests the quantiles of a skewed distribution against the exact values.
+	 */
+	@Test
+	public void testQuantiles() {
+		Random random = new Random(1);
+		double[] values = new double[100000];
+		TDigest digest = new TDigest();
+		for (int i = 0; i < values.length; i++) {
+			values[i] = Math.exp(random.nextGaussian()) * 80;
+			digest.add(values[i]);
+		}
+		Arrays.sort(values);
+		for (double quantile : new double[] {0.01, 0.5, 0.9, 0.99}) {
+			double exact = values[(int) (quantile * values.length)];
+			assertEquals(exact, digest.quantile(quantile), exact * 0.02);
+		}
+		assertEquals(values[0], digest.quantile(0), 0);
+		assertEquals(values[values.length - 1], digest.quantile(1), 0);
+		assertEquals(0.5, digest.cdf(values[values.length / 2]), 0.01);
+		assertTrue(digest.centroidCount() <= 100);
+	}
+
+	/**
+	 * Tests that merging two digests gives the digest of both sets of values.
+	 */
+	@Test
+	public void testMerge() {
+		TDigest low = new TDigest();
+		TDigest high = new TDigest();
+		for (int i = 0; i < 1000; i++) {
+			low.add(i);
+			high.add(1000 + i, 2);
+		}
+		low.merge(high);
+		assertEquals(3000, low.size(), 0);
+		assertEquals(1250, low.quantile(0.5), 15);
+		assertEquals(0, low.getMin(), 0);
+		assertEquals(1999, low.getMax(), 0);
+	}
+
+	/**
+	 * Tests the empty digest.
+	 */
+	@Test
+	public void testEmpty() {
+		assertTrue(Double.isNaN(new TDigest().quantile(0.5)));
+		assertTrue(Double.isNaN(new TDigest().cdf(1)));
+	}
+}
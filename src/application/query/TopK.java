@@ -0,0 +1,170 @@
+package application.query;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the k rows with the greatest values seen, in a bounded heap of primitives.
+ * The heap is a min-heap on the values, so the worst of the k rows kept is at the root and a new row only has to beat it.
+ * Offering n rows costs O(n log k) and the memory is O(k), whatever n.
+ * Rows with the same value are ranked by row, either the first or the last row winning, so the result does not depend
+ * on the order the rows are offered in, and partial heaps can be merged in any order.
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public class TopK {
+
+	/**
+	 * The number of rows kept.
+	 */
+	private final int k;
+
+	/**
+	 * Whether the last row wins a tie rather than the first.
+	 */
+	private final boolean lastWins;
+
+	/**
+	 * The values and rows of the heap, the worst at index 0.
+	 */
+	private final double[] values;
+	private final int[] rows;
+
+	/**
+	 * The number of rows in the heap.
+	 */
+	private int size;
+
+	/**
+	 * Constructs an empty heap.
+	 * @param k - the number of rows to keep.
+	 * @param lastWins - true for the last row to win a tie, false for the first.
+	 */
+	public TopK(int k, boolean lastWins) {
+		if (k < 0) {
+			throw new IllegalArgumentException("k must not be negative: " + k);
+		}
+		this.k = k;
+		this.lastWins = lastWins;
+		this.values = new double[k];
+		this.rows = new int[k];
+	}
+
+	/**
+	 * Offers a row.
+	 * NaN values are ignored.
+	 * @param value - the value of the row.
+	 * @param row - the row.
+	 */
+	public void offer(double value, int row) {
+		if (Double.isNaN(value) || k == 0) {
+			return;
+		}
+		if (size < k) {
+			values[size] = value;
+			rows[size] = row;
+			siftUp(size++);
+		} else if (isBetter(value, row, values[0], rows[0])) {
+			values[0] = value;
+			rows[0] = row;
+			siftDown(0);
+		}
+	}
+
+	/**
+	 * Offers every row of another heap.
+	 * @param other - the other heap.
+	 */
+	public void merge(TopK other) {
+		for (int i = 0; i < other.size; i++) {
+			offer(other.values[i], other.rows[i]);
+		}
+	}
+
+	/**
+	 * Get the number of rows kept so far.
+	 * @return - the number of rows, at most k.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Get the rows kept, best first.
+	 * @return - the rows.
+	 */
+	public int[] getRows() {
+		Integer[] order = new Integer[size];
+		for (int i = 0; i < size; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, (a, b) -> isBetter(values[a], rows[a], values[b], rows[b]) ? -1 : isBetter(values[b], rows[b], values[a], rows[a]) ? 1 : 0);
+		int[] sortedRows = new int[size];
+		for (int i = 0; i < size; i++) {
+			sortedRows[i] = rows[order[i]];
+		}
+		return sortedRows;
+	}
+
+	/**
+	 * Compares two rows.
+	 * @param value - the value of the first row.
+	 * @param row - the first row.
+	 * @param otherValue - the value of the second row.
+	 * @param otherRow - the second row.
+	 * @return - true if the first row ranks before the second.
+	 */
+	private boolean isBetter(double value, int row, double otherValue, int otherRow) {
+		if (value != otherValue) {
+			return value > otherValue;
+		}
+		return lastWins ? row > otherRow : row < otherRow;
+	}
+
+	/**
+	 * Moves an entry up the heap until its parent is worse.
+	 * @param i - the index of the entry.
+	 */
+	private void siftUp(int i) {
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (!isBetter(values[parent], rows[parent], values[i], rows[i])) {
+				break;
+			}
+			swap(i, parent);
+			i = parent;
+		}
+	}
+
+	/**
+	 * Moves an entry down the heap until its children are better.
+	 * @param i - the index of the entry.
+	 */
+	private void siftDown(int i) {
+		while (true) {
+			int worst = i;
+			for (int child = i * 2 + 1; child <= i * 2 + 2 && child < size; child++) {
+				if (isBetter(values[worst], rows[worst], values[child], rows[child])) {
+					worst = child;
+				}
+			}
+			if (worst == i) {
+				return;
+			}
+			swap(i, worst);
+			i = worst;
+		}
+	}
+
+	/**
+	 * Swaps two entries of the heap.
+	 * @param i - the first index.
+	 * @param j - the second index.
+	 */
+	private void swap(int i, int j) {
+		double value = values[i];
+		values[i] = values[j];
+		values[j] = value;
+		int row = rows[i];
+		rows[i] = rows[j];
+		rows[j] = row;
+	}
+}
@@ -0,0 +1,58 @@
+package application.query;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class TopKTest {
+
+	/**
+	 * Tests the top rows against a full sort, sequentially and with per-thread heaps merged.
+	 */
+	@Test
+	public void testAgainstSort() {
+		Random random = new Random(5);
+		int[] column = new int[100000];
+		int[] rows = new int[column.length];
+		Integer[] sorted = new Integer[column.length];
+		for (int row = 0; row < column.length; row++) {
+			column[row] = random.nextInt(1000); //Many ties.
+			rows[row] = row;
+			sorted[row] = row;
+		}
+		Arrays.sort(sorted, Comparator.comparingInt((Integer row) -> -column[row]).thenComparingInt(row -> row));
+		int[] expected = new int[10];
+		for (int i = 0; i < expected.length; i++) {
+			expected[i] = sorted[i];
+		}
+		ParallelAggregator sequential = new ParallelAggregator(1);
+		ParallelAggregator parallel = new ParallelAggregator(4, 1000);
+		assertArrayEquals(expected, sequential.topK(rows, rows.length, 10, row -> column[row], false));
+		assertArrayEquals(expected, parallel.topK(rows, rows.length, 10, row -> column[row], false));
+		parallel.shutdown();
+	}
+
+	/**
+	 * Tests the tie-break and a heap holding fewer rows than k.
+	 */
+	@Test
+	public void testTies() {
+		TopK firstWins = new TopK(3, false);
+		TopK lastWins = new TopK(3, true);
+		for (int row : new int[] {4, 1, 3, 2}) {
+			firstWins.offer(row == 3 ? 5 : 7, row);
+			lastWins.offer(row == 3 ? 5 : 7, row);
+		}
+		assertArrayEquals(new int[] {1, 2, 4}, firstWins.getRows());
+		assertArrayEquals(new int[] {4, 2, 1}, lastWins.getRows());
+		TopK few = new TopK(5, false);
+		few.offer(1, 8);
+		few.offer(Double.NaN, 9);
+		few.offer(2, 7);
+		assertArrayEquals(new int[] {7, 8}, few.getRows());
+	}
+}
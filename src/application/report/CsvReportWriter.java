@@ -0,0 +1,100 @@
+package application.report;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import application.query.RangeStatistics;
+
+/**
+ * Writes a report as a csv file with a header row, leaving a value empty where there is none (e.g. the cheapest price of no property).
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public class CsvReportWriter extends ReportWriter {
+
+	/**
+	 * Whether the header row has been written.
+	 */
+	private boolean headerWritten;
+
+	/**
+	 * Constructs a csv report writer.
+	 * @param out - the buffered writer over the file channel.
+	 */
+	CsvReportWriter(Writer out) {
+		super(out);
+	}
+
+	@Override
+	public void write(RangeStatistics statistics, String priciestBorough) throws IOException {
+		if (!headerWritten) {
+			out.write(String.join(",", COLUMNS));
+			out.write('\n');
+			headerWritten = true;
+		}
+		writeText(statistics.getQuery().getBorough() == null ? "All boroughs" : statistics.getQuery().getBorough());
+		out.write(',');
+		out.write(Integer.toString(statistics.getQuery().getMinimumPrice()));
+		out.write(',');
+		out.write(Integer.toString(statistics.getQuery().getMaximumPrice()));
+		out.write(',');
+		out.write(Integer.toString(statistics.getCount()));
+		out.write(',');
+		out.write(Integer.toString(statistics.getAvailableProperties()));
+		out.write(',');
+		out.write(Integer.toString(statistics.getNumberOfHomes()));
+		out.write(',');
+		out.write(Integer.toString(statistics.getNoOfRoomTypes()[0]));
+		out.write(',');
+		out.write(Integer.toString(statistics.getNoOfRoomTypes()[2]));
+		out.write(',');
+		out.write(Double.toString(round(statistics.getAveragePrice())));
+		out.write(',');
+		out.write(Long.toString(statistics.getTotalStayPrice()));
+		out.write(',');
+		out.write(Double.toString(round(statistics.getAverageReviews())));
+		out.write(',');
+		if (statistics.getCount() > 0) {
+			out.write(Integer.toString(statistics.getCheapestPrice()));
+		}
+		out.write(',');
+		if (statistics.getCount() > 0) {
+			out.write(Integer.toString(statistics.getDearestPrice()));
+		}
+		out.write(',');
+		if (priciestBorough != null) {
+			writeText(priciestBorough);
+		}
+		if (statistics.getCount() > 0) {
+			out.write(',');
+			out.write(Double.toString(round(statistics.getMedianPrice())));
+			out.write(',');
+			out.write(Double.toString(round(statistics.getPercentile90Price())));
+			out.write(',');
+			out.write(Double.toString(round(statistics.getPercentile99Price())));
+			out.write(',');
+			writeText(idOf(statistics.getClosestPropertyToNorthPole()));
+			out.write(',');
+			writeText(idOf(statistics.getLongestStay()));
+			out.write(',');
+			writeText(idOf(statistics.getLatestReview()));
+		} else {
+			out.write(",,,,,,");
+		}
+		out.write('\n');
+	}
+
+	/**
+	 * Writes a text value, quoted if it holds a comma, a quote or a line break.
+	 * @param text - the text.
+	 * @throws IOException - if the text cannot be written.
+	 */
+	private void writeText(String text) throws IOException {
+		if (text.indexOf(',') == -1 && text.indexOf('"') == -1 && text.indexOf('\n') == -1 && text.indexOf('\r') == -1) {
+			out.write(text);
+			return;
+		}
+		out.write('"');
+		out.write(text.replace("\"", "\"\""));
+		out.write('"');
+	}
+}
@@ -0,0 +1,63 @@
+package application.report;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import application.query.RangeStatistics;
+import application.server.JsonWriter;
+
+/**
+ * Writes a report as newline delimited JSON, one object per line, with null where there is no value
+ * (e.g. the cheapest price of no property).
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public class NdjsonReportWriter extends ReportWriter {
+
+	/**
+	 * Constructs a newline delimited JSON report writer.
+	 * @param out - the buffered writer over the file channel.
+	 */
+	NdjsonReportWriter(Writer out) {
+		super(out);
+	}
+
+	@Override
+	public void write(RangeStatistics statistics, String priciestBorough) throws IOException {
+		//A JSON writer a line, as each line is a document of its own.
+		JsonWriter json = new JsonWriter(out);
+		json.beginObject();
+		json.name(COLUMNS[0]).value(statistics.getQuery().getBorough());
+		json.name(COLUMNS[1]).value(statistics.getQuery().getMinimumPrice());
+		json.name(COLUMNS[2]).value(statistics.getQuery().getMaximumPrice());
+		json.name(COLUMNS[3]).value(statistics.getCount());
+		json.name(COLUMNS[4]).value(statistics.getAvailableProperties());
+		json.name(COLUMNS[5]).value(statistics.getNumberOfHomes());
+		json.name(COLUMNS[6]).value(statistics.getNoOfRoomTypes()[0]);
+		json.name(COLUMNS[7]).value(statistics.getNoOfRoomTypes()[2]);
+		json.name(COLUMNS[8]).value(round(statistics.getAveragePrice()));
+		json.name(COLUMNS[9]).value(statistics.getTotalStayPrice());
+		json.name(COLUMNS[10]).value(round(statistics.getAverageReviews()));
+		if (statistics.getCount() > 0) {
+			json.name(COLUMNS[11]).value(statistics.getCheapestPrice());
+			json.name(COLUMNS[12]).value(statistics.getDearestPrice());
+		} else {
+			json.name(COLUMNS[11]).nullValue();
+			json.name(COLUMNS[12]).nullValue();
+		}
+		json.name(COLUMNS[13]).value(priciestBorough);
+		if (statistics.getCount() > 0) {
+			json.name(COLUMNS[14]).value(round(statistics.getMedianPrice()));
+			json.name(COLUMNS[15]).value(round(statistics.getPercentile90Price()));
+			json.name(COLUMNS[16]).value(round(statistics.getPercentile99Price()));
+		} else {
+			json.name(COLUMNS[14]).nullValue();
+			json.name(COLUMNS[15]).nullValue();
+			json.name(COLUMNS[16]).nullValue();
+		}
+		json.name(COLUMNS[17]).value(idOf(statistics.getClosestPropertyToNorthPole()));
+		json.name(COLUMNS[18]).value(idOf(statistics.getLongestStay()));
+		json.name(COLUMNS[19]).value(idOf(statistics.getLatestReview()));
+		json.endObject();
+		out.write('\n');
+	}
+}
@@ -0,0 +1,318 @@
+package application.report;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import application.property.Property;
+import application.property.PropertyLoader;
+import application.query.PriceBands;
+import application.query.RangeAccumulator;
+import application.query.RangeQuery;
+import application.query.RangeStatistics;
+
+/**
+ * Writes the statistics of the statistics and borough information screens to a file without the user interface:
+ * a row for every price range between two of the given prices, for every borough and for each borough.
+ * The csv file is streamed to RangeAccumulators on as many threads as processors, so memory does not grow with the number of rows
+ * and the file is read once whatever the number of rows in the report. The throughput is printed when done.
+ *
+ * Usage: java application.report.ReportGenerator [--input csv] [--output file] [--format csv|ndjson] [--prices 5,50,100] [--boroughs Camden,Hackney]
+ * or the same options after java application.RentalService --report.
+ * The defaults are the London properties, report.csv (or report.ndjson), the prices of the price selectors and every borough.
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public class ReportGenerator {
+
+	/**
+	 * How to run the report.
+	 */
+	private static final String USAGE = "Usage: java application.report.ReportGenerator [--input csv] [--output file] [--format csv|ndjson] "
+			+ "[--prices 5,50,100] [--boroughs Camden,Hackney]";
+
+	/**
+	 * The number of threads accumulating the properties.
+	 */
+	private static final int THREADS = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * The number of properties handed over to a thread at a time.
+	 */
+	private static final int BATCH_SIZE = 4096;
+
+	/**
+	 * The most batches waiting for a thread, which bounds the memory taken by the properties read.
+	 */
+	private static final int QUEUED_BATCHES = 2 * THREADS;
+
+	/**
+	 * The csv file of the properties.
+	 */
+	private final String input;
+
+	/**
+	 * The report file.
+	 */
+	private final String output;
+
+	/**
+	 * The format of the report, csv or ndjson.
+	 */
+	private final String format;
+
+	/**
+	 * The prices between which the price ranges go.
+	 */
+	private final int[] prices;
+
+	/**
+	 * The boroughs reported on one by one, null for every borough found.
+	 */
+	private final List<String> boroughs;
+
+	/**
+	 * A batch of properties handed over to a thread.
+	 */
+	private static class Batch {
+
+		/**
+		 * The place in the file of the first property.
+		 */
+		private final long first;
+
+		/**
+		 * The properties.
+		 */
+		private final List<Property> properties;
+
+		/**
+		 * Constructs a batch.
+		 * @param first - the place in the file of the first property.
+		 * @param properties - the properties.
+		 */
+		private Batch(long first, List<Property> properties) {
+			this.first = first;
+			this.properties = properties;
+		}
+	}
+
+	/**
+	 * Constructs a report generator.
+	 * @param input - the csv file of the properties.
+	 * @param output - the report file.
+	 * @param format - the format of the report, csv or ndjson.
+	 * @param prices - the prices between which the price ranges go.
+	 * @param boroughs - the boroughs reported on one by one, null for every borough found.
+	 */
+	public ReportGenerator(String input, String output, String format, int[] prices, List<String> boroughs) {
+		this.input = input;
+		this.output = output;
+		this.format = format;
+		this.prices = prices.clone();
+		this.boroughs = boroughs;
+	}
+
+	/**
+	 * Writes a report.
+	 * @param args - the options, see USAGE.
+	 * @throws IOException - if the csv file cannot be read or the report written.
+	 */
+	public static void main(String[] args) throws IOException {
+		ReportGenerator generator;
+		try {
+			generator = parse(args);
+		} catch (IllegalArgumentException e) {
+			System.out.println(e.getMessage());
+			System.out.println(USAGE);
+			return;
+		}
+		generator.generate();
+	}
+
+	/**
+	 * Reads the options of a report.
+	 * @param args - the options, see USAGE.
+	 * @return - the report generator.
+	 * @throws IllegalArgumentException - if an option is unknown, has no value or a wrong one.
+	 */
+	static ReportGenerator parse(String[] args) {
+		String input = PropertyLoader.LONDON_PROPERTIES;
+		String output = null;
+		String format = null;
+		int[] prices = PriceBands.boundaries();
+		List<String> boroughs = null;
+		for (int i = 0; i < args.length; i += 2) {
+			if (i + 1 == args.length) {
+				throw new IllegalArgumentException("No value given for " + args[i] + ".");
+			}
+			String value = args[i + 1];
+			switch (args[i]) {
+			case "--input":
+				input = value;
+				break;
+			case "--output":
+				output = value;
+				break;
+			case "--format":
+				format = value.toLowerCase();
+				break;
+			case "--prices":
+				prices = Arrays.stream(value.split(",")).map(String::trim).mapToInt(Integer::parseInt).sorted().distinct().toArray();
+				break;
+			case "--boroughs":
+				boroughs = Arrays.asList(value.split("\\s*,\\s*"));
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown option " + args[i] + ".");
+			}
+		}
+		if (format == null) {
+			format = output != null && output.toLowerCase().endsWith(".ndjson") ? "ndjson" : "csv";
+		}
+		if (!format.equals("csv") && !format.equals("ndjson")) {
+			throw new IllegalArgumentException("Unknown report format " + format + ", csv or ndjson expected.");
+		}
+		return new ReportGenerator(input, output == null ? "report." + format : output, format, prices, boroughs);
+	}
+
+	/**
+	 * Reads the csv file and writes the report.
+	 * @return - the number of rows of the report.
+	 * @throws IOException - if the csv file cannot be read or the report written.
+	 */
+	public int generate() throws IOException {
+		long start = System.nanoTime();
+		List<RangeQuery> ranges = RangeQuery.grid(prices, Collections.emptyList());
+		RangeAccumulator accumulator;
+		try (Stream<Property> properties = new PropertyLoader().stream(input)) {
+			accumulator = accumulate(properties.iterator(), ranges);
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		long read = System.nanoTime();
+		String[] priciestBoroughs = priciestBoroughs(accumulator, ranges);
+		List<RangeStatistics> statistics = accumulator.statistics(RangeQuery.grid(prices, boroughs == null ? accumulator.getBoroughNames() : boroughs));
+		try (ReportWriter writer = ReportWriter.open(Paths.get(output), format)) {
+			for (int i = 0; i < statistics.size(); i++) {
+				//The queries of every borough come first, in the order of the ranges.
+				writer.write(statistics.get(i), i < ranges.size() ? priciestBoroughs[i] : null);
+			}
+		}
+		long end = System.nanoTime();
+		long bytes = new File(input).exists() ? new File(input).length() : new File(input + ".gz").length();
+		double readSeconds = Math.max(read - start, 1) / 1e9;
+		System.out.println(String.format("Read %d properties (%.1f MB) in %.2f s on %d threads: %.0f properties/s, %.1f MB/s.", accumulator.size(),
+				bytes / 1e6, readSeconds, THREADS, accumulator.size() / readSeconds, bytes / 1e6 / readSeconds));
+		System.out.println(String.format("Wrote %d rows to %s in %.1f ms.", statistics.size(), output, (end - read) / 1e6));
+		return statistics.size();
+	}
+
+	/**
+	 * Accumulates the properties on THREADS threads, this thread reading the properties and handing them over in batches,
+	 * each with the place of its properties in the file so ties on the leaderboards are decided as in the data set.
+	 * At most QUEUED_BATCHES batches wait at a time, so the properties read but not yet accumulated stay within a bound
+	 * however fast the file is read. A parallel stream would not bound them: with nothing to tell the size of the file,
+	 * it splits batches off until the end of the file when the threads cannot keep up.
+	 * @param properties - the properties.
+	 * @param ranges - the price ranges.
+	 * @return - the accumulator of all the properties.
+	 * @throws IOException - if interrupted while handing over a batch.
+	 */
+	private static RangeAccumulator accumulate(Iterator<Property> properties, List<RangeQuery> ranges) throws IOException {
+		BlockingQueue<Batch> batches = new ArrayBlockingQueue<>(QUEUED_BATCHES);
+		Batch end = new Batch(-1, new ArrayList<>());
+		RangeAccumulator[] accumulators = new RangeAccumulator[THREADS];
+		Thread[] threads = new Thread[THREADS];
+		AtomicReference<RuntimeException> failure = new AtomicReference<>();
+		for (int i = 0; i < THREADS; i++) {
+			RangeAccumulator accumulator = new RangeAccumulator(ranges);
+			accumulators[i] = accumulator;
+			threads[i] = new Thread(() -> {
+				try {
+					for (Batch batch = batches.take(); batch != end; batch = batches.take()) {
+						try {
+							if (failure.get() == null) {
+								for (int j = 0; j < batch.properties.size(); j++) {
+									accumulator.add(batch.properties.get(j), batch.first + j);
+								}
+							}
+						} catch (RuntimeException e) {
+							//Still taking the batches, so the reading thread is not left waiting.
+							failure.compareAndSet(null, e);
+						}
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}, "Report " + i);
+			threads[i].start();
+		}
+		try {
+			try {
+				long read = 0;
+				List<Property> batch = new ArrayList<>(BATCH_SIZE);
+				while (properties.hasNext()) {
+					batch.add(properties.next());
+					if (batch.size() == BATCH_SIZE) {
+						batches.put(new Batch(read, batch));
+						read += BATCH_SIZE;
+						batch = new ArrayList<>(BATCH_SIZE);
+					}
+				}
+				batches.put(new Batch(read, batch));
+			} finally {
+				for (int i = 0; i < THREADS; i++) {
+					batches.put(end);
+				}
+			}
+			for (Thread thread : threads) {
+				thread.join();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while accumulating the properties.");
+		}
+		if (failure.get() != null) {
+			throw failure.get();
+		}
+		for (int i = 1; i < THREADS; i++) {
+			accumulators[0].combine(accumulators[i]);
+		}
+		return accumulators[0];
+	}
+
+	/**
+	 * Finds the borough with the highest total stay price within each price range, as the statistics screen does.
+	 * @param accumulator - the accumulator of the properties.
+	 * @param ranges - the price ranges, for every borough.
+	 * @return - the priciest borough of each range, null if there is no property in the range.
+	 */
+	private String[] priciestBoroughs(RangeAccumulator accumulator, List<RangeQuery> ranges) {
+		List<String> boroughNames = accumulator.getBoroughNames();
+		//Every borough then each borough, each with the ranges in the same order.
+		List<RangeStatistics> statistics = accumulator.statistics(RangeQuery.grid(prices, boroughNames));
+		String[] priciestBoroughs = new String[ranges.size()];
+		for (int range = 0; range < ranges.size(); range++) {
+			long highestPrice = -1;
+			for (int borough = 0; borough < boroughNames.size(); borough++) {
+				RangeStatistics boroughStatistics = statistics.get((borough + 1) * ranges.size() + range);
+				if (boroughStatistics.getCount() > 0 && boroughStatistics.getTotalStayPrice() > highestPrice) {
+					highestPrice = boroughStatistics.getTotalStayPrice();
+					priciestBoroughs[range] = boroughNames.get(borough);
+				}
+			}
+		}
+		return priciestBoroughs;
+	}
+}
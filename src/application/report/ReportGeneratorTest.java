@@ -0,0 +1,125 @@
+package application.report;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import application.benchmark.BenchmarkData;
+import application.engine.DataStore;
+import application.engine.DataStoreView;
+import application.property.Property;
+import application.property.PropertyLoader;
+import application.query.RangeQuery;
+import application.query.RangeStatistics;
+
+class ReportGeneratorTest {
+
+	/**
+	 * The properties used by the tests.
+	 */
+	private List<Property> properties = BenchmarkData.generate(20000, 5);
+
+	/**
+	 * Tests a csv report streamed from a file against the statistics of the same properties in a data store.
+	 * @throws IOException - if a file cannot be written.
+	 */
+	@Test
+	public void testCsvReport() throws IOException {
+		File input = writeProperties();
+		File output = File.createTempFile("report", ".csv");
+		output.deleteOnExit();
+		ReportGenerator generator = ReportGenerator.parse(new String[] {"--input", input.getPath(), "--output", output.getPath(),
+				"--prices", "200, 0,50,7000", "--boroughs", "Camden,Hackney"});
+		assertEquals(30, generator.generate());
+		List<String> lines = Files.readAllLines(output.toPath(), StandardCharsets.UTF_8);
+		assertEquals(31, lines.size());
+		assertEquals(String.join(",", ReportWriter.COLUMNS), lines.get(0));
+		List<RangeQuery> queries = RangeQuery.grid(new int[] {0, 50, 200, 7000}, Arrays.asList("Camden", "Hackney"));
+		DataStore dataStore = new DataStore(properties);
+		List<RangeStatistics> expected = dataStore.query(queries);
+		for (int i = 0; i < queries.size(); i++) {
+			String[] fields = lines.get(i + 1).split(",", -1);
+			RangeStatistics statistics = expected.get(i);
+			assertEquals(i < 10 ? "All boroughs" : queries.get(i).getBorough(), fields[0]);
+			assertEquals(String.valueOf(queries.get(i).getMinimumPrice()), fields[1]);
+			assertEquals(String.valueOf(queries.get(i).getMaximumPrice()), fields[2]);
+			assertEquals(String.valueOf(statistics.getCount()), fields[3]);
+			assertEquals(String.valueOf(statistics.getAvailableProperties()), fields[4]);
+			assertEquals(String.valueOf(statistics.getNumberOfHomes()), fields[5]);
+			assertEquals(String.valueOf(statistics.getTotalStayPrice()), fields[9]);
+			assertEquals(statistics.getCount() == 0 ? "" : String.valueOf(statistics.getCheapestPrice()), fields[11]);
+			assertEquals(statistics.getCount() == 0 ? "" : String.valueOf(statistics.getDearestPrice()), fields[12]);
+			if (i < 10 && statistics.getCount() > 0) {
+				assertEquals(dataStore.view(queries.get(i).getMinimumPrice(), queries.get(i).getMaximumPrice()).getPriciestBorough(), fields[13]);
+			} else {
+				assertEquals("", fields[13]);
+			}
+			if (i < 10) {
+				DataStoreView view = dataStore.view(queries.get(i).getMinimumPrice(), queries.get(i).getMaximumPrice());
+				assertEquals(csvId(view.getClosestPropertyToNorthPole()), fields[17]);
+				assertEquals(csvId(view.getLongestStay()), fields[18]);
+				assertEquals(csvId(view.getLatestReview()), fields[19]);
+			}
+		}
+	}
+
+	/**
+	 * Tests that a newline delimited JSON report has one object per line, with null where there is no value.
+	 * @throws IOException - if a file cannot be written.
+	 */
+	@Test
+	public void testNdjsonReport() throws IOException {
+		File input = writeProperties();
+		File output = File.createTempFile("report", ".ndjson");
+		output.deleteOnExit();
+		ReportGenerator generator = ReportGenerator.parse(new String[] {"--input", input.getPath(), "--output", output.getPath(),
+				"--prices", "100000,200000"});
+		int rows = generator.generate();
+		assertEquals(3 * (BenchmarkData.BOROUGHS.length + 1), rows);
+		List<String> lines = Files.readAllLines(output.toPath(), StandardCharsets.UTF_8);
+		assertEquals(rows, lines.size());
+		assertEquals("{\"borough\":null,\"minimum_price\":100000,\"maximum_price\":100000,\"properties\":0,\"available_properties\":0,\"homes\":0,"
+				+ "\"private_rooms\":0,\"shared_rooms\":0,\"average_price\":0.0,\"total_stay_price\":0,\"average_reviews\":0.0,"
+				+ "\"cheapest_price\":null,\"dearest_price\":null,\"priciest_borough\":null,"
+				+ "\"median_price\":null,\"percentile90_price\":null,\"percentile99_price\":null,"
+				+ "\"closest_to_north_pole\":null,\"longest_stay\":null,\"latest_review\":null}", lines.get(0));
+		for (String line : lines) {
+			assertTrue(line.startsWith("{") && line.endsWith("}"));
+		}
+	}
+
+	/**
+	 * Get the id of a property as written in a csv report.
+	 * @param property - the property, null if none.
+	 * @return - the id, empty if there is no property.
+	 */
+	private static String csvId(Property property) {
+		return property == null ? "" : property.getId();
+	}
+
+	/**
+	 * Writes the properties to a temporary csv file.
+	 * @return - the file.
+	 * @throws IOException - if the file cannot be written.
+	 */
+	private File writeProperties() throws IOException {
+		File file = File.createTempFile("properties", ".csv");
+		file.deleteOnExit();
+		try (PrintWriter writer = new PrintWriter(file)) {
+			writer.println("id,name,host_id,host_name,neighbourhood,latitude,longitude,room_type,price,minimum_nights,number_of_reviews,last_review,reviews_per_month,calculated_host_listings_count,availability_365");
+			for (Property property : properties) {
+				writer.println(String.join(",", PropertyLoader.toLine(property)));
+			}
+		}
+		return file;
+	}
+}
@@ -0,0 +1,99 @@
+package application.report;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import application.property.Property;
+import application.query.RangeStatistics;
+
+/**
+ * Writes the rows of a report, one row per range query, to a file channel through a buffer, so each row is encoded and
+ * written as it comes and the file is written in large blocks.
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public abstract class ReportWriter implements Closeable {
+
+	/**
+	 * The size of the buffer, in characters and in bytes.
+	 */
+	static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * The names of the columns of each row, in order.
+	 */
+	static final String[] COLUMNS = {"borough", "minimum_price", "maximum_price", "properties", "available_properties", "homes",
+			"private_rooms", "shared_rooms", "average_price", "total_stay_price", "average_reviews", "cheapest_price", "dearest_price",
+			"priciest_borough", "median_price", "percentile90_price", "percentile99_price", "closest_to_north_pole", "longest_stay",
+			"latest_review"};
+
+	/**
+	 * The buffered writer over the file channel.
+	 */
+	protected final Writer out;
+
+	/**
+	 * Constructs a report writer.
+	 * @param out - the buffered writer over the file channel.
+	 */
+	protected ReportWriter(Writer out) {
+		this.out = out;
+	}
+
+	/**
+	 * Opens a report file, replacing any file of the same name.
+	 * @param path - the path of the file.
+	 * @param format - the format, csv or ndjson.
+	 * @return - the writer, to be closed.
+	 * @throws IOException - if the file cannot be opened.
+	 */
+	public static ReportWriter open(Path path, String format) throws IOException {
+		if (!format.equals("csv") && !format.equals("ndjson")) {
+			throw new IllegalArgumentException("Unknown report format " + format + ", csv or ndjson expected.");
+		}
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+		Writer out = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), BUFFER_SIZE), BUFFER_SIZE);
+		return format.equals("csv") ? new CsvReportWriter(out) : new NdjsonReportWriter(out);
+	}
+
+	/**
+	 * Writes the row of a query.
+	 * @param statistics - the statistics of the query.
+	 * @param priciestBorough - the borough with the highest total stay price within the price range, null if not reported.
+	 * @throws IOException - if the row cannot be written.
+	 */
+	public abstract void write(RangeStatistics statistics, String priciestBorough) throws IOException;
+
+	/**
+	 * Rounds an average to pennies, or hundredths of a review.
+	 * @param value - the average.
+	 * @return - the rounded average.
+	 */
+	static double round(double value) {
+		return Math.round(value * 100) / 100.0;
+	}
+
+	/**
+	 * Get the id of a property leading a leaderboard.
+	 * @param property - the property, null if there is no property within the range.
+	 * @return - the listing id, null if there is no property.
+	 */
+	static String idOf(Property property) {
+		return property == null ? null : property.getId();
+	}
+
+	/**
+	 * Flushes the buffer and closes the file.
+	 * @throws IOException - if the file could not be written.
+	 */
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+}
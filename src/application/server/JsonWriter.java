@@ -0,0 +1,236 @@
+package application.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes JSON to a writer as it goes, so a response of thousands of listings is never built in memory before being sent.
+ * The caller writes the values in order, e.g. beginObject(), name("price"), value(50), endObject(), and the writer adds the commas.
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public class JsonWriter implements Closeable {
+
+	/**
+	 * The escapes of the control characters, indexed by character.
+	 */
+	private static final String[] ESCAPES = new String[0x20];
+
+	static {
+		for (int c = 0; c < ESCAPES.length; c++) {
+			ESCAPES[c] = String.format("\\u%04x", c);
+		}
+		ESCAPES['\b'] = "\\b";
+		ESCAPES['\f'] = "\\f";
+		ESCAPES['\n'] = "\\n";
+		ESCAPES['\r'] = "\\r";
+		ESCAPES['\t'] = "\\t";
+	}
+
+	/**
+	 * The writer the JSON is written to.
+	 */
+	private final Writer out;
+
+	/**
+	 * True until the first value of the current object or array is written.
+	 */
+	private boolean first = true;
+
+	/**
+	 * True when a name has been written and its value has not.
+	 */
+	private boolean afterName;
+
+	/**
+	 * Constructs a JSON writer.
+	 * @param out - the writer the JSON is written to, best buffered.
+	 */
+	public JsonWriter(Writer out) {
+		this.out = out;
+	}
+
+	/**
+	 * Begins an object.
+	 * @return - this writer.
+	 * @throws IOException - if the JSON could not be written.
+	 */
+	public JsonWriter beginObject() throws IOException {
+		beforeValue();
+		out.write('{');
+		first = true;
+		return this;
+	}
+
+	/**
+	 * Ends the current object.
+	 * @return - this writer.
+	 * @throws IOException - if the JSON could not be written.
+	 */
+	public JsonWriter endObject() throws IOException {
+		out.write('}');
+		first = false;
+		return this;
+	}
+
+	/**
+	 * Begins an array.
+	 * @return - this writer.
+	 * @throws IOException - if the JSON could not be written.
+	 */
+	public JsonWriter beginArray() throws IOException {
+		beforeValue();
+		out.write('[');
+		first = true;
+		return this;
+	}
+
+	/**
+	 * Ends the current array.
+	 * @return - this writer.
+	 * @throws IOException - if the JSON could not be written.
+	 */
+	public JsonWriter endArray() throws IOException {
+		out.write(']');
+		first = false;
+		return this;
+	}
+
+	/**
+	 * Writes the name of the next value of the current object.
+	 * @param name - the name.
+	 * @return - this writer.
+	 * @throws IOException - if the JSON could not be written.
+	 */
+	public JsonWriter name(String name) throws IOException {
+		beforeValue();
+		writeString(name);
+		out.write(':');
+		afterName = true;
+		return this;
+	}
+
+	/**
+	 * Writes a string value.
+	 * @param value - the value, or null.
+	 * @return - this writer.
+	 * @throws IOException - if the JSON could not be written.
+	 */
+	public JsonWriter value(String value) throws IOException {
+		if (value == null) {
+			return nullValue();
+		}
+		beforeValue();
+		writeString(value);
+		return this;
+	}
+
+	/**
+	 * Writes a whole number value.
+	 * @param value - the value.
+	 * @return - this writer.
+	 * @throws IOException - if the JSON could not be written.
+	 */
+	public JsonWriter value(long value) throws IOException {
+		beforeValue();
+		out.write(Long.toString(value));
+		return this;
+	}
+
+	/**
+	 * Writes a number value, null for a number JSON cannot hold (NaN or infinite).
+	 * @param value - the value.
+	 * @return - this writer.
+	 * @throws IOException - if the JSON could not be written.
+	 */
+	public JsonWriter value(double value) throws IOException {
+		if (Double.isNaN(value) || Double.isInfinite(value)) {
+			return nullValue();
+		}
+		beforeValue();
+		out.write(Double.toString(value));
+		return this;
+	}
+
+	/**
+	 * Writes a boolean value.
+	 * @param value - the value.
+	 * @return - this writer.
+	 * @throws IOException - if the JSON could not be written.
+	 */
+	public JsonWriter value(boolean value) throws IOException {
+		beforeValue();
+		out.write(value ? "true" : "false");
+		return this;
+	}
+
+	/**
+	 * Writes null.
+	 * @return - this writer.
+	 * @throws IOException - if the JSON could not be written.
+	 */
+	public JsonWriter nullValue() throws IOException {
+		beforeValue();
+		out.write("null");
+		return this;
+	}
+
+	/**
+	 * Flushes the writer.
+	 * @throws IOException - if the JSON could not be written.
+	 */
+	public void flush() throws IOException {
+		out.flush();
+	}
+
+	/**
+	 * Closes the writer.
+	 * @throws IOException - if the JSON could not be written.
+	 */
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+
+	/**
+	 * Writes the comma before a value or name, unless it is the first of its object or array or the value of a name.
+	 * @throws IOException - if the JSON could not be written.
+	 */
+	private void beforeValue() throws IOException {
+		if (afterName) {
+			afterName = false;
+		} else if (!first) {
+			out.write(',');
+		}
+		first = false;
+	}
+
+	/**
+	 * Writes a string in quotes, escaping the quotes, backslashes and control characters.
+	 * The characters that need no escape are written a run at a time.
+	 * @param value - the string.
+	 * @throws IOException - if the JSON could not be written.
+	 */
+	private void writeString(String value) throws IOException {
+		out.write('"');
+		int start = 0;
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			String escape;
+			if (c < ESCAPES.length) {
+				escape = ESCAPES[c];
+			} else if (c == '"') {
+				escape = "\\\"";
+			} else if (c == '\\') {
+				escape = "\\\\";
+			} else {
+				continue;
+			}
+			out.write(value, start, i - start);
+			out.write(escape);
+			start = i + 1;
+		}
+		out.write(value, start, value.length() - start);
+		out.write('"');
+	}
+}
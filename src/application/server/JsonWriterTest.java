@@ -0,0 +1,31 @@
+package application.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.junit.jupiter.api.Test;
+
+class JsonWriterTest {
+
+	/**
+	 * Tests the commas between nested objects and arrays, the escapes in strings and the numbers JSON cannot hold.
+	 * @throws IOException - never, a string writer does not fail.
+	 */
+	@Test
+	public void testWrite() throws IOException {
+		StringWriter out = new StringWriter();
+		JsonWriter json = new JsonWriter(out);
+		json.beginObject();
+		json.name("name").value("A \"quiet\" flat\\studio\n\u0001");
+		json.name("prices").beginArray().value(50).value(2.5).value(Double.NaN).endArray();
+		json.name("host").beginObject().name("commercial").value(false).endObject();
+		json.name("rooms").beginArray().beginObject().endObject().beginArray().endArray().endArray();
+		json.name("review").value((String) null);
+		json.endObject();
+		json.close();
+		assertEquals("{\"name\":\"A \\\"quiet\\\" flat\\\\studio\\n\\u0001\",\"prices\":[50,2.5,null],\"host\":{\"commercial\":false},"
+				+ "\"rooms\":[{},[]],\"review\":null}", out.toString());
+	}
+}
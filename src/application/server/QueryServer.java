@@ -0,0 +1,656 @@
+package application.server;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import application.engine.DataStore;
+import application.engine.DataStoreView;
+import application.engine.DataStoreWatcher;
+import application.property.Property;
+import application.property.PropertyLoader;
+import application.query.HostSummary;
+import application.query.PriceSummary;
+
+/**
+ * Serves the statistics, borough information, property finder and listing details of the screens as JSON over HTTP, for other services.
+ * GET /summary?minimum=50&maximum=200 - the statistics of the properties within a price range.
+ * GET /boroughs?minimum=50&maximum=200 - the number of properties and the cheapest and dearest price of each borough within a price range.
+ * GET /boroughs/Camden?minimum=50&maximum=200 - the price summary and the properties of a borough within a price range.
+ * GET /search?minimum=50&maximum=200&nights=2&phrases=tube,balcony - the properties found by the property finder.
+ * GET /listings/13261420 - a listing and a summary of its host, whatever the price range.
+ * The price range is every price when not given.
+ *
+ * Every response is tagged with the version of the data it was computed from, and a request naming that tag in If-None-Match
+ * is answered 304 Not Modified without running the query, until the csv file is reloaded or the listings are written to.
+ * Each query is run, and its parameters checked, before the response is sent, so a query that fails is answered 500 Internal Server Error
+ * (400 for a parameter that is not valid). Only the answer is then written, straight out as it is serialised in chunks (see JsonWriter),
+ * so the memory taken by a response does not grow with the number of listings in it.
+ * Requests are handled on virtual threads when the runtime has them (Java 21 and later), on a fixed pool of threads otherwise.
+ * @author Sal Chousein, Mik Miller, Sam Paget, Mergana Sitepu
+ */
+public class QueryServer {
+
+	/**
+	 * The port served on when none is given.
+	 */
+	public static final int DEFAULT_PORT = 8080;
+
+	/**
+	 * The number of threads handling requests when the runtime has no virtual threads.
+	 */
+	public static final int FALLBACK_THREADS = 64;
+
+	/**
+	 * The size of the buffer a response is written through.
+	 */
+	private static final int BUFFER_SIZE = 8192;
+
+	static {
+		//Without it the body of each response waits for the client to acknowledge the headers, 40 ms on most systems.
+		if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+			System.setProperty("sun.net.httpserver.nodelay", "true");
+		}
+	}
+
+	/**
+	 * Gives the current data store for each request.
+	 */
+	private final Supplier<DataStore> dataStores;
+
+	/**
+	 * Starts the tags of the responses. Versions start again from 1 each run, so the tags of different runs must differ.
+	 */
+	private final String tagPrefix = Long.toString(System.currentTimeMillis(), 36);
+
+	/**
+	 * The HTTP server, null until started.
+	 */
+	private HttpServer server;
+
+	/**
+	 * Runs the requests, null until started.
+	 */
+	private ExecutorService executor;
+
+	/**
+	 * A query answered by the server.
+	 */
+	private interface Endpoint {
+
+		/**
+		 * Runs the query, leaving the body only its answer to write.
+		 * @param dataStore - the data store the query is answered from.
+		 * @param path - the rest of the path after the path of the endpoint, without its leading slash.
+		 * @param parameters - the query parameters.
+		 * @return - the body of the response, null if there is nothing at the path.
+		 * @throws IllegalArgumentException - if a parameter is not valid.
+		 */
+		Body query(DataStore dataStore, String path, Map<String, String> parameters);
+	}
+
+	/**
+	 * The body of a response, the answer to a query already run, written once the response has been sent.
+	 */
+	private interface Body {
+
+		/**
+		 * Writes the body.
+		 * @param json - the writer.
+		 * @throws IOException - if the response could not be written.
+		 */
+		void write(JsonWriter json) throws IOException;
+	}
+
+	/**
+	 * Constructs a query server.
+	 * @param dataStores - gives the current data store, e.g. a DataStoreWatcher or DataStoreWriter.
+	 */
+	public QueryServer(Supplier<DataStore> dataStores) {
+		this.dataStores = dataStores;
+	}
+
+	/**
+	 * Starts serving.
+	 * @param port - the port, 0 for any free port (see getPort).
+	 * @throws IOException - if the port could not be bound.
+	 */
+	public synchronized void start(int port) throws IOException {
+		if (server != null) {
+			return;
+		}
+		this.server = HttpServer.create(new InetSocketAddress(port), 0);
+		this.executor = newExecutor();
+		server.setExecutor(executor);
+		register("/summary", this::summary);
+		register("/boroughs", this::boroughs);
+		register("/search", this::search);
+		register("/listings", this::listing);
+		server.start();
+	}
+
+	/**
+	 * Stops serving, closing the open connections.
+	 */
+	public synchronized void stop() {
+		if (server != null) {
+			server.stop(0);
+			executor.shutdown();
+			this.server = null;
+		}
+	}
+
+	/**
+	 * Get the port served on.
+	 * @return - the port.
+	 */
+	public synchronized int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * Serves the properties of a csv file, reloading it when it changes.
+	 * @param args - the arguments, the port and the csv file (default 8080 and the London properties).
+	 * @throws IOException - if the port could not be bound.
+	 */
+	public static void main(String[] args) throws IOException {
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+		String url = args.length > 1 ? args[1] : PropertyLoader.LONDON_PROPERTIES;
+		DataStoreWatcher dataStoreWatcher = new DataStoreWatcher(url, null);
+		try {
+			dataStoreWatcher.start();
+		} catch (IOException e) {
+			System.out.println("Could not watch the csv file, changes will be picked up on restart.");
+			e.printStackTrace();
+		}
+		QueryServer server = new QueryServer(dataStoreWatcher::get);
+		server.start(port);
+		System.out.println("Serving " + dataStoreWatcher.get().getAllProperties().size() + " properties on http://localhost:" + server.getPort() + "/");
+	}
+
+	/**
+	 * Creates the executor running the requests, with a virtual thread per request when the runtime has them.
+	 * They are looked up by name so the server still runs on the Java 9 the rest of the application needs.
+	 * @return - the executor.
+	 */
+	private static ExecutorService newExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return Executors.newFixedThreadPool(FALLBACK_THREADS);
+		}
+	}
+
+	/**
+	 * Registers an endpoint.
+	 * @param path - the path of the endpoint.
+	 * @param endpoint - the endpoint.
+	 */
+	private void register(String path, Endpoint endpoint) {
+		server.createContext(path, exchange -> handle(exchange, path, endpoint));
+	}
+
+	/**
+	 * Handles a request: answers 304 if the client has the response for the current version of the data, runs the query otherwise.
+	 * @param exchange - the request and response.
+	 * @param endpointPath - the path of the endpoint.
+	 * @param endpoint - the endpoint.
+	 */
+	private void handle(HttpExchange exchange, String endpointPath, Endpoint endpoint) {
+		try {
+			String method = exchange.getRequestMethod();
+			if (!method.equals("GET") && !method.equals("HEAD")) {
+				sendError(exchange, 405, "Only GET is supported.");
+				return;
+			}
+			String path = exchange.getRequestURI().getPath().substring(endpointPath.length());
+			if (path.startsWith("/")) {
+				path = path.substring(1);
+			} else if (!path.isEmpty()) {
+				sendError(exchange, 404, "Nothing at " + exchange.getRequestURI().getPath() + ".");
+				return;
+			}
+			DataStore dataStore = dataStores.get();
+			String tag = "\"" + tagPrefix + "-" + dataStore.getVersion() + "\"";
+			if (matches(exchange.getRequestHeaders().getFirst("If-None-Match"), tag)) {
+				setCacheHeaders(exchange.getResponseHeaders(), tag);
+				exchange.sendResponseHeaders(304, -1);
+				return;
+			}
+			Body body;
+			try {
+				body = endpoint.query(dataStore, path, parseQuery(exchange.getRequestURI().getRawQuery()));
+			} catch (IllegalArgumentException e) {
+				sendError(exchange, 400, e.getMessage());
+				return;
+			}
+			if (body == null) {
+				sendError(exchange, 404, "Nothing at " + exchange.getRequestURI().getPath() + ".");
+				return;
+			}
+			Headers headers = exchange.getResponseHeaders();
+			setCacheHeaders(headers, tag);
+			headers.set("Content-Type", "application/json; charset=utf-8");
+			if (method.equals("HEAD")) {
+				exchange.sendResponseHeaders(200, -1);
+				return;
+			}
+			exchange.sendResponseHeaders(200, 0);
+			JsonWriter json = new JsonWriter(new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8), BUFFER_SIZE));
+			body.write(json);
+			json.close();
+		} catch (IOException e) {
+			System.out.println("Could not answer " + exchange.getRequestURI() + ": " + e.getMessage());
+		} catch (RuntimeException e) {
+			e.printStackTrace();
+			try {
+				sendError(exchange, 500, "The query failed.");
+			} catch (IOException | RuntimeException ignored) {
+				//The response had already been sent, closing the exchange cuts it short without its last chunk.
+			}
+		} finally {
+			exchange.close();
+		}
+	}
+
+	/**
+	 * Sets the headers letting clients keep a response and ask whether it is still current.
+	 * @param headers - the response headers.
+	 * @param tag - the tag of the version of the data.
+	 */
+	private static void setCacheHeaders(Headers headers, String tag) {
+		headers.set("ETag", tag);
+		headers.set("Cache-Control", "no-cache");
+	}
+
+	/**
+	 * Checks whether an If-None-Match header names a tag.
+	 * @param ifNoneMatch - the header, may be null.
+	 * @param tag - the tag.
+	 * @return - true if the header is * or lists the tag, weak or strong.
+	 */
+	private static boolean matches(String ifNoneMatch, String tag) {
+		if (ifNoneMatch == null) {
+			return false;
+		}
+		for (String candidate : ifNoneMatch.split(",")) {
+			candidate = candidate.trim();
+			if (candidate.startsWith("W/")) {
+				candidate = candidate.substring(2);
+			}
+			if (candidate.equals("*") || candidate.equals(tag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Sends an error response.
+	 * @param exchange - the request and response.
+	 * @param status - the status code.
+	 * @param message - the message.
+	 * @throws IOException - if the response could not be written.
+	 */
+	private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+		byte[] body = ("{\"error\":" + quote(message) + "}").getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+		exchange.sendResponseHeaders(status, body.length);
+		exchange.getResponseBody().write(body);
+	}
+
+	/**
+	 * Quotes a string as JSON.
+	 * @param value - the string.
+	 * @return - the JSON string.
+	 */
+	private static String quote(String value) {
+		StringWriter out = new StringWriter();
+		try {
+			new JsonWriter(out).value(value);
+		} catch (IOException e) {
+			throw new IllegalStateException(e); //A string writer never fails.
+		}
+		return out.toString();
+	}
+
+	/**
+	 * Parses the query of a request.
+	 * @param rawQuery - the query, still encoded, may be null.
+	 * @return - the parameters, the last value of each.
+	 */
+	private static Map<String, String> parseQuery(String rawQuery) {
+		Map<String, String> parameters = new HashMap<>();
+		if (rawQuery == null || rawQuery.isEmpty()) {
+			return parameters;
+		}
+		try {
+			for (String parameter : rawQuery.split("&")) {
+				int equals = parameter.indexOf('=');
+				String name = URLDecoder.decode(equals == -1 ? parameter : parameter.substring(0, equals), "UTF-8");
+				String value = equals == -1 ? "" : URLDecoder.decode(parameter.substring(equals + 1), "UTF-8");
+				parameters.put(name, value);
+			}
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e); //Every Java runtime has UTF-8.
+		}
+		return parameters;
+	}
+
+	/**
+	 * Get a whole number parameter.
+	 * @param parameters - the parameters.
+	 * @param name - the name of the parameter.
+	 * @param defaultValue - the value when the parameter is not given.
+	 * @return - the value.
+	 * @throws IllegalArgumentException - if the parameter is not a whole number.
+	 */
+	private static int getInt(Map<String, String> parameters, String name, int defaultValue) {
+		String value = parameters.get(name);
+		if (value == null || value.isEmpty()) {
+			return defaultValue;
+		}
+		try {
+			return Integer.parseInt(value.trim());
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("The " + name + " must be a whole number, not '" + value + "'.");
+		}
+	}
+
+	/**
+	 * Get the view of the price range of a request.
+	 * @param dataStore - the data store.
+	 * @param parameters - the parameters, minimum and maximum, every price when not given.
+	 * @return - the view.
+	 * @throws IllegalArgumentException - if the price range is not valid.
+	 */
+	private static DataStoreView getView(DataStore dataStore, Map<String, String> parameters) {
+		int minimum = getInt(parameters, "minimum", 0);
+		int maximum = getInt(parameters, "maximum", Integer.MAX_VALUE);
+		if (minimum < 0 || minimum > maximum) {
+			throw new IllegalArgumentException("The minimum price must be at least 0 and at most the maximum price.");
+		}
+		return dataStore.view(minimum, maximum);
+	}
+
+	/**
+	 * The statistics of the properties within a price range, as on the statistics screen.
+	 * @param dataStore - the data store.
+	 * @param path - the rest of the path, must be empty.
+	 * @param parameters - the price range.
+	 * @return - the body.
+	 */
+	private Body summary(DataStore dataStore, String path, Map<String, String> parameters) {
+		if (!path.isEmpty()) {
+			return null;
+		}
+		DataStoreView view = getView(dataStore, parameters);
+		int properties = dataStore.getNumberOfProperties(view.getMinimumPrice(), view.getMaximumPrice());
+		int availableProperties = view.getAvailableProperties();
+		int homes = view.getNumberOfHomes();
+		int[] roomTypes = view.getNoOfRoomTypes();
+		double averageReviews = view.averageReviews();
+		String priciestBorough = view.getPriciestBorough();
+		int priciestBoroughPrice = priciestBorough.isEmpty() ? 0 : view.getTotalBoroughPrice(priciestBorough);
+		Property closestToNorthPole = view.getClosestPropertyToNorthPole();
+		Property longestStay = view.getLongestStay();
+		Property latestReview = view.getLatestReview();
+		return json -> {
+			json.beginObject();
+			json.name("version").value(dataStore.getVersion());
+			writePriceRange(json, view);
+			json.name("properties").value(properties);
+			json.name("availableProperties").value(availableProperties);
+			json.name("homes").value(homes);
+			json.name("roomTypes").beginObject();
+			json.name("privateRooms").value(roomTypes[0]).name("homes").value(roomTypes[1]).name("sharedRooms").value(roomTypes[2]);
+			json.endObject();
+			json.name("averageReviews");
+			if (properties == 0) {
+				json.nullValue();
+			} else {
+				json.value(averageReviews);
+			}
+			json.name("priciestBorough");
+			if (priciestBorough.isEmpty()) {
+				json.nullValue();
+			} else {
+				json.beginObject().name("name").value(priciestBorough).name("totalPrice").value(priciestBoroughPrice).endObject();
+			}
+			writeProperty(json.name("closestToNorthPole"), closestToNorthPole);
+			writeProperty(json.name("longestStay"), longestStay);
+			writeProperty(json.name("latestReview"), latestReview);
+			json.endObject();
+		};
+	}
+
+	/**
+	 * The boroughs within a price range, or the information about one borough, as on the map and borough information screens.
+	 * @param dataStore - the data store.
+	 * @param path - the rest of the path, empty for every borough or the name of a borough.
+	 * @param parameters - the price range.
+	 * @return - the body, null if there is no such borough.
+	 */
+	private Body boroughs(DataStore dataStore, String path, Map<String, String> parameters) {
+		DataStoreView view = getView(dataStore, parameters);
+		if (path.isEmpty()) {
+			List<String> boroughs = dataStore.getBoroughNames();
+			List<int[]> prices = new ArrayList<>(boroughs.size());
+			for (String borough : boroughs) {
+				prices.add(getBoroughPrices(view, borough));
+			}
+			return json -> {
+				json.beginObject();
+				json.name("version").value(dataStore.getVersion());
+				writePriceRange(json, view);
+				json.name("boroughs").beginArray();
+				for (int i = 0; i < boroughs.size(); i++) {
+					writeBorough(json, boroughs.get(i), prices.get(i));
+					json.endObject();
+				}
+				json.endArray();
+				json.endObject();
+			};
+		}
+		String borough = dataStore.getBoroughName(path);
+		if (borough == null) {
+			return null;
+		}
+		int[] prices = getBoroughPrices(view, borough);
+		PriceSummary summary = view.getPriceSummary(borough);
+		List<Property> listings = view.getProperties(borough);
+		return json -> {
+			json.beginObject();
+			json.name("version").value(dataStore.getVersion());
+			writePriceRange(json, view);
+			json.name("borough");
+			writeBorough(json, borough, prices);
+			json.name("priceSummary").beginObject();
+			json.name("median").value(summary.getMedian());
+			json.name("percentile90").value(summary.getPercentile90());
+			json.name("percentile99").value(summary.getPercentile99());
+			json.name("bins").beginArray();
+			double[] binEdges = summary.getBinEdges();
+			long[] binCounts = summary.getBinCounts();
+			for (int bin = 0; summary.getCount() > 0 && bin < binCounts.length; bin++) {
+				json.beginObject().name("from").value(binEdges[bin]).name("to").value(binEdges[bin + 1]).name("count").value(binCounts[bin]).endObject();
+			}
+			json.endArray();
+			json.endObject();
+			json.endObject();
+			writeProperties(json.name("listings"), listings);
+			json.endObject();
+		};
+	}
+
+	/**
+	 * The properties found by the property finder.
+	 * @param dataStore - the data store.
+	 * @param path - the rest of the path, must be empty.
+	 * @param parameters - the price range, the least minimum stay (nights, default 1) and the phrases separated by commas.
+	 * @return - the body.
+	 */
+	private Body search(DataStore dataStore, String path, Map<String, String> parameters) {
+		if (!path.isEmpty()) {
+			return null;
+		}
+		DataStoreView view = getView(dataStore, parameters);
+		int nights = getInt(parameters, "nights", 1);
+		if (nights < 1) {
+			throw new IllegalArgumentException("The nights must be at least 1.");
+		}
+		List<String> phrases = new ArrayList<>();
+		String text = parameters.get("phrases");
+		if (text != null && !text.isEmpty()) {
+			for (String phrase : text.split(",")) {
+				phrase = phrase.toLowerCase().trim();
+				if (!phrase.isEmpty() && !phrases.contains(phrase)) {
+					phrases.add(phrase);
+				}
+			}
+		}
+		List<Property> found = view.findProperties(nights, phrases);
+		return json -> {
+			json.beginObject();
+			json.name("version").value(dataStore.getVersion());
+			writePriceRange(json, view);
+			json.name("count").value(found.size());
+			writeProperties(json.name("listings"), found);
+			json.endObject();
+		};
+	}
+
+	/**
+	 * A listing and a summary of its host, as on the property information screen.
+	 * @param dataStore - the data store.
+	 * @param path - the rest of the path, the listing id.
+	 * @param parameters - not used.
+	 * @return - the body, null if there is no such listing.
+	 */
+	private Body listing(DataStore dataStore, String path, Map<String, String> parameters) {
+		Property property = path.isEmpty() ? null : dataStore.getProperty(path);
+		if (property == null) {
+			return null;
+		}
+		HostSummary host = dataStore.getHostSummary(property.getHostId());
+		return json -> {
+			json.beginObject();
+			json.name("version").value(dataStore.getVersion());
+			writeProperty(json.name("listing"), property);
+			json.name("host");
+			if (host == null) {
+				json.nullValue();
+			} else {
+				json.beginObject();
+				json.name("id").value(host.getHostId()).name("name").value(host.getHostName());
+				json.name("listings").value(host.getNumberOfListings()).name("boroughs").value(host.getNumberOfBoroughs());
+				json.name("nightlyRevenue").value(host.getNightlyRevenue()).name("commercial").value(host.isCommercial());
+				json.endObject();
+			}
+			json.endObject();
+		};
+	}
+
+	/**
+	 * Writes the price range of a view as two fields of the current object.
+	 * @param json - the writer.
+	 * @param view - the view.
+	 * @throws IOException - if the response could not be written.
+	 */
+	private static void writePriceRange(JsonWriter json, DataStoreView view) throws IOException {
+		json.name("minimumPrice").value(view.getMinimumPrice()).name("maximumPrice").value(view.getMaximumPrice());
+	}
+
+	/**
+	 * Get the number of properties and the cheapest and dearest price of a borough within the price range of a view.
+	 * @param view - the view.
+	 * @param borough - the name of the borough.
+	 * @return - the number of properties, cheapest and dearest price, the prices being left 0 if there is no property.
+	 */
+	private static int[] getBoroughPrices(DataStoreView view, String borough) {
+		int properties = view.getNumberOfProperties(borough);
+		if (properties == 0) {
+			return new int[3];
+		}
+		return new int[] {properties, view.getCheapestPropertyPrice(borough), view.getDearestPropertyPrice(borough)};
+	}
+
+	/**
+	 * Begins the object of a borough and writes its name, number of properties and cheapest and dearest price within the price range.
+	 * The caller writes any more fields and ends the object.
+	 * @param json - the writer.
+	 * @param borough - the name of the borough.
+	 * @param prices - the number of properties, cheapest and dearest price, see getBoroughPrices.
+	 * @throws IOException - if the response could not be written.
+	 */
+	private static void writeBorough(JsonWriter json, String borough, int[] prices) throws IOException {
+		json.beginObject();
+		json.name("name").value(borough).name("properties").value(prices[0]);
+		json.name("cheapestPrice");
+		if (prices[0] == 0) {
+			json.nullValue().name("dearestPrice").nullValue();
+		} else {
+			json.value(prices[1]).name("dearestPrice").value(prices[2]);
+		}
+	}
+
+	/**
+	 * Writes a list of properties as an array, a property at a time.
+	 * @param json - the writer.
+	 * @param properties - the properties.
+	 * @throws IOException - if the response could not be written.
+	 */
+	private static void writeProperties(JsonWriter json, List<Property> properties) throws IOException {
+		json.beginArray();
+		for (Property property : properties) {
+			writeProperty(json, property);
+		}
+		json.endArray();
+	}
+
+	/**
+	 * Writes a property as an object.
+	 * @param json - the writer.
+	 * @param property - the property, or null.
+	 * @throws IOException - if the response could not be written.
+	 */
+	private static void writeProperty(JsonWriter json, Property property) throws IOException {
+		if (property == null) {
+			json.nullValue();
+			return;
+		}
+		json.beginObject();
+		json.name("id").value(property.getId());
+		json.name("description").value(property.getDescription());
+		json.name("hostId").value(property.getHostId());
+		json.name("hostName").value(property.getHostName());
+		json.name("borough").value(property.getNeighbourhood());
+		json.name("latitude").value(property.getLatitude());
+		json.name("longitude").value(property.getLongitude());
+		json.name("roomType").value(property.getRoomType());
+		json.name("price").value(property.getPrice());
+		json.name("minimumNights").value(property.getMinimumNights());
+		json.name("numberOfReviews").value(property.getNumberOfReviews());
+		json.name("lastReview").value(property.isMissingReview() ? null : property.getLastReview());
+		json.name("reviewsPerMonth").value(property.getReviewsPerMonth());
+		json.name("hostListings").value(property.getCalculatedHostListingsCount());
+		json.name("availability365").value(property.getAvailability365());
+		json.endObject();
+	}
+}
@@ -0,0 +1,166 @@
+package application.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import application.benchmark.BenchmarkData;
+import application.engine.DataStore;
+import application.engine.DataStoreView;
+import application.property.Property;
+
+class QueryServerTest {
+
+	/**
+	 * Tests each endpoint, and the answers to a listing that does not exist and to a price which is not a number.
+	 * @throws IOException - if the server could not be reached.
+	 */
+	@Test
+	public void testQueries() throws IOException {
+		List<Property> properties = BenchmarkData.generate(2000, 7);
+		DataStore dataStore = new DataStore(properties);
+		QueryServer server = new QueryServer(() -> dataStore);
+		server.start(0);
+		try {
+			HttpURLConnection connection = get(server, "/summary?minimum=50&maximum=200", null);
+			assertEquals(200, connection.getResponseCode());
+			assertTrue(read(connection).contains("\"properties\":" + dataStore.getNumberOfProperties(50, 200) + ","));
+			connection = get(server, "/boroughs/Richmond%20upon%20Thames?maximum=100", null);
+			assertEquals(200, connection.getResponseCode());
+			assertTrue(read(connection).contains("\"name\":\"Richmond upon Thames\",\"properties\":"
+					+ dataStore.getNumberOfProperties("Richmond upon Thames", 0, 100) + ","));
+			connection = get(server, "/search?nights=60&phrases=Property%201,property%202", null);
+			assertEquals(200, connection.getResponseCode());
+			assertTrue(read(connection).contains("\"count\":" + dataStore.view(0, Integer.MAX_VALUE).findProperties(60, List.of("property 1", "property 2")).size() + ","));
+			Property property = properties.get(42);
+			connection = get(server, "/listings/" + property.getId(), null);
+			assertEquals(200, connection.getResponseCode());
+			assertTrue(read(connection).contains("\"listing\":{\"id\":\"" + property.getId() + "\",\"description\":\"Property 42\""));
+			assertEquals(404, get(server, "/listings/not-a-listing", null).getResponseCode());
+			assertEquals(404, get(server, "/boroughs/Atlantis", null).getResponseCode());
+			assertEquals(400, get(server, "/summary?minimum=cheap", null).getResponseCode());
+		} finally {
+			server.stop();
+		}
+	}
+
+	/**
+	 * Tests that a price range without any property is answered with null statistics rather than failing.
+	 * @throws IOException - if the server could not be reached.
+	 */
+	@Test
+	public void testEmptyPriceRange() throws IOException {
+		DataStore dataStore = new DataStore(BenchmarkData.generate(200, 7));
+		QueryServer server = new QueryServer(() -> dataStore);
+		server.start(0);
+		try {
+			HttpURLConnection connection = get(server, "/summary?minimum=100000&maximum=200000", null);
+			assertEquals(200, connection.getResponseCode());
+			String summary = read(connection);
+			assertTrue(summary.contains("\"properties\":0,"));
+			assertTrue(summary.contains("\"averageReviews\":null,\"priciestBorough\":null,"
+					+ "\"closestToNorthPole\":null,\"longestStay\":null,\"latestReview\":null}"));
+			connection = get(server, "/boroughs/Camden?minimum=100000&maximum=200000", null);
+			assertEquals(200, connection.getResponseCode());
+			assertTrue(read(connection).contains("\"priceSummary\":{\"median\":null,\"percentile90\":null,\"percentile99\":null,\"bins\":[]}},\"listings\":[]}"));
+		} finally {
+			server.stop();
+		}
+	}
+
+	/**
+	 * Tests that a response is not sent again while the data has not changed, and is once it has.
+	 * @throws IOException - if the server could not be reached.
+	 */
+	@Test
+	public void testConditionalGet() throws IOException {
+		AtomicReference<DataStore> dataStore = new AtomicReference<>(new DataStore(BenchmarkData.generate(200, 7)));
+		QueryServer server = new QueryServer(dataStore::get);
+		server.start(0);
+		try {
+			HttpURLConnection connection = get(server, "/boroughs", null);
+			assertEquals(200, connection.getResponseCode());
+			String tag = connection.getHeaderField("ETag");
+			read(connection);
+			connection = get(server, "/boroughs", tag);
+			assertEquals(304, connection.getResponseCode());
+			assertEquals(tag, connection.getHeaderField("ETag"));
+			dataStore.set(new DataStore(BenchmarkData.generate(200, 8)));
+			connection = get(server, "/boroughs", tag);
+			assertEquals(200, connection.getResponseCode());
+			assertNotEquals(tag, connection.getHeaderField("ETag"));
+			read(connection);
+		} finally {
+			server.stop();
+		}
+	}
+
+	/**
+	 * Tests that a response is streamed in chunks rather than built first, and that a query failing before the response is sent
+	 * is answered 500.
+	 * @throws IOException - if the server could not be reached.
+	 */
+	@Test
+	public void testStreamedResponse() throws IOException {
+		List<Property> properties = BenchmarkData.generate(2000, 7);
+		DataStore dataStore = new DataStore(properties);
+		DataStore failing = new DataStore(properties) {
+			@Override
+			public DataStoreView view(int minimumPrice, int maximumPrice) {
+				throw new IllegalStateException("The view could not be built.");
+			}
+		};
+		AtomicReference<DataStore> current = new AtomicReference<>(dataStore);
+		QueryServer server = new QueryServer(current::get);
+		server.start(0);
+		try {
+			HttpURLConnection connection = get(server, "/search", null);
+			assertEquals(200, connection.getResponseCode());
+			assertEquals("chunked", connection.getHeaderField("Transfer-Encoding"));
+			assertTrue(read(connection).contains("\"count\":" + properties.size() + ","));
+			current.set(failing);
+			assertEquals(500, get(server, "/search", null).getResponseCode());
+			assertEquals(500, get(server, "/boroughs/Camden", null).getResponseCode());
+		} finally {
+			server.stop();
+		}
+	}
+
+	/**
+	 * Sends a GET request to the server.
+	 * @param server - the server.
+	 * @param path - the path and query.
+	 * @param ifNoneMatch - the tag of the response the client has, or null.
+	 * @return - the connection, the response not read yet.
+	 * @throws IOException - if the server could not be reached.
+	 */
+	private static HttpURLConnection get(QueryServer server, String path, String ifNoneMatch) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + server.getPort() + path).openConnection();
+		if (ifNoneMatch != null) {
+			connection.setRequestProperty("If-None-Match", ifNoneMatch);
+		}
+		return connection;
+	}
+
+	/**
+	 * Reads the body of a response.
+	 * @param connection - the connection.
+	 * @return - the body.
+	 * @throws IOException - if the body could not be read.
+	 */
+	private static String read(HttpURLConnection connection) throws IOException {
+		try (InputStream in = connection.getInputStream()) {
+			return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+	}
+}